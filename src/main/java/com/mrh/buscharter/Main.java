@@ -1,7 +1,9 @@
 package com.mrh.buscharter;
 
 import com.mrh.buscharter.config.DatabaseConfig;
+import com.mrh.buscharter.event.OutboxRelay;
 import com.mrh.buscharter.service.AuthService;
+import com.mrh.buscharter.service.IndexKetersediaanUpdater;
 import com.mrh.buscharter.ui.AppTheme;
 import com.mrh.buscharter.ui.LoginDialog;
 import com.mrh.buscharter.ui.MainFrame;
@@ -27,6 +29,12 @@ public class Main {
                 // Inisialisasi database connection
                 DatabaseConfig.initialize();
                 
+                // Read-model yang diperbarui dari domain events
+                IndexKetersediaanUpdater.daftarkan();
+                
+                // Kirim ulang event outbox yang tertinggal (crash sebelum publish)
+                OutboxRelay.getInstance().mulai();
+                
                 // Inisialisasi services
                 AuthService authService = new AuthService();
                 
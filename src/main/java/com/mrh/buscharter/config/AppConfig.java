@@ -14,10 +14,53 @@ public class AppConfig {
     // Format Kode Booking
     public static final String BOOKING_CODE_PREFIX = "BOOK";
     public static final String BOOKING_CODE_FORMAT = "%s/%d/%02d/%03d"; // BOOK/2025/12/001
+    public static final int BOOKING_CODE_UKURAN_BLOK = 10; // Nomor yang direservasi per round trip database
     
     // Batas Waktu
     public static final int BUFFER_JAM_ANTAR_TRIP = 4; // Jam buffer untuk cuci bus & istirahat driver
     
+    // Index Ketersediaan (cache in-memory)
+    public static final int INDEX_KETERSEDIAAN_TTL_DETIK = 60; // Reload snapshot agar perubahan dari client lain ikut terbaca
+    public static final int INDEX_KETERSEDIAAN_JENDELA_HARI = 30; // Histori yang dimuat; query lebih lama jatuh ke database
+    
+    // EventBus async
+    public static final int EVENT_ASYNC_KAPASITAS_ANTRIAN = 1024; // Per handler; publisher kena back-pressure jika penuh
+    public static final int EVENT_IDEMPOTEN_KAPASITAS = 10_000; // Jumlah eventId terakhir yang diingat untuk dedup
+
+    // Outbox domain events
+    public static final int OUTBOX_RELAY_INTERVAL_DETIK = 5;
+    public static final int OUTBOX_RELAY_BATCH = 100;
+    public static final int OUTBOX_RELAY_TENGGANG_DETIK = 30; // Baris lebih muda dari ini masih ditangani jalur cepat
+    public static final int OUTBOX_RELAY_BATAS_TUNGGU_DETIK = 30; // Tunggu handler async per batch relay
+    public static final int OUTBOX_RELAY_MAKS_JEDA_DETIK = 3600; // Jeda maksimal pengiriman ulang event yang gagal
+    public static final int OUTBOX_RETENSI_HARI = 7;
+
+    // Batch JDBC (hibernate.jdbc.batch_size dan interval flush saveAll)
+    public static final int JDBC_BATCH_SIZE = 50;
+
+    // Connection pool (default; bisa ditimpa di application.properties)
+    public static final long POOL_CONNECTION_TIMEOUT_MS = 30_000;
+    public static final long POOL_LEAK_DETECTION_MS = 0; // 0 = mati; Hikari menerima minimal 2000
+    public static final int PGJDBC_PREPARE_THRESHOLD = 5; // Eksekusi sebelum statement menjadi server-side prepared
+    public static final int PGJDBC_CACHE_STATEMENT = 256; // Statement yang di-cache per koneksi
+    public static final int PGJDBC_CACHE_STATEMENT_MIB = 5;
+    public static final int POOL_ADAPTIF_BATAS_ATAS = 30;
+    public static final long POOL_ADAPTIF_TARGET_TUNGGU_MS = 10; // Target waktu tunggu koneksi p95
+    public static final int POOL_ADAPTIF_INTERVAL_DETIK = 10;
+
+    // Metrik query repository (ambang dan interval bisa ditimpa di application.properties)
+    public static final long QUERY_AMBANG_LAMBAT_MS = 500; // Query selama ini ke atas ditulis ke log query lambat
+    public static final int QUERY_METRIK_INTERVAL_LOG_DETIK = 300; // Ringkasan p50/p95/p99 ke log, 0 = mati
+
+    // Laporan batch
+    public static final int LAPORAN_BATCH_UKURAN_CHUNK = 200; // Booking yang di-prefetch per putaran query
+    public static final int LAPORAN_BATCH_MAKS_THREAD = 4; // Worker fill paralel (dibatasi jumlah CPU)
+
+    // Virtualizer laporan (fill report besar dengan heap tetap)
+    public static final int LAPORAN_VIRTUALIZER_MAKS_HALAMAN = 50; // Halaman yang ditahan di memori, sisanya ke disk
+    public static final int LAPORAN_SWAP_UKURAN_BLOK = 2048; // Byte per blok file swap
+    public static final int LAPORAN_SWAP_PERTUMBUHAN = 1024; // Blok ditambahkan setiap file swap penuh
+
     // UI Settings
     public static final int DEFAULT_FONT_SIZE = 13;
     public static final int TABLE_ROW_HEIGHT = 32;
@@ -1,10 +1,13 @@
 package com.mrh.buscharter.config;
 
+import com.mrh.buscharter.repository.MetrikQuery;
+import com.mrh.buscharter.repository.PemeriksaSql;
 import com.zaxxer.hikari.HikariConfig;
 import com.zaxxer.hikari.HikariDataSource;
 import jakarta.persistence.EntityManager;
 import jakarta.persistence.EntityManagerFactory;
 import jakarta.persistence.Persistence;
+import org.hibernate.SessionFactory;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
@@ -24,6 +27,8 @@ public class DatabaseConfig {
     private static final Logger logger = LoggerFactory.getLogger(DatabaseConfig.class);
     private static EntityManagerFactory entityManagerFactory;
     private static HikariDataSource dataSource;
+    private static MetrikPool metrikPool;
+    private static PengaturPoolAdaptif pengaturPool;
     
     private DatabaseConfig() {
         // Private constructor untuk singleton pattern
@@ -34,18 +39,40 @@ public class DatabaseConfig {
      * Harus dipanggil sekali saat aplikasi startup.
      */
     public static void initialize() {
+        Properties props;
+        try {
+            props = loadProperties();
+        } catch (IOException e) {
+            logger.error("Gagal inisialisasi database", e);
+            throw new RuntimeException("Gagal inisialisasi database: " + e.getMessage(), e);
+        }
+        initialize(props);
+    }
+    
+    /**
+     * Inisialisasi koneksi database dengan properties yang diberikan
+     * (key sama dengan application.properties), mis. untuk benchmark.
+     */
+    public static void initialize(Properties props) {
         if (entityManagerFactory != null && entityManagerFactory.isOpen()) {
             logger.warn("Database sudah diinisialisasi");
             return;
         }
         
         try {
-            Properties props = loadProperties();
             setupDataSource(props);
+            // Migrasi yang gagal menghentikan start; skema yang setengah jadi baru ketahuan saat runtime
+            MigrasiSkema.jalankan(dataSource);
             setupEntityManagerFactory(props);
+            MetrikQuery.getInstance().mulai(
+                Long.parseLong(props.getProperty("metrik.query.ambang-lambat-ms",
+                    String.valueOf(AppConfig.QUERY_AMBANG_LAMBAT_MS))),
+                Integer.parseInt(props.getProperty("metrik.query.interval-log-detik",
+                    String.valueOf(AppConfig.QUERY_METRIK_INTERVAL_LOG_DETIK))));
             logger.info("Database berhasil diinisialisasi");
         } catch (Exception e) {
             logger.error("Gagal inisialisasi database", e);
+            shutdown();
             throw new RuntimeException("Gagal inisialisasi database: " + e.getMessage(), e);
         }
     }
@@ -96,17 +123,49 @@ public class DatabaseConfig {
         config.setDriverClassName("org.postgresql.Driver");
         
         // Pool settings
-        config.setMaximumPoolSize(Integer.parseInt(
-            props.getProperty("hikari.maximum-pool-size", "10")));
+        int ukuranPool = Integer.parseInt(props.getProperty("hikari.maximum-pool-size", "10"));
+        config.setMaximumPoolSize(ukuranPool);
         config.setMinimumIdle(Integer.parseInt(
             props.getProperty("hikari.minimum-idle", "2")));
         config.setIdleTimeout(Long.parseLong(
             props.getProperty("hikari.idle-timeout", "30000")));
-        config.setConnectionTimeout(30000);
+        config.setConnectionTimeout(Long.parseLong(props.getProperty("hikari.connection-timeout",
+            String.valueOf(AppConfig.POOL_CONNECTION_TIMEOUT_MS))));
+        // Peringatan (dengan stack trace peminjam) jika koneksi dipinjam lebih lama dari ini
+        config.setLeakDetectionThreshold(Long.parseLong(props.getProperty("hikari.leak-detection-threshold",
+            String.valueOf(AppConfig.POOL_LEAK_DETECTION_MS))));
         config.setPoolName("MRH-HikariPool");
         
+        // Metrik pool: JMX Hikari (com.zaxxer.hikari:type=Pool) dan MetrikPool (waktu tunggu)
+        config.setRegisterMbeans(Boolean.parseBoolean(props.getProperty("hikari.register-mbeans", "true")));
+        metrikPool = new MetrikPool();
+        config.setMetricsTrackerFactory(metrikPool);
+        
+        // Driver PostgreSQL menggabungkan batch INSERT menjadi multi-row INSERT
+        config.addDataSourceProperty("reWriteBatchedInserts", "true");
+        
+        // Cache prepared statement per koneksi di driver PostgreSQL
+        config.addDataSourceProperty("prepareThreshold", props.getProperty("pgjdbc.prepare-threshold",
+            String.valueOf(AppConfig.PGJDBC_PREPARE_THRESHOLD)));
+        config.addDataSourceProperty("preparedStatementCacheQueries", props.getProperty(
+            "pgjdbc.prepared-statement-cache-queries", String.valueOf(AppConfig.PGJDBC_CACHE_STATEMENT)));
+        config.addDataSourceProperty("preparedStatementCacheSizeMiB", props.getProperty(
+            "pgjdbc.prepared-statement-cache-size-mib", String.valueOf(AppConfig.PGJDBC_CACHE_STATEMENT_MIB)));
+        
         dataSource = new HikariDataSource(config);
+        metrikPool.daftarkanJmx();
         logger.info("HikariCP DataSource berhasil dibuat");
+        
+        if (Boolean.parseBoolean(props.getProperty("hikari.adaptif", "false"))) {
+            pengaturPool = new PengaturPoolAdaptif(dataSource.getHikariConfigMXBean(), metrikPool,
+                Integer.parseInt(props.getProperty("hikari.adaptif.batas-bawah", String.valueOf(ukuranPool))),
+                Integer.parseInt(props.getProperty("hikari.adaptif.batas-atas",
+                    String.valueOf(Math.max(ukuranPool, AppConfig.POOL_ADAPTIF_BATAS_ATAS)))),
+                Long.parseLong(props.getProperty("hikari.adaptif.target-tunggu-ms",
+                    String.valueOf(AppConfig.POOL_ADAPTIF_TARGET_TUNGGU_MS))));
+            pengaturPool.mulai(Integer.parseInt(props.getProperty("hikari.adaptif.interval-detik",
+                String.valueOf(AppConfig.POOL_ADAPTIF_INTERVAL_DETIK))));
+        }
     }
     
     /**
@@ -120,6 +179,30 @@ public class DatabaseConfig {
         jpaProps.put("hibernate.hbm2ddl.auto", props.getProperty("hibernate.hbm2ddl.auto", "validate"));
         jpaProps.put("hibernate.connection.datasource", dataSource);
         
+        // Batch JDBC: insert/update dikirim per batch, diurutkan per entity agar batch tidak terpotong
+        jpaProps.put("hibernate.jdbc.batch_size", props.getProperty("hibernate.jdbc.batch_size",
+            String.valueOf(AppConfig.JDBC_BATCH_SIZE)));
+        jpaProps.put("hibernate.order_inserts", "true");
+        jpaProps.put("hibernate.order_updates", "true");
+        jpaProps.put("hibernate.jdbc.batch_versioned_data", "true");
+        
+        // Pre-alokasi ID sequence (allocationSize di entity); jika INCREMENT BY sequence di
+        // database berbeda, ikuti nilai database daripada gagal start
+        jpaProps.put("hibernate.id.optimizer.pooled.preferred", "pooled");
+        jpaProps.put("hibernate.id.sequence.increment_size_mismatch_strategy", "FIX");
+        
+        // Second-level cache + query cache (Caffeine lewat JCache); region dan TTL di application.conf
+        String cacheAktif = props.getProperty("hibernate.cache.use_second_level_cache", "true");
+        jpaProps.put("hibernate.cache.use_second_level_cache", cacheAktif);
+        jpaProps.put("hibernate.cache.use_query_cache", cacheAktif);
+        jpaProps.put("hibernate.cache.region.factory_class", "jcache");
+        jpaProps.put("hibernate.javax.cache.provider",
+            "com.github.benmanes.caffeine.jcache.spi.CaffeineCachingProvider");
+        jpaProps.put("hibernate.javax.cache.missing_cache_strategy", "create-warn");
+        
+        // SQL tiap operasi repository diingat untuk log query lambat (MetrikQuery)
+        jpaProps.put("hibernate.session_factory.statement_inspector", PemeriksaSql.INSTANCE);
+        
         entityManagerFactory = Persistence.createEntityManagerFactory("mrh-buscharter", jpaProps);
         logger.info("EntityManagerFactory berhasil dibuat");
     }
@@ -135,6 +218,24 @@ public class DatabaseConfig {
         return entityManagerFactory.createEntityManager();
     }
     
+    /**
+     * Buang satu entity dari second-level cache (mis. setelah data diubah).
+     */
+    public static void evictCache(Class<?> entityClass, Object id) {
+        if (entityManagerFactory != null && entityManagerFactory.isOpen()) {
+            entityManagerFactory.getCache().evict(entityClass, id);
+        }
+    }
+    
+    /**
+     * Buang semua hasil query cache di region tertentu.
+     */
+    public static void evictQueryRegion(String region) {
+        if (entityManagerFactory != null && entityManagerFactory.isOpen()) {
+            entityManagerFactory.unwrap(SessionFactory.class).getCache().evictQueryRegion(region);
+        }
+    }
+    
     /**
      * Mendapatkan DataSource untuk keperluan khusus.
      */
@@ -142,15 +243,30 @@ public class DatabaseConfig {
         return dataSource;
     }
     
+    /**
+     * Metrik connection pool (waktu tunggu, koneksi aktif/idle), null sebelum initialize().
+     */
+    public static MetrikPool getMetrikPool() {
+        return metrikPool;
+    }
+    
     /**
      * Menutup semua koneksi database.
      * Dipanggil saat aplikasi shutdown.
      */
     public static void shutdown() {
+        MetrikQuery.getInstance().hentikan();
         if (entityManagerFactory != null && entityManagerFactory.isOpen()) {
             entityManagerFactory.close();
             logger.info("EntityManagerFactory ditutup");
         }
+        if (pengaturPool != null) {
+            pengaturPool.hentikan();
+            pengaturPool = null;
+        }
+        if (metrikPool != null) {
+            metrikPool.lepasJmx();
+        }
         if (dataSource != null && !dataSource.isClosed()) {
             dataSource.close();
             logger.info("DataSource ditutup");
@@ -0,0 +1,195 @@
+package com.mrh.buscharter.config;
+
+import com.mrh.buscharter.repository.HistogramLatensi;
+import com.zaxxer.hikari.metrics.IMetricsTracker;
+import com.zaxxer.hikari.metrics.MetricsTrackerFactory;
+import com.zaxxer.hikari.metrics.PoolStats;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import javax.management.JMException;
+import javax.management.MBeanServer;
+import javax.management.ObjectName;
+import java.lang.management.ManagementFactory;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Metrics tracker HikariCP: waktu tunggu koneksi, lama pemakaian, timeout, dan jumlah
+ * koneksi aktif/idle. Dipasang lewat HikariConfig.setMetricsTrackerFactory dan diekspor ke JMX.
+ *
+ * Selain histogram kumulatif, waktu tunggu juga dicatat per jendela (diambil dan dikosongkan
+ * oleh PengaturPoolAdaptif) bersama puncak koneksi yang dipinjam bersamaan.
+ */
+public final class MetrikPool implements MetricsTrackerFactory, IMetricsTracker, MetrikPoolMXBean {
+
+    private static final Logger logger = LoggerFactory.getLogger(MetrikPool.class);
+    private static final String NAMA_JMX = "com.mrh.buscharter:type=MetrikPool";
+
+    private final HistogramLatensi tunggu = new HistogramLatensi();
+    private final HistogramLatensi pemakaian = new HistogramLatensi();
+    private final AtomicReference<HistogramLatensi> tungguJendela = new AtomicReference<>(new HistogramLatensi());
+    private final LongAdder timeout = new LongAdder();
+    private final LongAdder timeoutJendela = new LongAdder();
+    private final LongAdder koneksiDibuat = new LongAdder();
+    private final AtomicInteger dipinjam = new AtomicInteger();
+    private final AtomicInteger puncakDipinjam = new AtomicInteger();
+    private volatile PoolStats poolStats;
+    private ObjectName namaJmx;
+
+    /**
+     * Snapshot satu jendela pengamatan untuk pengaturan ukuran pool.
+     *
+     * @param jumlahTunggu Jumlah koneksi yang diambil selama jendela
+     * @param p95TungguMs Waktu tunggu persentil 95 selama jendela
+     * @param puncakDipinjam Koneksi terbanyak yang dipinjam bersamaan selama jendela
+     * @param timeout Jumlah permintaan koneksi yang gagal karena connectionTimeout
+     */
+    public record JendelaPool(long jumlahTunggu, double p95TungguMs, int puncakDipinjam, long timeout) {
+    }
+
+    @Override
+    public IMetricsTracker create(String poolName, PoolStats poolStats) {
+        this.poolStats = poolStats;
+        return this;
+    }
+
+    @Override
+    public void recordConnectionAcquiredNanos(long elapsedAcquiredNanos) {
+        tunggu.catat(elapsedAcquiredNanos);
+        tungguJendela.get().catat(elapsedAcquiredNanos);
+        int sekarang = dipinjam.incrementAndGet();
+        puncakDipinjam.accumulateAndGet(sekarang, Math::max);
+    }
+
+    @Override
+    public void recordConnectionUsageMillis(long elapsedBorrowedMillis) {
+        pemakaian.catat(TimeUnit.MILLISECONDS.toNanos(elapsedBorrowedMillis));
+        dipinjam.decrementAndGet();
+    }
+
+    @Override
+    public void recordConnectionTimeout() {
+        timeout.increment();
+        timeoutJendela.increment();
+    }
+
+    @Override
+    public void recordConnectionCreatedMillis(long connectionCreatedMillis) {
+        koneksiDibuat.increment();
+    }
+
+    @Override
+    public void close() {
+        lepasJmx();
+    }
+
+    /**
+     * Ambil metrik jendela berjalan lalu mulai jendela baru.
+     */
+    public JendelaPool ambilJendela() {
+        HistogramLatensi selesai = tungguJendela.getAndSet(new HistogramLatensi());
+        int puncak = puncakDipinjam.getAndSet(dipinjam.get());
+        return new JendelaPool(selesai.getJumlah(), keMs(selesai.persentil(95)), puncak,
+            timeoutJendela.sumThenReset());
+    }
+
+    public synchronized void daftarkanJmx() {
+        if (namaJmx != null) {
+            return;
+        }
+        try {
+            MBeanServer server = ManagementFactory.getPlatformMBeanServer();
+            ObjectName nama = new ObjectName(NAMA_JMX);
+            if (server.isRegistered(nama)) {
+                server.unregisterMBean(nama);
+            }
+            server.registerMBean(this, nama);
+            namaJmx = nama;
+        } catch (JMException e) {
+            logger.warn("Gagal mendaftarkan metrik pool ke JMX: {}", e.getMessage());
+        }
+    }
+
+    public synchronized void lepasJmx() {
+        if (namaJmx != null) {
+            try {
+                ManagementFactory.getPlatformMBeanServer().unregisterMBean(namaJmx);
+            } catch (JMException e) {
+                logger.debug("Gagal melepas metrik pool dari JMX: {}", e.getMessage());
+            }
+            namaJmx = null;
+        }
+    }
+
+    @Override
+    public int getKoneksiAktif() {
+        PoolStats stats = poolStats;
+        return stats == null ? 0 : stats.getActiveConnections();
+    }
+
+    @Override
+    public int getKoneksiIdle() {
+        PoolStats stats = poolStats;
+        return stats == null ? 0 : stats.getIdleConnections();
+    }
+
+    @Override
+    public int getTotalKoneksi() {
+        PoolStats stats = poolStats;
+        return stats == null ? 0 : stats.getTotalConnections();
+    }
+
+    @Override
+    public int getThreadMenunggu() {
+        PoolStats stats = poolStats;
+        return stats == null ? 0 : stats.getPendingThreads();
+    }
+
+    @Override
+    public int getUkuranMaksimum() {
+        PoolStats stats = poolStats;
+        return stats == null ? 0 : stats.getMaxConnections();
+    }
+
+    @Override
+    public double getTungguP50Ms() {
+        return keMs(tunggu.persentil(50));
+    }
+
+    @Override
+    public double getTungguP95Ms() {
+        return keMs(tunggu.persentil(95));
+    }
+
+    @Override
+    public double getTungguP99Ms() {
+        return keMs(tunggu.persentil(99));
+    }
+
+    @Override
+    public double getTungguMaksMs() {
+        return keMs(tunggu.getMaks());
+    }
+
+    @Override
+    public double getPemakaianP95Ms() {
+        return keMs(pemakaian.persentil(95));
+    }
+
+    @Override
+    public long getJumlahTimeout() {
+        return timeout.sum();
+    }
+
+    @Override
+    public long getKoneksiDibuat() {
+        return koneksiDibuat.sum();
+    }
+
+    private static double keMs(long nanos) {
+        return nanos / 1_000_000.0;
+    }
+}
@@ -0,0 +1,38 @@
+package com.mrh.buscharter.config;
+
+/**
+ * Antarmuka JMX metrik connection pool (ObjectName com.mrh.buscharter:type=MetrikPool).
+ * Waktu tunggu dihitung sejak aplikasi start, bukan per jendela adaptif.
+ */
+public interface MetrikPoolMXBean {
+
+    int getKoneksiAktif();
+
+    int getKoneksiIdle();
+
+    int getTotalKoneksi();
+
+    int getThreadMenunggu();
+
+    int getUkuranMaksimum();
+
+    /**
+     * Waktu menunggu koneksi dari pool pada persentil 50 (ms).
+     */
+    double getTungguP50Ms();
+
+    double getTungguP95Ms();
+
+    double getTungguP99Ms();
+
+    double getTungguMaksMs();
+
+    /**
+     * Lama koneksi dipinjam sebelum dikembalikan, persentil 95 (ms).
+     */
+    double getPemakaianP95Ms();
+
+    long getJumlahTimeout();
+
+    long getKoneksiDibuat();
+}
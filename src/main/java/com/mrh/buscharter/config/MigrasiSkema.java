@@ -0,0 +1,215 @@
+package com.mrh.buscharter.config;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import javax.sql.DataSource;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+import java.util.zip.CRC32;
+
+/**
+ * Migrasi skema berversi dari db/migrasi/V&lt;n&gt;__&lt;deskripsi&gt;.sql.
+ *
+ * Dipanggil DatabaseConfig sebelum EntityManagerFactory dibuat (hbm2ddl=validate tidak membuat
+ * tabel maupun index). Tiap migrasi dijalankan sekali dalam satu transaksi lalu dicatat di
+ * schema_migration beserta checksum. Migrasi yang gagal di-rollback dan start dihentikan
+ * (IllegalStateException): tabel yang dipakai kode tetapi bukan entity, seperti outbox, tidak
+ * tertangkap hbm2ddl=validate. Instance yang start bersamaan diserialkan dengan advisory lock.
+ *
+ * DDL yang tidak bergantung data (tabel baru, sequence) diurutkan sebelum index/constraint yang
+ * bisa gagal karena data lama (V7 kode booking kembar, V8 double booking).
+ */
+public final class MigrasiSkema {
+
+    private static final Logger logger = LoggerFactory.getLogger(MigrasiSkema.class);
+
+    // Urut versi. Migrasi baru ditambahkan di akhir; file yang sudah diterapkan jangan diubah
+    static final String[] DAFTAR = {
+        "db/migrasi/V1__trips_id_seq.sql",
+        "db/migrasi/V2__booking_ledger.sql",
+        "db/migrasi/V3__booking_code_counter.sql",
+        "db/migrasi/V4__index_query.sql",
+        "db/migrasi/V5__domain_event_outbox.sql",
+        "db/migrasi/V6__trip_assignments_id_seq.sql",
+        "db/migrasi/V7__uq_bookings_tenant_code.sql",
+        "db/migrasi/V8__trip_assignments_exclusion.sql",
+        "db/migrasi/V9__domain_event_outbox_percobaan.sql"
+    };
+
+    private static final long KUNCI_ADVISORY = 0x4D52485F4D4947L;
+    private static final Pattern NAMA_FILE = Pattern.compile("V(\\d+)__(\\w+)\\.sql");
+    private static final Pattern TAG_DOLLAR = Pattern.compile("\\$[A-Za-z_]*\\$");
+
+    private static final String DDL_TABEL =
+        "CREATE TABLE IF NOT EXISTS schema_migration (" +
+        "version INT PRIMARY KEY, " +
+        "description VARCHAR(200) NOT NULL, " +
+        "checksum BIGINT NOT NULL, " +
+        "applied_at TIMESTAMP NOT NULL DEFAULT now(), " +
+        "duration_ms BIGINT NOT NULL)";
+
+    private MigrasiSkema() {
+    }
+
+    /**
+     * Terapkan semua migrasi yang belum tercatat, berurutan.
+     *
+     * @throws IllegalStateException jika migrasi tidak bisa dibaca atau gagal diterapkan;
+     *         migrasi sesudahnya tidak dijalankan
+     */
+    public static void jalankan(DataSource dataSource) {
+        try (Connection connection = dataSource.getConnection()) {
+            try (Statement st = connection.createStatement()) {
+                st.execute("SELECT pg_advisory_lock(" + KUNCI_ADVISORY + ")");
+            }
+            try {
+                try (Statement st = connection.createStatement()) {
+                    st.execute(DDL_TABEL);
+                }
+                Map<Integer, Long> terapan = bacaTerapan(connection);
+                for (String resource : DAFTAR) {
+                    terapkan(connection, resource, terapan);
+                }
+            } finally {
+                try (Statement st = connection.createStatement()) {
+                    st.execute("SELECT pg_advisory_unlock(" + KUNCI_ADVISORY + ")");
+                }
+            }
+        } catch (SQLException e) {
+            throw new IllegalStateException("Migrasi skema tidak dijalankan: " + e.getMessage(), e);
+        }
+    }
+
+    private static void terapkan(Connection connection, String resource,
+                                    Map<Integer, Long> terapan) throws SQLException {
+        Matcher nama = NAMA_FILE.matcher(resource.substring(resource.lastIndexOf('/') + 1));
+        if (!nama.matches()) {
+            throw new IllegalArgumentException("Nama migrasi tidak valid: " + resource);
+        }
+        int versi = Integer.parseInt(nama.group(1));
+
+        String skrip;
+        try (InputStream is = MigrasiSkema.class.getClassLoader().getResourceAsStream(resource)) {
+            if (is == null) {
+                throw new IllegalStateException("Migrasi " + resource + " tidak ditemukan di classpath");
+            }
+            skrip = new String(is.readAllBytes(), StandardCharsets.UTF_8);
+        } catch (IOException e) {
+            throw new IllegalStateException("Gagal membaca migrasi " + resource + ": " + e.getMessage(), e);
+        }
+        CRC32 crc = new CRC32();
+        crc.update(skrip.getBytes(StandardCharsets.UTF_8));
+        long checksum = crc.getValue();
+
+        Long tercatat = terapan.get(versi);
+        if (tercatat != null) {
+            if (tercatat != checksum) {
+                logger.warn("Migrasi {} sudah diterapkan tapi isinya berubah (checksum berbeda)", resource);
+            }
+            return;
+        }
+
+        long mulai = System.nanoTime();
+        connection.setAutoCommit(false);
+        try (Statement st = connection.createStatement()) {
+            for (String perintah : pecahPerintah(skrip)) {
+                st.execute(perintah);
+            }
+            try (PreparedStatement ps = connection.prepareStatement(
+                    "INSERT INTO schema_migration (version, description, checksum, duration_ms) " +
+                    "VALUES (?, ?, ?, ?)")) {
+                ps.setInt(1, versi);
+                ps.setString(2, nama.group(2).replace('_', ' '));
+                ps.setLong(3, checksum);
+                ps.setLong(4, (System.nanoTime() - mulai) / 1_000_000);
+                ps.executeUpdate();
+            }
+            connection.commit();
+            logger.info("Migrasi {} diterapkan ({} ms)", resource, (System.nanoTime() - mulai) / 1_000_000);
+        } catch (SQLException e) {
+            connection.rollback();
+            throw new IllegalStateException("Migrasi " + resource + " gagal: " + e.getMessage(), e);
+        } finally {
+            connection.setAutoCommit(true);
+        }
+    }
+
+    private static Map<Integer, Long> bacaTerapan(Connection connection) throws SQLException {
+        Map<Integer, Long> hasil = new HashMap<>();
+        try (Statement st = connection.createStatement();
+             ResultSet rs = st.executeQuery("SELECT version, checksum FROM schema_migration")) {
+            while (rs.next()) {
+                hasil.put(rs.getInt(1), rs.getLong(2));
+            }
+        }
+        return hasil;
+    }
+
+    /**
+     * Pecah script menjadi perintah per ';', mengabaikan komentar '--' dan ';' di dalam
+     * string '...' atau blok $$ ... $$ (body fungsi plpgsql).
+     */
+    static List<String> pecahPerintah(String skrip) {
+        List<String> hasil = new ArrayList<>();
+        StringBuilder perintah = new StringBuilder();
+        String tagDollar = null;
+        boolean dalamString = false;
+        int i = 0;
+        while (i < skrip.length()) {
+            char c = skrip.charAt(i);
+            if (tagDollar != null) {
+                if (skrip.startsWith(tagDollar, i)) {
+                    perintah.append(tagDollar);
+                    i += tagDollar.length();
+                    tagDollar = null;
+                    continue;
+                }
+            } else if (dalamString) {
+                dalamString = c != '\'';
+            } else if (c == '\'') {
+                dalamString = true;
+            } else if (c == '-' && skrip.startsWith("--", i)) {
+                int akhirBaris = skrip.indexOf('\n', i);
+                i = akhirBaris < 0 ? skrip.length() : akhirBaris;
+                continue;
+            } else if (c == '$') {
+                Matcher tag = TAG_DOLLAR.matcher(skrip).region(i, skrip.length());
+                if (tag.lookingAt()) {
+                    tagDollar = tag.group();
+                    perintah.append(tagDollar);
+                    i = tag.end();
+                    continue;
+                }
+            } else if (c == ';') {
+                tambahPerintah(hasil, perintah);
+                i++;
+                continue;
+            }
+            perintah.append(c);
+            i++;
+        }
+        tambahPerintah(hasil, perintah);
+        return hasil;
+    }
+
+    private static void tambahPerintah(List<String> hasil, StringBuilder perintah) {
+        String s = perintah.toString().strip();
+        if (!s.isEmpty()) {
+            hasil.add(s);
+        }
+        perintah.setLength(0);
+    }
+}
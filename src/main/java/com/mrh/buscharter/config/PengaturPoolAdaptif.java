@@ -0,0 +1,118 @@
+package com.mrh.buscharter.config;
+
+import com.zaxxer.hikari.HikariConfigMXBean;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Mode adaptif connection pool: setiap interval, ukuran maksimum pool disesuaikan dari
+ * waktu tunggu koneksi persentil 95 pada jendela terakhir (MetrikPool).
+ *
+ * - Pool jenuh (p95 tunggu di atas target dan semua koneksi terpakai, atau ada timeout):
+ *   tambah 25% (minimal 1), paling besar batasAtas
+ * - Pool longgar (p95 tunggu di bawah seperempat target dan puncak pemakaian menyisakan
+ *   lebih dari satu koneksi): kurangi 1, paling kecil batasBawah
+ *
+ * Naik cepat dan turun pelan agar ukuran tidak berayun. Tunggu tinggi saat koneksi belum
+ * terpakai semua (mis. membuat koneksi baru lambat) tidak menambah ukuran.
+ * Perubahan lewat HikariConfigMXBean; koneksi berlebih ditutup Hikari setelah idle-timeout.
+ */
+public final class PengaturPoolAdaptif {
+
+    private static final Logger logger = LoggerFactory.getLogger(PengaturPoolAdaptif.class);
+
+    private final HikariConfigMXBean konfigurasi;
+    private final MetrikPool metrik;
+    private final int batasBawah;
+    private final int batasAtas;
+    private final double targetTungguMs;
+    private ScheduledExecutorService scheduler;
+
+    public PengaturPoolAdaptif(HikariConfigMXBean konfigurasi, MetrikPool metrik, int batasBawah,
+                               int batasAtas, long targetTungguMs) {
+        if (batasBawah < 1 || batasAtas < batasBawah) {
+            throw new IllegalArgumentException(
+                "Batas pool adaptif tidak valid: bawah " + batasBawah + ", atas " + batasAtas);
+        }
+        if (targetTungguMs < 1) {
+            throw new IllegalArgumentException("Target waktu tunggu pool minimal 1 ms");
+        }
+        this.konfigurasi = konfigurasi;
+        this.metrik = metrik;
+        this.batasBawah = batasBawah;
+        this.batasAtas = batasAtas;
+        this.targetTungguMs = targetTungguMs;
+    }
+
+    public synchronized void mulai(int intervalDetik) {
+        if (scheduler != null) {
+            return;
+        }
+        metrik.ambilJendela(); // Buang tunggu selama start (migrasi, pengisian pool awal)
+        scheduler = Executors.newSingleThreadScheduledExecutor(r -> {
+            Thread t = new Thread(r, "pool-adaptif");
+            t.setDaemon(true);
+            return t;
+        });
+        scheduler.scheduleWithFixedDelay(this::jalankan, intervalDetik, intervalDetik, TimeUnit.SECONDS);
+        logger.info("Pool adaptif berjalan setiap {} detik, ukuran {}-{}, target tunggu p95 {} ms",
+            intervalDetik, batasBawah, batasAtas, targetTungguMs);
+    }
+
+    public synchronized void hentikan() {
+        if (scheduler != null) {
+            scheduler.shutdownNow();
+            scheduler = null;
+        }
+    }
+
+    /**
+     * Satu putaran penyesuaian.
+     *
+     * @return Ukuran maksimum pool setelah penyesuaian
+     */
+    int sesuaikan() {
+        MetrikPool.JendelaPool jendela = metrik.ambilJendela();
+        int ukuran = konfigurasi.getMaximumPoolSize();
+        int baru = ukuranBaru(ukuran, batasBawah, batasAtas, targetTungguMs, jendela);
+        if (baru != ukuran) {
+            if (konfigurasi.getMinimumIdle() > baru) {
+                konfigurasi.setMinimumIdle(baru);
+            }
+            konfigurasi.setMaximumPoolSize(baru);
+            logger.info("Ukuran pool {} -> {} (tunggu p95 {} ms, puncak dipinjam {}, timeout {})",
+                ukuran, baru, String.format("%.1f", jendela.p95TungguMs()), jendela.puncakDipinjam(),
+                jendela.timeout());
+        }
+        return baru;
+    }
+
+    static int ukuranBaru(int ukuran, int batasBawah, int batasAtas, double targetTungguMs,
+                          MetrikPool.JendelaPool jendela) {
+        boolean jenuh = jendela.timeout() > 0
+            || (jendela.p95TungguMs() > targetTungguMs && jendela.puncakDipinjam() >= ukuran);
+        boolean longgar = jendela.timeout() == 0
+            && jendela.p95TungguMs() <= targetTungguMs / 4
+            && jendela.puncakDipinjam() < ukuran - 1;
+        int baru = ukuran;
+        if (jenuh) {
+            baru = ukuran + Math.max(1, ukuran / 4);
+        } else if (longgar) {
+            baru = ukuran - 1;
+        }
+        return Math.max(batasBawah, Math.min(batasAtas, baru));
+    }
+
+    private void jalankan() {
+        try {
+            sesuaikan();
+        } catch (RuntimeException e) {
+            // Jangan sampai scheduler berhenti karena pool sedang ditutup
+            logger.error("Pool adaptif gagal: {}", e.getMessage());
+        }
+    }
+}
@@ -0,0 +1,254 @@
+package com.mrh.buscharter.event;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.time.Duration;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.LockSupport;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * Pembungkus handler async: ring buffer sendiri + satu worker thread.
+ *
+ * Satu worker per handler sehingga event dengan tipe yang sama di-handle berurutan
+ * sesuai urutan publish, dan handler lambat tidak menahan handler lain.
+ * Eksekusi handler diserialkan lewat lock agar CALLER_RUNS tetap menjaga urutan.
+ */
+final class AsyncHandler<T extends DomainEvent> implements EventHandler<T> {
+
+    private static final Logger logger = LoggerFactory.getLogger(AsyncHandler.class);
+    private static final AtomicInteger NOMOR = new AtomicInteger();
+    private static final long PARK_WORKER_NANOS = TimeUnit.MILLISECONDS.toNanos(10);
+    private static final long PARK_PUBLISHER_NANOS = TimeUnit.MICROSECONDS.toNanos(50);
+
+    private final Class<T> eventType;
+    private final EventHandler<T> handler;
+    private final OpsiAsync opsi;
+    private final String nama;
+    private final RingBuffer<Antrian<T>> antrian;
+    private final ReentrantLock kunciEksekusi = new ReentrantLock();
+    private final Thread worker;
+
+    private volatile boolean aktif = true;
+    private volatile boolean menunggu;
+
+    // Metrik
+    private final AtomicLong diproses = new AtomicLong();
+    private final AtomicLong gagal = new AtomicLong();
+    private final AtomicLong dibuang = new AtomicLong();
+    private final AtomicLong dijalankanPemanggil = new AtomicLong();
+    private final AtomicLong totalLatensiNanos = new AtomicLong();
+    private final AtomicLong maksLatensiNanos = new AtomicLong();
+    private final AtomicLong totalTungguNanos = new AtomicLong();
+    private final AtomicInteger puncakAntrian = new AtomicInteger();
+
+    AsyncHandler(Class<T> eventType, EventHandler<T> handler, OpsiAsync opsi) {
+        this.eventType = eventType;
+        this.handler = handler;
+        this.opsi = opsi;
+        this.nama = "event-" + eventType.getSimpleName() + "-" + NOMOR.incrementAndGet();
+        this.antrian = new RingBuffer<>(opsi.kapasitasAntrian());
+
+        Thread.Builder builder = opsi.virtualThread()
+            ? Thread.ofVirtual().name(nama)
+            : Thread.ofPlatform().daemon().name(nama);
+        this.worker = builder.start(this::jalankanWorker);
+    }
+
+    /**
+     * Dipanggil EventBus.publish: masukkan event ke antrian sesuai strategi back-pressure.
+     */
+    @Override
+    public void handle(T event) {
+        masukkan(new Antrian<>(event, System.nanoTime(), null));
+    }
+
+    /**
+     * Dipanggil EventBus.kirim: seperti handle, tetapi hasil handler dilaporkan.
+     *
+     * @return Selesai setelah handler berjalan; gagal jika handler melempar exception
+     *         atau event dibuang karena antrian penuh (DROP)
+     */
+    CompletableFuture<Void> terima(T event) {
+        CompletableFuture<Void> selesai = new CompletableFuture<>();
+        if (!masukkan(new Antrian<>(event, System.nanoTime(), selesai))) {
+            selesai.completeExceptionally(new IllegalStateException("Antrian " + nama + " penuh, event dibuang"));
+        }
+        return selesai;
+    }
+
+    /**
+     * @return false jika event dibuang (DROP)
+     */
+    private boolean masukkan(Antrian<T> item) {
+        if (!aktif) {
+            eksekusi(item);
+            return true; // Sudah dihentikan: jatuh ke eksekusi sinkron agar event tidak hilang
+        }
+        T event = item.event();
+        if (!antrian.offer(item)) {
+            BackPressure strategi = opsi.backPressure();
+            if (strategi == BackPressure.BLOCK && Thread.currentThread() == worker) {
+                strategi = BackPressure.CALLER_RUNS; // Handler publish ke dirinya sendiri: BLOCK akan deadlock
+            }
+            switch (strategi) {
+                case DROP -> {
+                    dibuang.incrementAndGet();
+                    logger.warn("Antrian {} penuh, event {} dibuang", nama, event.getEventId());
+                    return false;
+                }
+                case BLOCK -> tungguSlot(item);
+                case CALLER_RUNS -> bantuKosongkan(item);
+            }
+        }
+        catatPuncak();
+        if (menunggu) {
+            LockSupport.unpark(worker);
+        }
+        return true;
+    }
+
+    private void tungguSlot(Antrian<T> item) {
+        while (!antrian.offer(item)) {
+            if (!aktif) {
+                eksekusi(item);
+                return;
+            }
+            LockSupport.unpark(worker);
+            LockSupport.parkNanos(this, PARK_PUBLISHER_NANOS);
+        }
+    }
+
+    /**
+     * CALLER_RUNS: publisher mengerjakan event tertua di antrian sampai event baru muat.
+     */
+    private void bantuKosongkan(Antrian<T> item) {
+        while (!antrian.offer(item)) {
+            kunciEksekusi.lock();
+            try {
+                Antrian<T> tertua = antrian.poll();
+                if (tertua != null) {
+                    dijalankanPemanggil.incrementAndGet();
+                    eksekusi(tertua);
+                }
+            } finally {
+                kunciEksekusi.unlock();
+            }
+        }
+    }
+
+    private void jalankanWorker() {
+        while (true) {
+            boolean adaEvent;
+            kunciEksekusi.lock();
+            try {
+                Antrian<T> item = antrian.poll();
+                adaEvent = item != null;
+                if (adaEvent) {
+                    eksekusi(item);
+                }
+            } finally {
+                kunciEksekusi.unlock();
+            }
+            if (adaEvent) {
+                continue;
+            }
+            if (!aktif) {
+                return; // Antrian sudah kosong
+            }
+            menunggu = true;
+            if (antrian.isKosong() && aktif) {
+                LockSupport.parkNanos(this, PARK_WORKER_NANOS);
+            }
+            menunggu = false;
+        }
+    }
+
+    private void eksekusi(Antrian<T> item) {
+        long mulai = System.nanoTime();
+        totalTungguNanos.addAndGet(mulai - item.nanoMasuk());
+        try {
+            handler.handle(item.event());
+            if (item.selesai() != null) {
+                item.selesai().complete(null);
+            }
+        } catch (Exception e) {
+            gagal.incrementAndGet();
+            logger.error("Error handling event {} di {}: {}",
+                item.event().getEventName(), nama, e.getMessage(), e);
+            if (item.selesai() != null) {
+                item.selesai().completeExceptionally(e);
+            }
+        } finally {
+            long latensi = System.nanoTime() - mulai;
+            totalLatensiNanos.addAndGet(latensi);
+            maksLatensiNanos.accumulateAndGet(latensi, Math::max);
+            diproses.incrementAndGet();
+        }
+    }
+
+    private void catatPuncak() {
+        int ukuran = antrian.ukuran();
+        puncakAntrian.accumulateAndGet(ukuran, Math::max);
+    }
+
+    // ==================== LIFECYCLE ====================
+
+    /**
+     * Tunggu antrian kosong dan tidak ada handler yang sedang berjalan.
+     *
+     * @return false jika batas waktu habis
+     */
+    boolean tungguSelesai(long batasNanos) {
+        long deadline = System.nanoTime() + batasNanos;
+        while (!antrian.isKosong() || kunciEksekusi.isLocked()) {
+            if (System.nanoTime() - deadline > 0) {
+                return false;
+            }
+            LockSupport.unpark(worker);
+            LockSupport.parkNanos(this, PARK_PUBLISHER_NANOS);
+        }
+        return true;
+    }
+
+    /**
+     * Hentikan worker setelah antrian yang tersisa diproses.
+     *
+     * @return false jika worker belum berhenti saat batas waktu habis
+     */
+    boolean hentikan(long batasNanos) {
+        aktif = false;
+        LockSupport.unpark(worker);
+        try {
+            return worker.join(Duration.ofNanos(Math.max(1, batasNanos)));
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            return false;
+        }
+    }
+
+    // ==================== GETTERS ====================
+
+    EventHandler<T> getHandler() {
+        return handler;
+    }
+
+    MetrikHandler getMetrik() {
+        long jumlah = diproses.get();
+        double rataLatensi = jumlah > 0 ? totalLatensiNanos.get() / (double) jumlah / 1_000_000.0 : 0.0;
+        double rataTunggu = jumlah > 0 ? totalTungguNanos.get() / (double) jumlah / 1_000_000.0 : 0.0;
+        return new MetrikHandler(eventType.getSimpleName(), nama, antrian.ukuran(), puncakAntrian.get(),
+            antrian.getKapasitas(), jumlah, gagal.get(), dibuang.get(), dijalankanPemanggil.get(),
+            rataLatensi, maksLatensiNanos.get() / 1_000_000.0, rataTunggu);
+    }
+
+    /**
+     * @param selesai Diisi hanya untuk event dari EventBus.kirim (outbox)
+     */
+    private record Antrian<T>(T event, long nanoMasuk, CompletableFuture<Void> selesai) {
+    }
+}
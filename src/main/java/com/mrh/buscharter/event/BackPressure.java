@@ -0,0 +1,23 @@
+package com.mrh.buscharter.event;
+
+/**
+ * Strategi saat antrian handler async penuh.
+ */
+public enum BackPressure {
+
+    /**
+     * Publisher menunggu sampai ada slot kosong di antrian.
+     */
+    BLOCK,
+
+    /**
+     * Event dibuang untuk handler tersebut dan dihitung di metrik.
+     */
+    DROP,
+
+    /**
+     * Publisher ikut mengerjakan antrian handler (event tertua dulu) sampai event baru
+     * muat. Publisher ikut melambat, dan urutan event tetap terjaga.
+     */
+    CALLER_RUNS
+}
@@ -12,6 +12,8 @@ import com.mrh.buscharter.model.Booking;
  */
 public class BookingConfirmedEvent extends DomainEvent {
 
+    private static final long serialVersionUID = 1L;
+
     private final Long bookingId;
     private final String kodeBooking;
     private final Long customerId;
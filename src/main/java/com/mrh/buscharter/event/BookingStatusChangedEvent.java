@@ -0,0 +1,63 @@
+package com.mrh.buscharter.event;
+
+import com.mrh.buscharter.model.Booking;
+import com.mrh.buscharter.model.enums.StatusBooking;
+
+/**
+ * Event yang di-emit setiap kali status booking berubah.
+ * 
+ * Event ini digunakan untuk:
+ * - Update index ketersediaan armada/driver saat booking mulai/berhenti memblokir armada
+ * - Logging audit trail
+ */
+public class BookingStatusChangedEvent extends DomainEvent {
+
+    private static final long serialVersionUID = 1L;
+
+    private final Long bookingId;
+    private final String kodeBooking;
+    private final StatusBooking statusLama;
+    private final StatusBooking statusBaru;
+
+    public BookingStatusChangedEvent(Booking booking, StatusBooking statusLama) {
+        super(booking.getTenant().getId());
+        this.bookingId = booking.getId();
+        this.kodeBooking = booking.getKodeBooking();
+        this.statusLama = statusLama;
+        this.statusBaru = booking.getStatus();
+    }
+
+    @Override
+    public String getEventName() {
+        return "BookingStatusChanged";
+    }
+
+    public Long getBookingId() {
+        return bookingId;
+    }
+
+    public String getKodeBooking() {
+        return kodeBooking;
+    }
+
+    public StatusBooking getStatusLama() {
+        return statusLama;
+    }
+
+    public StatusBooking getStatusBaru() {
+        return statusBaru;
+    }
+
+    /**
+     * Cek apakah assignment booking ini mulai atau berhenti memblokir armada.
+     */
+    public boolean isStatusBlokirBerubah() {
+        return statusLama.memblokirArmada() != statusBaru.memblokirArmada();
+    }
+
+    @Override
+    public String toString() {
+        return String.format("BookingStatusChangedEvent{bookingId=%d, kode=%s, %s → %s}",
+            bookingId, kodeBooking, statusLama, statusBaru);
+    }
+}
@@ -1,12 +1,17 @@
 package com.mrh.buscharter.event;
 
+import java.io.Serializable;
 import java.time.LocalDateTime;
 import java.util.UUID;
 
 /**
  * Base class untuk semua domain events.
+ * Serializable agar bisa disimpan di outbox; field event hanya boleh berisi nilai
+ * sederhana (ID, teks, angka, waktu), bukan entity.
  */
-public abstract class DomainEvent {
+public abstract class DomainEvent implements Serializable {
+
+    private static final long serialVersionUID = 1L;
     
     private final String eventId;
     private final LocalDateTime occurredAt;
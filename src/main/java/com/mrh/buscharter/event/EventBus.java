@@ -3,19 +3,26 @@ package com.mrh.buscharter.event;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
+import java.time.Duration;
 import java.util.*;
+import java.util.concurrent.CompletableFuture;
 import java.util.concurrent.ConcurrentHashMap;
 import java.util.concurrent.CopyOnWriteArrayList;
 
 /**
  * Simple in-memory EventBus untuk domain events.
  * Singleton pattern untuk akses global.
+ *
+ * Handler dari subscribe() dijalankan sinkron di thread publisher (default).
+ * Handler dari subscribeAsync() punya antrian ring buffer dan worker sendiri,
+ * sehingga publish hanya memasukkan event ke antrian; urutan per tipe event tetap terjaga.
  */
 public class EventBus {
 
     private static final Logger logger = LoggerFactory.getLogger(EventBus.class);
     
     private static EventBus instance;
+    private static final Duration BATAS_HENTIKAN = Duration.ofSeconds(5);
     
     private final Map<Class<? extends DomainEvent>, List<EventHandler<?>>> handlers;
 
@@ -46,18 +53,49 @@ public class EventBus {
     }
 
     /**
-     * Unsubscribe handler dari event type.
+     * Subscribe handler async dengan opsi default (AppConfig, BLOCK, virtual thread).
+     */
+    public <T extends DomainEvent> void subscribeAsync(Class<T> eventType, EventHandler<T> handler) {
+        subscribeAsync(eventType, handler, OpsiAsync.bawaan());
+    }
+
+    /**
+     * Subscribe handler async: handler dijalankan di worker sendiri, bukan di thread publisher.
+     * Cocok untuk pekerjaan lambat (PDF, notifikasi) agar EDT / transaksi tidak tertahan.
+     *
+     * @param eventType Class dari event
+     * @param handler Handler yang akan dipanggil
+     * @param opsi Kapasitas antrian, strategi back-pressure, dan jenis thread worker
+     */
+    public <T extends DomainEvent> void subscribeAsync(Class<T> eventType, EventHandler<T> handler,
+                                                       OpsiAsync opsi) {
+        handlers.computeIfAbsent(eventType, k -> new CopyOnWriteArrayList<>())
+                .add(new AsyncHandler<>(eventType, handler, opsi));
+        logger.debug("Handler async subscribed untuk event: {} ({})", eventType.getSimpleName(), opsi);
+    }
+
+    /**
+     * Unsubscribe handler dari event type (sinkron maupun async).
      */
     public <T extends DomainEvent> void unsubscribe(Class<T> eventType, EventHandler<T> handler) {
         List<EventHandler<?>> eventHandlers = handlers.get(eventType);
         if (eventHandlers != null) {
-            eventHandlers.remove(handler);
+            for (EventHandler<?> h : eventHandlers) {
+                if (h == handler || (h instanceof AsyncHandler<?> async && async.getHandler() == handler)) {
+                    eventHandlers.remove(h);
+                    if (h instanceof AsyncHandler<?> async) {
+                        async.hentikan(BATAS_HENTIKAN.toNanos());
+                    }
+                    break;
+                }
+            }
             logger.debug("Handler unsubscribed dari event: {}", eventType.getSimpleName());
         }
     }
 
     /**
      * Publish event ke semua subscriber.
+     * Handler sinkron dijalankan langsung; handler async hanya menerima event di antriannya.
      * 
      * @param event Event yang akan di-publish
      */
@@ -81,9 +119,101 @@ public class EventBus {
     }
 
     /**
-     * Clear semua handlers (untuk testing).
+     * Kirim event dari outbox: seperti publish, tetapi kegagalan handler tidak ditelan.
+     * Semua handler sinkron tetap dijalankan walaupun ada yang gagal; handler async menerima
+     * event di antriannya dan event yang dibuang (DROP) dihitung gagal.
+     *
+     * @param event Event yang akan dikirim
+     * @return Selesai setelah semua handler (termasuk async) selesai; gagal jika ada handler
+     *         yang gagal, sehingga baris outbox-nya tidak ditandai terkirim
+     */
+    @SuppressWarnings("unchecked")
+    public <T extends DomainEvent> CompletableFuture<Void> kirim(T event) {
+        logger.info("Mengirim event outbox: {} (id: {})", event.getEventName(), event.getEventId());
+
+        List<EventHandler<?>> eventHandlers = handlers.get(event.getClass());
+        if (eventHandlers == null || eventHandlers.isEmpty()) {
+            logger.debug("Tidak ada handler untuk event: {}", event.getEventName());
+            return CompletableFuture.completedFuture(null);
+        }
+
+        List<CompletableFuture<Void>> hasil = new ArrayList<>(eventHandlers.size());
+        for (EventHandler<?> handler : eventHandlers) {
+            if (handler instanceof AsyncHandler<?> async) {
+                hasil.add(((AsyncHandler<T>) async).terima(event));
+                continue;
+            }
+            try {
+                ((EventHandler<T>) handler).handle(event);
+            } catch (Exception e) {
+                logger.error("Error handling event {}: {}", event.getEventName(), e.getMessage(), e);
+                hasil.add(CompletableFuture.failedFuture(e));
+            }
+        }
+        return CompletableFuture.allOf(hasil.toArray(new CompletableFuture<?>[0]));
+    }
+
+    /**
+     * Tunggu semua antrian handler async kosong (untuk testing dan shutdown).
+     *
+     * @return false jika masih ada event yang diproses saat batas waktu habis
+     */
+    public boolean tungguAntrianKosong(Duration batas) {
+        long deadline = System.nanoTime() + batas.toNanos();
+        for (AsyncHandler<?> async : semuaAsync()) {
+            if (!async.tungguSelesai(Math.max(0, deadline - System.nanoTime()))) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    /**
+     * Proses sisa antrian lalu hentikan semua worker async.
+     * Publish setelah ini untuk handler async dijalankan sinkron.
+     *
+     * @return false jika ada worker yang belum berhenti saat batas waktu habis
+     */
+    public boolean shutdown(Duration batas) {
+        long deadline = System.nanoTime() + batas.toNanos();
+        boolean semuaBerhenti = true;
+        for (AsyncHandler<?> async : semuaAsync()) {
+            semuaBerhenti &= async.hentikan(Math.max(1, deadline - System.nanoTime()));
+        }
+        if (!semuaBerhenti) {
+            logger.warn("Sebagian worker EventBus belum berhenti setelah {}", batas);
+        }
+        return semuaBerhenti;
+    }
+
+    /**
+     * Metrik semua handler async: kedalaman antrian, event dibuang, dan latensi handler.
+     */
+    public List<MetrikHandler> getMetrik() {
+        List<MetrikHandler> hasil = new ArrayList<>();
+        for (AsyncHandler<?> async : semuaAsync()) {
+            hasil.add(async.getMetrik());
+        }
+        return hasil;
+    }
+
+    private List<AsyncHandler<?>> semuaAsync() {
+        List<AsyncHandler<?>> hasil = new ArrayList<>();
+        for (List<EventHandler<?>> eventHandlers : handlers.values()) {
+            for (EventHandler<?> h : eventHandlers) {
+                if (h instanceof AsyncHandler<?> async) {
+                    hasil.add(async);
+                }
+            }
+        }
+        return hasil;
+    }
+
+    /**
+     * Clear semua handlers (untuk testing). Worker async dihentikan setelah antriannya habis.
      */
     public void clearAllHandlers() {
+        shutdown(BATAS_HENTIKAN);
         handlers.clear();
         logger.debug("Semua handlers di-clear");
     }
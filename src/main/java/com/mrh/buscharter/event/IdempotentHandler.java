@@ -0,0 +1,60 @@
+package com.mrh.buscharter.event;
+
+import com.mrh.buscharter.config.AppConfig;
+
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Pembungkus handler yang melewati event dengan eventId yang sudah pernah diproses.
+ * Dipakai karena outbox menjamin at-least-once: event yang sama bisa datang dari
+ * jalur cepat dan dari relay.
+ *
+ * ID yang diingat dibatasi (LRU); duplikat biasanya datang dalam hitungan detik/menit.
+ * Jika handler melempar exception, ID dilepas lagi agar pengiriman ulang tetap diproses.
+ */
+public final class IdempotentHandler<T extends DomainEvent> implements EventHandler<T> {
+
+    private final EventHandler<T> handler;
+    private final Set<String> sudahDiproses;
+
+    private IdempotentHandler(EventHandler<T> handler, int kapasitas) {
+        this.handler = handler;
+        this.sudahDiproses = Collections.newSetFromMap(new LinkedHashMap<>(16, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<String, Boolean> eldest) {
+                return size() > kapasitas;
+            }
+        });
+    }
+
+    public static <T extends DomainEvent> IdempotentHandler<T> bungkus(EventHandler<T> handler) {
+        return bungkus(handler, AppConfig.EVENT_IDEMPOTEN_KAPASITAS);
+    }
+
+    public static <T extends DomainEvent> IdempotentHandler<T> bungkus(EventHandler<T> handler, int kapasitas) {
+        if (kapasitas < 1) {
+            throw new IllegalArgumentException("Kapasitas harus positif");
+        }
+        return new IdempotentHandler<>(handler, kapasitas);
+    }
+
+    @Override
+    public void handle(T event) {
+        synchronized (sudahDiproses) {
+            if (!sudahDiproses.add(event.getEventId())) {
+                return; // Duplikat
+            }
+        }
+        try {
+            handler.handle(event);
+        } catch (RuntimeException e) {
+            synchronized (sudahDiproses) {
+                sudahDiproses.remove(event.getEventId());
+            }
+            throw e;
+        }
+    }
+}
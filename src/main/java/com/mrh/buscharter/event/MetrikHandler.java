@@ -0,0 +1,23 @@
+package com.mrh.buscharter.event;
+
+/**
+ * Snapshot metrik satu handler async.
+ *
+ * @param eventType Nama event yang di-handle
+ * @param nama Nama worker handler
+ * @param kedalamanAntrian Jumlah event yang sedang menunggu
+ * @param puncakAntrian Kedalaman antrian tertinggi yang pernah tercatat
+ * @param kapasitasAntrian Kapasitas ring buffer
+ * @param diproses Jumlah event yang selesai di-handle (termasuk yang gagal)
+ * @param gagal Jumlah event yang handler-nya melempar exception
+ * @param dibuang Jumlah event yang dibuang karena antrian penuh (DROP)
+ * @param dijalankanPemanggil Jumlah event yang dikerjakan di thread publisher (CALLER_RUNS)
+ * @param rataLatensiMs Rata-rata waktu eksekusi handler
+ * @param maksLatensiMs Waktu eksekusi handler terlama
+ * @param rataTungguMs Rata-rata waktu event menunggu di antrian sebelum di-handle
+ */
+public record MetrikHandler(String eventType, String nama, int kedalamanAntrian, int puncakAntrian,
+                            int kapasitasAntrian, long diproses, long gagal, long dibuang,
+                            long dijalankanPemanggil, double rataLatensiMs, double maksLatensiMs,
+                            double rataTungguMs) {
+}
@@ -0,0 +1,41 @@
+package com.mrh.buscharter.event;
+
+import com.mrh.buscharter.config.AppConfig;
+
+/**
+ * Opsi untuk handler yang di-subscribe secara async.
+ *
+ * @param kapasitasAntrian Kapasitas ring buffer handler (dibulatkan ke pangkat 2)
+ * @param backPressure Perilaku publish saat antrian penuh
+ * @param virtualThread true: worker virtual thread; false: platform thread daemon khusus
+ */
+public record OpsiAsync(int kapasitasAntrian, BackPressure backPressure, boolean virtualThread) {
+
+    public OpsiAsync {
+        if (kapasitasAntrian < 1) {
+            throw new IllegalArgumentException("Kapasitas antrian harus positif");
+        }
+        if (backPressure == null) {
+            throw new IllegalArgumentException("Strategi back-pressure tidak boleh null");
+        }
+    }
+
+    /**
+     * Opsi default: kapasitas dari AppConfig, BLOCK, virtual thread.
+     */
+    public static OpsiAsync bawaan() {
+        return new OpsiAsync(AppConfig.EVENT_ASYNC_KAPASITAS_ANTRIAN, BackPressure.BLOCK, true);
+    }
+
+    public OpsiAsync denganBackPressure(BackPressure strategi) {
+        return new OpsiAsync(kapasitasAntrian, strategi, virtualThread);
+    }
+
+    public OpsiAsync denganKapasitas(int kapasitas) {
+        return new OpsiAsync(kapasitas, backPressure, virtualThread);
+    }
+
+    public OpsiAsync denganPlatformThread() {
+        return new OpsiAsync(kapasitasAntrian, backPressure, false);
+    }
+}
@@ -0,0 +1,178 @@
+package com.mrh.buscharter.event;
+
+import com.mrh.buscharter.config.AppConfig;
+import com.mrh.buscharter.repository.OutboxRepository;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+
+/**
+ * Pengirim event dari transactional outbox ke EventBus.
+ *
+ * Dua jalur pengiriman (at-least-once sampai handler selesai tanpa exception):
+ * - Jalur cepat: setelah transaksi commit, event langsung dikirim (EventBus.kirim) dan yang
+ *   semua handler-nya berhasil ditandai terkirim
+ * - Relay: thread latar mengambil baris yang belum terkirim (aplikasi crash, handler gagal,
+ *   event dibuang antrian async, gagal menandai) per batch dengan FOR UPDATE SKIP LOCKED,
+ *   sehingga beberapa client bisa berjalan bersamaan
+ *
+ * Event bisa terkirim lebih dari sekali; handler yang tidak idempoten dibungkus
+ * dengan IdempotentHandler (dedup berdasarkan getEventId).
+ */
+public class OutboxRelay {
+
+    private static final Logger logger = LoggerFactory.getLogger(OutboxRelay.class);
+
+    private static OutboxRelay instance;
+
+    private final OutboxRepository outboxRepository;
+    private final EventBus eventBus;
+    private ScheduledExecutorService scheduler;
+
+    OutboxRelay(OutboxRepository outboxRepository, EventBus eventBus) {
+        this.outboxRepository = outboxRepository;
+        this.eventBus = eventBus;
+    }
+
+    public static synchronized OutboxRelay getInstance() {
+        if (instance == null) {
+            instance = new OutboxRelay(new OutboxRepository(), EventBus.getInstance());
+        }
+        return instance;
+    }
+
+    /**
+     * Reset instance (untuk testing).
+     */
+    public static synchronized void resetInstance() {
+        if (instance != null) {
+            instance.hentikan();
+        }
+        instance = null;
+    }
+
+    /**
+     * Jalankan relay periodik (tabel outbox dibuat oleh MigrasiSkema).
+     */
+    public synchronized void mulai() {
+        if (scheduler != null) {
+            return;
+        }
+        scheduler = Executors.newSingleThreadScheduledExecutor(r -> {
+            Thread t = new Thread(r, "outbox-relay");
+            t.setDaemon(true);
+            return t;
+        });
+        scheduler.scheduleWithFixedDelay(this::jalankanRelay, AppConfig.OUTBOX_RELAY_INTERVAL_DETIK,
+            AppConfig.OUTBOX_RELAY_INTERVAL_DETIK, TimeUnit.SECONDS);
+        logger.info("Outbox relay berjalan setiap {} detik", AppConfig.OUTBOX_RELAY_INTERVAL_DETIK);
+    }
+
+    public synchronized void hentikan() {
+        if (scheduler != null) {
+            scheduler.shutdownNow();
+            scheduler = null;
+        }
+    }
+
+    /**
+     * Jalur cepat: kirim events yang baru saja di-commit, lalu tandai terkirim yang semua
+     * handler-nya berhasil. Jika ada handler async, penandaan terjadi setelah handler terakhir
+     * selesai (di thread worker-nya). Event yang gagal dan kegagalan menandai tidak apa-apa;
+     * relay akan mengirim ulang dan handler men-dedup.
+     */
+    public void terbitkanSetelahCommit(List<? extends DomainEvent> events) {
+        Map<String, CompletableFuture<Void>> pengiriman = kirimSemua(events);
+        CompletableFuture.allOf(pengiriman.values().toArray(new CompletableFuture<?>[0]))
+            .whenComplete((hasil, error) -> {
+                Set<String> terkirim = berhasil(pengiriman);
+                if (terkirim.size() < pengiriman.size()) {
+                    logger.warn("{} event gagal di-handle, akan dikirim ulang oleh relay",
+                        pengiriman.size() - terkirim.size());
+                }
+                try {
+                    outboxRepository.tandaiTerkirim(terkirim);
+                } catch (RuntimeException e) {
+                    logger.warn("Gagal menandai {} event outbox terkirim, akan dikirim ulang oleh relay: {}",
+                        terkirim.size(), e.getMessage());
+                }
+            });
+    }
+
+    /**
+     * Kirim semua baris yang tertinggal, batch demi batch.
+     *
+     * @return Jumlah event yang dikirim
+     */
+    public int prosesTertinggal() {
+        int total = 0;
+        int jumlah;
+        do {
+            jumlah = outboxRepository.prosesBatch(AppConfig.OUTBOX_RELAY_BATCH,
+                AppConfig.OUTBOX_RELAY_TENGGANG_DETIK, this::kirimBatch);
+            total += jumlah;
+        } while (jumlah == AppConfig.OUTBOX_RELAY_BATCH);
+        if (total > 0) {
+            logger.info("Outbox relay mengirim {} event tertinggal", total);
+        }
+        return total;
+    }
+
+    /**
+     * Kirim satu batch relay dan tunggu handler async (maksimal
+     * AppConfig.OUTBOX_RELAY_BATAS_TUNGGU_DETIK); yang belum selesai dianggap gagal.
+     *
+     * @return eventId yang semua handler-nya berhasil
+     */
+    private Set<String> kirimBatch(List<DomainEvent> events) {
+        Map<String, CompletableFuture<Void>> pengiriman = kirimSemua(events);
+        try {
+            CompletableFuture.allOf(pengiriman.values().toArray(new CompletableFuture<?>[0]))
+                .get(AppConfig.OUTBOX_RELAY_BATAS_TUNGGU_DETIK, TimeUnit.SECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        } catch (ExecutionException | TimeoutException e) {
+            // Event yang gagal atau belum selesai tidak ditandai; dicoba lagi setelah jeda
+        }
+        return berhasil(pengiriman);
+    }
+
+    private Map<String, CompletableFuture<Void>> kirimSemua(List<? extends DomainEvent> events) {
+        Map<String, CompletableFuture<Void>> pengiriman = new LinkedHashMap<>();
+        for (DomainEvent event : events) {
+            pengiriman.put(event.getEventId(), eventBus.kirim(event));
+        }
+        return pengiriman;
+    }
+
+    private static Set<String> berhasil(Map<String, CompletableFuture<Void>> pengiriman) {
+        Set<String> hasil = new HashSet<>();
+        pengiriman.forEach((eventId, selesai) -> {
+            if (selesai.isDone() && !selesai.isCompletedExceptionally()) {
+                hasil.add(eventId);
+            }
+        });
+        return hasil;
+    }
+
+    private void jalankanRelay() {
+        try {
+            prosesTertinggal();
+            outboxRepository.hapusYangSudahDiproses(AppConfig.OUTBOX_RETENSI_HARI);
+        } catch (RuntimeException e) {
+            // Jangan sampai scheduler berhenti karena database sementara tidak tersedia
+            logger.error("Outbox relay gagal: {}", e.getMessage());
+        }
+    }
+}
@@ -9,6 +9,8 @@ import java.math.BigDecimal;
  */
 public class PaymentReceivedEvent extends DomainEvent {
 
+    private static final long serialVersionUID = 1L;
+
     private final Long paymentId;
     private final Long bookingId;
     private final String kodeBooking;
@@ -0,0 +1,116 @@
+package com.mrh.buscharter.event;
+
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+
+/**
+ * Antrian bounded lock-free berbasis ring buffer (algoritma Vyukov).
+ * Aman untuk banyak producer dan banyak consumer tanpa lock; offer/poll tidak pernah blocking.
+ *
+ * Setiap slot punya nomor urut:
+ * - urut == posisi      → slot kosong, siap diisi producer
+ * - urut == posisi + 1  → slot terisi, siap diambil consumer
+ *
+ * @param <E> Tipe elemen
+ */
+public final class RingBuffer<E> {
+
+    private final int kapasitas;
+    private final int mask;
+    private final AtomicReferenceArray<E> elemen;
+    private final AtomicLongArray urut;
+    private final AtomicLong posisiTulis = new AtomicLong();
+    private final AtomicLong posisiBaca = new AtomicLong();
+
+    /**
+     * @param kapasitas Kapasitas minimal; dibulatkan ke pangkat 2 berikutnya (minimal 2,
+     *                  karena dengan satu slot nomor urut "terisi" sama dengan "kosong")
+     */
+    public RingBuffer(int kapasitas) {
+        if (kapasitas < 1 || kapasitas > (1 << 30)) {
+            throw new IllegalArgumentException("Kapasitas ring buffer harus 1..2^30: " + kapasitas);
+        }
+        int k = 2;
+        while (k < kapasitas) {
+            k <<= 1;
+        }
+        this.kapasitas = k;
+        this.mask = this.kapasitas - 1;
+        this.elemen = new AtomicReferenceArray<>(this.kapasitas);
+        this.urut = new AtomicLongArray(this.kapasitas);
+        for (int i = 0; i < this.kapasitas; i++) {
+            urut.set(i, i);
+        }
+    }
+
+    /**
+     * Tambah elemen di ekor antrian.
+     *
+     * @return false jika antrian penuh
+     */
+    public boolean offer(E e) {
+        if (e == null) {
+            throw new NullPointerException("Elemen tidak boleh null");
+        }
+        long posisi = posisiTulis.get();
+        while (true) {
+            int index = (int) (posisi & mask);
+            long selisih = urut.get(index) - posisi;
+            if (selisih == 0) {
+                if (posisiTulis.compareAndSet(posisi, posisi + 1)) {
+                    elemen.set(index, e);
+                    urut.set(index, posisi + 1);
+                    return true;
+                }
+                posisi = posisiTulis.get();
+            } else if (selisih < 0) {
+                return false; // Penuh
+            } else {
+                posisi = posisiTulis.get(); // Producer lain sudah maju
+            }
+        }
+    }
+
+    /**
+     * Ambil elemen dari kepala antrian.
+     *
+     * @return Elemen, atau null jika antrian kosong
+     */
+    public E poll() {
+        long posisi = posisiBaca.get();
+        while (true) {
+            int index = (int) (posisi & mask);
+            long selisih = urut.get(index) - (posisi + 1);
+            if (selisih == 0) {
+                if (posisiBaca.compareAndSet(posisi, posisi + 1)) {
+                    E e = elemen.get(index);
+                    elemen.set(index, null);
+                    urut.set(index, posisi + kapasitas);
+                    return e;
+                }
+                posisi = posisiBaca.get();
+            } else if (selisih < 0) {
+                return null; // Kosong
+            } else {
+                posisi = posisiBaca.get(); // Consumer lain sudah maju
+            }
+        }
+    }
+
+    /**
+     * Perkiraan jumlah elemen dalam antrian (bisa sedikit meleset saat ada akses bersamaan).
+     */
+    public int ukuran() {
+        long selisih = posisiTulis.get() - posisiBaca.get();
+        return (int) Math.max(0, Math.min(selisih, kapasitas));
+    }
+
+    public boolean isKosong() {
+        return ukuran() == 0;
+    }
+
+    public int getKapasitas() {
+        return kapasitas;
+    }
+}
@@ -2,18 +2,29 @@ package com.mrh.buscharter.event;
 
 import com.mrh.buscharter.model.TripAssignment;
 
+import java.time.LocalDateTime;
+
 /**
  * Event yang di-emit saat vehicle di-assign ke trip.
  */
 public class VehicleAssignedEvent extends DomainEvent {
 
+    private static final long serialVersionUID = 1L;
+
     private final Long assignmentId;
     private final Long tripId;
     private final Long vehicleId;
     private final String platNomor;
     private final Long driverId;
     private final String namaDriver;
+    private final Long coDriverId;
+    private final LocalDateTime waktuMulai;
+    private final LocalDateTime waktuSelesai;
+    private final boolean memblokirArmada;
 
+    /**
+     * Trip assignment harus sudah memuat booking (untuk status blokir armada).
+     */
     public VehicleAssignedEvent(TripAssignment assignment, Long tenantId) {
         super(tenantId);
         this.assignmentId = assignment.getId();
@@ -22,6 +33,10 @@ public class VehicleAssignedEvent extends DomainEvent {
         this.platNomor = assignment.getVehicle().getPlatNomor();
         this.driverId = assignment.getDriver() != null ? assignment.getDriver().getId() : null;
         this.namaDriver = assignment.getDriver() != null ? assignment.getDriver().getNamaLengkap() : null;
+        this.coDriverId = assignment.getCoDriver() != null ? assignment.getCoDriver().getId() : null;
+        this.waktuMulai = assignment.getTrip().getWaktuMulai();
+        this.waktuSelesai = assignment.getTrip().getWaktuSelesai();
+        this.memblokirArmada = assignment.getTrip().getBooking().getStatus().memblokirArmada();
     }
 
     @Override
@@ -53,6 +68,25 @@ public class VehicleAssignedEvent extends DomainEvent {
         return namaDriver;
     }
 
+    public Long getCoDriverId() {
+        return coDriverId;
+    }
+
+    public LocalDateTime getWaktuMulai() {
+        return waktuMulai;
+    }
+
+    public LocalDateTime getWaktuSelesai() {
+        return waktuSelesai;
+    }
+
+    /**
+     * True jika booking trip ini sudah memblokir armada (DP_DITERIMA ke atas).
+     */
+    public boolean isMemblokirArmada() {
+        return memblokirArmada;
+    }
+
     @Override
     public String toString() {
         return String.format("VehicleAssignedEvent{tripId=%d, vehicle=%s, driver=%s}",
@@ -0,0 +1,129 @@
+package com.mrh.buscharter.model;
+
+import com.mrh.buscharter.model.enums.StatusPelunasan;
+import com.mrh.buscharter.model.enums.TipeCharge;
+import jakarta.persistence.*;
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+import java.time.LocalDateTime;
+
+/**
+ * Entity untuk tabel booking_ledger.
+ * Ringkasan keuangan per booking yang disimpan (denormalisasi dari booking_charges dan payments).
+ * Diperbarui dalam transaksi yang sama dengan perubahan charge/payment, sehingga ringkasan,
+ * daftar belum lunas, dan cek outstanding cukup membaca satu baris.
+ */
+@Entity
+@Table(name = "booking_ledger")
+public class BookingLedger {
+
+    @Id
+    @Column(name = "booking_id")
+    private Long bookingId;
+
+    @Column(name = "tenant_id", nullable = false)
+    private Long tenantId;
+
+    @Column(name = "total_charge", nullable = false, precision = 15, scale = 2)
+    private BigDecimal totalCharge = BigDecimal.ZERO;
+
+    @Column(name = "total_discount", nullable = false, precision = 15, scale = 2)
+    private BigDecimal totalDiskon = BigDecimal.ZERO;
+
+    @Column(name = "grand_total", nullable = false, precision = 15, scale = 2)
+    private BigDecimal grandTotal = BigDecimal.ZERO;
+
+    @Column(name = "total_paid", nullable = false, precision = 15, scale = 2)
+    private BigDecimal totalPembayaran = BigDecimal.ZERO;
+
+    @Column(name = "outstanding", nullable = false, precision = 15, scale = 2)
+    private BigDecimal outstanding = BigDecimal.ZERO;
+
+    @Enumerated(EnumType.STRING)
+    @Column(name = "payment_status", nullable = false, length = 20)
+    private StatusPelunasan statusPelunasan = StatusPelunasan.LUNAS;
+
+    @Column(name = "updated_at")
+    private LocalDateTime diperbarui;
+
+    @PrePersist
+    @PreUpdate
+    protected void onUpdate() {
+        diperbarui = LocalDateTime.now();
+    }
+
+    // Constructors
+    public BookingLedger() {}
+
+    public BookingLedger(Long bookingId, Long tenantId) {
+        this.bookingId = bookingId;
+        this.tenantId = tenantId;
+    }
+
+    /**
+     * Terapkan perubahan total charge (UTAMA + TAMBAHAN), diskon, dan pembayaran.
+     * Nilai negatif untuk charge yang dihapus/dikurangi.
+     */
+    public void terapkan(BigDecimal deltaCharge, BigDecimal deltaDiskon, BigDecimal deltaPembayaran) {
+        set(totalCharge.add(deltaCharge), totalDiskon.add(deltaDiskon), totalPembayaran.add(deltaPembayaran));
+    }
+
+    /**
+     * Set ulang semua total (rekonsiliasi dari data sumber).
+     */
+    public void set(BigDecimal totalCharge, BigDecimal totalDiskon, BigDecimal totalPembayaran) {
+        this.totalCharge = totalCharge;
+        this.totalDiskon = totalDiskon;
+        this.totalPembayaran = totalPembayaran;
+        this.grandTotal = totalCharge.subtract(totalDiskon);
+        this.outstanding = grandTotal.subtract(totalPembayaran);
+
+        if (outstanding.compareTo(BigDecimal.ZERO) <= 0) {
+            statusPelunasan = StatusPelunasan.LUNAS;
+        } else if (totalPembayaran.compareTo(BigDecimal.ZERO) > 0) {
+            statusPelunasan = StatusPelunasan.SEBAGIAN;
+        } else {
+            statusPelunasan = StatusPelunasan.BELUM_BAYAR;
+        }
+    }
+
+    /**
+     * Kontribusi satu charge ke ledger: {deltaCharge, deltaDiskon}.
+     * Sama dengan rumus grand total: UTAMA/TAMBAHAN menambah charge, DISKON menambah diskon.
+     */
+    public static BigDecimal[] kontribusi(TipeCharge tipe, BigDecimal totalHarga) {
+        if (tipe == null || totalHarga == null) {
+            return new BigDecimal[] {BigDecimal.ZERO, BigDecimal.ZERO};
+        }
+        return tipe == TipeCharge.DISKON
+            ? new BigDecimal[] {BigDecimal.ZERO, totalHarga}
+            : new BigDecimal[] {totalHarga, BigDecimal.ZERO};
+    }
+
+    public boolean isLunas() {
+        return outstanding.compareTo(BigDecimal.ZERO) <= 0;
+    }
+
+    /**
+     * Persentase pembayaran terhadap grand total (100 jika grand total nol).
+     */
+    public double getPersentasePembayaran() {
+        if (grandTotal.compareTo(BigDecimal.ZERO) == 0) {
+            return 100.0;
+        }
+        return totalPembayaran.divide(grandTotal, 4, RoundingMode.HALF_UP)
+            .multiply(BigDecimal.valueOf(100))
+            .doubleValue();
+    }
+
+    // Getters
+    public Long getBookingId() { return bookingId; }
+    public Long getTenantId() { return tenantId; }
+    public BigDecimal getTotalCharge() { return totalCharge; }
+    public BigDecimal getTotalDiskon() { return totalDiskon; }
+    public BigDecimal getGrandTotal() { return grandTotal; }
+    public BigDecimal getTotalPembayaran() { return totalPembayaran; }
+    public BigDecimal getOutstanding() { return outstanding; }
+    public StatusPelunasan getStatusPelunasan() { return statusPelunasan; }
+    public LocalDateTime getDiperbarui() { return diperbarui; }
+}
@@ -1,6 +1,8 @@
 package com.mrh.buscharter.model;
 
 import jakarta.persistence.*;
+import org.hibernate.annotations.Cache;
+import org.hibernate.annotations.CacheConcurrencyStrategy;
 import java.time.LocalDate;
 import java.util.ArrayList;
 import java.util.List;
@@ -11,6 +13,8 @@ import java.util.List;
  */
 @Entity
 @Table(name = "drivers")
+@Cacheable
+@Cache(usage = CacheConcurrencyStrategy.READ_WRITE, region = "driver")
 public class Driver {
 
     @Id
@@ -15,8 +15,11 @@ import java.util.List;
 @Table(name = "trips")
 public class Trip {
 
+    // Sequence (bukan IDENTITY) agar insert massal bisa di-batch JDBC; 50 ID dialokasikan
+    // per nextval, harus sama dengan INCREMENT BY di db/migrasi/V1__trips_id_seq.sql
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "trips_id_seq")
+    @SequenceGenerator(name = "trips_id_seq", sequenceName = "trips_id_seq", allocationSize = 50)
     private Long id;
 
     @ManyToOne(fetch = FetchType.LAZY)
@@ -13,8 +13,12 @@ import jakarta.persistence.*;
        uniqueConstraints = @UniqueConstraint(columnNames = {"vehicle_id", "trip_id"}))
 public class TripAssignment {
 
+    // Sequence (bukan IDENTITY) agar assignment batch bisa di-batch JDBC lewat saveAll; harus
+    // sama dengan INCREMENT BY di db/migrasi/V6__trip_assignments_id_seq.sql
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "trip_assignments_id_seq")
+    @SequenceGenerator(name = "trip_assignments_id_seq", sequenceName = "trip_assignments_id_seq",
+                       allocationSize = 50)
     private Long id;
 
     @ManyToOne(fetch = FetchType.LAZY)
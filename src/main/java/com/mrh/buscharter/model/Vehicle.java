@@ -3,6 +3,8 @@ package com.mrh.buscharter.model;
 import com.mrh.buscharter.model.enums.StatusKepemilikan;
 import com.mrh.buscharter.model.enums.TipeVehicle;
 import jakarta.persistence.*;
+import org.hibernate.annotations.Cache;
+import org.hibernate.annotations.CacheConcurrencyStrategy;
 import java.util.ArrayList;
 import java.util.List;
 
@@ -12,6 +14,8 @@ import java.util.List;
  */
 @Entity
 @Table(name = "vehicles")
+@Cacheable
+@Cache(usage = CacheConcurrencyStrategy.READ_WRITE, region = "vehicle")
 public class Vehicle {
 
     @Id
@@ -0,0 +1,35 @@
+package com.mrh.buscharter.model.dto;
+
+import com.mrh.buscharter.model.enums.StatusBooking;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+
+/**
+ * Proyeksi satu baris daftar booking (tanpa entity dan relasi lazy).
+ * Total dibaca dari booking ledger dalam query yang sama.
+ *
+ * @param id ID booking
+ * @param kodeBooking Kode booking
+ * @param namaCustomer Nama customer
+ * @param status Status booking
+ * @param tanggalBooking Tanggal booking
+ * @param grandTotal Sum(UTAMA + TAMBAHAN) - Sum(DISKON)
+ * @param totalPembayaran Sum pembayaran
+ */
+public record BookingSummary(
+        Long id,
+        String kodeBooking,
+        String namaCustomer,
+        StatusBooking status,
+        LocalDateTime tanggalBooking,
+        BigDecimal grandTotal,
+        BigDecimal totalPembayaran) {
+
+    /**
+     * Sisa tagihan (grand total - total pembayaran).
+     */
+    public BigDecimal sisaTagihan() {
+        return grandTotal.subtract(totalPembayaran);
+    }
+}
@@ -0,0 +1,25 @@
+package com.mrh.buscharter.model.dto;
+
+import java.time.LocalDateTime;
+
+/**
+ * Proyeksi ringan satu baris jadwal assignment (tanpa entity).
+ * Dipakai untuk membangun index ketersediaan di memori.
+ *
+ * @param assignmentId ID trip assignment
+ * @param tripId ID trip
+ * @param vehicleId ID vehicle
+ * @param driverId ID driver utama (boleh null)
+ * @param coDriverId ID co-driver (boleh null)
+ * @param waktuMulai Waktu mulai trip
+ * @param waktuSelesai Waktu selesai trip
+ */
+public record JadwalAssignment(
+        Long assignmentId,
+        Long tripId,
+        Long vehicleId,
+        Long driverId,
+        Long coDriverId,
+        LocalDateTime waktuMulai,
+        LocalDateTime waktuSelesai) {
+}
@@ -0,0 +1,25 @@
+package com.mrh.buscharter.model.dto;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+
+/**
+ * Proyeksi satu baris daftar pembayaran beserta booking dan customer-nya.
+ *
+ * @param id ID payment
+ * @param bookingId ID booking
+ * @param kodeBooking Kode booking
+ * @param namaCustomer Nama customer
+ * @param tanggalPembayaran Tanggal pembayaran
+ * @param jumlah Nominal pembayaran
+ * @param metode Metode pembayaran
+ */
+public record PaymentSummary(
+        Long id,
+        Long bookingId,
+        String kodeBooking,
+        String namaCustomer,
+        LocalDateTime tanggalPembayaran,
+        BigDecimal jumlah,
+        String metode) {
+}
@@ -0,0 +1,27 @@
+package com.mrh.buscharter.model.dto;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+
+/**
+ * Proyeksi satu booking yang masih punya outstanding (bahan laporan umur piutang).
+ *
+ * @param bookingId ID booking
+ * @param kodeBooking Kode booking
+ * @param customerId ID customer (null jika booking tanpa customer)
+ * @param namaCustomer Nama customer
+ * @param salesPicId ID user sales PIC (null jika belum ditentukan)
+ * @param namaSalesPic Nama sales PIC
+ * @param outstanding Sisa tagihan dari booking ledger
+ * @param tripPertama Waktu mulai trip paling awal (acuan umur piutang), null jika tanpa trip
+ */
+public record PiutangBooking(
+        Long bookingId,
+        String kodeBooking,
+        Long customerId,
+        String namaCustomer,
+        Long salesPicId,
+        String namaSalesPic,
+        BigDecimal outstanding,
+        LocalDateTime tripPertama) {
+}
@@ -0,0 +1,32 @@
+package com.mrh.buscharter.model.dto;
+
+import com.mrh.buscharter.model.enums.TipeVehicle;
+
+import java.time.LocalDateTime;
+
+/**
+ * Proyeksi satu baris daftar trip beserta booking dan customer-nya.
+ *
+ * @param id ID trip
+ * @param bookingId ID booking
+ * @param kodeBooking Kode booking
+ * @param namaCustomer Nama customer
+ * @param waktuMulai Waktu mulai trip
+ * @param waktuSelesai Waktu selesai trip
+ * @param lokasiJemput Lokasi jemput
+ * @param lokasiTujuan Lokasi tujuan
+ * @param tipeBusDiminta Tipe bus yang diminta (boleh null)
+ * @param jumlahBus Jumlah bus yang sudah di-assign
+ */
+public record TripSummary(
+        Long id,
+        Long bookingId,
+        String kodeBooking,
+        String namaCustomer,
+        LocalDateTime waktuMulai,
+        LocalDateTime waktuSelesai,
+        String lokasiJemput,
+        String lokasiTujuan,
+        TipeVehicle tipeBusDiminta,
+        Long jumlahBus) {
+}
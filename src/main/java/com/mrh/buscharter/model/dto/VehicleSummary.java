@@ -0,0 +1,27 @@
+package com.mrh.buscharter.model.dto;
+
+import com.mrh.buscharter.model.enums.StatusKepemilikan;
+import com.mrh.buscharter.model.enums.TipeVehicle;
+
+/**
+ * Proyeksi satu baris daftar armada.
+ *
+ * @param id ID vehicle
+ * @param platNomor Plat nomor
+ * @param namaPanggilan Nama panggilan bus
+ * @param tipeVehicle Tipe vehicle
+ * @param kapasitasKursi Kapasitas kursi
+ * @param statusKepemilikan Status kepemilikan
+ * @param aktif Vehicle aktif
+ * @param jumlahTripMendatang Jumlah trip ter-assign yang belum selesai
+ */
+public record VehicleSummary(
+        Long id,
+        String platNomor,
+        String namaPanggilan,
+        TipeVehicle tipeVehicle,
+        Integer kapasitasKursi,
+        StatusKepemilikan statusKepemilikan,
+        Boolean aktif,
+        Long jumlahTripMendatang) {
+}
@@ -0,0 +1,31 @@
+package com.mrh.buscharter.model.enums;
+
+/**
+ * Enum untuk kelompok umur piutang, dihitung dari tanggal mulai trip pertama booking.
+ */
+public enum KelompokUmurPiutang {
+    BELUM_JATUH_TEMPO("Current"),
+    HARI_1_30("1-30 Hari"),
+    HARI_31_60("31-60 Hari"),
+    LEBIH_60_HARI("> 60 Hari");
+
+    private final String deskripsi;
+
+    KelompokUmurPiutang(String deskripsi) {
+        this.deskripsi = deskripsi;
+    }
+
+    public String getDeskripsi() {
+        return deskripsi;
+    }
+
+    /**
+     * Kelompok untuk umur piutang dalam hari (0 atau negatif = trip belum dimulai / hari ini).
+     */
+    public static KelompokUmurPiutang dari(long umurHari) {
+        if (umurHari <= 0) return BELUM_JATUH_TEMPO;
+        if (umurHari <= 30) return HARI_1_30;
+        if (umurHari <= 60) return HARI_31_60;
+        return LEBIH_60_HARI;
+    }
+}
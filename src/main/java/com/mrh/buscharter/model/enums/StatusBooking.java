@@ -43,4 +43,12 @@ public enum StatusBooking {
             case SELESAI, BATAL -> false; // Status final, tidak bisa berubah
         };
     }
+
+    /**
+     * Cek apakah booking dengan status ini memblokir armada (dihitung di Availability Engine).
+     * Sesuai filter query: DP_DITERIMA, LUNAS, SELESAI.
+     */
+    public boolean memblokirArmada() {
+        return this == DP_DITERIMA || this == LUNAS || this == SELESAI;
+    }
 }
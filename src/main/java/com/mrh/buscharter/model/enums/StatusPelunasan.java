@@ -0,0 +1,21 @@
+package com.mrh.buscharter.model.enums;
+
+/**
+ * Enum untuk status pelunasan di booking ledger.
+ * Diturunkan dari outstanding dan total pembayaran, terpisah dari StatusBooking.
+ */
+public enum StatusPelunasan {
+    BELUM_BAYAR("Belum Bayar"),
+    SEBAGIAN("Dibayar Sebagian"),
+    LUNAS("Lunas");
+
+    private final String deskripsi;
+
+    StatusPelunasan(String deskripsi) {
+        this.deskripsi = deskripsi;
+    }
+
+    public String getDeskripsi() {
+        return deskripsi;
+    }
+}
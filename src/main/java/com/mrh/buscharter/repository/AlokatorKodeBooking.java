@@ -0,0 +1,122 @@
+package com.mrh.buscharter.repository;
+
+import com.mrh.buscharter.config.AppConfig;
+
+import java.time.Clock;
+import java.time.YearMonth;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Alokator kode booking BOOK/YYYY/MM/NNN per tenant per bulan.
+ *
+ * Nomor dibagikan dari blok yang sudah direservasi di database (satu upsert ... RETURNING
+ * per BOOKING_CODE_UKURAN_BLOK nomor). Jalur cepat hanya AtomicLong.getAndIncrement tanpa
+ * lock; saat blok habis satu thread per tenant/bulan mengisi ulang, thread lain menunggu.
+ * Beberapa client memegang blok berbeda, jadi kode unik lintas client tapi tidak urut waktu,
+ * dan nomor yang tersisa saat aplikasi berhenti dilewati.
+ */
+public final class AlokatorKodeBooking {
+
+    private static AlokatorKodeBooking instance;
+
+    /**
+     * Sumber blok nomor (database; diganti di test).
+     */
+    @FunctionalInterface
+    interface Reservasi {
+        /**
+         * @return Nomor terakhir blok yang direservasi; blok = (hasil - ukuran, hasil]
+         */
+        long reservasiBlok(Long tenantId, YearMonth periode, int ukuran);
+    }
+
+    private record Kunci(Long tenantId, YearMonth periode) {}
+
+    private static final class Blok {
+        private final AtomicLong berikutnya;
+        private final long akhir;
+
+        Blok(long awal, long akhir) {
+            this.berikutnya = new AtomicLong(awal);
+            this.akhir = akhir;
+        }
+
+        /**
+         * @return Nomor berikutnya, atau -1 jika blok habis
+         */
+        long ambil() {
+            long nomor = berikutnya.getAndIncrement();
+            return nomor <= akhir ? nomor : -1;
+        }
+    }
+
+    private final Reservasi reservasi;
+    private final int ukuranBlok;
+    private final Clock jam;
+    private final Map<Kunci, Blok> blokAktif = new ConcurrentHashMap<>();
+    private final Map<Kunci, Object> kunciIsiUlang = new ConcurrentHashMap<>();
+
+    AlokatorKodeBooking(Reservasi reservasi, int ukuranBlok, Clock jam) {
+        if (ukuranBlok < 1) {
+            throw new IllegalArgumentException("Ukuran blok harus positif");
+        }
+        this.reservasi = reservasi;
+        this.ukuranBlok = ukuranBlok;
+        this.jam = jam;
+    }
+
+    public static synchronized AlokatorKodeBooking getInstance() {
+        if (instance == null) {
+            instance = new AlokatorKodeBooking(new KodeBookingCounterRepository()::reservasiBlok,
+                AppConfig.BOOKING_CODE_UKURAN_BLOK, Clock.systemDefaultZone());
+        }
+        return instance;
+    }
+
+    /**
+     * Reset instance (untuk testing).
+     */
+    public static synchronized void resetInstance() {
+        instance = null;
+    }
+
+    /**
+     * Kode booking berikutnya untuk tenant pada bulan berjalan.
+     * Format: BOOK/YYYY/MM/NNN
+     */
+    public String berikutnya(Long tenantId) {
+        YearMonth periode = YearMonth.now(jam);
+        long nomor = alokasi(new Kunci(tenantId, periode));
+        return String.format(AppConfig.BOOKING_CODE_FORMAT, AppConfig.BOOKING_CODE_PREFIX,
+            periode.getYear(), periode.getMonthValue(), nomor);
+    }
+
+    private long alokasi(Kunci kunci) {
+        while (true) {
+            Blok blok = blokAktif.get(kunci);
+            if (blok != null) {
+                long nomor = blok.ambil();
+                if (nomor > 0) {
+                    return nomor;
+                }
+            }
+            isiUlang(kunci, blok);
+        }
+    }
+
+    private void isiUlang(Kunci kunci, Blok habis) {
+        synchronized (kunciIsiUlang.computeIfAbsent(kunci, k -> new Object())) {
+            if (blokAktif.get(kunci) != habis) {
+                return; // Sudah diisi thread lain
+            }
+            long akhir = reservasi.reservasiBlok(kunci.tenantId(), kunci.periode(), ukuranBlok);
+            blokAktif.put(kunci, new Blok(akhir - ukuranBlok + 1, akhir));
+
+            // Blok bulan sebelumnya tidak akan dipakai lagi
+            blokAktif.keySet().removeIf(k -> !k.periode().equals(kunci.periode()));
+            kunciIsiUlang.keySet().removeIf(k -> !k.periode().equals(kunci.periode()));
+        }
+    }
+}
@@ -1,19 +1,39 @@
 package com.mrh.buscharter.repository;
 
+import com.mrh.buscharter.config.AppConfig;
 import com.mrh.buscharter.config.DatabaseConfig;
+import com.mrh.buscharter.event.DomainEvent;
+import com.mrh.buscharter.event.OutboxRelay;
 import jakarta.persistence.EntityManager;
 import jakarta.persistence.EntityTransaction;
+import jakarta.persistence.NoResultException;
+import jakarta.persistence.NonUniqueResultException;
+import jakarta.persistence.PersistenceException;
 import jakarta.persistence.TypedQuery;
 import jakarta.persistence.criteria.CriteriaBuilder;
 import jakarta.persistence.criteria.CriteriaQuery;
 import jakarta.persistence.criteria.Root;
+import org.hibernate.ScrollMode;
+import org.hibernate.ScrollableResults;
+import org.hibernate.Session;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
+import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.Collection;
 import java.util.List;
+import java.util.Map;
 import java.util.Optional;
+import java.util.Set;
+import java.util.Spliterator;
+import java.util.Spliterators;
+import java.util.concurrent.ConcurrentHashMap;
 import java.util.function.Consumer;
 import java.util.function.Function;
+import java.util.function.Supplier;
+import java.util.stream.Stream;
+import java.util.stream.StreamSupport;
 
 /**
  * Base Repository dengan generic CRUD operations.
@@ -23,11 +43,26 @@ import java.util.function.Function;
  */
 public abstract class BaseRepository<T> {
 
+    private static final OutboxRepository outboxRepository = new OutboxRepository();
+    private static final StackWalker PENELUSUR = StackWalker.getInstance();
+    private static final Set<String> METODE_INTERNAL = Set.of("executeWithEntityManager",
+        "executeInTransaction", "executeInTransactionVoid", "diukur", "namaOperasi", "telusuriMetode");
+    /** Nama method pemanggil per call site (class lambda operasi), ditelusuri sekali saja. */
+    private static final Map<Class<?>, String> METODE_PER_OPERASI = new ConcurrentHashMap<>();
+    /** Operasi repository terluar yang sedang diukur di thread ini. */
+    private static final ThreadLocal<Boolean> SEDANG_DIUKUR = new ThreadLocal<>();
+
     protected final Logger logger = LoggerFactory.getLogger(getClass());
     protected final Class<T> entityClass;
+    private final String namaRepository;
 
     protected BaseRepository(Class<T> entityClass) {
         this.entityClass = entityClass;
+        Class<?> kelas = getClass();
+        while (kelas.isAnonymousClass()) {
+            kelas = kelas.getSuperclass();
+        }
+        this.namaRepository = kelas.getSimpleName();
     }
 
     /**
@@ -44,6 +79,78 @@ public abstract class BaseRepository<T> {
         });
     }
 
+    /**
+     * Simpan entity dan tulis domain events ke outbox dalam SATU transaksi.
+     * Events dibuat dari entity yang masih managed (relasi lazy bisa diakses)
+     * dan di-publish ke EventBus setelah commit.
+     */
+    public T save(T entity, Function<T, List<DomainEvent>> pembuatEvent) {
+        return executeInTransaction(em -> {
+            if (getEntityId(entity) == null) {
+                em.persist(entity);
+                return entity;
+            } else {
+                return em.merge(entity);
+            }
+        }, pembuatEvent);
+    }
+
+    /**
+     * Simpan banyak entity dalam satu transaksi dengan batch JDBC (hibernate.jdbc.batch_size).
+     * Persistence context di-flush setiap JDBC_BATCH_SIZE entity; di luar UnitOfWork juga
+     * di-clear agar memori tidak tumbuh untuk import besar (entity hasil menjadi detached).
+     * Insert hanya benar-benar di-batch untuk entity dengan ID sequence, bukan IDENTITY.
+     *
+     * @return Entity tersimpan, urutan sama dengan input
+     */
+    public List<T> saveAll(Collection<T> entities) {
+        if (entities.isEmpty()) {
+            return new ArrayList<>();
+        }
+        boolean bolehClear = !UnitOfWork.isAktif();
+        return executeInTransaction(em -> simpanSemua(em, entities, bolehClear));
+    }
+
+    /**
+     * saveAll + domain events yang ditulis ke outbox dalam transaksi yang sama.
+     * Persistence context tidak di-clear agar events bisa dibuat dari entity yang masih managed.
+     *
+     * @throws IllegalStateException jika ada entity yang belum mendapat ID setelah flush
+     */
+    public List<T> saveAll(Collection<T> entities, Function<List<T>, List<DomainEvent>> pembuatEvent) {
+        if (entities.isEmpty()) {
+            return new ArrayList<>();
+        }
+        return executeInTransaction(em -> simpanSemua(em, entities, false), hasil -> {
+            for (T entity : hasil) {
+                if (getEntityId(entity) == null) {
+                    throw new IllegalStateException(entityClass.getSimpleName() + " tersimpan tanpa ID");
+                }
+            }
+            return pembuatEvent.apply(hasil);
+        });
+    }
+
+    private List<T> simpanSemua(EntityManager em, Collection<T> entities, boolean bolehClear) {
+        List<T> hasil = new ArrayList<>(entities.size());
+        int jumlah = 0;
+        for (T entity : entities) {
+            if (getEntityId(entity) == null) {
+                em.persist(entity);
+                hasil.add(entity);
+            } else {
+                hasil.add(em.merge(entity));
+            }
+            if (++jumlah % AppConfig.JDBC_BATCH_SIZE == 0) {
+                em.flush();
+                if (bolehClear) {
+                    em.clear();
+                }
+            }
+        }
+        return hasil;
+    }
+
     /**
      * Cari entity berdasarkan ID.
      */
@@ -54,6 +161,21 @@ public abstract class BaseRepository<T> {
         });
     }
 
+    /**
+     * Cari banyak entity sekaligus berdasarkan ID (satu query IN).
+     */
+    public List<T> findAllByIds(Collection<Long> ids) {
+        if (ids.isEmpty()) {
+            return new ArrayList<>();
+        }
+        return executeWithEntityManager(em -> {
+            String jpql = "SELECT e FROM " + entityClass.getSimpleName() + " e WHERE e.id IN :ids";
+            TypedQuery<T> query = em.createQuery(jpql, entityClass);
+            query.setParameter("ids", ids);
+            return query.getResultList();
+        });
+    }
+
     /**
      * Ambil semua entity.
      */
@@ -79,6 +201,103 @@ public abstract class BaseRepository<T> {
         });
     }
 
+    /**
+     * Ambil satu halaman entity tenant dengan keyset pagination (ID > lastId, urut ID).
+     * Berbeda dengan OFFSET, biaya query sama di halaman ke berapa pun.
+     *
+     * @param lastId ID terakhir halaman sebelumnya, null untuk halaman pertama
+     * @param size Jumlah maksimum entity per halaman
+     */
+    public List<T> findPageAfter(Long tenantId, Long lastId, int size) {
+        if (size < 1) {
+            throw new IllegalArgumentException("Ukuran halaman harus positif");
+        }
+        return executeWithEntityManager(em -> {
+            String jpql = "SELECT e FROM " + entityClass.getSimpleName() + " e WHERE e.tenant.id = :tenantId"
+                + (lastId != null ? " AND e.id > :lastId" : "")
+                + " ORDER BY e.id";
+            TypedQuery<T> query = em.createQuery(jpql, entityClass);
+            query.setParameter("tenantId", tenantId);
+            if (lastId != null) {
+                query.setParameter("lastId", lastId);
+            }
+            query.setMaxResults(size);
+            return query.getResultList();
+        });
+    }
+
+    /**
+     * Keyset pagination dengan ukuran halaman AppConfig.DEFAULT_PAGE_SIZE.
+     */
+    public List<T> findPageAfter(Long tenantId, Long lastId) {
+        return findPageAfter(tenantId, lastId, AppConfig.DEFAULT_PAGE_SIZE);
+    }
+
+    /**
+     * Stream semua entity tenant (urut ID) lewat cursor database tanpa memuat semuanya ke heap.
+     * Baris diambil per DEFAULT_PAGE_SIZE (fetch size); entity yang sudah lewat di-detach dan
+     * persistence context di-clear setiap DEFAULT_PAGE_SIZE baris, sehingga memori tetap datar.
+     * Relasi lazy hanya bisa diakses selama entity sedang diproses.
+     *
+     * Stream memegang koneksi sendiri dan WAJIB ditutup (try-with-resources).
+     * Tidak ikut UnitOfWork: perubahan yang belum di-commit tidak terlihat.
+     */
+    public Stream<T> streamByTenantId(Long tenantId) {
+        EntityManager em = DatabaseConfig.getEntityManager();
+        EntityTransaction tx = em.getTransaction();
+        ScrollableResults<T> hasil;
+        try {
+            tx.begin(); // Driver PostgreSQL hanya memakai cursor (fetch size) di luar autocommit
+            String jpql = "SELECT e FROM " + entityClass.getSimpleName() + " e WHERE e.tenant.id = :tenantId"
+                + " ORDER BY e.id";
+            hasil = em.unwrap(Session.class).createQuery(jpql, entityClass)
+                .setParameter("tenantId", tenantId)
+                .setFetchSize(AppConfig.DEFAULT_PAGE_SIZE)
+                .setReadOnly(true)
+                .scroll(ScrollMode.FORWARD_ONLY);
+        } catch (RuntimeException e) {
+            if (tx.isActive()) {
+                tx.rollback();
+            }
+            em.close();
+            throw e;
+        }
+
+        Spliterator<T> spliterator = new Spliterators.AbstractSpliterator<T>(
+                Long.MAX_VALUE, Spliterator.ORDERED | Spliterator.NONNULL) {
+            private T sebelumnya;
+            private long jumlah;
+
+            @Override
+            public boolean tryAdvance(Consumer<? super T> action) {
+                if (sebelumnya != null) {
+                    em.detach(sebelumnya);
+                    sebelumnya = null;
+                }
+                if (jumlah > 0 && jumlah % AppConfig.DEFAULT_PAGE_SIZE == 0) {
+                    em.clear(); // Relasi yang sempat di-load ikut dilepas
+                }
+                if (!hasil.next()) {
+                    return false;
+                }
+                jumlah++;
+                sebelumnya = hasil.get();
+                action.accept(sebelumnya);
+                return true;
+            }
+        };
+        return StreamSupport.stream(spliterator, false).onClose(() -> {
+            try {
+                hasil.close();
+            } finally {
+                if (tx.isActive()) {
+                    tx.rollback(); // Read-only, tidak ada yang perlu di-commit
+                }
+                em.close();
+            }
+        });
+    }
+
     /**
      * Hapus entity berdasarkan ID.
      */
@@ -131,24 +350,59 @@ public abstract class BaseRepository<T> {
         });
     }
 
+    /**
+     * Buang entity dari second-level cache setelah diubah, agar pembacaan berikutnya
+     * (termasuk dari query cache) mengambil data terbaru dari database.
+     * Subclass dengan query cache menimpa method ini untuk ikut membuang region query-nya.
+     */
+    public void evictCache(Long id) {
+        DatabaseConfig.evictCache(entityClass, id);
+    }
+
     // ==================== Helper Methods ====================
 
+    /**
+     * Simpan hasil query di query cache (region di application.conf).
+     * Hibernate meng-invalidate hasilnya otomatis saat tabel terkait diubah lewat aplikasi ini;
+     * perubahan dari client lain terlihat setelah TTL region habis.
+     */
+    protected static void cacheQuery(TypedQuery<?> query, String region) {
+        query.setHint("org.hibernate.cacheable", true);
+        query.setHint("org.hibernate.cacheRegion", region);
+    }
+
     /**
      * Execute operation dengan EntityManager (read-only).
+     * Di dalam UnitOfWork memakai EntityManager milik unit of work.
      */
     protected <R> R executeWithEntityManager(Function<EntityManager, R> operation) {
-        EntityManager em = DatabaseConfig.getEntityManager();
-        try {
-            return operation.apply(em);
-        } finally {
-            em.close();
-        }
+        return diukur(operation, () -> {
+            UnitOfWork uow = UnitOfWork.aktif();
+            if (uow != null) {
+                return dalamUnitOfWork(uow, operation, false);
+            }
+            EntityManager em = DatabaseConfig.getEntityManager();
+            try {
+                return operation.apply(em);
+            } finally {
+                em.close();
+            }
+        });
     }
 
     /**
      * Execute operation dalam transaction (write).
+     * Di dalam UnitOfWork ikut transaksi unit of work (commit bersama di akhir).
      */
     protected <R> R executeInTransaction(Function<EntityManager, R> operation) {
+        return diukur(operation, () -> dalamTransaksi(operation));
+    }
+
+    private <R> R dalamTransaksi(Function<EntityManager, R> operation) {
+        UnitOfWork uow = UnitOfWork.aktif();
+        if (uow != null) {
+            return dalamUnitOfWork(uow, operation, true);
+        }
         EntityManager em = DatabaseConfig.getEntityManager();
         EntityTransaction tx = em.getTransaction();
         try {
@@ -167,25 +421,173 @@ public abstract class BaseRepository<T> {
         }
     }
 
+    /**
+     * Execute operation dalam transaction, dengan domain events yang ditulis ke outbox
+     * sebelum commit (transaksi yang sama) lalu di-publish setelah commit.
+     * Jika aplikasi berhenti di antara commit dan publish, OutboxRelay mengirim ulang.
+     * Di dalam UnitOfWork, publish ditunda sampai unit of work commit.
+     */
+    protected <R> R executeInTransaction(Function<EntityManager, R> operation,
+                                         Function<R, List<DomainEvent>> pembuatEvent) {
+        List<DomainEvent> siapTerbit = new ArrayList<>();
+        R hasil = diukur(operation, () -> {
+            UnitOfWork uow = UnitOfWork.aktif();
+            if (uow != null) {
+                List<DomainEvent> events = new ArrayList<>();
+                R result = dalamUnitOfWork(uow, em -> {
+                    R r = operation.apply(em);
+                    em.flush(); // ID dan constraint sudah final sebelum event dibuat
+                    events.addAll(pembuatEvent.apply(r));
+                    outboxRepository.simpan(em, events);
+                    return r;
+                }, true);
+                uow.tundaEvent(events);
+                return result;
+            }
+
+            EntityManager em = DatabaseConfig.getEntityManager();
+            EntityTransaction tx = em.getTransaction();
+            R result;
+            List<DomainEvent> events;
+            try {
+                tx.begin();
+                result = operation.apply(em);
+                em.flush(); // ID dan constraint sudah final sebelum event dibuat
+                events = pembuatEvent.apply(result);
+                outboxRepository.simpan(em, events);
+                tx.commit();
+            } catch (Exception e) {
+                if (tx.isActive()) {
+                    tx.rollback();
+                }
+                logger.error("Error dalam transaksi: {}", e.getMessage(), e);
+                throw new RuntimeException("Gagal menjalankan operasi database", e);
+            } finally {
+                em.close();
+            }
+            siapTerbit.addAll(events);
+            return result;
+        });
+        // Handler event tidak ikut dihitung sebagai waktu query
+        if (!siapTerbit.isEmpty()) {
+            OutboxRelay.getInstance().terbitkanSetelahCommit(siapTerbit);
+        }
+        return hasil;
+    }
+
     /**
      * Execute operation dalam transaction tanpa return value.
      */
     protected void executeInTransactionVoid(Consumer<EntityManager> operation) {
-        EntityManager em = DatabaseConfig.getEntityManager();
-        EntityTransaction tx = em.getTransaction();
-        try {
-            tx.begin();
+        diukur(operation, () -> dalamTransaksi(em -> {
             operation.accept(em);
-            tx.commit();
-        } catch (Exception e) {
-            if (tx.isActive()) {
-                tx.rollback();
+            return null;
+        }));
+    }
+
+    /**
+     * Jalankan operation dengan EntityManager unit of work yang aktif.
+     * Operasi tulis yang gagal selalu menandai seluruh unit of work rollback dan exception-nya
+     * dibungkus sama seperti di luar unit of work. Operasi baca hanya menandai rollback jika
+     * gagal di database (lihat isGagalDatabase); exception aplikasi dilempar ulang apa adanya
+     * agar pemanggil yang menangkapnya tetap bisa commit.
+     */
+    private <R> R dalamUnitOfWork(UnitOfWork uow, Function<EntityManager, R> operation, boolean tulis) {
+        try {
+            return operation.apply(uow.getEntityManager());
+        } catch (RuntimeException e) {
+            if (tulis || isGagalDatabase(e)) {
+                uow.tandaiRollback();
+            }
+            if (!tulis) {
+                throw e;
             }
             logger.error("Error dalam transaksi: {}", e.getMessage(), e);
             throw new RuntimeException("Gagal menjalankan operasi database", e);
+        }
+    }
+
+    /**
+     * Exception berasal dari JPA/Hibernate atau driver JDBC (transaksi database mungkin sudah
+     * tidak bisa dipakai). NoResultException dan NonUniqueResultException tidak termasuk,
+     * sama seperti aturan rollback JPA.
+     */
+    static boolean isGagalDatabase(Throwable e) {
+        for (Throwable t = e; t != null; t = t.getCause()) {
+            if (t instanceof NoResultException || t instanceof NonUniqueResultException) {
+                return false;
+            }
+            if (t instanceof PersistenceException || t instanceof SQLException) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * Jalankan operasi sambil mencatat durasi, jumlah baris, dan SQL-nya ke MetrikQuery.
+     * Hanya operasi terluar yang dicatat; operasi repository bersarang di dalamnya (waktu dan
+     * SQL-nya) ikut terhitung milik operasi luar, tidak dicatat dua kali.
+     *
+     * @param kunci Lambda operasi dari pemanggil; class-nya menandai call site untuk namaOperasi
+     */
+    private <R> R diukur(Object kunci, Supplier<R> operasi) {
+        if (SEDANG_DIUKUR.get() != null) {
+            return operasi.get();
+        }
+        SEDANG_DIUKUR.set(Boolean.TRUE);
+        long mulai = System.nanoTime();
+        PemeriksaSql.mulai();
+        R hasil = null;
+        boolean gagal = true;
+        try {
+            hasil = operasi.get();
+            gagal = false;
+            return hasil;
         } finally {
-            em.close();
+            long durasi = System.nanoTime() - mulai;
+            List<String> sql = PemeriksaSql.selesai();
+            SEDANG_DIUKUR.remove();
+            MetrikQuery.getInstance().catat(namaOperasi(kunci), durasi, gagal ? 0 : jumlahBaris(hasil), gagal, sql);
+        }
+    }
+
+    /**
+     * Nama query untuk metrik: "NamaRepository.method" pemanggil pertama di luar BaseRepository
+     * (method publik BaseRepository seperti findById tercatat dengan namanya sendiri).
+     * Stack hanya ditelusuri pada panggilan pertama per call site, setelah itu dari cache.
+     */
+    private String namaOperasi(Object kunci) {
+        String metode = METODE_PER_OPERASI.get(kunci.getClass());
+        if (metode == null) {
+            metode = telusuriMetode();
+            METODE_PER_OPERASI.putIfAbsent(kunci.getClass(), metode);
+        }
+        return namaRepository + "." + metode;
+    }
+
+    private static String telusuriMetode() {
+        return PENELUSUR.walk(frames -> frames
+            .filter(f -> !METODE_INTERNAL.contains(f.getMethodName()) && !f.getMethodName().startsWith("lambda$"))
+            .findFirst()
+            .map(StackWalker.StackFrame::getMethodName)
+            .orElse("?"));
+    }
+
+    private static long jumlahBaris(Object hasil) {
+        if (hasil == null) {
+            return 0;
+        }
+        if (hasil instanceof Collection<?> koleksi) {
+            return koleksi.size();
+        }
+        if (hasil instanceof Optional<?> opsional) {
+            return opsional.isPresent() ? 1 : 0;
+        }
+        if (hasil instanceof Stream<?>) {
+            return -1;
         }
+        return 1;
     }
 
     /**
@@ -2,10 +2,15 @@ package com.mrh.buscharter.repository;
 
 import com.mrh.buscharter.model.BookingCharge;
 import com.mrh.buscharter.model.enums.TipeCharge;
+import jakarta.persistence.LockModeType;
 import jakarta.persistence.TypedQuery;
 
 import java.math.BigDecimal;
+import java.util.Collection;
+import java.util.HashMap;
 import java.util.List;
+import java.util.Map;
+import java.util.Optional;
 
 /**
  * Repository untuk entity BookingCharge.
@@ -21,6 +26,18 @@ public class BookingChargeRepository extends BaseRepository<BookingCharge> {
         return entity.getId();
     }
 
+    /**
+     * Cari charge dengan row lock (SELECT ... FOR UPDATE) untuk diubah atau dihapus.
+     * Panggil di dalam UnitOfWork yang sama dengan update ledger: nilai lama yang dibaca
+     * tetap berlaku sampai commit, sehingga dua perubahan bersamaan pada charge yang sama
+     * tidak menghitung delta ledger dari nilai yang sama. Charge yang dihapus transaksi lain
+     * selagi menunggu lock menghasilkan Optional.empty.
+     */
+    public Optional<BookingCharge> findByIdUntukUpdate(Long chargeId) {
+        return executeInTransaction(em ->
+            Optional.ofNullable(em.find(BookingCharge.class, chargeId, LockModeType.PESSIMISTIC_WRITE)));
+    }
+
     /**
      * Cari semua charge berdasarkan booking.
      */
@@ -99,4 +116,37 @@ public class BookingChargeRepository extends BaseRepository<BookingCharge> {
               .executeUpdate();
         });
     }
+
+    /**
+     * Hitung grand total untuk banyak booking sekaligus (satu query GROUP BY).
+     * Booking tanpa charge bernilai nol.
+     *
+     * @return Map bookingId ke grand total
+     */
+    public Map<Long, BigDecimal> hitungGrandTotalPerBooking(Collection<Long> bookingIds) {
+        Map<Long, BigDecimal> hasil = new HashMap<>();
+        bookingIds.forEach(id -> hasil.put(id, BigDecimal.ZERO));
+        if (bookingIds.isEmpty()) {
+            return hasil;
+        }
+        List<Object[]> rows = executeWithEntityManager(em -> em.createQuery(
+                "SELECT bc.booking.id, bc.tipeCharge, COALESCE(SUM(bc.totalHarga), 0) FROM BookingCharge bc " +
+                "WHERE bc.booking.id IN :bookingIds " +
+                "GROUP BY bc.booking.id, bc.tipeCharge",
+                Object[].class)
+            .setParameter("bookingIds", bookingIds)
+            .getResultList());
+
+        for (Object[] row : rows) {
+            Long bookingId = (Long) row[0];
+            TipeCharge tipe = (TipeCharge) row[1];
+            BigDecimal jumlah = (BigDecimal) row[2];
+            if (tipe == TipeCharge.UTAMA || tipe == TipeCharge.TAMBAHAN) {
+                hasil.merge(bookingId, jumlah, BigDecimal::add);
+            } else if (tipe == TipeCharge.DISKON) {
+                hasil.merge(bookingId, jumlah.negate(), BigDecimal::add);
+            }
+        }
+        return hasil;
+    }
 }
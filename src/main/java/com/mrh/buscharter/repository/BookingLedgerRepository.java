@@ -0,0 +1,132 @@
+package com.mrh.buscharter.repository;
+
+import com.mrh.buscharter.model.BookingLedger;
+import com.mrh.buscharter.model.dto.PiutangBooking;
+import com.mrh.buscharter.model.enums.StatusBooking;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.LockModeType;
+
+import java.math.BigDecimal;
+import java.util.List;
+
+/**
+ * Repository untuk entity BookingLedger.
+ *
+ * Perubahan dijalankan dengan row lock (SELECT ... FOR UPDATE) pada baris ledger, sehingga
+ * charge/payment yang dicatat bersamaan untuk booking yang sama tidak saling menimpa.
+ * Panggil di dalam UnitOfWork yang sama dengan penulisan charge/payment agar atomik.
+ */
+public class BookingLedgerRepository extends BaseRepository<BookingLedger> {
+
+    // Booking yang tagihannya sudah mengikat (DRAFT/QUOTATION_SENT belum, BATAL tidak lagi)
+    private static final List<StatusBooking> STATUS_PIUTANG =
+        List.of(StatusBooking.DP_DITERIMA, StatusBooking.LUNAS, StatusBooking.SELESAI);
+
+    public BookingLedgerRepository() {
+        super(BookingLedger.class);
+    }
+
+    @Override
+    protected Long getEntityId(BookingLedger entity) {
+        return entity.getBookingId();
+    }
+
+    /**
+     * Buat ledger kosong untuk booking baru.
+     */
+    public BookingLedger buatUntukBooking(Long bookingId, Long tenantId) {
+        return executeInTransaction(em -> {
+            BookingLedger ledger = new BookingLedger(bookingId, tenantId);
+            em.persist(ledger);
+            return ledger;
+        });
+    }
+
+    /**
+     * Catat perubahan charge (UTAMA + TAMBAHAN) dan diskon untuk booking.
+     */
+    public BookingLedger catatPerubahanCharge(Long bookingId, BigDecimal deltaCharge, BigDecimal deltaDiskon) {
+        return terapkan(bookingId, deltaCharge, deltaDiskon, BigDecimal.ZERO);
+    }
+
+    /**
+     * Catat pembayaran masuk untuk booking.
+     */
+    public BookingLedger catatPembayaran(Long bookingId, BigDecimal jumlah) {
+        return terapkan(bookingId, BigDecimal.ZERO, BigDecimal.ZERO, jumlah);
+    }
+
+    /**
+     * Ambil ledger booking; dihitung dari data sumber jika barisnya belum ada.
+     */
+    public BookingLedger findOrHitung(Long bookingId) {
+        return findById(bookingId).orElseGet(() -> hitungUlang(bookingId));
+    }
+
+    /**
+     * Hitung ulang ledger dari booking_charges dan payments (rekonsiliasi / perbaikan data).
+     *
+     * @throws IllegalArgumentException jika booking tidak ditemukan
+     */
+    public BookingLedger hitungUlang(Long bookingId) {
+        return executeInTransaction(em -> {
+            BookingLedger ledger = em.find(BookingLedger.class, bookingId, LockModeType.PESSIMISTIC_WRITE);
+            return hitungDariSumber(em, bookingId, ledger);
+        });
+    }
+
+    /**
+     * Semua booking tenant yang masih punya outstanding, beserta customer, sales PIC,
+     * dan waktu mulai trip pertama (satu query; memakai partial index outstanding > 0).
+     */
+    public List<PiutangBooking> findPiutangByTenantId(Long tenantId) {
+        return executeWithEntityManager(em -> em.createQuery(
+                "SELECT new com.mrh.buscharter.model.dto.PiutangBooking(" +
+                "b.id, b.kodeBooking, c.id, c.nama, s.id, s.namaLengkap, l.outstanding, MIN(t.waktuMulai)) " +
+                "FROM BookingLedger l JOIN Booking b ON b.id = l.bookingId " +
+                "LEFT JOIN b.customer c LEFT JOIN b.salesPic s LEFT JOIN b.trips t " +
+                "WHERE l.tenantId = :tenantId AND l.outstanding > 0 AND b.status IN :status " +
+                "GROUP BY b.id, b.kodeBooking, c.id, c.nama, s.id, s.namaLengkap, l.outstanding " +
+                "ORDER BY b.id",
+                PiutangBooking.class)
+            .setParameter("tenantId", tenantId)
+            .setParameter("status", STATUS_PIUTANG)
+            .getResultList());
+    }
+
+    private BookingLedger terapkan(Long bookingId, BigDecimal deltaCharge, BigDecimal deltaDiskon,
+                                   BigDecimal deltaPembayaran) {
+        return executeInTransaction(em -> {
+            BookingLedger ledger = em.find(BookingLedger.class, bookingId, LockModeType.PESSIMISTIC_WRITE);
+            if (ledger == null) {
+                // Booking lama tanpa baris ledger: perubahan saat ini sudah ikut terhitung dari sumber
+                return hitungDariSumber(em, bookingId, null);
+            }
+            ledger.terapkan(deltaCharge, deltaDiskon, deltaPembayaran);
+            return ledger;
+        });
+    }
+
+    private BookingLedger hitungDariSumber(EntityManager em, Long bookingId, BookingLedger ledger) {
+        Object[] total = em.createQuery(
+                "SELECT b.tenant.id, " +
+                "COALESCE((SELECT SUM(bc.totalHarga) FROM BookingCharge bc " +
+                "    WHERE bc.booking = b AND bc.tipeCharge IN ('UTAMA', 'TAMBAHAN')), 0), " +
+                "COALESCE((SELECT SUM(bd.totalHarga) FROM BookingCharge bd " +
+                "    WHERE bd.booking = b AND bd.tipeCharge = 'DISKON'), 0), " +
+                "COALESCE((SELECT SUM(p.jumlah) FROM Payment p WHERE p.booking = b), 0) " +
+                "FROM Booking b WHERE b.id = :bookingId",
+                Object[].class)
+            .setParameter("bookingId", bookingId)
+            .getResultStream()
+            .findFirst()
+            .orElseThrow(() -> new IllegalArgumentException("Booking tidak ditemukan: " + bookingId));
+
+        if (ledger == null) {
+            ledger = new BookingLedger(bookingId, (Long) total[0]);
+            em.persist(ledger);
+        }
+        ledger.set((BigDecimal) total[1], (BigDecimal) total[2], (BigDecimal) total[3]);
+        return ledger;
+    }
+}
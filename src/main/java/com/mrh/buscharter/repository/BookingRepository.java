@@ -1,10 +1,13 @@
 package com.mrh.buscharter.repository;
 
 import com.mrh.buscharter.model.Booking;
+import com.mrh.buscharter.model.dto.BookingSummary;
 import com.mrh.buscharter.model.enums.StatusBooking;
 import jakarta.persistence.TypedQuery;
 
 import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Collection;
 import java.util.List;
 import java.util.Optional;
 
@@ -119,28 +122,11 @@ public class BookingRepository extends BaseRepository<Booking> {
     }
 
     /**
-     * Generate kode booking baru.
+     * Generate kode booking baru (unik per tenant per bulan, tanpa query ke tabel bookings).
      * Format: BOOK/YYYY/MM/NNN
      */
     public String generateKodeBooking(Long tenantId) {
-        return executeWithEntityManager(em -> {
-            LocalDateTime now = LocalDateTime.now();
-            int year = now.getYear();
-            int month = now.getMonthValue();
-            
-            // Hitung jumlah booking bulan ini
-            TypedQuery<Long> query = em.createQuery(
-                "SELECT COUNT(b) FROM Booking b WHERE b.tenant.id = :tenantId " +
-                "AND YEAR(b.tanggalBooking) = :year AND MONTH(b.tanggalBooking) = :month", 
-                Long.class);
-            query.setParameter("tenantId", tenantId);
-            query.setParameter("year", year);
-            query.setParameter("month", month);
-            
-            long count = query.getSingleResult() + 1;
-            
-            return String.format("BOOK/%d/%02d/%03d", year, month, count);
-        });
+        return AlokatorKodeBooking.getInstance().berikutnya(tenantId);
     }
 
     /**
@@ -160,4 +146,109 @@ public class BookingRepository extends BaseRepository<Booking> {
             return query.getResultStream().findFirst();
         });
     }
+
+    // ==================== PROYEKSI DAFTAR ====================
+
+    /**
+     * Kolom BookingSummary; grand total dan total pembayaran dibaca dari booking_ledger
+     * (join primary key) sehingga satu query mengisi satu halaman tabel tanpa agregasi.
+     */
+    private static final String SELECT_SUMMARY =
+        "SELECT new com.mrh.buscharter.model.dto.BookingSummary(" +
+        "b.id, b.kodeBooking, c.nama, b.status, b.tanggalBooking, " +
+        "COALESCE(l.grandTotal, 0), COALESCE(l.totalPembayaran, 0)) " +
+        "FROM Booking b JOIN b.customer c LEFT JOIN BookingLedger l ON l.bookingId = b.id ";
+
+    /**
+     * Satu halaman ringkasan booking tenant (keyset, urut ID).
+     *
+     * @param lastId ID terakhir halaman sebelumnya, null untuk halaman pertama
+     */
+    public List<BookingSummary> findSummaryPageAfter(Long tenantId, Long lastId, int size) {
+        if (size < 1) {
+            throw new IllegalArgumentException("Ukuran halaman harus positif");
+        }
+        return executeWithEntityManager(em -> {
+            TypedQuery<BookingSummary> query = em.createQuery(
+                SELECT_SUMMARY +
+                "WHERE b.tenant.id = :tenantId" +
+                (lastId != null ? " AND b.id > :lastId" : "") +
+                " ORDER BY b.id",
+                BookingSummary.class);
+            query.setParameter("tenantId", tenantId);
+            if (lastId != null) {
+                query.setParameter("lastId", lastId);
+            }
+            query.setMaxResults(size);
+            return query.getResultList();
+        });
+    }
+
+    /**
+     * Ringkasan booking berdasarkan status dan tenant.
+     */
+    public List<BookingSummary> findSummaryByStatusAndTenantId(StatusBooking status, Long tenantId) {
+        return executeWithEntityManager(em -> {
+            TypedQuery<BookingSummary> query = em.createQuery(
+                SELECT_SUMMARY +
+                "WHERE b.status = :status AND b.tenant.id = :tenantId " +
+                "ORDER BY b.tanggalBooking DESC",
+                BookingSummary.class);
+            query.setParameter("status", status);
+            query.setParameter("tenantId", tenantId);
+            return query.getResultList();
+        });
+    }
+
+    /**
+     * Ringkasan booking dalam rentang tanggal.
+     */
+    public List<BookingSummary> findSummaryByTanggalBookingBetweenAndTenantId(
+            LocalDateTime mulai, LocalDateTime selesai, Long tenantId) {
+        return executeWithEntityManager(em -> {
+            TypedQuery<BookingSummary> query = em.createQuery(
+                SELECT_SUMMARY +
+                "WHERE b.tanggalBooking BETWEEN :mulai AND :selesai " +
+                "AND b.tenant.id = :tenantId ORDER BY b.tanggalBooking DESC",
+                BookingSummary.class);
+            query.setParameter("mulai", mulai);
+            query.setParameter("selesai", selesai);
+            query.setParameter("tenantId", tenantId);
+            return query.getResultList();
+        });
+    }
+
+    /**
+     * Ringkasan booking yang belum lunas (untuk modul keuangan).
+     */
+    public List<BookingSummary> findSummaryBelumLunasByTenantId(Long tenantId) {
+        return executeWithEntityManager(em -> {
+            TypedQuery<BookingSummary> query = em.createQuery(
+                SELECT_SUMMARY +
+                "WHERE b.status IN ('DP_DITERIMA') " +
+                "AND b.tenant.id = :tenantId ORDER BY b.tanggalBooking",
+                BookingSummary.class);
+            query.setParameter("tenantId", tenantId);
+            return query.getResultList();
+        });
+    }
+
+    /**
+     * Ambil banyak booking sekaligus dengan customer dan tenant (satu query, untuk laporan batch).
+     */
+    public List<Booking> findByIdsWithCustomerAndTenant(Collection<Long> ids) {
+        if (ids.isEmpty()) {
+            return new ArrayList<>();
+        }
+        return executeWithEntityManager(em -> {
+            TypedQuery<Booking> query = em.createQuery(
+                "SELECT b FROM Booking b " +
+                "LEFT JOIN FETCH b.customer " +
+                "JOIN FETCH b.tenant " +
+                "WHERE b.id IN :ids",
+                Booking.class);
+            query.setParameter("ids", ids);
+            return query.getResultList();
+        });
+    }
 }
@@ -1,5 +1,6 @@
 package com.mrh.buscharter.repository;
 
+import com.mrh.buscharter.config.DatabaseConfig;
 import com.mrh.buscharter.model.Driver;
 import jakarta.persistence.TypedQuery;
 
@@ -12,6 +13,8 @@ import java.util.Optional;
  */
 public class DriverRepository extends BaseRepository<Driver> {
 
+    private static final String CACHE_REGION_QUERY = "driver-query";
+
     public DriverRepository() {
         super(Driver.class);
     }
@@ -21,6 +24,12 @@ public class DriverRepository extends BaseRepository<Driver> {
         return entity.getId();
     }
 
+    @Override
+    public void evictCache(Long id) {
+        super.evictCache(id);
+        DatabaseConfig.evictQueryRegion(CACHE_REGION_QUERY);
+    }
+
     /**
      * Cari driver berdasarkan nomor telepon dan tenant.
      */
@@ -45,37 +54,57 @@ public class DriverRepository extends BaseRepository<Driver> {
                 "ORDER BY d.namaLengkap", 
                 Driver.class);
             query.setParameter("tenantId", tenantId);
+            cacheQuery(query, CACHE_REGION_QUERY);
             return query.getResultList();
         });
     }
 
     /**
      * Cari driver yang tersedia pada rentang tanggal tertentu.
-     * Driver dianggap tidak tersedia jika sudah di-assign ke trip yang overlap.
+     * Driver dianggap tidak tersedia jika sudah di-assign (sebagai driver maupun co-driver)
+     * ke trip yang overlap, atau SIM-nya habis sebelum trip selesai.
      */
     public List<Driver> findDriverTersedia(Long tenantId, LocalDateTime tanggalMulai, 
                                             LocalDateTime tanggalSelesai) {
+        return findDriverTersedia(tenantId, tanggalMulai, tanggalSelesai, 0);
+    }
+
+    /**
+     * Cari driver yang tersedia dengan jeda istirahat minimum sebelum/sesudah trip.
+     * 
+     * @param jedaIstirahatJam Tugas lain yang berjarak kurang dari ini juga dianggap bentrok
+     */
+    public List<Driver> findDriverTersedia(Long tenantId, LocalDateTime tanggalMulai, 
+                                            LocalDateTime tanggalSelesai, int jedaIstirahatJam) {
         return executeWithEntityManager(em -> {
             String jpql = "SELECT d FROM Driver d " +
                 "WHERE d.tenant.id = :tenantId " +
                 "AND d.status = 'AKTIF' " +
-                "AND d.id NOT IN (" +
-                "  SELECT ta.driver.id FROM TripAssignment ta " +
+                "AND (d.masaBerlakuSim IS NULL OR d.masaBerlakuSim > :tanggalSim) " +
+                "AND NOT EXISTS (" +
+                "  SELECT ta.id FROM TripAssignment ta " +
                 "  JOIN ta.trip t " +
                 "  JOIN t.booking b " +
-                "  WHERE b.tenant.id = :tenantId " +
+                "  WHERE (ta.driver = d OR ta.coDriver = d) " +
                 "  AND b.status IN ('DP_DITERIMA', 'LUNAS', 'SELESAI') " +
                 "  AND ta.statusAssignment != 'BATAL' " +
-                "  AND ta.driver IS NOT NULL " +
-                "  AND t.waktuMulai <= :tanggalSelesai " +
-                "  AND t.waktuSelesai >= :tanggalMulai " +
+                "  AND t.waktuMulai <= :batasSelesai " +
+                "  AND t.waktuSelesai >= :batasMulai " +
                 ") " +
                 "ORDER BY d.namaLengkap";
             
+            // Rumus irisan dengan rentang diperlebar (jeda - 1 detik):
+            // tugas berjarak kurang dari jeda dianggap bentrok, jeda tepat boleh
+            LocalDateTime batasMulai = jedaIstirahatJam > 0 
+                ? tanggalMulai.minusHours(jedaIstirahatJam).plusSeconds(1) : tanggalMulai;
+            LocalDateTime batasSelesai = jedaIstirahatJam > 0 
+                ? tanggalSelesai.plusHours(jedaIstirahatJam).minusSeconds(1) : tanggalSelesai;
+            
             TypedQuery<Driver> query = em.createQuery(jpql, Driver.class);
             query.setParameter("tenantId", tenantId);
-            query.setParameter("tanggalMulai", tanggalMulai);
-            query.setParameter("tanggalSelesai", tanggalSelesai);
+            query.setParameter("tanggalSim", tanggalSelesai.toLocalDate());
+            query.setParameter("batasMulai", batasMulai);
+            query.setParameter("batasSelesai", batasSelesai);
             return query.getResultList();
         });
     }
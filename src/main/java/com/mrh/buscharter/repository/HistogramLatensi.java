@@ -0,0 +1,89 @@
+package com.mrh.buscharter.repository;
+
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * Histogram latensi lock-free (gaya HdrHistogram, log-linear).
+ *
+ * Nilai (nanodetik) dipetakan ke bucket: per pangkat dua dibagi 32 sub-bucket linear,
+ * jadi persentil yang dilaporkan paling banyak ~3% di atas nilai sebenarnya untuk rentang
+ * nilai berapa pun, dengan memori tetap (1.920 counter). catat() hanya satu incrementAndGet
+ * pada bucket plus dua counter, aman dipanggil dari banyak thread.
+ */
+public final class HistogramLatensi {
+
+    private static final int BIT_SUB_BUCKET = 5;
+    private static final int SUB_BUCKET = 1 << BIT_SUB_BUCKET;
+    private static final int JUMLAH_BUCKET = (Long.SIZE - BIT_SUB_BUCKET + 1) * SUB_BUCKET;
+
+    private final AtomicLongArray bucket = new AtomicLongArray(JUMLAH_BUCKET);
+    private final AtomicLong jumlah = new AtomicLong();
+    private final AtomicLong maks = new AtomicLong();
+
+    /**
+     * Catat satu nilai; nilai negatif dicatat sebagai 0.
+     */
+    public void catat(long nilai) {
+        long v = Math.max(0, nilai);
+        bucket.incrementAndGet(indeks(v));
+        jumlah.incrementAndGet();
+        maks.accumulateAndGet(v, Math::max);
+    }
+
+    public long getJumlah() {
+        return jumlah.get();
+    }
+
+    public long getMaks() {
+        return maks.get();
+    }
+
+    /**
+     * Nilai pada persentil tertentu (batas atas bucket, tidak melebihi maks).
+     *
+     * @param persen 0-100
+     * @return 0 jika belum ada data
+     */
+    public long persentil(double persen) {
+        if (persen < 0 || persen > 100) {
+            throw new IllegalArgumentException("Persentil harus 0-100: " + persen);
+        }
+        long total = 0;
+        long[] salinan = new long[JUMLAH_BUCKET];
+        for (int i = 0; i < JUMLAH_BUCKET; i++) {
+            salinan[i] = bucket.get(i);
+            total += salinan[i];
+        }
+        if (total == 0) {
+            return 0;
+        }
+        long target = Math.max(1, (long) Math.ceil(persen / 100.0 * total));
+        long kumulatif = 0;
+        for (int i = 0; i < JUMLAH_BUCKET; i++) {
+            kumulatif += salinan[i];
+            if (kumulatif >= target) {
+                return Math.min(batasAtas(i), maks.get());
+            }
+        }
+        return maks.get();
+    }
+
+    static int indeks(long v) {
+        if (v < SUB_BUCKET) {
+            return (int) v;
+        }
+        int pangkat = Long.SIZE - 1 - Long.numberOfLeadingZeros(v);
+        int geser = pangkat - BIT_SUB_BUCKET;
+        return ((geser + 1) << BIT_SUB_BUCKET) + (int) ((v >>> geser) - SUB_BUCKET);
+    }
+
+    static long batasAtas(int indeks) {
+        if (indeks < SUB_BUCKET) {
+            return indeks;
+        }
+        int geser = (indeks >> BIT_SUB_BUCKET) - 1;
+        long dasar = (indeks & (SUB_BUCKET - 1)) + SUB_BUCKET;
+        return ((dasar + 1) << geser) - 1;
+    }
+}
@@ -0,0 +1,48 @@
+package com.mrh.buscharter.repository;
+
+import com.mrh.buscharter.config.DatabaseConfig;
+
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.time.YearMonth;
+
+/**
+ * Repository untuk tabel booking_code_counter (dibuat oleh db/migrasi/V3__booking_code_counter.sql).
+ *
+ * Reservasi berjalan di koneksi sendiri (autocommit), bukan di transaksi pemanggil:
+ * row lock counter hanya ditahan selama satu statement, dan nomor yang sudah direservasi
+ * tidak dikembalikan meskipun transaksi booking gagal (seperti sequence).
+ */
+public class KodeBookingCounterRepository {
+
+    private static final String SQL_RESERVASI =
+        "INSERT INTO booking_code_counter (tenant_id, year, month, last_value) VALUES (?, ?, ?, ?) " +
+        "ON CONFLICT (tenant_id, year, month) DO UPDATE " +
+        "SET last_value = booking_code_counter.last_value + EXCLUDED.last_value " +
+        "RETURNING last_value";
+
+    /**
+     * Reservasi blok nomor berikutnya untuk tenant dan periode.
+     *
+     * @param ukuran Jumlah nomor dalam blok
+     * @return Nomor terakhir blok; blok = (hasil - ukuran, hasil]
+     */
+    public long reservasiBlok(Long tenantId, YearMonth periode, int ukuran) {
+        try (Connection connection = DatabaseConfig.getDataSource().getConnection();
+             PreparedStatement ps = connection.prepareStatement(SQL_RESERVASI)) {
+            connection.setAutoCommit(true);
+            ps.setLong(1, tenantId);
+            ps.setInt(2, periode.getYear());
+            ps.setInt(3, periode.getMonthValue());
+            ps.setLong(4, ukuran);
+            try (ResultSet rs = ps.executeQuery()) {
+                rs.next();
+                return rs.getLong(1);
+            }
+        } catch (SQLException e) {
+            throw new IllegalStateException("Gagal reservasi kode booking: " + e.getMessage(), e);
+        }
+    }
+}
@@ -0,0 +1,226 @@
+package com.mrh.buscharter.repository;
+
+import com.mrh.buscharter.config.AppConfig;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import javax.management.JMException;
+import javax.management.MBeanServer;
+import javax.management.ObjectName;
+import java.lang.management.ManagementFactory;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.stream.Collectors;
+
+/**
+ * Metrik per query repository: jumlah panggilan, latensi p50/p95/p99, dan baris yang dikembalikan.
+ * Diisi oleh BaseRepository untuk setiap executeWithEntityManager / executeInTransaction
+ * terluar, dengan nama "Repository.method" pemanggil, dan oleh UnitOfWork untuk flush + commit
+ * ("UnitOfWork.commit").
+ *
+ * Query di atas ambang ditulis ke logger com.mrh.buscharter.QueryLambat beserta SQL-nya
+ * (literal disamarkan, nilai parameter tidak pernah dicatat). Ringkasan tersedia lewat JMX
+ * dan ditulis berkala ke logger com.mrh.buscharter.MetrikQuery.
+ */
+public final class MetrikQuery implements MetrikQueryMXBean {
+
+    private static final Logger logger = LoggerFactory.getLogger(MetrikQuery.class);
+    private static final Logger loggerLambat = LoggerFactory.getLogger("com.mrh.buscharter.QueryLambat");
+    private static final String NAMA_JMX = "com.mrh.buscharter:type=MetrikQuery";
+    private static final int MAKS_BARIS_LOG = 20;
+
+    private static MetrikQuery instance;
+
+    private final Map<String, Statistik> statistik = new ConcurrentHashMap<>();
+    private volatile long ambangLambatNanos = TimeUnit.MILLISECONDS.toNanos(AppConfig.QUERY_AMBANG_LAMBAT_MS);
+    private ScheduledExecutorService scheduler;
+    private ObjectName namaJmx;
+
+    MetrikQuery() {
+    }
+
+    public static synchronized MetrikQuery getInstance() {
+        if (instance == null) {
+            instance = new MetrikQuery();
+        }
+        return instance;
+    }
+
+    /**
+     * Reset instance (untuk testing).
+     */
+    public static synchronized void resetInstance() {
+        if (instance != null) {
+            instance.hentikan();
+        }
+        instance = null;
+    }
+
+    /**
+     * Daftarkan ke JMX dan tulis ringkasan ke log secara berkala.
+     *
+     * @param ambangLambatMs Query selama ini atau lebih dicatat sebagai query lambat
+     * @param intervalLogDetik Interval log ringkasan, 0 untuk mematikan
+     */
+    public synchronized void mulai(long ambangLambatMs, int intervalLogDetik) {
+        setAmbangLambatMs(ambangLambatMs);
+        if (namaJmx == null) {
+            try {
+                MBeanServer server = ManagementFactory.getPlatformMBeanServer();
+                ObjectName nama = new ObjectName(NAMA_JMX);
+                if (server.isRegistered(nama)) {
+                    server.unregisterMBean(nama);
+                }
+                server.registerMBean(this, nama);
+                namaJmx = nama;
+            } catch (JMException e) {
+                logger.warn("Gagal mendaftarkan metrik query ke JMX: {}", e.getMessage());
+            }
+        }
+        if (scheduler == null && intervalLogDetik > 0) {
+            scheduler = Executors.newSingleThreadScheduledExecutor(r -> {
+                Thread t = new Thread(r, "metrik-query");
+                t.setDaemon(true);
+                return t;
+            });
+            scheduler.scheduleAtFixedRate(this::logRingkasan, intervalLogDetik, intervalLogDetik,
+                TimeUnit.SECONDS);
+        }
+        logger.info("Metrik query aktif, ambang query lambat {} ms", ambangLambatMs);
+    }
+
+    public synchronized void hentikan() {
+        if (scheduler != null) {
+            scheduler.shutdownNow();
+            scheduler = null;
+        }
+        if (namaJmx != null) {
+            try {
+                ManagementFactory.getPlatformMBeanServer().unregisterMBean(namaJmx);
+            } catch (JMException e) {
+                logger.debug("Gagal melepas metrik query dari JMX: {}", e.getMessage());
+            }
+            namaJmx = null;
+        }
+    }
+
+    /**
+     * Catat satu panggilan query.
+     *
+     * @param baris Jumlah baris hasil, -1 jika tidak diketahui (mis. Stream)
+     * @param sql SQL yang dijalankan (mentah, hanya disamarkan bila ditulis ke log)
+     */
+    void catat(String nama, long durasiNanos, long baris, boolean gagal, List<String> sql) {
+        Statistik s = statistik.get(nama);
+        if (s == null) {
+            s = statistik.computeIfAbsent(nama, k -> new Statistik());
+        }
+        s.histogram.catat(durasiNanos);
+        s.totalNanos.add(durasiNanos);
+        if (gagal) {
+            s.gagal.increment();
+        }
+        if (baris >= 0) {
+            s.baris.add(baris);
+            s.jumlahBerbaris.increment();
+        }
+        if (durasiNanos >= ambangLambatNanos) {
+            s.lambat.increment();
+            if (loggerLambat.isWarnEnabled()) {
+                loggerLambat.warn("Query lambat {} {} ms{}{}: {}", nama, String.format("%.1f", keMs(durasiNanos)),
+                    baris >= 0 ? ", " + baris + " baris" : "", gagal ? ", GAGAL" : "",
+                    sql.isEmpty() ? "(SQL tidak tercatat)"
+                        : sql.stream().map(PemeriksaSql::samarkan).collect(Collectors.joining(" | ")));
+            }
+        }
+    }
+
+    /**
+     * Snapshot semua query, urut total waktu terbesar.
+     */
+    public List<RingkasanQuery> getRingkasanQuery() {
+        List<RingkasanQuery> hasil = new ArrayList<>(statistik.size());
+        statistik.forEach((nama, s) -> hasil.add(s.ringkas(nama)));
+        hasil.sort(Comparator.comparingDouble(RingkasanQuery::totalMs).reversed());
+        return hasil;
+    }
+
+    @Override
+    public String[] getRingkasan() {
+        return getRingkasanQuery().stream().map(MetrikQuery::format).toArray(String[]::new);
+    }
+
+    @Override
+    public long getAmbangLambatMs() {
+        return TimeUnit.NANOSECONDS.toMillis(ambangLambatNanos);
+    }
+
+    @Override
+    public void setAmbangLambatMs(long ambangMs) {
+        if (ambangMs < 0) {
+            throw new IllegalArgumentException("Ambang query lambat tidak boleh negatif");
+        }
+        ambangLambatNanos = TimeUnit.MILLISECONDS.toNanos(ambangMs);
+    }
+
+    @Override
+    public double persentilMs(String nama, double persen) {
+        Statistik s = statistik.get(nama);
+        return s == null ? 0 : keMs(s.histogram.persentil(persen));
+    }
+
+    @Override
+    public void reset() {
+        statistik.clear();
+    }
+
+    private void logRingkasan() {
+        try {
+            List<RingkasanQuery> ringkasan = getRingkasanQuery();
+            if (ringkasan.isEmpty()) {
+                return;
+            }
+            StringBuilder sb = new StringBuilder("Metrik query (")
+                .append(Math.min(ringkasan.size(), MAKS_BARIS_LOG)).append(" dari ")
+                .append(ringkasan.size()).append(", urut total waktu):");
+            ringkasan.stream().limit(MAKS_BARIS_LOG).forEach(r -> sb.append('\n').append(format(r)));
+            logger.info(sb.toString());
+        } catch (RuntimeException e) {
+            logger.error("Gagal menulis ringkasan metrik query: {}", e.getMessage());
+        }
+    }
+
+    private static String format(RingkasanQuery r) {
+        return String.format("%-50s n=%d gagal=%d lambat=%d p50=%.1f p95=%.1f p99=%.1f maks=%.1f total=%.0f ms baris=%.1f",
+            r.nama(), r.jumlah(), r.gagal(), r.lambat(), r.p50Ms(), r.p95Ms(), r.p99Ms(), r.maksMs(),
+            r.totalMs(), r.rataBaris());
+    }
+
+    private static double keMs(long nanos) {
+        return nanos / 1_000_000.0;
+    }
+
+    private static final class Statistik {
+        final HistogramLatensi histogram = new HistogramLatensi();
+        final LongAdder totalNanos = new LongAdder();
+        final LongAdder gagal = new LongAdder();
+        final LongAdder lambat = new LongAdder();
+        final LongAdder baris = new LongAdder();
+        final LongAdder jumlahBerbaris = new LongAdder();
+
+        RingkasanQuery ringkas(String nama) {
+            long berbaris = jumlahBerbaris.sum();
+            return new RingkasanQuery(nama, histogram.getJumlah(), gagal.sum(), lambat.sum(),
+                keMs(histogram.persentil(50)), keMs(histogram.persentil(95)), keMs(histogram.persentil(99)),
+                keMs(histogram.getMaks()), keMs(totalNanos.sum()),
+                berbaris == 0 ? 0 : (double) baris.sum() / berbaris);
+        }
+    }
+}
@@ -0,0 +1,27 @@
+package com.mrh.buscharter.repository;
+
+/**
+ * Antarmuka JMX metrik query (ObjectName com.mrh.buscharter:type=MetrikQuery),
+ * bisa dibuka dengan JConsole / VisualVM.
+ */
+public interface MetrikQueryMXBean {
+
+    /**
+     * Satu baris per query, urut total waktu terbesar.
+     */
+    String[] getRingkasan();
+
+    long getAmbangLambatMs();
+
+    void setAmbangLambatMs(long ambangMs);
+
+    /**
+     * Latensi query pada persentil tertentu (ms), 0 jika query belum pernah dipanggil.
+     */
+    double persentilMs(String nama, double persen);
+
+    /**
+     * Hapus semua metrik yang terkumpul.
+     */
+    void reset();
+}
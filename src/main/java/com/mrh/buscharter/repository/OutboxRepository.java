@@ -0,0 +1,242 @@
+package com.mrh.buscharter.repository;
+
+import com.mrh.buscharter.config.AppConfig;
+import com.mrh.buscharter.config.DatabaseConfig;
+import com.mrh.buscharter.event.DomainEvent;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.EntityTransaction;
+import org.hibernate.Session;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.*;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.Types;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.function.Function;
+
+/**
+ * Repository untuk tabel domain_event_outbox (transactional outbox).
+ *
+ * Tidak memakai entity JPA; tabel dibuat migrasi db/migrasi/V5__domain_event_outbox.sql.
+ * Semua akses lewat JDBC di koneksi EntityManager yang sama sehingga ikut transaksi pemanggil.
+ *
+ * Payload = DomainEvent yang diserialisasi (Java serialization; event hanya berisi
+ * ID, teks, angka, dan waktu, tanpa referensi entity). Saat dibaca, ObjectInputFilter hanya
+ * mengizinkan class event, enum model, dan tipe java.lang / java.time / java.math.
+ */
+public class OutboxRepository {
+
+    private static final Logger logger = LoggerFactory.getLogger(OutboxRepository.class);
+
+    /**
+     * Class yang boleh muncul di payload; selain itu (mis. gadget chain di baris yang
+     * ditulis pihak lain ke tabel) ditolak sebelum objeknya dibuat.
+     */
+    private static final ObjectInputFilter FILTER_PAYLOAD = ObjectInputFilter.Config.createFilter(
+        "maxdepth=10;maxrefs=1000;maxbytes=65536;maxarray=4096;" +
+        "com.mrh.buscharter.event.*;com.mrh.buscharter.model.enums.*;" +
+        "java.lang.*;java.time.*;java.math.BigDecimal;java.math.BigInteger;!*");
+
+    /**
+     * Tulis events ke outbox memakai EntityManager (dan transaksi) milik pemanggil.
+     */
+    public void simpan(EntityManager em, List<? extends DomainEvent> events) {
+        if (events.isEmpty()) {
+            return;
+        }
+        em.unwrap(Session.class).doWork(connection -> {
+            String sql = "INSERT INTO domain_event_outbox (event_id, tenant_id, event_type, payload) " +
+                "VALUES (?, ?, ?, ?)";
+            try (PreparedStatement ps = connection.prepareStatement(sql)) {
+                for (DomainEvent event : events) {
+                    ps.setString(1, event.getEventId());
+                    if (event.getTenantId() != null) {
+                        ps.setLong(2, event.getTenantId());
+                    } else {
+                        ps.setNull(2, Types.BIGINT);
+                    }
+                    ps.setString(3, event.getEventName());
+                    ps.setBytes(4, serialisasi(event));
+                    ps.addBatch();
+                }
+                ps.executeBatch();
+            }
+        });
+    }
+
+    /**
+     * Ambil satu batch event yang belum diproses dan sudah waktunya dicoba (FOR UPDATE SKIP
+     * LOCKED, urut ID), kirim lewat pengirim, lalu dalam transaksi yang sama tandai diproses
+     * hanya baris yang berhasil di-handle. Baris yang gagal dijadwalkan ulang dengan jeda
+     * berlipat dua (mulai AppConfig.OUTBOX_RELAY_INTERVAL_DETIK, maksimal
+     * AppConfig.OUTBOX_RELAY_MAKS_JEDA_DETIK). Jika aplikasi berhenti sebelum commit, baris
+     * yang sama akan diambil lagi (at-least-once).
+     *
+     * @param batas Jumlah baris maksimal per batch
+     * @param tenggangDetik Hanya ambil baris yang lebih tua dari ini (beri kesempatan jalur cepat)
+     * @param pengirim Menerima event batch (urut ID), mengembalikan eventId yang berhasil di-handle
+     * @return Jumlah baris yang ditandai diproses (kurang dari batas jika ada yang gagal)
+     */
+    public int prosesBatch(int batas, int tenggangDetik, Function<List<DomainEvent>, Set<String>> pengirim) {
+        return executeInTransaction(em -> {
+            int[] jumlah = new int[1];
+            em.unwrap(Session.class).doWork(connection -> {
+                List<Long> ids = new ArrayList<>();
+                List<byte[]> payloads = new ArrayList<>();
+                String sql = "SELECT id, payload FROM domain_event_outbox " +
+                    "WHERE processed_at IS NULL AND created_at < now() - (? * interval '1 second') " +
+                    "AND (next_attempt_at IS NULL OR next_attempt_at <= now()) " +
+                    "ORDER BY id LIMIT ? FOR UPDATE SKIP LOCKED";
+                try (PreparedStatement ps = connection.prepareStatement(sql)) {
+                    ps.setInt(1, tenggangDetik);
+                    ps.setInt(2, batas);
+                    try (ResultSet rs = ps.executeQuery()) {
+                        while (rs.next()) {
+                            ids.add(rs.getLong(1));
+                            payloads.add(rs.getBytes(2));
+                        }
+                    }
+                }
+                if (ids.isEmpty()) {
+                    return;
+                }
+
+                List<Long> diproses = new ArrayList<>();
+                List<DomainEvent> events = new ArrayList<>();
+                Map<String, Long> idPerEvent = new HashMap<>();
+                for (int i = 0; i < ids.size(); i++) {
+                    DomainEvent event;
+                    try {
+                        event = deserialisasi(payloads.get(i));
+                    } catch (IllegalArgumentException e) {
+                        // Payload rusak / class event sudah tidak ada: tidak akan pernah berhasil
+                        logger.error("Event outbox id {} tidak bisa dibaca, dilewati: {}",
+                            ids.get(i), e.getMessage());
+                        diproses.add(ids.get(i));
+                        continue;
+                    }
+                    events.add(event);
+                    idPerEvent.put(event.getEventId(), ids.get(i));
+                }
+
+                // Kirim selagi baris masih terkunci; gagal sebelum commit = dikirim ulang nanti
+                Set<String> berhasil = events.isEmpty() ? Set.of() : pengirim.apply(events);
+                List<Long> gagal = new ArrayList<>();
+                for (Map.Entry<String, Long> e : idPerEvent.entrySet()) {
+                    (berhasil.contains(e.getKey()) ? diproses : gagal).add(e.getValue());
+                }
+
+                if (!diproses.isEmpty()) {
+                    try (PreparedStatement ps = connection.prepareStatement(
+                            "UPDATE domain_event_outbox SET processed_at = now() WHERE id = ANY (?)")) {
+                        ps.setArray(1, connection.createArrayOf("bigint", diproses.toArray()));
+                        ps.executeUpdate();
+                    }
+                }
+                if (!gagal.isEmpty()) {
+                    logger.warn("{} event outbox gagal di-handle, dikirim ulang setelah jeda", gagal.size());
+                    try (PreparedStatement ps = connection.prepareStatement(
+                            "UPDATE domain_event_outbox SET attempts = attempts + 1, " +
+                            "next_attempt_at = now() + LEAST(? * power(2, attempts), ?) * interval '1 second' " +
+                            "WHERE id = ANY (?)")) {
+                        ps.setInt(1, AppConfig.OUTBOX_RELAY_INTERVAL_DETIK);
+                        ps.setInt(2, AppConfig.OUTBOX_RELAY_MAKS_JEDA_DETIK);
+                        ps.setArray(3, connection.createArrayOf("bigint", gagal.toArray()));
+                        ps.executeUpdate();
+                    }
+                }
+                jumlah[0] = diproses.size();
+            });
+            return jumlah[0];
+        });
+    }
+
+    /**
+     * Tandai event sudah terkirim (jalur cepat setelah commit).
+     */
+    public void tandaiTerkirim(Collection<String> eventIds) {
+        if (eventIds.isEmpty()) {
+            return;
+        }
+        executeInTransaction(em -> {
+            em.unwrap(Session.class).doWork(connection -> {
+                try (PreparedStatement ps = connection.prepareStatement(
+                        "UPDATE domain_event_outbox SET processed_at = now() " +
+                        "WHERE event_id = ANY (?) AND processed_at IS NULL")) {
+                    ps.setArray(1, connection.createArrayOf("varchar", eventIds.toArray()));
+                    ps.executeUpdate();
+                }
+            });
+            return null;
+        });
+    }
+
+    /**
+     * Hapus baris yang sudah diproses lebih dari retensiHari yang lalu.
+     *
+     * @return Jumlah baris yang dihapus
+     */
+    public int hapusYangSudahDiproses(int retensiHari) {
+        return executeInTransaction(em -> {
+            int[] jumlah = new int[1];
+            em.unwrap(Session.class).doWork(connection -> {
+                try (PreparedStatement ps = connection.prepareStatement(
+                        "DELETE FROM domain_event_outbox " +
+                        "WHERE processed_at < now() - (? * interval '1 day')")) {
+                    ps.setInt(1, retensiHari);
+                    jumlah[0] = ps.executeUpdate();
+                }
+            });
+            return jumlah[0];
+        });
+    }
+
+    // ==================== SERIALISASI ====================
+
+    public static byte[] serialisasi(DomainEvent event) {
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        try (ObjectOutputStream out = new ObjectOutputStream(bytes)) {
+            out.writeObject(event);
+        } catch (IOException e) {
+            throw new IllegalArgumentException("Event " + event.getEventName() + " tidak bisa diserialisasi", e);
+        }
+        return bytes.toByteArray();
+    }
+
+    public static DomainEvent deserialisasi(byte[] payload) {
+        try (ObjectInputStream in = new ObjectInputStream(new ByteArrayInputStream(payload))) {
+            in.setObjectInputFilter(FILTER_PAYLOAD);
+            return (DomainEvent) in.readObject();
+        } catch (IOException | ClassNotFoundException | ClassCastException e) {
+            throw new IllegalArgumentException("Payload outbox tidak valid: " + e.getMessage(), e);
+        }
+    }
+
+    // ==================== HELPER ====================
+
+    private <R> R executeInTransaction(Function<EntityManager, R> operation) {
+        EntityManager em = DatabaseConfig.getEntityManager();
+        EntityTransaction tx = em.getTransaction();
+        try {
+            tx.begin();
+            R result = operation.apply(em);
+            tx.commit();
+            return result;
+        } catch (Exception e) {
+            if (tx.isActive()) {
+                tx.rollback();
+            }
+            logger.error("Error dalam transaksi outbox: {}", e.getMessage(), e);
+            throw new RuntimeException("Gagal menjalankan operasi outbox", e);
+        } finally {
+            em.close();
+        }
+    }
+}
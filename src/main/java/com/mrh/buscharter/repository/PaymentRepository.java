@@ -1,6 +1,7 @@
 package com.mrh.buscharter.repository;
 
 import com.mrh.buscharter.model.Payment;
+import com.mrh.buscharter.model.dto.PaymentSummary;
 import jakarta.persistence.TypedQuery;
 
 import java.math.BigDecimal;
@@ -100,4 +101,26 @@ public class PaymentRepository extends BaseRepository<Payment> {
             return query.getResultList();
         });
     }
+
+    /**
+     * Ringkasan payment dalam rentang tanggal untuk tenant (daftar pembayaran).
+     * Booking dan customer di-join dalam query yang sama.
+     */
+    public List<PaymentSummary> findSummaryByTanggalAndTenantId(LocalDateTime mulai, LocalDateTime selesai,
+                                                                Long tenantId) {
+        return executeWithEntityManager(em -> {
+            TypedQuery<PaymentSummary> query = em.createQuery(
+                "SELECT new com.mrh.buscharter.model.dto.PaymentSummary(" +
+                "p.id, b.id, b.kodeBooking, c.nama, p.tanggalPembayaran, p.jumlah, p.metode) " +
+                "FROM Payment p JOIN p.booking b JOIN b.customer c " +
+                "WHERE b.tenant.id = :tenantId " +
+                "AND p.tanggalPembayaran BETWEEN :mulai AND :selesai " +
+                "ORDER BY p.tanggalPembayaran DESC",
+                PaymentSummary.class);
+            query.setParameter("tenantId", tenantId);
+            query.setParameter("mulai", mulai);
+            query.setParameter("selesai", selesai);
+            return query.getResultList();
+        });
+    }
 }
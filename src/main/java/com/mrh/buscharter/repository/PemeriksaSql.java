@@ -0,0 +1,82 @@
+package com.mrh.buscharter.repository;
+
+import org.hibernate.resource.jdbc.spi.StatementInspector;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.regex.Pattern;
+
+/**
+ * StatementInspector Hibernate yang mengingat SQL yang dijalankan selama satu operasi
+ * repository di thread yang sama, untuk log query lambat (MetrikQuery).
+ *
+ * SQL Hibernate memakai parameter ? sehingga nilai yang di-bind tidak pernah ikut tercatat;
+ * literal di SQL (mis. dari JPQL) disamarkan saat ditulis ke log.
+ */
+public final class PemeriksaSql implements StatementInspector {
+
+    public static final PemeriksaSql INSTANCE = new PemeriksaSql();
+
+    private static final int MAKS_SQL_PER_OPERASI = 5;
+    private static final ThreadLocal<ArrayDeque<List<String>>> TUMPUKAN = new ThreadLocal<>();
+    private static final Pattern LITERAL_STRING = Pattern.compile("'(?:[^']|'')*'");
+    private static final Pattern LITERAL_ANGKA = Pattern.compile("\\b\\d+(?:\\.\\d+)?\\b");
+
+    private PemeriksaSql() {
+    }
+
+    @Override
+    public String inspect(String sql) {
+        ArrayDeque<List<String>> tumpukan = TUMPUKAN.get();
+        if (tumpukan != null) {
+            List<String> aktif = tumpukan.peek();
+            if (aktif.size() < MAKS_SQL_PER_OPERASI) {
+                aktif.add(sql);
+            }
+        }
+        return sql;
+    }
+
+    /**
+     * Mulai mengumpulkan SQL untuk operasi di thread ini (boleh bersarang).
+     */
+    static void mulai() {
+        ArrayDeque<List<String>> tumpukan = TUMPUKAN.get();
+        if (tumpukan == null) {
+            tumpukan = new ArrayDeque<>(4);
+            TUMPUKAN.set(tumpukan);
+        }
+        tumpukan.push(new ArrayList<>(2));
+    }
+
+    /**
+     * Selesai mengumpulkan; SQL operasi bersarang juga dihitung milik operasi luarnya.
+     *
+     * @return SQL mentah yang dijalankan operasi ini (maksimal 5)
+     */
+    static List<String> selesai() {
+        ArrayDeque<List<String>> tumpukan = TUMPUKAN.get();
+        List<String> sql = tumpukan.pop();
+        List<String> induk = tumpukan.peek();
+        if (induk == null) {
+            TUMPUKAN.remove();
+        } else {
+            for (String s : sql) {
+                if (induk.size() >= MAKS_SQL_PER_OPERASI) {
+                    break;
+                }
+                induk.add(s);
+            }
+        }
+        return sql;
+    }
+
+    /**
+     * Ganti literal string dan angka dengan ? (alias seperti v1_0 tidak tersentuh).
+     */
+    static String samarkan(String sql) {
+        String tanpaString = LITERAL_STRING.matcher(sql).replaceAll("?");
+        return LITERAL_ANGKA.matcher(tanpaString).replaceAll("?").replaceAll("\\s+", " ").strip();
+    }
+}
@@ -0,0 +1,20 @@
+package com.mrh.buscharter.repository;
+
+/**
+ * Snapshot metrik satu query repository (nama = Repository.method pemanggil).
+ *
+ * @param nama Nama query, mis. "VehicleRepository.findAktifByTenantId"
+ * @param jumlah Jumlah panggilan (termasuk yang gagal)
+ * @param gagal Jumlah panggilan yang melempar exception
+ * @param lambat Jumlah panggilan di atas ambang query lambat
+ * @param p50Ms Latensi persentil 50
+ * @param p95Ms Latensi persentil 95
+ * @param p99Ms Latensi persentil 99
+ * @param maksMs Latensi terlama
+ * @param totalMs Total waktu semua panggilan
+ * @param rataBaris Rata-rata baris yang dikembalikan (hasil Collection/Optional/entity)
+ */
+public record RingkasanQuery(String nama, long jumlah, long gagal, long lambat, double p50Ms,
+                             double p95Ms, double p99Ms, double maksMs, double totalMs,
+                             double rataBaris) {
+}
@@ -1,5 +1,6 @@
 package com.mrh.buscharter.repository;
 
+import com.mrh.buscharter.config.DatabaseConfig;
 import com.mrh.buscharter.model.Tenant;
 import jakarta.persistence.TypedQuery;
 
@@ -10,6 +11,8 @@ import java.util.Optional;
  */
 public class TenantRepository extends BaseRepository<Tenant> {
 
+    private static final String CACHE_REGION_QUERY = "tenant-query";
+
     public TenantRepository() {
         super(Tenant.class);
     }
@@ -27,10 +30,17 @@ public class TenantRepository extends BaseRepository<Tenant> {
             TypedQuery<Tenant> query = em.createQuery(
                 "SELECT t FROM Tenant t WHERE t.kode = :kode", Tenant.class);
             query.setParameter("kode", kode);
-            return query.getResultStream().findFirst();
+            cacheQuery(query, CACHE_REGION_QUERY);
+            return query.getResultList().stream().findFirst(); // getResultStream melewati query cache
         });
     }
 
+    @Override
+    public void evictCache(Long id) {
+        super.evictCache(id);
+        DatabaseConfig.evictQueryRegion(CACHE_REGION_QUERY);
+    }
+
     /**
      * Cek apakah kode tenant sudah digunakan.
      */
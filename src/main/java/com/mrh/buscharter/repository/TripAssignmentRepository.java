@@ -1,19 +1,37 @@
 package com.mrh.buscharter.repository;
 
 import com.mrh.buscharter.model.TripAssignment;
+import com.mrh.buscharter.model.dto.JadwalAssignment;
 import com.mrh.buscharter.model.enums.StatusAssignment;
 import jakarta.persistence.TypedQuery;
+import org.hibernate.Session;
 
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
 import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Collection;
 import java.util.List;
 import java.util.Optional;
 
 /**
  * Repository untuk entity TripAssignment.
  * JANTUNG dari sistem Anti-Double-Booking.
+ *
+ * Overlap assignment mengikat per vehicle ditolak database oleh exclusion constraint
+ * KONSTRAIN_OVERLAP (db/migrasi/V8__trip_assignments_exclusion.sql); cek-lalu-insert di
+ * aplikasi diserialkan per vehicle dengan kunciVehicle.
  */
 public class TripAssignmentRepository extends BaseRepository<TripAssignment> {
 
+    public static final String KONSTRAIN_OVERLAP = "ex_trip_assignments_vehicle_overlap";
+
+    private static final String SQLSTATE_EXCLUSION_VIOLATION = "23P01";
+    // Ruang kunci advisory (argumen pertama pg_advisory_xact_lock) untuk assignment per vehicle
+    private static final int RUANG_KUNCI_VEHICLE = 0x5441;
+
+    private static volatile boolean konstrainOverlapAktif;
+
     public TripAssignmentRepository() {
         super(TripAssignment.class);
     }
@@ -99,6 +117,160 @@ public class TripAssignmentRepository extends BaseRepository<TripAssignment> {
         });
     }
 
+    /**
+     * Ambil jadwal vehicle yang bersinggungan dengan jendela waktu (proyeksi, satu query).
+     * Jendela = rentang trip diperlebar dengan buffer, sehingga hasilnya memuat
+     * trip yang overlap sekaligus trip tetangga sebelum/sesudah yang jedanya kurang dari buffer.
+     */
+    public List<JadwalAssignment> findJadwalVehicleDalamJendela(Long vehicleId, 
+            LocalDateTime jendelaMulai, LocalDateTime jendelaSelesai, Long excludeTripId) {
+        return executeWithEntityManager(em -> {
+            StringBuilder jpql = new StringBuilder();
+            jpql.append("SELECT new com.mrh.buscharter.model.dto.JadwalAssignment(");
+            jpql.append("  ta.id, t.id, ta.vehicle.id, d.id, cd.id, t.waktuMulai, t.waktuSelesai) ");
+            jpql.append("FROM TripAssignment ta ");
+            jpql.append("JOIN ta.trip t ");
+            jpql.append("JOIN t.booking b ");
+            jpql.append("LEFT JOIN ta.driver d ");
+            jpql.append("LEFT JOIN ta.coDriver cd ");
+            jpql.append("WHERE ta.vehicle.id = :vehicleId ");
+            jpql.append("AND ta.statusAssignment != 'BATAL' ");
+            jpql.append("AND b.status IN ('DP_DITERIMA', 'LUNAS', 'SELESAI') ");
+            jpql.append("AND t.waktuMulai <= :jendelaSelesai ");
+            jpql.append("AND t.waktuSelesai >= :jendelaMulai ");
+            
+            if (excludeTripId != null) {
+                jpql.append("AND t.id != :excludeTripId ");
+            }
+            jpql.append("ORDER BY t.waktuMulai");
+            
+            TypedQuery<JadwalAssignment> query = em.createQuery(jpql.toString(), JadwalAssignment.class);
+            query.setParameter("vehicleId", vehicleId);
+            query.setParameter("jendelaMulai", jendelaMulai);
+            query.setParameter("jendelaSelesai", jendelaSelesai);
+            
+            if (excludeTripId != null) {
+                query.setParameter("excludeTripId", excludeTripId);
+            }
+            
+            return query.getResultList();
+        });
+    }
+
+    /**
+     * Ambil jadwal beberapa vehicle sekaligus dalam satu jendela waktu (proyeksi, satu query).
+     * Dipakai untuk validasi batch assignment.
+     */
+    public List<JadwalAssignment> findJadwalVehiclesDalamJendela(Collection<Long> vehicleIds, 
+            LocalDateTime jendelaMulai, LocalDateTime jendelaSelesai) {
+        if (vehicleIds.isEmpty()) {
+            return new ArrayList<>();
+        }
+        return executeWithEntityManager(em -> {
+            TypedQuery<JadwalAssignment> query = em.createQuery(
+                "SELECT new com.mrh.buscharter.model.dto.JadwalAssignment(" +
+                "  ta.id, t.id, ta.vehicle.id, d.id, cd.id, t.waktuMulai, t.waktuSelesai) " +
+                "FROM TripAssignment ta " +
+                "JOIN ta.trip t " +
+                "JOIN t.booking b " +
+                "LEFT JOIN ta.driver d " +
+                "LEFT JOIN ta.coDriver cd " +
+                "WHERE ta.vehicle.id IN :vehicleIds " +
+                "AND ta.statusAssignment != 'BATAL' " +
+                "AND b.status IN ('DP_DITERIMA', 'LUNAS', 'SELESAI') " +
+                "AND t.waktuMulai <= :jendelaSelesai " +
+                "AND t.waktuSelesai >= :jendelaMulai " +
+                "ORDER BY ta.vehicle.id, t.waktuMulai", 
+                JadwalAssignment.class);
+            query.setParameter("vehicleIds", vehicleIds);
+            query.setParameter("jendelaMulai", jendelaMulai);
+            query.setParameter("jendelaSelesai", jendelaSelesai);
+            return query.getResultList();
+        });
+    }
+
+    /**
+     * Ambil jadwal beberapa driver sekaligus (sebagai driver maupun co-driver) dalam jendela waktu.
+     */
+    public List<JadwalAssignment> findJadwalDriversDalamJendela(Collection<Long> driverIds, 
+            LocalDateTime jendelaMulai, LocalDateTime jendelaSelesai) {
+        if (driverIds.isEmpty()) {
+            return new ArrayList<>();
+        }
+        return executeWithEntityManager(em -> {
+            TypedQuery<JadwalAssignment> query = em.createQuery(
+                "SELECT new com.mrh.buscharter.model.dto.JadwalAssignment(" +
+                "  ta.id, t.id, ta.vehicle.id, d.id, cd.id, t.waktuMulai, t.waktuSelesai) " +
+                "FROM TripAssignment ta " +
+                "JOIN ta.trip t " +
+                "JOIN t.booking b " +
+                "LEFT JOIN ta.driver d " +
+                "LEFT JOIN ta.coDriver cd " +
+                "WHERE (d.id IN :driverIds OR cd.id IN :driverIds) " +
+                "AND ta.statusAssignment != 'BATAL' " +
+                "AND b.status IN ('DP_DITERIMA', 'LUNAS', 'SELESAI') " +
+                "AND t.waktuMulai <= :jendelaSelesai " +
+                "AND t.waktuSelesai >= :jendelaMulai " +
+                "ORDER BY t.waktuMulai", 
+                JadwalAssignment.class);
+            query.setParameter("driverIds", driverIds);
+            query.setParameter("jendelaMulai", jendelaMulai);
+            query.setParameter("jendelaSelesai", jendelaSelesai);
+            return query.getResultList();
+        });
+    }
+
+    /**
+     * Cek apakah exclusion constraint overlap sudah terpasang (migrasi V8 berhasil).
+     * Hasil positif di-cache; selama belum terpasang dicek ulang setiap panggilan.
+     */
+    public boolean isKonstrainOverlapAktif() {
+        if (!konstrainOverlapAktif) {
+            konstrainOverlapAktif = executeWithEntityManager(em -> (Boolean) em.createNativeQuery(
+                    "SELECT EXISTS (SELECT 1 FROM pg_constraint WHERE conname = :nama)")
+                .setParameter("nama", KONSTRAIN_OVERLAP)
+                .getSingleResult());
+        }
+        return konstrainOverlapAktif;
+    }
+
+    /**
+     * Kunci advisory per vehicle sampai transaksi selesai, diambil berurutan (tanpa deadlock
+     * antar pemanggil). Assignment lain untuk vehicle yang sama menunggu, sehingga cek konflik
+     * lalu insert di dalam UnitOfWork yang sama tidak balapan.
+     */
+    public void kunciVehicle(Collection<Long> vehicleIds) {
+        if (vehicleIds.isEmpty()) {
+            return;
+        }
+        Integer[] kunci = vehicleIds.stream().map(id -> id.hashCode()).distinct().sorted().toArray(Integer[]::new);
+        executeInTransactionVoid(em -> em.unwrap(Session.class).doWork(connection -> {
+            try (PreparedStatement ps = connection.prepareStatement(
+                    "SELECT COUNT(pg_advisory_xact_lock(?, k)) FROM (SELECT unnest(?) AS k ORDER BY k) s")) {
+                ps.setInt(1, RUANG_KUNCI_VEHICLE);
+                ps.setArray(2, connection.createArrayOf("int4", kunci));
+                ps.executeQuery().close();
+            }
+        }));
+    }
+
+    /**
+     * Cek apakah exception (atau penyebabnya) berasal dari pelanggaran KONSTRAIN_OVERLAP.
+     */
+    public static boolean isPelanggaranOverlap(Throwable e) {
+        for (Throwable t = e; t != null; t = t.getCause() != t ? t.getCause() : null) {
+            if (t instanceof SQLException sql) {
+                for (SQLException s = sql; s != null; s = s.getNextException()) {
+                    if (SQLSTATE_EXCLUSION_VIOLATION.equals(s.getSQLState())
+                            && String.valueOf(s.getMessage()).contains(KONSTRAIN_OVERLAP)) {
+                        return true;
+                    }
+                }
+            }
+        }
+        return false;
+    }
+
     /**
      * Cari assignment terakhir untuk vehicle (untuk cek jeda waktu).
      */
@@ -143,6 +315,84 @@ public class TripAssignmentRepository extends BaseRepository<TripAssignment> {
         });
     }
 
+    /**
+     * Ambil jadwal assignment yang memblokir armada untuk satu tenant.
+     * Hanya trip yang selesai pada/sesudah tanggal tertentu, dalam bentuk proyeksi
+     * (tanpa entity) untuk membangun index ketersediaan di memori.
+     */
+    public List<JadwalAssignment> findJadwalTerpakaiByTenantId(Long tenantId, LocalDateTime sejak) {
+        return executeWithEntityManager(em -> {
+            TypedQuery<JadwalAssignment> query = em.createQuery(
+                "SELECT new com.mrh.buscharter.model.dto.JadwalAssignment(" +
+                "  ta.id, t.id, ta.vehicle.id, d.id, cd.id, t.waktuMulai, t.waktuSelesai) " +
+                "FROM TripAssignment ta " +
+                "JOIN ta.trip t " +
+                "JOIN t.booking b " +
+                "LEFT JOIN ta.driver d " +
+                "LEFT JOIN ta.coDriver cd " +
+                "WHERE b.tenant.id = :tenantId " +
+                "AND ta.statusAssignment != 'BATAL' " +
+                "AND b.status IN ('DP_DITERIMA', 'LUNAS', 'SELESAI') " +
+                "AND t.waktuSelesai >= :sejak " +
+                "ORDER BY t.waktuMulai", 
+                JadwalAssignment.class);
+            query.setParameter("tenantId", tenantId);
+            query.setParameter("sejak", sejak);
+            return query.getResultList();
+        });
+    }
+
+    /**
+     * Ambil jadwal semua assignment aktif milik satu booking (proyeksi, tanpa filter status booking).
+     * Dipakai untuk update index ketersediaan secara incremental saat status booking berubah.
+     */
+    public List<JadwalAssignment> findJadwalByBookingId(Long bookingId) {
+        return executeWithEntityManager(em -> {
+            TypedQuery<JadwalAssignment> query = em.createQuery(
+                "SELECT new com.mrh.buscharter.model.dto.JadwalAssignment(" +
+                "  ta.id, t.id, ta.vehicle.id, d.id, cd.id, t.waktuMulai, t.waktuSelesai) " +
+                "FROM TripAssignment ta " +
+                "JOIN ta.trip t " +
+                "LEFT JOIN ta.driver d " +
+                "LEFT JOIN ta.coDriver cd " +
+                "WHERE t.booking.id = :bookingId " +
+                "AND ta.statusAssignment != 'BATAL' " +
+                "ORDER BY t.waktuMulai", 
+                JadwalAssignment.class);
+            query.setParameter("bookingId", bookingId);
+            return query.getResultList();
+        });
+    }
+
+    /**
+     * Ambil jadwal assignment yang memblokir armada dalam rentang tanggal (proyeksi).
+     * Dipakai untuk membangun kalender ketersediaan dengan satu sweep-line.
+     */
+    public List<JadwalAssignment> findJadwalTerpakaiDalamRentang(Long tenantId, 
+            LocalDateTime tanggalMulai, LocalDateTime tanggalSelesai) {
+        return executeWithEntityManager(em -> {
+            TypedQuery<JadwalAssignment> query = em.createQuery(
+                "SELECT new com.mrh.buscharter.model.dto.JadwalAssignment(" +
+                "  ta.id, t.id, ta.vehicle.id, d.id, cd.id, t.waktuMulai, t.waktuSelesai) " +
+                "FROM TripAssignment ta " +
+                "JOIN ta.trip t " +
+                "JOIN t.booking b " +
+                "LEFT JOIN ta.driver d " +
+                "LEFT JOIN ta.coDriver cd " +
+                "WHERE b.tenant.id = :tenantId " +
+                "AND ta.statusAssignment != 'BATAL' " +
+                "AND b.status IN ('DP_DITERIMA', 'LUNAS', 'SELESAI') " +
+                "AND t.waktuMulai <= :tanggalSelesai " +
+                "AND t.waktuSelesai >= :tanggalMulai " +
+                "ORDER BY ta.vehicle.id, t.waktuMulai", 
+                JadwalAssignment.class);
+            query.setParameter("tenantId", tenantId);
+            query.setParameter("tanggalMulai", tanggalMulai);
+            query.setParameter("tanggalSelesai", tanggalSelesai);
+            return query.getResultList();
+        });
+    }
+
     /**
      * Cari assignment berdasarkan status.
      */
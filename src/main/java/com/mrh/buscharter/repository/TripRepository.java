@@ -1,9 +1,12 @@
 package com.mrh.buscharter.repository;
 
 import com.mrh.buscharter.model.Trip;
+import com.mrh.buscharter.model.dto.TripSummary;
 import jakarta.persistence.TypedQuery;
 
 import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Collection;
 import java.util.List;
 import java.util.Optional;
 
@@ -72,6 +75,32 @@ public class TripRepository extends BaseRepository<Trip> {
         });
     }
 
+    /**
+     * Cari trip yang belum punya assignment aktif dalam rentang tanggal
+     * (booking sudah DP_DITERIMA/LUNAS). Untuk optimasi assignment otomatis.
+     */
+    public List<Trip> findBelumDiAssignDalamRentang(Long tenantId, LocalDateTime tanggalMulai, 
+                                                    LocalDateTime tanggalSelesai) {
+        return executeWithEntityManager(em -> {
+            TypedQuery<Trip> query = em.createQuery(
+                "SELECT t FROM Trip t " +
+                "WHERE t.booking.tenant.id = :tenantId " +
+                "AND t.booking.status IN ('DP_DITERIMA', 'LUNAS') " +
+                "AND t.waktuMulai <= :tanggalSelesai " +
+                "AND t.waktuSelesai >= :tanggalMulai " +
+                "AND NOT EXISTS (" +
+                "  SELECT ta.id FROM TripAssignment ta " +
+                "  WHERE ta.trip = t AND ta.statusAssignment != 'BATAL'" +
+                ") " +
+                "ORDER BY t.waktuMulai", 
+                Trip.class);
+            query.setParameter("tenantId", tenantId);
+            query.setParameter("tanggalMulai", tanggalMulai);
+            query.setParameter("tanggalSelesai", tanggalSelesai);
+            return query.getResultList();
+        });
+    }
+
     /**
      * Cari trip dengan eager fetch assignments.
      */
@@ -90,6 +119,39 @@ public class TripRepository extends BaseRepository<Trip> {
         });
     }
 
+    /**
+     * Cari trip dengan eager fetch booking (untuk cek status dan tenant).
+     */
+    public Optional<Trip> findByIdWithBooking(Long id) {
+        return executeWithEntityManager(em -> {
+            TypedQuery<Trip> query = em.createQuery(
+                "SELECT t FROM Trip t " +
+                "JOIN FETCH t.booking b " +
+                "WHERE t.id = :id", 
+                Trip.class);
+            query.setParameter("id", id);
+            return query.getResultStream().findFirst();
+        });
+    }
+
+    /**
+     * Cari banyak trip sekaligus dengan eager fetch booking (satu query).
+     */
+    public List<Trip> findByIdsWithBooking(Collection<Long> ids) {
+        if (ids.isEmpty()) {
+            return new ArrayList<>();
+        }
+        return executeWithEntityManager(em -> {
+            TypedQuery<Trip> query = em.createQuery(
+                "SELECT t FROM Trip t " +
+                "JOIN FETCH t.booking b " +
+                "WHERE t.id IN :ids", 
+                Trip.class);
+            query.setParameter("ids", ids);
+            return query.getResultList();
+        });
+    }
+
     /**
      * Cari trip hari ini untuk dispatch board.
      */
@@ -113,4 +175,47 @@ public class TripRepository extends BaseRepository<Trip> {
             return query.getResultList();
         });
     }
+
+    /**
+     * Ringkasan trip dalam rentang tanggal untuk tenant (daftar jadwal).
+     * Satu query: booking dan customer di-join, jumlah bus dihitung dengan subquery.
+     */
+    public List<TripSummary> findSummaryByTanggalAndTenantId(LocalDateTime mulai, LocalDateTime selesai,
+                                                             Long tenantId) {
+        return executeWithEntityManager(em -> {
+            TypedQuery<TripSummary> query = em.createQuery(
+                "SELECT new com.mrh.buscharter.model.dto.TripSummary(" +
+                "t.id, b.id, b.kodeBooking, c.nama, t.waktuMulai, t.waktuSelesai, " +
+                "t.lokasiJemput, t.lokasiTujuan, t.tipeBusDiminta, " +
+                "(SELECT COUNT(ta) FROM TripAssignment ta " +
+                "    WHERE ta.trip = t AND ta.statusAssignment != 'BATAL')) " +
+                "FROM Trip t JOIN t.booking b JOIN b.customer c " +
+                "WHERE b.tenant.id = :tenantId " +
+                "AND t.waktuMulai <= :selesai " +
+                "AND t.waktuSelesai >= :mulai " +
+                "ORDER BY t.waktuMulai",
+                TripSummary.class);
+            query.setParameter("tenantId", tenantId);
+            query.setParameter("mulai", mulai);
+            query.setParameter("selesai", selesai);
+            return query.getResultList();
+        });
+    }
+
+    /**
+     * Ambil trip untuk banyak booking sekaligus (satu query, urut booking lalu waktu mulai).
+     */
+    public List<Trip> findByBookingIds(Collection<Long> bookingIds) {
+        if (bookingIds.isEmpty()) {
+            return new ArrayList<>();
+        }
+        return executeWithEntityManager(em -> {
+            TypedQuery<Trip> query = em.createQuery(
+                "SELECT t FROM Trip t WHERE t.booking.id IN :bookingIds " +
+                "ORDER BY t.booking.id, t.waktuMulai",
+                Trip.class);
+            query.setParameter("bookingIds", bookingIds);
+            return query.getResultList();
+        });
+    }
 }
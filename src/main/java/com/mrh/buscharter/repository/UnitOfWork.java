@@ -0,0 +1,157 @@
+package com.mrh.buscharter.repository;
+
+import com.mrh.buscharter.config.DatabaseConfig;
+import com.mrh.buscharter.event.DomainEvent;
+import com.mrh.buscharter.event.OutboxRelay;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.EntityTransaction;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.function.Supplier;
+
+/**
+ * Unit of work: satu EntityManager, satu koneksi, dan satu transaksi untuk
+ * seluruh operasi service.
+ *
+ * Selama jalankan() aktif di sebuah thread, semua method BaseRepository di thread itu
+ * memakai EntityManager yang sama (tanpa begin/commit sendiri), sehingga query berikutnya
+ * melihat perubahan sebelumnya dan semuanya commit atau rollback bersama.
+ * Panggilan jalankan() bersarang bergabung dengan unit of work terluar.
+ *
+ * Domain events ditulis ke outbox di dalam transaksi ini dan baru di-publish
+ * setelah unit of work terluar commit; jika rollback, events dibuang.
+ *
+ * Perubahan entity baru di-flush saat commit, di luar operasi repository yang mengubahnya;
+ * flush + commit dicatat di MetrikQuery sebagai operasi tersendiri ("UnitOfWork.commit").
+ *
+ * Contoh:
+ * <pre>
+ * return UnitOfWork.jalankan(() -> {
+ *     Booking booking = bookingRepository.findById(id).orElseThrow();
+ *     paymentRepository.save(payment);
+ *     return booking;
+ * });
+ * </pre>
+ */
+public final class UnitOfWork {
+
+    private static final ThreadLocal<UnitOfWork> AKTIF = new ThreadLocal<>();
+    static final String NAMA_OPERASI_COMMIT = "UnitOfWork.commit";
+    private static volatile Supplier<EntityManager> sumberEntityManager = DatabaseConfig::getEntityManager;
+
+    private final EntityManager em;
+    private final List<DomainEvent> eventTertunda = new ArrayList<>();
+
+    private UnitOfWork(EntityManager em) {
+        this.em = em;
+    }
+
+    /**
+     * Jalankan operasi dalam satu transaksi (atau gabung ke unit of work yang sedang aktif).
+     * Exception dari operasi dilempar ulang apa adanya setelah rollback.
+     */
+    public static <R> R jalankan(Supplier<R> operasi) {
+        if (AKTIF.get() != null) {
+            return operasi.get(); // Gabung dengan unit of work terluar
+        }
+
+        EntityManager em = sumberEntityManager.get();
+        EntityTransaction tx = em.getTransaction();
+        UnitOfWork uow = new UnitOfWork(em);
+        AKTIF.set(uow);
+        R hasil;
+        try {
+            tx.begin();
+            hasil = operasi.get();
+            commitDiukur(tx);
+        } catch (RuntimeException e) {
+            if (tx.isActive()) {
+                tx.rollback();
+            }
+            throw e;
+        } finally {
+            AKTIF.remove();
+            em.close();
+        }
+
+        if (!uow.eventTertunda.isEmpty()) {
+            OutboxRelay.getInstance().terbitkanSetelahCommit(uow.eventTertunda);
+        }
+        return hasil;
+    }
+
+    /**
+     * Commit (termasuk flush perubahan yang tertunda) sambil mencatat durasi dan SQL-nya.
+     */
+    private static void commitDiukur(EntityTransaction tx) {
+        long mulai = System.nanoTime();
+        PemeriksaSql.mulai();
+        boolean gagal = true;
+        try {
+            tx.commit();
+            gagal = false;
+        } finally {
+            long durasi = System.nanoTime() - mulai;
+            MetrikQuery.getInstance().catat(NAMA_OPERASI_COMMIT, durasi, -1, gagal, PemeriksaSql.selesai());
+        }
+    }
+
+    /**
+     * Versi tanpa return value dari jalankan().
+     */
+    public static void jalankanVoid(Runnable operasi) {
+        jalankan(() -> {
+            operasi.run();
+            return null;
+        });
+    }
+
+    /**
+     * Cek apakah thread ini sedang berada di dalam unit of work.
+     */
+    public static boolean isAktif() {
+        return AKTIF.get() != null;
+    }
+
+    /**
+     * Ganti sumber EntityManager unit of work (untuk testing tanpa database).
+     */
+    public static void setSumberEntityManager(Supplier<EntityManager> sumber) {
+        sumberEntityManager = sumber;
+    }
+
+    /**
+     * Kembalikan sumber EntityManager ke DatabaseConfig (untuk testing).
+     */
+    public static void resetSumberEntityManager() {
+        sumberEntityManager = DatabaseConfig::getEntityManager;
+    }
+
+    // ==================== Dipakai BaseRepository ====================
+
+    static UnitOfWork aktif() {
+        return AKTIF.get();
+    }
+
+    EntityManager getEntityManager() {
+        return em;
+    }
+
+    /**
+     * Events yang sudah ditulis ke outbox; di-publish setelah commit.
+     */
+    void tundaEvent(List<DomainEvent> events) {
+        eventTertunda.addAll(events);
+    }
+
+    /**
+     * Operasi repository gagal: transaksi tidak boleh commit walaupun exception ditangkap pemanggil.
+     */
+    void tandaiRollback() {
+        EntityTransaction tx = em.getTransaction();
+        if (tx.isActive()) {
+            tx.setRollbackOnly();
+        }
+    }
+}
@@ -1,12 +1,16 @@
 package com.mrh.buscharter.repository;
 
+import com.mrh.buscharter.config.DatabaseConfig;
 import com.mrh.buscharter.model.Vehicle;
+import com.mrh.buscharter.model.dto.VehicleSummary;
 import com.mrh.buscharter.model.enums.StatusKepemilikan;
 import com.mrh.buscharter.model.enums.TipeVehicle;
 import jakarta.persistence.TypedQuery;
 
 import java.time.LocalDateTime;
+import java.util.EnumMap;
 import java.util.List;
+import java.util.Map;
 import java.util.Optional;
 
 /**
@@ -15,6 +19,20 @@ import java.util.Optional;
  */
 public class VehicleRepository extends BaseRepository<Vehicle> {
 
+    private static final String CACHE_REGION_QUERY = "vehicle-query";
+
+    // Vehicle yang sudah di-assign ke trip yang overlap dengan status booking DP_DITERIMA ke atas
+    private static final String SUBQUERY_VEHICLE_TERPAKAI =
+        "  SELECT ta.vehicle.id FROM TripAssignment ta " +
+        "  JOIN ta.trip t " +
+        "  JOIN t.booking b " +
+        "  WHERE b.tenant.id = :tenantId " +
+        "  AND b.status IN ('DP_DITERIMA', 'LUNAS', 'SELESAI') " +
+        "  AND ta.statusAssignment != 'BATAL' " +
+        // Rumus irisan tanggal
+        "  AND t.waktuMulai <= :tanggalSelesai " +
+        "  AND t.waktuSelesai >= :tanggalMulai ";
+
     public VehicleRepository() {
         super(Vehicle.class);
     }
@@ -24,6 +42,12 @@ public class VehicleRepository extends BaseRepository<Vehicle> {
         return entity.getId();
     }
 
+    @Override
+    public void evictCache(Long id) {
+        super.evictCache(id);
+        DatabaseConfig.evictQueryRegion(CACHE_REGION_QUERY);
+    }
+
     /**
      * Cari vehicle berdasarkan plat nomor dan tenant.
      */
@@ -48,6 +72,7 @@ public class VehicleRepository extends BaseRepository<Vehicle> {
                 "ORDER BY v.tipeVehicle, v.namaPanggilan", 
                 Vehicle.class);
             query.setParameter("tenantId", tenantId);
+            cacheQuery(query, CACHE_REGION_QUERY);
             return query.getResultList();
         });
     }
@@ -63,6 +88,7 @@ public class VehicleRepository extends BaseRepository<Vehicle> {
                 Vehicle.class);
             query.setParameter("tipe", tipe);
             query.setParameter("tenantId", tenantId);
+            cacheQuery(query, CACHE_REGION_QUERY);
             return query.getResultList();
         });
     }
@@ -78,6 +104,7 @@ public class VehicleRepository extends BaseRepository<Vehicle> {
                 Vehicle.class);
             query.setParameter("status", status);
             query.setParameter("tenantId", tenantId);
+            cacheQuery(query, CACHE_REGION_QUERY);
             return query.getResultList();
         });
     }
@@ -111,15 +138,7 @@ public class VehicleRepository extends BaseRepository<Vehicle> {
             // Exclude vehicle yang sudah di-assign ke trip yang overlap
             // dengan status booking DP_DITERIMA ke atas
             jpql.append("AND v.id NOT IN (");
-            jpql.append("  SELECT ta.vehicle.id FROM TripAssignment ta ");
-            jpql.append("  JOIN ta.trip t ");
-            jpql.append("  JOIN t.booking b ");
-            jpql.append("  WHERE b.tenant.id = :tenantId ");
-            jpql.append("  AND b.status IN ('DP_DITERIMA', 'LUNAS', 'SELESAI') ");
-            jpql.append("  AND ta.statusAssignment != 'BATAL' ");
-            // Rumus irisan tanggal
-            jpql.append("  AND t.waktuMulai <= :tanggalSelesai ");
-            jpql.append("  AND t.waktuSelesai >= :tanggalMulai ");
+            jpql.append(SUBQUERY_VEHICLE_TERPAKAI);
             jpql.append(") ");
             jpql.append("ORDER BY v.tipeVehicle, v.namaPanggilan");
             
@@ -137,12 +156,56 @@ public class VehicleRepository extends BaseRepository<Vehicle> {
     }
 
     /**
-     * Hitung jumlah vehicle tersedia per tipe pada rentang tanggal tertentu.
+     * Hitung jumlah vehicle tersedia untuk satu tipe pada rentang tanggal tertentu.
+     * COUNT di database, tanpa memuat entity.
      */
     public long countVehicleTersediaByTipe(Long tenantId, LocalDateTime tanggalMulai, 
                                            LocalDateTime tanggalSelesai, TipeVehicle tipe) {
-        List<Vehicle> tersedia = findVehicleTersedia(tenantId, tanggalMulai, tanggalSelesai, tipe);
-        return tersedia.size();
+        return executeWithEntityManager(em -> {
+            TypedQuery<Long> query = em.createQuery(
+                "SELECT COUNT(v) FROM Vehicle v " +
+                "WHERE v.tenant.id = :tenantId " +
+                "AND v.aktif = true " +
+                "AND v.tipeVehicle = :tipe " +
+                "AND v.id NOT IN (" + SUBQUERY_VEHICLE_TERPAKAI + ")", 
+                Long.class);
+            query.setParameter("tenantId", tenantId);
+            query.setParameter("tipe", tipe);
+            query.setParameter("tanggalMulai", tanggalMulai);
+            query.setParameter("tanggalSelesai", tanggalSelesai);
+            return query.getSingleResult();
+        });
+    }
+
+    /**
+     * Hitung jumlah vehicle tersedia untuk SEMUA tipe dalam satu query (GROUP BY).
+     * Tipe yang tidak punya vehicle tersedia tetap muncul dengan nilai 0.
+     * 
+     * @return Map dengan key = TipeVehicle, value = jumlah tersedia
+     */
+    public Map<TipeVehicle, Long> countVehicleTersediaPerTipe(Long tenantId, LocalDateTime tanggalMulai, 
+                                                               LocalDateTime tanggalSelesai) {
+        return executeWithEntityManager(em -> {
+            TypedQuery<Object[]> query = em.createQuery(
+                "SELECT v.tipeVehicle, COUNT(v) FROM Vehicle v " +
+                "WHERE v.tenant.id = :tenantId " +
+                "AND v.aktif = true " +
+                "AND v.id NOT IN (" + SUBQUERY_VEHICLE_TERPAKAI + ") " +
+                "GROUP BY v.tipeVehicle", 
+                Object[].class);
+            query.setParameter("tenantId", tenantId);
+            query.setParameter("tanggalMulai", tanggalMulai);
+            query.setParameter("tanggalSelesai", tanggalSelesai);
+            
+            Map<TipeVehicle, Long> hasil = new EnumMap<>(TipeVehicle.class);
+            for (TipeVehicle tipe : TipeVehicle.values()) {
+                hasil.put(tipe, 0L);
+            }
+            for (Object[] row : query.getResultList()) {
+                hasil.put((TipeVehicle) row[0], (Long) row[1]);
+            }
+            return hasil;
+        });
     }
 
     /**
@@ -171,4 +234,27 @@ public class VehicleRepository extends BaseRepository<Vehicle> {
             return query.getResultList();
         });
     }
+
+    /**
+     * Ringkasan vehicle aktif untuk daftar armada, termasuk jumlah trip yang belum selesai
+     * (assignment tidak batal, trip berakhir setelah sekarang) dari subquery.
+     */
+    public List<VehicleSummary> findSummaryAktifByTenantId(Long tenantId, LocalDateTime sekarang) {
+        return executeWithEntityManager(em -> {
+            TypedQuery<VehicleSummary> query = em.createQuery(
+                "SELECT new com.mrh.buscharter.model.dto.VehicleSummary(" +
+                "v.id, v.platNomor, v.namaPanggilan, v.tipeVehicle, v.kapasitasKursi, " +
+                "v.statusKepemilikan, v.aktif, " +
+                "(SELECT COUNT(ta) FROM TripAssignment ta JOIN ta.trip t " +
+                "    WHERE ta.vehicle = v AND ta.statusAssignment != 'BATAL' " +
+                "    AND t.waktuSelesai >= :sekarang)) " +
+                "FROM Vehicle v " +
+                "WHERE v.tenant.id = :tenantId AND v.aktif = true " +
+                "ORDER BY v.tipeVehicle, v.namaPanggilan",
+                VehicleSummary.class);
+            query.setParameter("tenantId", tenantId);
+            query.setParameter("sekarang", sekarang);
+            return query.getResultList();
+        });
+    }
 }
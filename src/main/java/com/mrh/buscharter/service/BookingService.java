@@ -1,6 +1,10 @@
 package com.mrh.buscharter.service;
 
+import com.mrh.buscharter.config.AppConfig;
+import com.mrh.buscharter.event.BookingConfirmedEvent;
+import com.mrh.buscharter.event.BookingStatusChangedEvent;
 import com.mrh.buscharter.model.*;
+import com.mrh.buscharter.model.dto.BookingSummary;
 import com.mrh.buscharter.model.enums.StatusBooking;
 import com.mrh.buscharter.model.enums.TipeCharge;
 import com.mrh.buscharter.repository.*;
@@ -10,6 +14,7 @@ import org.slf4j.LoggerFactory;
 import java.math.BigDecimal;
 import java.time.LocalDateTime;
 import java.util.List;
+import java.util.stream.Stream;
 
 /**
  * Service untuk modul Booking.
@@ -24,6 +29,7 @@ public class BookingService {
     private final TripRepository tripRepository;
     private final BookingChargeRepository bookingChargeRepository;
     private final PaymentRepository paymentRepository;
+    private final BookingLedgerRepository bookingLedgerRepository;
 
     public BookingService() {
         this.bookingRepository = new BookingRepository();
@@ -31,12 +37,14 @@ public class BookingService {
         this.tripRepository = new TripRepository();
         this.bookingChargeRepository = new BookingChargeRepository();
         this.paymentRepository = new PaymentRepository();
+        this.bookingLedgerRepository = new BookingLedgerRepository();
     }
 
     // ==================== CREATE BOOKING ====================
 
     /**
      * Buat booking baru.
+     * Booking dan semua trip disimpan dalam satu transaksi.
      * 
      * @param tenant Tenant yang membuat booking
      * @param customer Customer penyewa
@@ -55,27 +63,29 @@ public class BookingService {
             throw new IllegalArgumentException("Minimal harus ada 1 trip");
         }
         
-        // Generate kode booking
-        String kodeBooking = bookingRepository.generateKodeBooking(tenant.getId());
-        
-        // Buat booking
-        Booking booking = new Booking(tenant, customer, kodeBooking);
-        booking.setStatus(StatusBooking.DRAFT);
-        booking.setSalesPic(salesPic);
-        booking.setTanggalBooking(LocalDateTime.now());
-        
-        // Simpan booking dulu
-        Booking savedBooking = bookingRepository.save(booking);
-        
-        // Tambahkan trips
-        for (Trip trip : trips) {
-            trip.setBooking(savedBooking);
-            tripRepository.save(trip);
-            savedBooking.getTrips().add(trip);
-        }
-        
-        logger.info("Booking berhasil dibuat: {}", kodeBooking);
-        return savedBooking;
+        return UnitOfWork.jalankan(() -> {
+            // Generate kode booking
+            String kodeBooking = bookingRepository.generateKodeBooking(tenant.getId());
+            
+            // Buat booking
+            Booking booking = new Booking(tenant, customer, kodeBooking);
+            booking.setStatus(StatusBooking.DRAFT);
+            booking.setSalesPic(salesPic);
+            booking.setTanggalBooking(LocalDateTime.now());
+            
+            // Simpan booking dulu
+            Booking savedBooking = bookingRepository.save(booking);
+            bookingLedgerRepository.buatUntukBooking(savedBooking.getId(), tenant.getId());
+            
+            // Tambahkan trips (insert di-batch)
+            for (Trip trip : trips) {
+                trip.setBooking(savedBooking);
+            }
+            savedBooking.getTrips().addAll(tripRepository.saveAll(trips));
+            
+            logger.info("Booking berhasil dibuat: {}", kodeBooking);
+            return savedBooking;
+        });
     }
 
     /**
@@ -84,17 +94,20 @@ public class BookingService {
     public Booking buatBookingDenganCustomerBaru(Tenant tenant, String namaCustomer, 
             String teleponCustomer, User salesPic, List<Trip> trips) {
         
-        // Buat customer baru
-        Customer customer = new Customer(tenant, namaCustomer, teleponCustomer);
-        customer = customerRepository.save(customer);
-        
-        return buatBookingBaru(tenant, customer, salesPic, trips);
+        return UnitOfWork.jalankan(() -> {
+            // Buat customer baru
+            Customer customer = new Customer(tenant, namaCustomer, teleponCustomer);
+            customer = customerRepository.save(customer);
+            
+            return buatBookingBaru(tenant, customer, salesPic, trips);
+        });
     }
 
     // ==================== MANUAL PRICING ====================
 
     /**
      * Tambah komponen harga ke booking.
+     * Charge dan booking ledger diperbarui dalam satu transaksi.
      * 
      * @param bookingId ID booking
      * @param deskripsi Deskripsi biaya
@@ -108,9 +121,6 @@ public class BookingService {
         
         logger.info("Tambah komponen harga ke booking {}: {}", bookingId, deskripsi);
         
-        Booking booking = bookingRepository.findById(bookingId)
-            .orElseThrow(() -> new IllegalArgumentException("Booking tidak ditemukan: " + bookingId));
-        
         // Validasi
         if (deskripsi == null || deskripsi.isBlank()) {
             throw new IllegalArgumentException("Deskripsi wajib diisi");
@@ -122,16 +132,25 @@ public class BookingService {
             throw new IllegalArgumentException("Harga satuan tidak boleh negatif");
         }
         
-        BookingCharge charge = new BookingCharge(booking, deskripsi, kuantitas, hargaSatuan, tipeCharge);
-        return bookingChargeRepository.save(charge);
+        return UnitOfWork.jalankan(() -> {
+            Booking booking = bookingRepository.findById(bookingId)
+                .orElseThrow(() -> new IllegalArgumentException("Booking tidak ditemukan: " + bookingId));
+            
+            BookingCharge charge = bookingChargeRepository.save(
+                new BookingCharge(booking, deskripsi, kuantitas, hargaSatuan, tipeCharge));
+            
+            BigDecimal[] delta = BookingLedger.kontribusi(charge.getTipeCharge(), charge.getTotalHarga());
+            bookingLedgerRepository.catatPerubahanCharge(bookingId, delta[0], delta[1]);
+            return charge;
+        });
     }
 
     /**
-     * Hitung grand total booking.
+     * Hitung grand total booking dari booking ledger (satu baca).
      * Rumus: Sum(UTAMA + TAMBAHAN) - Sum(DISKON)
      */
     public BigDecimal hitungGrandTotal(Long bookingId) {
-        return bookingChargeRepository.hitungGrandTotal(bookingId);
+        return bookingLedgerRepository.findOrHitung(bookingId).getGrandTotal();
     }
 
     /**
@@ -142,28 +161,44 @@ public class BookingService {
     }
 
     /**
-     * Hapus komponen harga.
+     * Hapus komponen harga (booking ledger ikut dikurangi dalam transaksi yang sama).
+     * Charge dikunci sebelum nilainya dibaca agar hapus/update bersamaan tidak mengurangi
+     * ledger dua kali.
      */
     public void hapusKomponenHarga(Long chargeId) {
-        bookingChargeRepository.deleteById(chargeId);
+        UnitOfWork.jalankanVoid(() -> bookingChargeRepository.findByIdUntukUpdate(chargeId).ifPresent(charge -> {
+            Long bookingId = charge.getBooking().getId();
+            BigDecimal[] delta = BookingLedger.kontribusi(charge.getTipeCharge(), charge.getTotalHarga());
+            bookingChargeRepository.delete(charge);
+            bookingLedgerRepository.catatPerubahanCharge(bookingId, delta[0].negate(), delta[1].negate());
+        }));
     }
 
     /**
-     * Update komponen harga.
+     * Update komponen harga (booking ledger ikut disesuaikan dalam transaksi yang sama).
+     * Charge dikunci sebelum nilai lamanya dibaca; delta ledger dihitung dari nilai yang
+     * sudah di-commit update sebelumnya.
      */
     public BookingCharge updateKomponenHarga(Long chargeId, String deskripsi, 
             Integer kuantitas, BigDecimal hargaSatuan, TipeCharge tipeCharge) {
         
-        BookingCharge charge = bookingChargeRepository.findById(chargeId)
-            .orElseThrow(() -> new IllegalArgumentException("Charge tidak ditemukan: " + chargeId));
-        
-        charge.setDeskripsi(deskripsi);
-        charge.setKuantitas(kuantitas);
-        charge.setHargaSatuan(hargaSatuan);
-        charge.setTipeCharge(tipeCharge);
-        charge.hitungTotalHarga();
-        
-        return bookingChargeRepository.save(charge);
+        return UnitOfWork.jalankan(() -> {
+            BookingCharge charge = bookingChargeRepository.findByIdUntukUpdate(chargeId)
+                .orElseThrow(() -> new IllegalArgumentException("Charge tidak ditemukan: " + chargeId));
+            BigDecimal[] lama = BookingLedger.kontribusi(charge.getTipeCharge(), charge.getTotalHarga());
+            
+            charge.setDeskripsi(deskripsi);
+            charge.setKuantitas(kuantitas);
+            charge.setHargaSatuan(hargaSatuan);
+            charge.setTipeCharge(tipeCharge);
+            charge.hitungTotalHarga();
+            
+            BookingCharge saved = bookingChargeRepository.save(charge);
+            BigDecimal[] baru = BookingLedger.kontribusi(saved.getTipeCharge(), saved.getTotalHarga());
+            bookingLedgerRepository.catatPerubahanCharge(saved.getBooking().getId(),
+                baru[0].subtract(lama[0]), baru[1].subtract(lama[1]));
+            return saved;
+        });
     }
 
     // ==================== STATE MACHINE ====================
@@ -179,48 +214,67 @@ public class BookingService {
      * @param bookingId ID booking
      * @param statusBaru Status baru yang diinginkan
      * @return Booking yang diupdate
-     * @throws IllegalStateException jika transisi tidak valid
+     * @throws IllegalStateException jika transisi tidak valid, atau armada booking bentrok
+     *         dengan assignment lain saat booking menjadi mengikat
      */
     public Booking updateStatusBooking(Long bookingId, StatusBooking statusBaru) {
         logger.info("Update status booking {} ke {}", bookingId, statusBaru);
         
-        Booking booking = bookingRepository.findById(bookingId)
-            .orElseThrow(() -> new IllegalArgumentException("Booking tidak ditemukan: " + bookingId));
-        
-        StatusBooking statusLama = booking.getStatus();
-        
-        // Validasi transisi
-        if (!statusLama.bisaTransisiKe(statusBaru)) {
-            throw new IllegalStateException(
-                String.format("Transisi tidak valid: %s → %s", statusLama, statusBaru));
+        try {
+            return ubahStatusDalamUnitOfWork(bookingId, statusBaru);
+        } catch (RuntimeException e) {
+            if (!TripAssignmentRepository.isPelanggaranOverlap(e)) {
+                throw e;
+            }
+            // DP_DITERIMA membuat assignment booking ini mengikat; ditolak exclusion constraint
+            throw new IllegalStateException("Konflik jadwal: armada booking ini sudah di-assign "
+                + "ke trip lain pada waktu yang sama", e);
         }
-        
-        // Validasi tambahan untuk LUNAS
-        if (statusBaru == StatusBooking.LUNAS) {
-            BigDecimal outstanding = hitungOutstanding(bookingId);
-            if (outstanding.compareTo(BigDecimal.ZERO) > 0) {
+    }
+
+    private Booking ubahStatusDalamUnitOfWork(Long bookingId, StatusBooking statusBaru) {
+        return UnitOfWork.jalankan(() -> {
+            Booking booking = bookingRepository.findById(bookingId)
+                .orElseThrow(() -> new IllegalArgumentException("Booking tidak ditemukan: " + bookingId));
+            
+            StatusBooking statusLama = booking.getStatus();
+            
+            // Validasi transisi
+            if (!statusLama.bisaTransisiKe(statusBaru)) {
                 throw new IllegalStateException(
-                    "Tidak bisa set LUNAS, masih ada outstanding: " + outstanding);
+                    String.format("Transisi tidak valid: %s → %s", statusLama, statusBaru));
             }
-        }
-        
-        booking.setStatus(statusBaru);
-        Booking updated = bookingRepository.save(booking);
-        
-        logger.info("Status booking {} berhasil diupdate: {} → {}", 
-            bookingId, statusLama, statusBaru);
-        
-        return updated;
+            
+            // Validasi tambahan untuk LUNAS
+            if (statusBaru == StatusBooking.LUNAS) {
+                BigDecimal outstanding = hitungOutstanding(bookingId);
+                if (outstanding.compareTo(BigDecimal.ZERO) > 0) {
+                    throw new IllegalStateException(
+                        "Tidak bisa set LUNAS, masih ada outstanding: " + outstanding);
+                }
+            }
+            
+            booking.setStatus(statusBaru);
+            
+            // Event ditulis ke outbox dalam transaksi yang sama, di-publish setelah commit
+            // (index ketersediaan diperbarui oleh IndexKetersediaanUpdater)
+            Booking updated = bookingRepository.save(booking, b -> statusBaru == StatusBooking.DP_DITERIMA
+                ? List.of(new BookingStatusChangedEvent(b, statusLama), new BookingConfirmedEvent(b))
+                : List.of(new BookingStatusChangedEvent(b, statusLama)));
+            
+            logger.info("Status booking {} berhasil diupdate: {} → {}", 
+                bookingId, statusLama, statusBaru);
+            
+            return updated;
+        });
     }
 
     /**
-     * Hitung outstanding (sisa yang harus dibayar).
+     * Hitung outstanding (sisa yang harus dibayar) dari booking ledger.
      * Rumus: GrandTotal - Sum(Payments)
      */
     public BigDecimal hitungOutstanding(Long bookingId) {
-        BigDecimal grandTotal = hitungGrandTotal(bookingId);
-        BigDecimal totalPembayaran = paymentRepository.sumPembayaranByBookingId(bookingId);
-        return grandTotal.subtract(totalPembayaran);
+        return bookingLedgerRepository.findOrHitung(bookingId).getOutstanding();
     }
 
     /**
@@ -256,11 +310,45 @@ public class BookingService {
 
     /**
      * Ambil semua booking untuk tenant.
+     * Memuat seluruh histori ke heap; untuk tenant besar pakai getBookingSetelah / streamAllBooking.
      */
     public List<Booking> getAllBooking(Long tenantId) {
         return bookingRepository.findAllByTenantId(tenantId);
     }
 
+    /**
+     * Ambil satu halaman booking (keyset, urut ID) tanpa memuat seluruh histori tenant.
+     *
+     * @param lastId ID booking terakhir dari halaman sebelumnya, null untuk halaman pertama
+     */
+    public List<Booking> getBookingSetelah(Long tenantId, Long lastId) {
+        return bookingRepository.findPageAfter(tenantId, lastId);
+    }
+
+    /**
+     * Stream semua booking tenant dengan memori datar (cursor database).
+     * Stream wajib ditutup oleh pemanggil.
+     */
+    public Stream<Booking> streamAllBooking(Long tenantId) {
+        return bookingRepository.streamByTenantId(tenantId);
+    }
+
+    /**
+     * Satu halaman ringkasan booking untuk tabel daftar booking (satu query per halaman).
+     *
+     * @param lastId ID booking terakhir dari halaman sebelumnya, null untuk halaman pertama
+     */
+    public List<BookingSummary> getRingkasanBookingSetelah(Long tenantId, Long lastId) {
+        return bookingRepository.findSummaryPageAfter(tenantId, lastId, AppConfig.DEFAULT_PAGE_SIZE);
+    }
+
+    /**
+     * Ringkasan booking berdasarkan status untuk tabel daftar booking.
+     */
+    public List<BookingSummary> getRingkasanBookingByStatus(Long tenantId, StatusBooking status) {
+        return bookingRepository.findSummaryByStatusAndTenantId(status, tenantId);
+    }
+
     /**
      * Ambil booking berdasarkan status.
      */
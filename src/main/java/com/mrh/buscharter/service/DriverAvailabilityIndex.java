@@ -0,0 +1,371 @@
+package com.mrh.buscharter.service;
+
+import com.mrh.buscharter.config.AppConfig;
+import com.mrh.buscharter.model.Driver;
+import com.mrh.buscharter.model.dto.JadwalAssignment;
+import com.mrh.buscharter.repository.DriverRepository;
+import com.mrh.buscharter.repository.TripAssignmentRepository;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.*;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Consumer;
+
+/**
+ * Index ketersediaan driver di memori, per tenant dan per driver.
+ * Singleton pattern, pasangan dari VehicleAvailabilityIndex.
+ *
+ * Aturan driver tersedia untuk sebuah trip:
+ * - tidak bertugas (sebagai driver maupun co-driver) pada waktu yang overlap
+ * - jeda dengan tugas sebelum/sesudahnya minimal AppConfig.BUFFER_JAM_ANTAR_TRIP (istirahat)
+ * - SIM masih berlaku sampai trip selesai
+ *
+ * Snapshot dimuat saat cold start, diperbarui incremental saat ada assignment baru,
+ * dan di-reload setelah TTL. Rentang sebelum jendela histori dijawab Optional.empty
+ * (caller jatuh ke query database).
+ *
+ * Seperti VehicleAvailabilityIndex, pemuatan berjalan di luar lock map (satu pemuat per
+ * tenant) dan hasil query berupa salinan Driver, bukan entity milik snapshot.
+ */
+public class DriverAvailabilityIndex {
+
+    private static final Logger logger = LoggerFactory.getLogger(DriverAvailabilityIndex.class);
+
+    private static final Duration JEDA_ISTIRAHAT = Duration.ofHours(AppConfig.BUFFER_JAM_ANTAR_TRIP);
+
+    private static DriverAvailabilityIndex instance;
+
+    private final DriverRepository driverRepository;
+    private final TripAssignmentRepository tripAssignmentRepository;
+
+    private final Map<Long, CompletableFuture<SnapshotTenant>> snapshots = new ConcurrentHashMap<>();
+
+    DriverAvailabilityIndex(DriverRepository driverRepository,
+                            TripAssignmentRepository tripAssignmentRepository) {
+        this.driverRepository = driverRepository;
+        this.tripAssignmentRepository = tripAssignmentRepository;
+    }
+
+    /**
+     * Mendapatkan instance singleton index.
+     */
+    public static synchronized DriverAvailabilityIndex getInstance() {
+        if (instance == null) {
+            instance = new DriverAvailabilityIndex(new DriverRepository(), new TripAssignmentRepository());
+        }
+        return instance;
+    }
+
+    /**
+     * Reset instance (untuk testing).
+     */
+    public static synchronized void resetInstance() {
+        if (instance != null) {
+            instance.invalidateSemua();
+        }
+        instance = null;
+    }
+
+    // ==================== QUERY ====================
+
+    /**
+     * Cari driver yang tersedia untuk satu rentang waktu.
+     * Urutan hasil sama dengan query database (nama lengkap).
+     *
+     * @return List driver tersedia, atau Optional.empty jika rentang di luar jendela index
+     */
+    public Optional<List<Driver>> cariDriverTersedia(Long tenantId, LocalDateTime tanggalMulai,
+                                                     LocalDateTime tanggalSelesai) {
+        return cari(tenantId, List.of(new IntervalJadwal.Slot(null, tanggalMulai, tanggalSelesai)))
+            .map(hasil -> salinSemua(hasil.get(0)));
+    }
+
+    /**
+     * Cari driver yang tersedia untuk banyak trip sekaligus (satu snapshot, satu pass per driver).
+     * Tugas driver pada trip yang sama diabaikan (untuk reassign).
+     *
+     * @param trips Rentang waktu per trip (tripId wajib diisi)
+     * @return Map ID trip → driver tersedia (urutan sesuai input), atau Optional.empty
+     *         jika salah satu rentang di luar jendela index
+     */
+    public Optional<Map<Long, List<Driver>>> cariDriverTersediaPerTrip(Long tenantId,
+                                                                      List<IntervalJadwal.Slot> trips) {
+        for (IntervalJadwal.Slot trip : trips) {
+            if (trip.tripId() == null) {
+                throw new IllegalArgumentException("ID trip wajib diisi");
+            }
+        }
+        return cari(tenantId, trips).map(perTrip -> {
+            Map<Long, List<Driver>> hasil = new LinkedHashMap<>();
+            for (int i = 0; i < trips.size(); i++) {
+                hasil.put(trips.get(i).tripId(), salinSemua(perTrip.get(i)));
+            }
+            return hasil;
+        });
+    }
+
+    /**
+     * Cari driver yang bisa menjalankan SEMUA trip (misal satu driver untuk seluruh tur).
+     * Jika trip-trip itu sendiri berjeda kurang dari waktu istirahat, hasilnya kosong.
+     *
+     * @return List driver, atau Optional.empty jika salah satu rentang di luar jendela index
+     */
+    public Optional<List<Driver>> cariDriverTersediaUntukSemua(Long tenantId,
+                                                               List<IntervalJadwal.Slot> trips) {
+        if (adaJedaKurang(trips)) {
+            return Optional.of(new ArrayList<>());
+        }
+        return cari(tenantId, trips).map(perTrip -> {
+            if (perTrip.isEmpty()) {
+                return new ArrayList<>();
+            }
+            // Irisan semua daftar (entity snapshot, per identitas); urutan mengikuti daftar pertama
+            List<Driver> hasil = new ArrayList<>(perTrip.get(0));
+            for (List<Driver> drivers : perTrip.subList(1, perTrip.size())) {
+                hasil.retainAll(new HashSet<>(drivers));
+            }
+            return salinSemua(hasil);
+        });
+    }
+
+    private Optional<List<List<Driver>>> cari(Long tenantId, List<IntervalJadwal.Slot> trips) {
+        SnapshotTenant snapshot = getSnapshot(tenantId);
+        for (IntervalJadwal.Slot trip : trips) {
+            if (trip.mulai().isBefore(snapshot.jendelaMulai)) {
+                logger.debug("Rentang {} di luar jendela index driver tenant {}, fallback ke database",
+                    trip.mulai(), tenantId);
+                return Optional.empty();
+            }
+        }
+
+        List<List<Driver>> hasil = new ArrayList<>(trips.size());
+        for (int i = 0; i < trips.size(); i++) {
+            hasil.add(new ArrayList<>());
+        }
+        for (Driver d : snapshot.driverAktif) {
+            IntervalJadwal jadwal = snapshot.jadwal(d.getId());
+            for (int i = 0; i < trips.size(); i++) {
+                if (tersedia(d, jadwal, trips.get(i))) {
+                    hasil.get(i).add(d);
+                }
+            }
+        }
+        return Optional.of(hasil);
+    }
+
+    // ==================== UPDATE ====================
+
+    /**
+     * Catat tugas baru driver (atau co-driver) ke index (jika snapshot tenant sudah dimuat
+     * atau sedang dimuat).
+     * Hanya untuk assignment yang memblokir armada (booking DP_DITERIMA ke atas).
+     */
+    public void catatAssignment(Long tenantId, Long driverId, Long tripId,
+                                LocalDateTime waktuMulai, LocalDateTime waktuSelesai) {
+        if (driverId == null) {
+            return;
+        }
+        IntervalJadwal.Slot slot = new IntervalJadwal.Slot(tripId, waktuMulai, waktuSelesai);
+        perbarui(tenantId, snapshot -> {
+            snapshot.jadwalPerDriver.merge(driverId, IntervalJadwal.dari(List.of(slot)),
+                (lama, baru) -> lama.tambah(slot));
+            logger.debug("Index: driver {} dicatat untuk trip {}", driverId, tripId);
+        });
+    }
+
+    /**
+     * Hapus tugas driver dari index (misal assignment dibatalkan).
+     */
+    public void hapusAssignment(Long tenantId, Long driverId, Long tripId) {
+        if (driverId == null) {
+            return;
+        }
+        perbarui(tenantId, snapshot ->
+            snapshot.jadwalPerDriver.computeIfPresent(driverId, (id, jadwal) -> jadwal.hapus(tripId)));
+    }
+
+    /**
+     * Buang snapshot tenant, akan dimuat ulang pada query berikutnya.
+     */
+    public void invalidateTenant(Long tenantId) {
+        if (tenantId != null && snapshots.remove(tenantId) != null) {
+            logger.debug("Index ketersediaan driver tenant {} di-invalidate", tenantId);
+        }
+    }
+
+    /**
+     * Buang semua snapshot.
+     */
+    public void invalidateSemua() {
+        snapshots.clear();
+    }
+
+    // ==================== Helper Methods ====================
+
+    /**
+     * Aturan ketersediaan satu driver untuk satu trip.
+     */
+    static boolean tersedia(Driver driver, IntervalJadwal jadwal, IntervalJadwal.Slot trip) {
+        return simBerlaku(driver, trip.selesai())
+            && !jadwal.adaBentrok(trip.mulai(), trip.selesai(), JEDA_ISTIRAHAT, trip.tripId());
+    }
+
+    /**
+     * SIM berlaku sampai tanggal tertentu (sama dengan Driver.isSimMasihBerlaku untuk hari ini).
+     */
+    static boolean simBerlaku(Driver driver, LocalDateTime sampai) {
+        return driver.getMasaBerlakuSim() == null
+            || driver.getMasaBerlakuSim().isAfter(sampai.toLocalDate());
+    }
+
+    /**
+     * Kelompokkan jadwal per driver. Satu assignment memblokir driver utama dan co-driver.
+     */
+    static Map<Long, IntervalJadwal> jadwalPerDriver(Collection<JadwalAssignment> jadwal) {
+        Map<Long, List<IntervalJadwal.Slot>> slotPerDriver = new HashMap<>();
+        for (JadwalAssignment ja : jadwal) {
+            IntervalJadwal.Slot slot = new IntervalJadwal.Slot(ja.tripId(), ja.waktuMulai(), ja.waktuSelesai());
+            if (ja.driverId() != null) {
+                slotPerDriver.computeIfAbsent(ja.driverId(), k -> new ArrayList<>()).add(slot);
+            }
+            if (ja.coDriverId() != null && !ja.coDriverId().equals(ja.driverId())) {
+                slotPerDriver.computeIfAbsent(ja.coDriverId(), k -> new ArrayList<>()).add(slot);
+            }
+        }
+        Map<Long, IntervalJadwal> hasil = new HashMap<>();
+        slotPerDriver.forEach((driverId, slots) -> hasil.put(driverId, IntervalJadwal.dari(slots)));
+        return hasil;
+    }
+
+    /**
+     * True jika ada dua trip dalam kumpulan yang berjeda kurang dari waktu istirahat.
+     */
+    private static boolean adaJedaKurang(Collection<IntervalJadwal.Slot> trips) {
+        List<IntervalJadwal.Slot> urut = new ArrayList<>(trips);
+        urut.sort(Comparator.comparing(IntervalJadwal.Slot::mulai));
+        for (int i = 1; i < urut.size(); i++) {
+            LocalDateTime bolehMulai = urut.get(i - 1).selesai().plus(JEDA_ISTIRAHAT);
+            if (urut.get(i).mulai().isBefore(bolehMulai)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * Snapshot tenant yang masih berlaku, dimuat di luar lock ConcurrentHashMap oleh thread
+     * yang memasang future; pemanggil lain untuk tenant yang sama menunggu future itu.
+     */
+    private SnapshotTenant getSnapshot(Long tenantId) {
+        while (true) {
+            CompletableFuture<SnapshotTenant> ada = snapshots.get(tenantId);
+            if (ada != null && !perluDimuatUlang(ada)) {
+                return tunggu(ada);
+            }
+            CompletableFuture<SnapshotTenant> baru = new CompletableFuture<>();
+            boolean terpasang = ada == null
+                ? snapshots.putIfAbsent(tenantId, baru) == null
+                : snapshots.replace(tenantId, ada, baru);
+            if (!terpasang) {
+                continue; // Thread lain lebih dulu memasang future
+            }
+            try {
+                baru.complete(muat(tenantId));
+            } catch (RuntimeException e) {
+                snapshots.remove(tenantId, baru);
+                baru.completeExceptionally(e);
+                throw e;
+            }
+            return baru.join();
+        }
+    }
+
+    private static boolean perluDimuatUlang(CompletableFuture<SnapshotTenant> future) {
+        return future.isDone() && (future.isCompletedExceptionally() || future.join().kedaluwarsa());
+    }
+
+    private static SnapshotTenant tunggu(CompletableFuture<SnapshotTenant> future) {
+        try {
+            return future.join();
+        } catch (CompletionException e) {
+            throw e.getCause() instanceof RuntimeException r ? r : e;
+        }
+    }
+
+    /**
+     * Terapkan perubahan ke snapshot tenant: langsung jika sudah dimuat, setelah selesai
+     * dimuat jika sedang dimuat.
+     */
+    private void perbarui(Long tenantId, Consumer<SnapshotTenant> perubahan) {
+        CompletableFuture<SnapshotTenant> future = snapshots.get(tenantId);
+        if (future != null) {
+            future.thenAccept(perubahan); // Belum dimuat: akan terbaca saat cold start
+        }
+    }
+
+    private static List<Driver> salinSemua(List<Driver> drivers) {
+        List<Driver> hasil = new ArrayList<>(drivers.size());
+        for (Driver d : drivers) {
+            Driver salinan = new Driver();
+            salinan.setId(d.getId());
+            salinan.setTenant(d.getTenant());
+            salinan.setNamaLengkap(d.getNamaLengkap());
+            salinan.setNamaPanggilan(d.getNamaPanggilan());
+            salinan.setNomorTelepon(d.getNomorTelepon());
+            salinan.setNomorSim(d.getNomorSim());
+            salinan.setMasaBerlakuSim(d.getMasaBerlakuSim());
+            salinan.setStatus(d.getStatus());
+            hasil.add(salinan);
+        }
+        return hasil;
+    }
+
+    private SnapshotTenant muat(Long tenantId) {
+        long mulaiNano = System.nanoTime();
+        LocalDateTime sekarang = LocalDateTime.now();
+        LocalDateTime jendelaMulai = sekarang.minusDays(AppConfig.INDEX_KETERSEDIAAN_JENDELA_HARI);
+
+        List<Driver> drivers = driverRepository.findAktifByTenantId(tenantId);
+        List<JadwalAssignment> jadwal = tripAssignmentRepository
+            .findJadwalTerpakaiByTenantId(tenantId, jendelaMulai.minus(JEDA_ISTIRAHAT));
+
+        SnapshotTenant snapshot = new SnapshotTenant(sekarang, jendelaMulai, drivers);
+        snapshot.jadwalPerDriver.putAll(jadwalPerDriver(jadwal));
+
+        logger.info("Index ketersediaan driver tenant {} dimuat: {} driver, {} assignment ({} ms)",
+            tenantId, drivers.size(), jadwal.size(), (System.nanoTime() - mulaiNano) / 1_000_000);
+        return snapshot;
+    }
+
+    // ==================== INNER CLASS ====================
+
+    /**
+     * Snapshot data ketersediaan driver satu tenant.
+     */
+    private static class SnapshotTenant {
+        private final LocalDateTime dimuatPada;
+        private final LocalDateTime jendelaMulai;
+        private final List<Driver> driverAktif;
+        private final Map<Long, IntervalJadwal> jadwalPerDriver = new ConcurrentHashMap<>();
+
+        SnapshotTenant(LocalDateTime dimuatPada, LocalDateTime jendelaMulai, List<Driver> driverAktif) {
+            this.dimuatPada = dimuatPada;
+            this.jendelaMulai = jendelaMulai;
+            this.driverAktif = List.copyOf(driverAktif);
+        }
+
+        IntervalJadwal jadwal(Long driverId) {
+            return jadwalPerDriver.getOrDefault(driverId, IntervalJadwal.kosong());
+        }
+
+        boolean kedaluwarsa() {
+            return dimuatPada.plusSeconds(AppConfig.INDEX_KETERSEDIAAN_TTL_DETIK)
+                .isBefore(LocalDateTime.now());
+        }
+    }
+}
@@ -1,12 +1,24 @@
 package com.mrh.buscharter.service;
 
+import com.mrh.buscharter.event.BookingConfirmedEvent;
+import com.mrh.buscharter.event.BookingStatusChangedEvent;
+import com.mrh.buscharter.event.PaymentReceivedEvent;
 import com.mrh.buscharter.model.*;
+import com.mrh.buscharter.model.dto.BookingSummary;
+import com.mrh.buscharter.model.dto.PaymentSummary;
+import com.mrh.buscharter.model.dto.PiutangBooking;
 import com.mrh.buscharter.model.enums.StatusBooking;
 import com.mrh.buscharter.repository.*;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
+import java.io.IOException;
+import java.io.Writer;
 import java.math.BigDecimal;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.LocalDate;
 import java.time.LocalDateTime;
 import java.util.List;
 
@@ -20,76 +32,101 @@ public class FinanceService {
     
     private final BookingRepository bookingRepository;
     private final PaymentRepository paymentRepository;
-    private final BookingChargeRepository bookingChargeRepository;
+    private final BookingLedgerRepository bookingLedgerRepository;
 
     public FinanceService() {
-        this.bookingRepository = new BookingRepository();
-        this.paymentRepository = new PaymentRepository();
-        this.bookingChargeRepository = new BookingChargeRepository();
+        this(new BookingRepository(), new PaymentRepository(), new BookingLedgerRepository());
+    }
+
+    FinanceService(BookingRepository bookingRepository, PaymentRepository paymentRepository,
+                   BookingLedgerRepository bookingLedgerRepository) {
+        this.bookingRepository = bookingRepository;
+        this.paymentRepository = paymentRepository;
+        this.bookingLedgerRepository = bookingLedgerRepository;
     }
 
     // ==================== PEMBAYARAN ====================
 
     /**
      * Catat pembayaran baru.
+     * Validasi, simpan payment, dan update booking ledger berjalan dalam satu transaksi yang
+     * selalu di-commit; status booking lalu dihitung ulang di transaksi terpisah. Jika booking
+     * menjadi DP_DITERIMA tetapi armadanya bentrok dengan assignment lain (exclusion
+     * constraint), pembayaran tetap tercatat, status tidak berubah, dan konflik dilaporkan di
+     * HasilPembayaran. Di dalam UnitOfWork pemanggil semuanya ikut transaksi pemanggil, sehingga
+     * konflik dilempar sebagai IllegalStateException seperti updateStatusPembayaran.
      * 
      * @param bookingId ID booking
      * @param nominal Jumlah pembayaran
      * @param metode Metode pembayaran (Transfer BCA, Cash, dll)
      * @param buktiUrl URL bukti transfer (opsional)
      * @param verifiedBy User yang memverifikasi
-     * @return Payment yang dicatat
+     * @return Payment yang dicatat, status booking setelahnya, dan konflik jadwal (jika ada)
      */
-    public Payment catatPembayaran(Long bookingId, BigDecimal nominal, String metode, 
-                                    String buktiUrl, User verifiedBy) {
+    public HasilPembayaran catatPembayaran(Long bookingId, BigDecimal nominal, String metode, 
+                                           String buktiUrl, User verifiedBy) {
         logger.info("Catat pembayaran untuk booking {}: {} via {}", bookingId, nominal, metode);
         
-        Booking booking = bookingRepository.findById(bookingId)
-            .orElseThrow(() -> new IllegalArgumentException("Booking tidak ditemukan: " + bookingId));
-        
-        // Validasi
-        if (nominal == null || nominal.compareTo(BigDecimal.ZERO) <= 0) {
-            throw new IllegalArgumentException("Nominal pembayaran harus lebih dari 0");
-        }
+        boolean ikutPemanggil = UnitOfWork.isAktif();
+        Payment saved = UnitOfWork.jalankan(() -> {
+            Booking booking = bookingRepository.findById(bookingId)
+                .orElseThrow(() -> new IllegalArgumentException("Booking tidak ditemukan: " + bookingId));
+            
+            // Validasi
+            if (nominal == null || nominal.compareTo(BigDecimal.ZERO) <= 0) {
+                throw new IllegalArgumentException("Nominal pembayaran harus lebih dari 0");
+            }
+            
+            // Validasi status booking - hanya bisa bayar jika sudah QUOTATION_SENT ke atas
+            if (booking.getStatus() == StatusBooking.DRAFT) {
+                throw new IllegalStateException("Tidak bisa bayar booking dengan status DRAFT");
+            }
+            if (booking.getStatus() == StatusBooking.BATAL) {
+                throw new IllegalStateException("Tidak bisa bayar booking yang sudah BATAL");
+            }
+            
+            // Buat payment
+            Payment payment = new Payment(booking, nominal, metode);
+            payment.setBuktiUrl(buktiUrl);
+            payment.setVerifiedBy(verifiedBy);
+            payment.setTanggalPembayaran(LocalDateTime.now());
+            
+            Long tenantId = booking.getTenant().getId();
+            Payment tersimpan = paymentRepository.save(payment,
+                p -> List.of(new PaymentReceivedEvent(p, booking.getKodeBooking(), tenantId)));
+            bookingLedgerRepository.catatPembayaran(bookingId, nominal);
+            return tersimpan;
+        });
+        logger.info("Pembayaran berhasil dicatat: {}", saved.getId());
         
-        // Validasi status booking - hanya bisa bayar jika sudah QUOTATION_SENT ke atas
-        if (booking.getStatus() == StatusBooking.DRAFT) {
-            throw new IllegalStateException("Tidak bisa bayar booking dengan status DRAFT");
-        }
-        if (booking.getStatus() == StatusBooking.BATAL) {
-            throw new IllegalStateException("Tidak bisa bayar booking yang sudah BATAL");
+        // Auto-update status pembayaran di transaksi sendiri (kecuali ikut UnitOfWork pemanggil)
+        try {
+            Booking booking = updateStatusPembayaran(bookingId);
+            return new HasilPembayaran(saved, booking.getStatus(), null);
+        } catch (IllegalStateException e) {
+            if (ikutPemanggil || !TripAssignmentRepository.isPelanggaranOverlap(e)) {
+                throw e;
+            }
+            StatusBooking statusTetap = saved.getBooking().getStatus();
+            logger.warn("Pembayaran {} tercatat, tetapi status booking {} tetap {}: {}",
+                saved.getId(), bookingId, statusTetap, e.getMessage());
+            return new HasilPembayaran(saved, statusTetap, e.getMessage());
         }
-        
-        // Buat payment
-        Payment payment = new Payment(booking, nominal, metode);
-        payment.setBuktiUrl(buktiUrl);
-        payment.setVerifiedBy(verifiedBy);
-        payment.setTanggalPembayaran(LocalDateTime.now());
-        
-        Payment saved = paymentRepository.save(payment);
-        
-        // Auto-update status pembayaran
-        updateStatusPembayaran(bookingId);
-        
-        logger.info("Pembayaran berhasil dicatat: {}", saved.getId());
-        return saved;
     }
 
     /**
-     * Hitung outstanding (sisa yang harus dibayar).
+     * Hitung outstanding (sisa yang harus dibayar) dari booking ledger.
      * Rumus: GrandTotal - Sum(Payments)
      */
     public BigDecimal hitungOutstanding(Long bookingId) {
-        BigDecimal grandTotal = bookingChargeRepository.hitungGrandTotal(bookingId);
-        BigDecimal totalPembayaran = paymentRepository.sumPembayaranByBookingId(bookingId);
-        return grandTotal.subtract(totalPembayaran);
+        return bookingLedgerRepository.findOrHitung(bookingId).getOutstanding();
     }
 
     /**
-     * Hitung total pembayaran untuk booking.
+     * Hitung total pembayaran untuk booking dari booking ledger.
      */
     public BigDecimal hitungTotalPembayaran(Long bookingId) {
-        return paymentRepository.sumPembayaranByBookingId(bookingId);
+        return bookingLedgerRepository.findOrHitung(bookingId).getTotalPembayaran();
     }
 
     /**
@@ -108,69 +145,84 @@ public class FinanceService {
      * - Jika Outstanding <= 0 → Status = LUNAS
      * - Jika Outstanding > 0 dan ada payment → Status = DP_DITERIMA
      * 
+     * Berjalan dalam satu transaksi sendiri (atau ikut transaksi pemanggil jika ada UnitOfWork aktif).
+     * 
      * @param bookingId ID booking
      * @return Booking yang diupdate
+     * @throws IllegalStateException jika armada booking bentrok dengan assignment lain saat
+     *         booking menjadi DP_DITERIMA
      */
     public Booking updateStatusPembayaran(Long bookingId) {
         logger.info("Update status pembayaran untuk booking: {}", bookingId);
         
-        Booking booking = bookingRepository.findById(bookingId)
-            .orElseThrow(() -> new IllegalArgumentException("Booking tidak ditemukan: " + bookingId));
-        
-        // Skip jika status sudah SELESAI atau BATAL
-        if (booking.getStatus() == StatusBooking.SELESAI || 
-            booking.getStatus() == StatusBooking.BATAL) {
-            logger.info("Skip update - booking sudah {}", booking.getStatus());
-            return booking;
+        try {
+            return updateStatusPembayaranDalamUnitOfWork(bookingId);
+        } catch (RuntimeException e) {
+            if (!TripAssignmentRepository.isPelanggaranOverlap(e)) {
+                throw e;
+            }
+            // DP_DITERIMA membuat assignment booking ini mengikat; ditolak exclusion constraint
+            throw new IllegalStateException("Konflik jadwal: armada booking ini sudah di-assign "
+                + "ke trip lain pada waktu yang sama", e);
         }
-        
-        BigDecimal outstanding = hitungOutstanding(bookingId);
-        BigDecimal totalPembayaran = hitungTotalPembayaran(bookingId);
-        
-        StatusBooking statusBaru = null;
-        
-        if (outstanding.compareTo(BigDecimal.ZERO) <= 0) {
-            // Lunas
-            if (booking.getStatus() != StatusBooking.LUNAS) {
-                statusBaru = StatusBooking.LUNAS;
+    }
+
+    private Booking updateStatusPembayaranDalamUnitOfWork(Long bookingId) {
+        return UnitOfWork.jalankan(() -> {
+            Booking booking = bookingRepository.findById(bookingId)
+                .orElseThrow(() -> new IllegalArgumentException("Booking tidak ditemukan: " + bookingId));
+            
+            // Skip jika status sudah SELESAI atau BATAL
+            if (booking.getStatus() == StatusBooking.SELESAI || 
+                booking.getStatus() == StatusBooking.BATAL) {
+                logger.info("Skip update - booking sudah {}", booking.getStatus());
+                return booking;
             }
-        } else if (totalPembayaran.compareTo(BigDecimal.ZERO) > 0) {
-            // Ada pembayaran tapi belum lunas
-            if (booking.getStatus() == StatusBooking.QUOTATION_SENT) {
-                statusBaru = StatusBooking.DP_DITERIMA;
+            
+            BookingLedger ledger = bookingLedgerRepository.findOrHitung(bookingId);
+            BigDecimal totalPembayaran = ledger.getTotalPembayaran();
+            BigDecimal outstanding = ledger.getOutstanding();
+            
+            StatusBooking statusBaru = null;
+            
+            if (outstanding.compareTo(BigDecimal.ZERO) <= 0) {
+                // Lunas
+                if (booking.getStatus() != StatusBooking.LUNAS) {
+                    statusBaru = StatusBooking.LUNAS;
+                }
+            } else if (totalPembayaran.compareTo(BigDecimal.ZERO) > 0) {
+                // Ada pembayaran tapi belum lunas
+                if (booking.getStatus() == StatusBooking.QUOTATION_SENT) {
+                    statusBaru = StatusBooking.DP_DITERIMA;
+                }
             }
-        }
-        
-        if (statusBaru != null && booking.getStatus().bisaTransisiKe(statusBaru)) {
-            booking.setStatus(statusBaru);
-            booking = bookingRepository.save(booking);
-            logger.info("Status booking {} diupdate ke {}", bookingId, statusBaru);
-        }
-        
-        return booking;
+            
+            if (statusBaru != null && booking.getStatus().bisaTransisiKe(statusBaru)) {
+                StatusBooking statusLama = booking.getStatus();
+                booking.setStatus(statusBaru);
+                boolean dpDiterima = statusBaru == StatusBooking.DP_DITERIMA;
+                booking = bookingRepository.save(booking, b -> dpDiterima
+                    ? List.of(new BookingStatusChangedEvent(b, statusLama), new BookingConfirmedEvent(b))
+                    : List.of(new BookingStatusChangedEvent(b, statusLama)));
+                logger.info("Status booking {} diupdate ke {}", bookingId, statusBaru);
+            }
+            
+            return booking;
+        });
     }
 
     /**
      * Cek apakah booking sudah lunas.
      */
     public boolean isLunas(Long bookingId) {
-        BigDecimal outstanding = hitungOutstanding(bookingId);
-        return outstanding.compareTo(BigDecimal.ZERO) <= 0;
+        return bookingLedgerRepository.findOrHitung(bookingId).isLunas();
     }
 
     /**
      * Hitung persentase pembayaran.
      */
     public double hitungPersentasePembayaran(Long bookingId) {
-        BigDecimal grandTotal = bookingChargeRepository.hitungGrandTotal(bookingId);
-        if (grandTotal.compareTo(BigDecimal.ZERO) == 0) {
-            return 100.0;
-        }
-        
-        BigDecimal totalPembayaran = hitungTotalPembayaran(bookingId);
-        return totalPembayaran.divide(grandTotal, 4, java.math.RoundingMode.HALF_UP)
-            .multiply(BigDecimal.valueOf(100))
-            .doubleValue();
+        return bookingLedgerRepository.findOrHitung(bookingId).getPersentasePembayaran();
     }
 
     // ==================== QUERY ====================
@@ -197,19 +249,89 @@ public class FinanceService {
     }
 
     /**
-     * Ringkasan keuangan booking.
+     * Ringkasan booking belum lunas untuk tabel keuangan (total dan sisa tagihan dari satu query).
+     */
+    public List<BookingSummary> getRingkasanBookingBelumLunas(Long tenantId) {
+        return bookingRepository.findSummaryBelumLunasByTenantId(tenantId);
+    }
+
+    /**
+     * Ringkasan pembayaran dalam rentang tanggal untuk tabel pembayaran.
+     */
+    public List<PaymentSummary> getRingkasanPembayaranByTanggal(Long tenantId, LocalDateTime mulai,
+                                                                LocalDateTime selesai) {
+        return paymentRepository.findSummaryByTanggalAndTenantId(mulai, selesai, tenantId);
+    }
+
+    /**
+     * Ringkasan keuangan booking (satu baca baris booking ledger).
      */
     public RingkasanKeuangan getRingkasanKeuangan(Long bookingId) {
-        BigDecimal grandTotal = bookingChargeRepository.hitungGrandTotal(bookingId);
-        BigDecimal totalPembayaran = hitungTotalPembayaran(bookingId);
-        BigDecimal outstanding = grandTotal.subtract(totalPembayaran);
-        double persentase = hitungPersentasePembayaran(bookingId);
-        
-        return new RingkasanKeuangan(grandTotal, totalPembayaran, outstanding, persentase);
+        BookingLedger ledger = bookingLedgerRepository.findOrHitung(bookingId);
+        return new RingkasanKeuangan(ledger.getGrandTotal(), ledger.getTotalPembayaran(),
+            ledger.getOutstanding(), ledger.getPersentasePembayaran());
+    }
+
+    /**
+     * Laporan umur piutang (current, 1-30, 31-60, > 60 hari sejak trip pertama)
+     * per customer dan per sales PIC. Satu query ke booking ledger, dikelompokkan dalam satu lintasan.
+     *
+     * @param tanggalAcuan Tanggal acuan umur piutang (biasanya hari ini)
+     */
+    public LaporanUmurPiutang getLaporanUmurPiutang(Long tenantId, LocalDate tanggalAcuan) {
+        long mulai = System.nanoTime();
+        List<PiutangBooking> piutang = bookingLedgerRepository.findPiutangByTenantId(tenantId);
+        LaporanUmurPiutang laporan = LaporanUmurPiutang.hitung(piutang, tanggalAcuan);
+        logger.info("Laporan umur piutang tenant {}: {} booking dalam {} ms",
+            tenantId, piutang.size(), (System.nanoTime() - mulai) / 1_000_000);
+        return laporan;
+    }
+
+    /**
+     * Export laporan umur piutang ke file CSV.
+     */
+    public void exportLaporanUmurPiutangCsv(Long tenantId, LocalDate tanggalAcuan, Path outputPath) throws IOException {
+        LaporanUmurPiutang laporan = getLaporanUmurPiutang(tenantId, tanggalAcuan);
+        try (Writer writer = Files.newBufferedWriter(outputPath, StandardCharsets.UTF_8)) {
+            laporan.tulisCsv(writer);
+        }
+    }
+
+    /**
+     * Hitung ulang booking ledger dari charge dan payment (perbaikan data manual).
+     */
+    public BookingLedger rekonsiliasiLedger(Long bookingId) {
+        logger.info("Rekonsiliasi booking ledger untuk booking: {}", bookingId);
+        return bookingLedgerRepository.hitungUlang(bookingId);
     }
 
     // ==================== INNER CLASS ====================
 
+    /**
+     * Hasil pencatatan pembayaran.
+     */
+    public static class HasilPembayaran {
+        private final Payment payment;
+        private final StatusBooking statusBooking;
+        private final String konflikJadwal;
+
+        public HasilPembayaran(Payment payment, StatusBooking statusBooking, String konflikJadwal) {
+            this.payment = payment;
+            this.statusBooking = statusBooking;
+            this.konflikJadwal = konflikJadwal;
+        }
+
+        public Payment getPayment() { return payment; }
+        public StatusBooking getStatusBooking() { return statusBooking; }
+        
+        /**
+         * Pesan konflik jika status booking tidak bisa naik ke DP_DITERIMA karena armadanya
+         * bentrok; null jika tidak ada konflik.
+         */
+        public String getKonflikJadwal() { return konflikJadwal; }
+        public boolean adaKonflikJadwal() { return konflikJadwal != null; }
+    }
+
     /**
      * Ringkasan keuangan booking.
      */
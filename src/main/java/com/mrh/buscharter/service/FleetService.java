@@ -1,15 +1,23 @@
 package com.mrh.buscharter.service;
 
+import com.mrh.buscharter.config.AppConfig;
+import com.mrh.buscharter.event.DomainEvent;
+import com.mrh.buscharter.event.VehicleAssignedEvent;
+import com.mrh.buscharter.model.Booking;
 import com.mrh.buscharter.model.Driver;
 import com.mrh.buscharter.model.Trip;
 import com.mrh.buscharter.model.TripAssignment;
 import com.mrh.buscharter.model.Vehicle;
+import com.mrh.buscharter.model.dto.JadwalAssignment;
+import com.mrh.buscharter.model.dto.TripSummary;
+import com.mrh.buscharter.model.dto.VehicleSummary;
 import com.mrh.buscharter.model.enums.StatusAssignment;
 import com.mrh.buscharter.model.enums.StatusKepemilikan;
 import com.mrh.buscharter.model.enums.TipeVehicle;
 import com.mrh.buscharter.repository.DriverRepository;
 import com.mrh.buscharter.repository.TripAssignmentRepository;
 import com.mrh.buscharter.repository.TripRepository;
+import com.mrh.buscharter.repository.UnitOfWork;
 import com.mrh.buscharter.repository.VehicleRepository;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
@@ -33,12 +41,16 @@ public class FleetService {
     private final DriverRepository driverRepository;
     private final TripRepository tripRepository;
     private final TripAssignmentRepository tripAssignmentRepository;
+    private final VehicleAvailabilityIndex availabilityIndex;
+    private final DriverAvailabilityIndex driverAvailabilityIndex;
 
     public FleetService() {
         this.vehicleRepository = new VehicleRepository();
         this.driverRepository = new DriverRepository();
         this.tripRepository = new TripRepository();
         this.tripAssignmentRepository = new TripAssignmentRepository();
+        this.availabilityIndex = VehicleAvailabilityIndex.getInstance();
+        this.driverAvailabilityIndex = DriverAvailabilityIndex.getInstance();
     }
 
     // ==================== AVAILABILITY ENGINE ====================
@@ -48,6 +60,9 @@ public class FleetService {
      * 
      * Rumus: Available = Total_Active_Bus - Assigned_Bus_on_Date_Range
      * 
+     * Dijawab dari VehicleAvailabilityIndex (memori); query database hanya
+     * saat cold start atau rentang di luar jendela index.
+     * 
      * @param tenantId ID tenant
      * @param tanggalMulai Tanggal mulai yang diminta
      * @param tanggalSelesai Tanggal selesai yang diminta
@@ -59,29 +74,58 @@ public class FleetService {
         logger.info("Cek ketersediaan armada: {} - {} untuk tipe: {}", 
             tanggalMulai, tanggalSelesai, tipeBus);
         
-        return vehicleRepository.findVehicleTersedia(tenantId, tanggalMulai, tanggalSelesai, tipeBus);
+        return availabilityIndex.cariVehicleTersedia(tenantId, tanggalMulai, tanggalSelesai, tipeBus)
+            .orElseGet(() -> vehicleRepository.findVehicleTersedia(
+                tenantId, tanggalMulai, tanggalSelesai, tipeBus));
     }
 
     /**
      * Hitung ketersediaan per tipe bus pada rentang tanggal tertentu.
+     * Satu pass atas index ketersediaan, atau satu query GROUP BY jika
+     * rentang di luar jendela index.
      * 
      * @return Map dengan key = TipeVehicle, value = jumlah tersedia
      */
     public Map<TipeVehicle, Long> hitungKetersediaanPerTipe(Long tenantId, 
             LocalDateTime tanggalMulai, LocalDateTime tanggalSelesai) {
         
-        Map<TipeVehicle, Long> hasil = new EnumMap<>(TipeVehicle.class);
-        
-        for (TipeVehicle tipe : TipeVehicle.values()) {
-            long jumlah = vehicleRepository.countVehicleTersediaByTipe(
-                tenantId, tanggalMulai, tanggalSelesai, tipe);
-            hasil.put(tipe, jumlah);
-        }
+        Map<TipeVehicle, Long> hasil = availabilityIndex
+            .hitungTersediaPerTipe(tenantId, tanggalMulai, tanggalSelesai)
+            .orElseGet(() -> vehicleRepository.countVehicleTersediaPerTipe(
+                tenantId, tanggalMulai, tanggalSelesai));
         
         logger.info("Ketersediaan per tipe: {}", hasil);
         return hasil;
     }
 
+    /**
+     * Kalender ketersediaan (heatmap) per slot waktu dan per tipe bus.
+     * Setiap sel sama dengan hasil cekKetersediaan untuk slot tersebut, tetapi
+     * seluruh matriks dibangun dari 2 query + satu sweep-line.
+     * 
+     * @param tenantId ID tenant
+     * @param tanggalMulai Awal rentang kalender
+     * @param tanggalSelesai Akhir rentang kalender
+     * @param granularitas Lebar satu slot (misal Duration.ofDays(1))
+     * @return KalenderKetersediaan dengan jumlah tersedia per slot per tipe
+     */
+    public KalenderKetersediaan hitungKalenderKetersediaan(Long tenantId, LocalDateTime tanggalMulai,
+            LocalDateTime tanggalSelesai, Duration granularitas) {
+        logger.info("Hitung kalender ketersediaan: {} - {} per {}", 
+            tanggalMulai, tanggalSelesai, granularitas);
+        
+        Map<Long, TipeVehicle> tipePerVehicle = new HashMap<>();
+        for (Vehicle v : vehicleRepository.findAktifByTenantId(tenantId)) {
+            tipePerVehicle.put(v.getId(), v.getTipeVehicle());
+        }
+        
+        List<JadwalAssignment> jadwal = tripAssignmentRepository
+            .findJadwalTerpakaiDalamRentang(tenantId, tanggalMulai, tanggalSelesai);
+        
+        return KalenderKetersediaan.hitung(tanggalMulai, tanggalSelesai, granularitas, 
+            tipePerVehicle, jadwal);
+    }
+
     /**
      * Cek apakah ada vehicle tersedia untuk tipe tertentu.
      */
@@ -93,10 +137,47 @@ public class FleetService {
 
     /**
      * Cari driver yang tersedia pada rentang tanggal tertentu.
+     * 
+     * Driver tidak tersedia jika bertugas (driver maupun co-driver) dengan jeda kurang dari
+     * waktu istirahat, atau SIM habis sebelum trip selesai. Dijawab dari DriverAvailabilityIndex.
      */
     public List<Driver> cekKetersediaanDriver(Long tenantId, LocalDateTime tanggalMulai, 
                                                LocalDateTime tanggalSelesai) {
-        return driverRepository.findDriverTersedia(tenantId, tanggalMulai, tanggalSelesai);
+        return driverAvailabilityIndex.cariDriverTersedia(tenantId, tanggalMulai, tanggalSelesai)
+            .orElseGet(() -> driverRepository.findDriverTersedia(tenantId, tanggalMulai, tanggalSelesai,
+                AppConfig.BUFFER_JAM_ANTAR_TRIP));
+    }
+
+    /**
+     * Cari driver yang tersedia untuk banyak trip sekaligus (satu query trip + satu pass index).
+     * 
+     * @param tenantId ID tenant
+     * @param tripIds ID trip
+     * @return Map ID trip → driver tersedia, urut sesuai tripIds
+     */
+    public Map<Long, List<Driver>> cekKetersediaanDriverUntukTrip(Long tenantId, List<Long> tripIds) {
+        Map<Long, Trip> tripMap = new HashMap<>();
+        for (Trip t : tripRepository.findAllByIds(tripIds)) {
+            tripMap.put(t.getId(), t);
+        }
+        List<IntervalJadwal.Slot> slots = new ArrayList<>(tripIds.size());
+        for (Long tripId : tripIds) {
+            Trip trip = tripMap.get(tripId);
+            if (trip == null) {
+                throw new IllegalArgumentException("Trip tidak ditemukan: " + tripId);
+            }
+            slots.add(new IntervalJadwal.Slot(tripId, trip.getWaktuMulai(), trip.getWaktuSelesai()));
+        }
+        
+        return driverAvailabilityIndex.cariDriverTersediaPerTrip(tenantId, slots).orElseGet(() -> {
+            // Di luar jendela index: query per trip
+            Map<Long, List<Driver>> hasil = new LinkedHashMap<>();
+            for (IntervalJadwal.Slot slot : slots) {
+                hasil.put(slot.tripId(), driverRepository.findDriverTersedia(tenantId, 
+                    slot.mulai(), slot.selesai(), AppConfig.BUFFER_JAM_ANTAR_TRIP));
+            }
+            return hasil;
+        });
     }
 
     // ==================== ASSIGNMENT ====================
@@ -104,6 +185,11 @@ public class FleetService {
     /**
      * Assign bus ke trip dengan validasi konflik.
      * 
+     * Jalur cepat (booking sudah memblokir armada dan exclusion constraint terpasang): langsung
+     * insert, overlap ditolak database tanpa query validasi. Selain itu (booking belum DP, atau
+     * migrasi V8 belum diterapkan) konflik dicek di aplikasi di bawah kunci advisory per vehicle.
+     * Peringatan jeda kurang dari buffer hanya dicatat di jalur cek aplikasi.
+     * 
      * @param tripId ID trip
      * @param vehicleId ID vehicle
      * @param driverId ID driver (opsional)
@@ -115,74 +201,397 @@ public class FleetService {
                                            Long driverId, Long coDriverId) {
         logger.info("Assign vehicle {} ke trip {}", vehicleId, tripId);
         
-        // Ambil trip
-        Trip trip = tripRepository.findById(tripId)
-            .orElseThrow(() -> new IllegalArgumentException("Trip tidak ditemukan: " + tripId));
-        
-        // Ambil vehicle
-        Vehicle vehicle = vehicleRepository.findById(vehicleId)
-            .orElseThrow(() -> new IllegalArgumentException("Vehicle tidak ditemukan: " + vehicleId));
-        
-        // Validasi konflik jadwal
-        HasilValidasiKonflik validasi = cekKonflikJadwal(vehicleId, 
-            trip.getWaktuMulai(), trip.getWaktuSelesai(), tripId);
-        
-        if (validasi.adaKonflik()) {
-            throw new IllegalStateException("Konflik jadwal: " + validasi.getPesan());
+        try {
+            return UnitOfWork.jalankan(() -> {
+                // Ambil trip (dengan booking untuk update index)
+                Trip trip = tripRepository.findByIdWithBooking(tripId)
+                    .orElseThrow(() -> new IllegalArgumentException("Trip tidak ditemukan: " + tripId));
+                
+                // Ambil vehicle
+                Vehicle vehicle = vehicleRepository.findById(vehicleId)
+                    .orElseThrow(() -> new IllegalArgumentException("Vehicle tidak ditemukan: " + vehicleId));
+                
+                // Validasi konflik jadwal (hanya jika database tidak menjaga overlap untuk trip ini)
+                HasilValidasiKonflik validasi = null;
+                if (!trip.getBooking().getStatus().memblokirArmada()
+                        || !tripAssignmentRepository.isKonstrainOverlapAktif()) {
+                    tripAssignmentRepository.kunciVehicle(List.of(vehicleId));
+                    validasi = cekKonflikJadwal(vehicleId, trip.getWaktuMulai(), trip.getWaktuSelesai(), tripId);
+                    if (validasi.adaKonflik()) {
+                        throw new IllegalStateException("Konflik jadwal: " + validasi.getPesan());
+                    }
+                }
+                
+                // Buat assignment
+                TripAssignment assignment = new TripAssignment(trip, vehicle);
+                assignment.setStatusAssignment(StatusAssignment.TERJADWAL);
+                
+                // Set driver jika ada
+                if (driverId != null) {
+                    Driver driver = driverRepository.findById(driverId)
+                        .orElseThrow(() -> new IllegalArgumentException("Driver tidak ditemukan: " + driverId));
+                    assignment.setDriver(driver);
+                }
+                
+                // Set co-driver jika ada
+                if (coDriverId != null) {
+                    Driver coDriver = driverRepository.findById(coDriverId)
+                        .orElseThrow(() -> new IllegalArgumentException("Co-driver tidak ditemukan: " + coDriverId));
+                    assignment.setCoDriver(coDriver);
+                }
+                
+                // Simpan + event di outbox dalam satu transaksi; di-publish setelah commit
+                // (index ketersediaan diperbarui oleh IndexKetersediaanUpdater)
+                Long tenantId = trip.getBooking().getTenant().getId();
+                TripAssignment saved = tripAssignmentRepository.save(assignment,
+                    a -> List.of(new VehicleAssignedEvent(a, tenantId)));
+                logger.info("Assignment berhasil dibuat: {}", saved.getId());
+                
+                // Log warning jika jeda kurang dari 4 jam
+                if (validasi != null && validasi.adaWarning()) {
+                    logger.warn("Warning: {}", validasi.getPesan());
+                }
+                
+                return saved;
+            });
+        } catch (RuntimeException e) {
+            if (!TripAssignmentRepository.isPelanggaranOverlap(e)) {
+                throw e;
+            }
+            throw new IllegalStateException("Konflik jadwal: " + pesanKonflik(tripId, vehicleId), e);
         }
-        
-        // Buat assignment
-        TripAssignment assignment = new TripAssignment(trip, vehicle);
-        assignment.setStatusAssignment(StatusAssignment.TERJADWAL);
-        
-        // Set driver jika ada
-        if (driverId != null) {
-            Driver driver = driverRepository.findById(driverId)
-                .orElseThrow(() -> new IllegalArgumentException("Driver tidak ditemukan: " + driverId));
-            assignment.setDriver(driver);
+    }
+
+    /**
+     * Pesan konflik setelah insert ditolak exclusion constraint. Transaksi yang gagal sudah
+     * tidak bisa dipakai query, jadi detail trip hanya dicari jika tidak ada UnitOfWork luar.
+     */
+    private String pesanKonflik(Long tripId, Long vehicleId) {
+        if (!UnitOfWork.isAktif()) {
+            Optional<Trip> trip = tripRepository.findById(tripId);
+            if (trip.isPresent()) {
+                HasilValidasiKonflik validasi = cekKonflikJadwal(vehicleId,
+                    trip.get().getWaktuMulai(), trip.get().getWaktuSelesai(), tripId);
+                if (validasi.adaKonflik()) {
+                    return validasi.getPesan();
+                }
+            }
+        }
+        return "Vehicle sudah di-assign ke trip lain pada waktu yang sama";
+    }
+
+    /**
+     * Assign banyak trip sekaligus (misal semua trip dalam satu booking tur).
+     * 
+     * Semua permintaan divalidasi dalam satu pass, terhadap jadwal yang sudah ada
+     * maupun terhadap sesama permintaan dalam batch (vehicle, driver, dan co-driver).
+     * Jika ada satu saja yang konflik, tidak ada yang disimpan.
+     * Data diambil dengan query IN + satu query jendela per jenis sumber daya,
+     * lalu semua assignment disimpan dalam satu transaksi (JDBC batch insert).
+     * Vehicle dalam batch dikunci (advisory lock) selama validasi dan insert.
+     * 
+     * @param permintaan Daftar (trip, vehicle, driver, co-driver)
+     * @return TripAssignment yang dibuat, urut sesuai permintaan
+     * @throws IllegalStateException jika ada konflik jadwal
+     */
+    public List<TripAssignment> assignBusKeTripBatch(List<PermintaanAssignment> permintaan) {
+        if (permintaan.isEmpty()) {
+            return new ArrayList<>();
         }
+        logger.info("Assign batch {} trip", permintaan.size());
         
-        // Set co-driver jika ada
-        if (coDriverId != null) {
-            Driver coDriver = driverRepository.findById(coDriverId)
-                .orElseThrow(() -> new IllegalArgumentException("Co-driver tidak ditemukan: " + coDriverId));
-            assignment.setCoDriver(coDriver);
+        try {
+            return assignBatchDalamUnitOfWork(permintaan);
+        } catch (RuntimeException e) {
+            if (!TripAssignmentRepository.isPelanggaranOverlap(e)) {
+                throw e;
+            }
+            throw new IllegalStateException(
+                "Konflik jadwal: vehicle sudah di-assign ke trip lain pada waktu yang sama", e);
+        }
+    }
+
+    private List<TripAssignment> assignBatchDalamUnitOfWork(List<PermintaanAssignment> permintaan) {
+        return UnitOfWork.jalankan(() -> {
+            // Ambil semua trip, vehicle, dan driver sekaligus
+            Set<Long> tripIds = new HashSet<>();
+            Set<Long> vehicleIds = new HashSet<>();
+            Set<Long> driverIds = new HashSet<>();
+            for (PermintaanAssignment p : permintaan) {
+                tripIds.add(p.tripId());
+                vehicleIds.add(p.vehicleId());
+                if (p.driverId() != null) driverIds.add(p.driverId());
+                if (p.coDriverId() != null) driverIds.add(p.coDriverId());
+            }
+            
+            Map<Long, Trip> tripMap = new HashMap<>();
+            for (Trip t : tripRepository.findByIdsWithBooking(tripIds)) {
+                tripMap.put(t.getId(), t);
+            }
+            Map<Long, Vehicle> vehicleMap = new HashMap<>();
+            for (Vehicle v : vehicleRepository.findAllByIds(vehicleIds)) {
+                vehicleMap.put(v.getId(), v);
+            }
+            Map<Long, Driver> driverMap = new HashMap<>();
+            for (Driver d : driverRepository.findAllByIds(driverIds)) {
+                driverMap.put(d.getId(), d);
+            }
+            
+            // Rencana assignment dalam bentuk jadwal, sekaligus cek data yang tidak ditemukan
+            List<JadwalAssignment> rencana = new ArrayList<>(permintaan.size());
+            LocalDateTime jendelaMulai = null;
+            LocalDateTime jendelaSelesai = null;
+            for (PermintaanAssignment p : permintaan) {
+                Trip trip = tripMap.get(p.tripId());
+                if (trip == null) {
+                    throw new IllegalArgumentException("Trip tidak ditemukan: " + p.tripId());
+                }
+                if (!vehicleMap.containsKey(p.vehicleId())) {
+                    throw new IllegalArgumentException("Vehicle tidak ditemukan: " + p.vehicleId());
+                }
+                if (p.driverId() != null && !driverMap.containsKey(p.driverId())) {
+                    throw new IllegalArgumentException("Driver tidak ditemukan: " + p.driverId());
+                }
+                if (p.coDriverId() != null && !driverMap.containsKey(p.coDriverId())) {
+                    throw new IllegalArgumentException("Co-driver tidak ditemukan: " + p.coDriverId());
+                }
+                rencana.add(new JadwalAssignment(null, p.tripId(), p.vehicleId(), p.driverId(), 
+                    p.coDriverId(), trip.getWaktuMulai(), trip.getWaktuSelesai()));
+            
+                if (jendelaMulai == null || trip.getWaktuMulai().isBefore(jendelaMulai)) {
+                    jendelaMulai = trip.getWaktuMulai();
+                }
+                if (jendelaSelesai == null || trip.getWaktuSelesai().isAfter(jendelaSelesai)) {
+                    jendelaSelesai = trip.getWaktuSelesai();
+                }
+            }
+            
+            // Assignment lain untuk vehicle yang sama menunggu sampai batch ini commit
+            tripAssignmentRepository.kunciVehicle(vehicleIds);
+            
+            // Satu query jendela untuk semua vehicle dan satu untuk semua driver
+            jendelaMulai = jendelaMulai.minusHours(BUFFER_JAM_MINIMUM);
+            jendelaSelesai = jendelaSelesai.plusHours(BUFFER_JAM_MINIMUM);
+            List<JadwalAssignment> jadwalVehicle = tripAssignmentRepository
+                .findJadwalVehiclesDalamJendela(vehicleIds, jendelaMulai, jendelaSelesai);
+            List<JadwalAssignment> jadwalDriver = tripAssignmentRepository
+                .findJadwalDriversDalamJendela(driverIds, jendelaMulai, jendelaSelesai);
+            
+            // Validasi semua permintaan, kumpulkan semua konflik sebelum menyimpan
+            List<HasilValidasiKonflik> hasil = evaluasiKonflikBatch(rencana, jadwalVehicle, jadwalDriver);
+            List<String> konflik = new ArrayList<>();
+            for (int i = 0; i < rencana.size(); i++) {
+                if (hasil.get(i).adaKonflik()) {
+                    konflik.add("Trip " + rencana.get(i).tripId() + ": " + hasil.get(i).getPesan());
+                }
+            }
+            if (!konflik.isEmpty()) {
+                throw new IllegalStateException("Konflik jadwal: " + String.join("; ", konflik));
+            }
+            
+            // Buat dan simpan semua assignment dalam satu transaksi
+            List<TripAssignment> assignments = new ArrayList<>(permintaan.size());
+            for (PermintaanAssignment p : permintaan) {
+                TripAssignment assignment = new TripAssignment(tripMap.get(p.tripId()), vehicleMap.get(p.vehicleId()));
+                assignment.setStatusAssignment(StatusAssignment.TERJADWAL);
+                if (p.driverId() != null) {
+                    assignment.setDriver(driverMap.get(p.driverId()));
+                }
+                if (p.coDriverId() != null) {
+                    assignment.setCoDriver(driverMap.get(p.coDriverId()));
+                }
+                assignments.add(assignment);
+            }
+            List<TripAssignment> saved = tripAssignmentRepository.saveAll(assignments,
+                tersimpan -> tersimpan.stream()
+                    .<DomainEvent>map(a -> new VehicleAssignedEvent(a, a.getTrip().getBooking().getTenant().getId()))
+                    .toList());
+            logger.info("Assignment batch berhasil dibuat: {} assignment", saved.size());
+            
+            for (int i = 0; i < saved.size(); i++) {
+                if (hasil.get(i).adaWarning()) {
+                    logger.warn("Warning trip {}: {}", rencana.get(i).tripId(), hasil.get(i).getPesan());
+                }
+            }
+            
+            return saved;
+        });
+    }
+
+    /**
+     * Evaluasi konflik untuk banyak rencana assignment sekaligus.
+     * 
+     * Setiap rencana dicek terhadap jadwal vehicle/driver yang sudah ada dan terhadap
+     * rencana lain dalam batch yang memakai vehicle atau driver yang sama.
+     * Jadwal harus sudah mencakup jendela [mulai - buffer, selesai + buffer] seluruh batch.
+     * 
+     * @return Hasil validasi per rencana, urut sesuai input
+     */
+    static List<HasilValidasiKonflik> evaluasiKonflikBatch(List<JadwalAssignment> rencana,
+                                                           List<JadwalAssignment> jadwalVehicle,
+                                                           List<JadwalAssignment> jadwalDriver) {
+        // Kelompokkan jadwal per vehicle dan per driver (jadwal tersimpan + rencana batch)
+        Map<Long, List<JadwalAssignment>> perVehicle = new HashMap<>();
+        for (JadwalAssignment ja : jadwalVehicle) {
+            perVehicle.computeIfAbsent(ja.vehicleId(), k -> new ArrayList<>()).add(ja);
+        }
+        Map<Long, List<JadwalAssignment>> perDriver = new HashMap<>();
+        for (JadwalAssignment ja : jadwalDriver) {
+            tambahPerDriver(perDriver, ja);
+        }
+        Map<Long, Integer> jumlahPerTrip = new HashMap<>();
+        for (JadwalAssignment r : rencana) {
+            perVehicle.computeIfAbsent(r.vehicleId(), k -> new ArrayList<>()).add(r);
+            tambahPerDriver(perDriver, r);
+            jumlahPerTrip.merge(r.tripId(), 1, Integer::sum);
         }
         
-        // Simpan
-        TripAssignment saved = tripAssignmentRepository.save(assignment);
-        logger.info("Assignment berhasil dibuat: {}", saved.getId());
+        List<HasilValidasiKonflik> hasil = new ArrayList<>(rencana.size());
+        for (JadwalAssignment r : rencana) {
+            if (jumlahPerTrip.get(r.tripId()) > 1) {
+                hasil.add(new HasilValidasiKonflik(true, false, 
+                    "Trip muncul lebih dari sekali dalam batch", List.of(r.tripId())));
+                continue;
+            }
+            if (r.driverId() != null && r.driverId().equals(r.coDriverId())) {
+                hasil.add(new HasilValidasiKonflik(true, false, 
+                    "Driver dan co-driver tidak boleh orang yang sama"));
+                continue;
+            }
+            
+            // Vehicle: overlap + jeda dengan trip lain (kecuali trip ini sendiri)
+            List<JadwalAssignment> sekitar = new ArrayList<>();
+            for (JadwalAssignment ja : perVehicle.get(r.vehicleId())) {
+                if (!ja.tripId().equals(r.tripId())) {
+                    sekitar.add(ja);
+                }
+            }
+            HasilValidasiKonflik validasi = evaluasiKonflik(sekitar, r.waktuMulai(), r.waktuSelesai());
+            
+            // Driver dan co-driver: hanya overlap langsung
+            if (!validasi.adaKonflik()) {
+                for (Long driverId : new Long[]{r.driverId(), r.coDriverId()}) {
+                    if (driverId == null) {
+                        continue;
+                    }
+                    List<Long> tripKonflik = new ArrayList<>();
+                    for (JadwalAssignment ja : perDriver.get(driverId)) {
+                        if (!ja.tripId().equals(r.tripId())
+                                && !ja.waktuMulai().isAfter(r.waktuSelesai())
+                                && !ja.waktuSelesai().isBefore(r.waktuMulai())) {
+                            tripKonflik.add(ja.tripId());
+                        }
+                    }
+                    if (!tripKonflik.isEmpty()) {
+                        validasi = new HasilValidasiKonflik(true, false, 
+                            "Driver " + driverId + " sudah bertugas pada waktu yang sama (trip: " + tripKonflik + ")",
+                            tripKonflik);
+                        break;
+                    }
+                }
+            }
+            hasil.add(validasi);
+        }
+        return hasil;
+    }
+
+    private static void tambahPerDriver(Map<Long, List<JadwalAssignment>> perDriver, JadwalAssignment ja) {
+        if (ja.driverId() != null) {
+            perDriver.computeIfAbsent(ja.driverId(), k -> new ArrayList<>()).add(ja);
+        }
+        if (ja.coDriverId() != null && !ja.coDriverId().equals(ja.driverId())) {
+            perDriver.computeIfAbsent(ja.coDriverId(), k -> new ArrayList<>()).add(ja);
+        }
+    }
+
+    /**
+     * Usulkan vehicle dan driver untuk semua trip yang belum di-assign dalam rentang tanggal.
+     * Hasil hanya usulan (tidak disimpan); terapkan dengan 
+     * assignBusKeTripBatch(hasil.kePermintaan()) setelah dicek ops.
+     * 
+     * @param tenantId ID tenant
+     * @param tanggalMulai Awal rentang trip
+     * @param tanggalSelesai Akhir rentang trip
+     * @return Usulan assignment dan daftar trip yang tidak bisa dipenuhi
+     */
+    public OptimasiAssignment usulkanAssignment(Long tenantId, LocalDateTime tanggalMulai, 
+                                                LocalDateTime tanggalSelesai) {
+        List<Trip> trips = tripRepository.findBelumDiAssignDalamRentang(tenantId, tanggalMulai, tanggalSelesai);
+        if (trips.isEmpty()) {
+            return OptimasiAssignment.hitung(trips, List.of(), List.of(), List.of(), BUFFER_JAM_MINIMUM);
+        }
         
-        // Log warning jika jeda kurang dari 4 jam
-        if (validasi.adaWarning()) {
-            logger.warn("Warning: {}", validasi.getPesan());
+        // Jadwal tersimpan mencakup seluruh trip ± buffer
+        LocalDateTime jendelaMulai = tanggalMulai;
+        LocalDateTime jendelaSelesai = tanggalSelesai;
+        for (Trip t : trips) {
+            if (t.getWaktuMulai().isBefore(jendelaMulai)) jendelaMulai = t.getWaktuMulai();
+            if (t.getWaktuSelesai().isAfter(jendelaSelesai)) jendelaSelesai = t.getWaktuSelesai();
         }
+        List<JadwalAssignment> jadwal = tripAssignmentRepository.findJadwalTerpakaiDalamRentang(tenantId,
+            jendelaMulai.minusHours(BUFFER_JAM_MINIMUM), jendelaSelesai.plusHours(BUFFER_JAM_MINIMUM));
         
-        return saved;
+        long mulaiNano = System.nanoTime();
+        OptimasiAssignment hasil = OptimasiAssignment.hitung(trips, 
+            vehicleRepository.findAktifByTenantId(tenantId), 
+            driverRepository.findAktifByTenantId(tenantId), 
+            jadwal, BUFFER_JAM_MINIMUM);
+        
+        logger.info("Optimasi assignment tenant {}: {} trip, {} diusulkan, {} tidak terpenuhi ({} ms)",
+            tenantId, trips.size(), hasil.getUsulan().size(), hasil.getTidakTerpenuhi().size(),
+            (System.nanoTime() - mulaiNano) / 1_000_000);
+        return hasil;
     }
 
     /**
      * Cek konflik jadwal untuk vehicle.
      * 
-     * @return HasilValidasiKonflik dengan status konflik dan warning
+     * Satu query jendela [mulai - buffer, selesai + buffer] mengambil trip yang overlap
+     * sekaligus trip tetangga sebelum/sesudah yang jedanya kurang dari buffer.
+     * 
+     * @return HasilValidasiKonflik dengan status konflik, warning, dan ID trip yang konflik
      */
     public HasilValidasiKonflik cekKonflikJadwal(Long vehicleId, LocalDateTime mulai, 
                                                   LocalDateTime selesai, Long excludeTripId) {
-        // Cek overlap langsung
-        boolean adaOverlap = tripAssignmentRepository.hasKonflikJadwal(
-            vehicleId, mulai, selesai, excludeTripId);
+        List<JadwalAssignment> sekitar = tripAssignmentRepository.findJadwalVehicleDalamJendela(
+            vehicleId, mulai.minusHours(BUFFER_JAM_MINIMUM), selesai.plusHours(BUFFER_JAM_MINIMUM), 
+            excludeTripId);
+        
+        return evaluasiKonflik(sekitar, mulai, selesai);
+    }
+
+    /**
+     * Evaluasi konflik dari jadwal di sekitar rentang yang diminta.
+     * Jadwal harus sudah mencakup jendela [mulai - buffer, selesai + buffer].
+     */
+    static HasilValidasiKonflik evaluasiKonflik(List<JadwalAssignment> sekitar, 
+                                                 LocalDateTime mulai, LocalDateTime selesai) {
+        List<Long> tripKonflik = new ArrayList<>();
+        LocalDateTime selesaiSebelumnya = null;
+        LocalDateTime mulaiBerikutnya = null;
+        
+        for (JadwalAssignment ja : sekitar) {
+            // Rumus irisan: (TripMulai <= RequestSelesai) AND (TripSelesai >= RequestMulai)
+            if (!ja.waktuMulai().isAfter(selesai) && !ja.waktuSelesai().isBefore(mulai)) {
+                tripKonflik.add(ja.tripId());
+            } else if (ja.waktuSelesai().isBefore(mulai)) {
+                if (selesaiSebelumnya == null || ja.waktuSelesai().isAfter(selesaiSebelumnya)) {
+                    selesaiSebelumnya = ja.waktuSelesai();
+                }
+            } else if (mulaiBerikutnya == null || ja.waktuMulai().isBefore(mulaiBerikutnya)) {
+                mulaiBerikutnya = ja.waktuMulai();
+            }
+        }
         
-        if (adaOverlap) {
+        // Cek overlap langsung
+        if (!tripKonflik.isEmpty()) {
             return new HasilValidasiKonflik(true, false, 
-                "Vehicle sudah di-assign ke trip lain pada waktu yang sama");
+                "Vehicle sudah di-assign ke trip lain pada waktu yang sama (trip: " + tripKonflik + ")",
+                tripKonflik);
         }
         
         // Cek jeda dengan trip sebelumnya
-        Optional<TripAssignment> tripSebelumnya = tripAssignmentRepository
-            .findLastAssignmentByVehicleId(vehicleId, mulai);
-        
-        if (tripSebelumnya.isPresent()) {
-            LocalDateTime selesaiSebelumnya = tripSebelumnya.get().getTrip().getWaktuSelesai();
+        if (selesaiSebelumnya != null) {
             long jedaJam = Duration.between(selesaiSebelumnya, mulai).toHours();
             
             if (jedaJam < BUFFER_JAM_MINIMUM) {
@@ -193,11 +602,7 @@ public class FleetService {
         }
         
         // Cek jeda dengan trip berikutnya
-        Optional<TripAssignment> tripBerikutnya = tripAssignmentRepository
-            .findNextAssignmentByVehicleId(vehicleId, selesai);
-        
-        if (tripBerikutnya.isPresent()) {
-            LocalDateTime mulaiBerikutnya = tripBerikutnya.get().getTrip().getWaktuMulai();
+        if (mulaiBerikutnya != null) {
             long jedaJam = Duration.between(selesai, mulaiBerikutnya).toHours();
             
             if (jedaJam < BUFFER_JAM_MINIMUM) {
@@ -236,7 +641,10 @@ public class FleetService {
         
         // Tenant akan di-set oleh caller atau dari session
         
-        return vehicleRepository.save(vehicle);
+        Vehicle saved = vehicleRepository.save(vehicle);
+        vehicleRepository.evictCache(saved.getId());
+        availabilityIndex.invalidateTenant(tenantId);
+        return saved;
     }
 
     /**
@@ -257,7 +665,10 @@ public class FleetService {
         vehicle.setStatusKepemilikan(statusKepemilikan);
         vehicle.setNamaVendor(namaVendor);
         
-        return vehicleRepository.save(vehicle);
+        Vehicle saved = vehicleRepository.save(vehicle);
+        vehicleRepository.evictCache(vehicleId);
+        availabilityIndex.invalidateVehicle(vehicleId);
+        return saved;
     }
 
     /**
@@ -271,6 +682,8 @@ public class FleetService {
         
         vehicle.setAktif(false);
         vehicleRepository.save(vehicle);
+        vehicleRepository.evictCache(vehicleId);
+        availabilityIndex.invalidateVehicle(vehicleId);
     }
 
     /**
@@ -284,6 +697,9 @@ public class FleetService {
         
         vehicle.setAktif(true);
         vehicleRepository.save(vehicle);
+        vehicleRepository.evictCache(vehicleId);
+        // Vehicle nonaktif tidak ada di snapshot, jadi invalidate lewat tenant-nya
+        availabilityIndex.invalidateTenant(vehicle.getTenant().getId());
     }
 
     /**
@@ -300,8 +716,29 @@ public class FleetService {
         return vehicleRepository.findByTipeAndTenantId(tipe, tenantId);
     }
 
+    /**
+     * Ringkasan vehicle aktif untuk tabel armada (dengan jumlah trip mendatang).
+     */
+    public List<VehicleSummary> getRingkasanVehicleAktif(Long tenantId) {
+        return vehicleRepository.findSummaryAktifByTenantId(tenantId, LocalDateTime.now());
+    }
+
+    /**
+     * Ringkasan trip dalam rentang tanggal untuk tabel jadwal.
+     */
+    public List<TripSummary> getRingkasanTrip(Long tenantId, LocalDateTime mulai, LocalDateTime selesai) {
+        return tripRepository.findSummaryByTanggalAndTenantId(mulai, selesai, tenantId);
+    }
+
     // ==================== INNER CLASS ====================
 
+    /**
+     * Satu permintaan assignment untuk assignBusKeTripBatch.
+     * Driver dan co-driver opsional (null).
+     */
+    public record PermintaanAssignment(Long tripId, Long vehicleId, Long driverId, Long coDriverId) {
+    }
+
     /**
      * Hasil validasi konflik jadwal.
      */
@@ -309,15 +746,26 @@ public class FleetService {
         private final boolean konflik;
         private final boolean warning;
         private final String pesan;
+        private final List<Long> tripKonflik;
 
         public HasilValidasiKonflik(boolean konflik, boolean warning, String pesan) {
+            this(konflik, warning, pesan, List.of());
+        }
+
+        public HasilValidasiKonflik(boolean konflik, boolean warning, String pesan, List<Long> tripKonflik) {
             this.konflik = konflik;
             this.warning = warning;
             this.pesan = pesan;
+            this.tripKonflik = List.copyOf(tripKonflik);
         }
 
         public boolean adaKonflik() { return konflik; }
         public boolean adaWarning() { return warning; }
         public String getPesan() { return pesan; }
+        
+        /**
+         * ID trip yang overlap dengan rentang yang diminta (kosong jika tidak konflik).
+         */
+        public List<Long> getTripKonflik() { return tripKonflik; }
     }
 }
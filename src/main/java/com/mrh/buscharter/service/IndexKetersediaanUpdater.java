@@ -0,0 +1,101 @@
+package com.mrh.buscharter.service;
+
+import com.mrh.buscharter.event.BookingStatusChangedEvent;
+import com.mrh.buscharter.event.EventBus;
+import com.mrh.buscharter.event.IdempotentHandler;
+import com.mrh.buscharter.event.VehicleAssignedEvent;
+import com.mrh.buscharter.model.dto.JadwalAssignment;
+import com.mrh.buscharter.repository.TripAssignmentRepository;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.util.List;
+
+/**
+ * Read-model updater: menjaga VehicleAvailabilityIndex dan DriverAvailabilityIndex
+ * tetap segar dari domain events, tanpa reload snapshot tenant.
+ *
+ * - VehicleAssignedEvent → catat slot vehicle, driver, dan co-driver
+ * - BookingStatusChangedEvent (mulai/berhenti memblokir armada) → catat/hapus slot
+ *   semua assignment booking tersebut (satu query proyeksi kecil per booking)
+ *
+ * Didaftarkan sekali saat aplikasi start lewat daftarkan(). Handler dibungkus
+ * IdempotentHandler karena event dari outbox bisa terkirim lebih dari sekali.
+ */
+public class IndexKetersediaanUpdater {
+
+    private static final Logger logger = LoggerFactory.getLogger(IndexKetersediaanUpdater.class);
+
+    private final VehicleAvailabilityIndex vehicleIndex;
+    private final DriverAvailabilityIndex driverIndex;
+    private final TripAssignmentRepository tripAssignmentRepository;
+
+    IndexKetersediaanUpdater(VehicleAvailabilityIndex vehicleIndex, DriverAvailabilityIndex driverIndex,
+                             TripAssignmentRepository tripAssignmentRepository) {
+        this.vehicleIndex = vehicleIndex;
+        this.driverIndex = driverIndex;
+        this.tripAssignmentRepository = tripAssignmentRepository;
+    }
+
+    /**
+     * Subscribe updater ke EventBus global.
+     */
+    public static IndexKetersediaanUpdater daftarkan() {
+        IndexKetersediaanUpdater updater = new IndexKetersediaanUpdater(
+            VehicleAvailabilityIndex.getInstance(), DriverAvailabilityIndex.getInstance(),
+            new TripAssignmentRepository());
+        updater.daftarkan(EventBus.getInstance());
+        return updater;
+    }
+
+    /**
+     * Subscribe updater ke EventBus tertentu.
+     */
+    public void daftarkan(EventBus eventBus) {
+        eventBus.subscribe(VehicleAssignedEvent.class, IdempotentHandler.bungkus(this::onVehicleAssigned));
+        eventBus.subscribe(BookingStatusChangedEvent.class,
+            IdempotentHandler.bungkus(this::onBookingStatusChanged));
+        logger.info("Updater index ketersediaan terdaftar di EventBus");
+    }
+
+    // ==================== HANDLERS ====================
+
+    void onVehicleAssigned(VehicleAssignedEvent event) {
+        if (!event.isMemblokirArmada()) {
+            return; // Booking belum DP, akan dicatat saat statusnya berubah
+        }
+        Long tenantId = event.getTenantId();
+        vehicleIndex.catatAssignment(tenantId, event.getVehicleId(), event.getTripId(),
+            event.getWaktuMulai(), event.getWaktuSelesai());
+        driverIndex.catatAssignment(tenantId, event.getDriverId(), event.getTripId(),
+            event.getWaktuMulai(), event.getWaktuSelesai());
+        driverIndex.catatAssignment(tenantId, event.getCoDriverId(), event.getTripId(),
+            event.getWaktuMulai(), event.getWaktuSelesai());
+    }
+
+    void onBookingStatusChanged(BookingStatusChangedEvent event) {
+        if (!event.isStatusBlokirBerubah()) {
+            return;
+        }
+        Long tenantId = event.getTenantId();
+        boolean blokir = event.getStatusBaru().memblokirArmada();
+        List<JadwalAssignment> jadwal = tripAssignmentRepository.findJadwalByBookingId(event.getBookingId());
+
+        for (JadwalAssignment ja : jadwal) {
+            if (blokir) {
+                vehicleIndex.catatAssignment(tenantId, ja.vehicleId(), ja.tripId(),
+                    ja.waktuMulai(), ja.waktuSelesai());
+                driverIndex.catatAssignment(tenantId, ja.driverId(), ja.tripId(),
+                    ja.waktuMulai(), ja.waktuSelesai());
+                driverIndex.catatAssignment(tenantId, ja.coDriverId(), ja.tripId(),
+                    ja.waktuMulai(), ja.waktuSelesai());
+            } else {
+                vehicleIndex.hapusAssignment(tenantId, ja.vehicleId(), ja.tripId());
+                driverIndex.hapusAssignment(tenantId, ja.driverId(), ja.tripId());
+                driverIndex.hapusAssignment(tenantId, ja.coDriverId(), ja.tripId());
+            }
+        }
+        logger.debug("Index ketersediaan booking {} diperbarui: {} assignment {}",
+            event.getBookingId(), jadwal.size(), blokir ? "dicatat" : "dihapus");
+    }
+}
@@ -0,0 +1,221 @@
+package com.mrh.buscharter.service;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.time.ZoneOffset;
+import java.util.*;
+
+/**
+ * Kumpulan interval jadwal untuk satu sumber daya (vehicle atau driver).
+ *
+ * Disimpan sebagai array terurut (immutable, copy-on-write):
+ * - urut berdasarkan waktu mulai + prefix-max waktu selesai → cek overlap O(log n + k)
+ * - urut berdasarkan waktu selesai → cari trip sebelumnya O(log n)
+ *
+ * Rumus irisan sama dengan query repository:
+ * (SlotMulai <= RequestSelesai) AND (SlotSelesai >= RequestMulai)
+ */
+public final class IntervalJadwal {
+
+    private static final IntervalJadwal KOSONG = new IntervalJadwal(new Slot[0]);
+
+    // Urut berdasarkan waktu mulai
+    private final Slot[] slotUrutMulai;
+    private final long[] mulai;
+    private final long[] maksSelesai;
+
+    // Urut berdasarkan waktu selesai
+    private final Slot[] slotUrutSelesai;
+    private final long[] selesai;
+
+    private IntervalJadwal(Slot[] slots) {
+        int n = slots.length;
+        this.slotUrutMulai = slots.clone();
+        Arrays.sort(slotUrutMulai, Comparator.comparing(Slot::mulai));
+        this.mulai = new long[n];
+        this.maksSelesai = new long[n];
+        long maks = Long.MIN_VALUE;
+        for (int i = 0; i < n; i++) {
+            mulai[i] = detik(slotUrutMulai[i].mulai());
+            maks = Math.max(maks, detik(slotUrutMulai[i].selesai()));
+            maksSelesai[i] = maks;
+        }
+
+        this.slotUrutSelesai = slots.clone();
+        Arrays.sort(slotUrutSelesai, Comparator.comparing(Slot::selesai));
+        this.selesai = new long[n];
+        for (int i = 0; i < n; i++) {
+            selesai[i] = detik(slotUrutSelesai[i].selesai());
+        }
+    }
+
+    /**
+     * Jadwal kosong (tidak ada assignment).
+     */
+    public static IntervalJadwal kosong() {
+        return KOSONG;
+    }
+
+    /**
+     * Bangun jadwal dari kumpulan slot sekaligus (O(n log n)).
+     */
+    public static IntervalJadwal dari(Collection<Slot> slots) {
+        if (slots.isEmpty()) {
+            return KOSONG;
+        }
+        return new IntervalJadwal(slots.toArray(new Slot[0]));
+    }
+
+    /**
+     * Tambah slot, menghasilkan jadwal baru.
+     * Slot lama dengan tripId yang sama akan diganti.
+     */
+    public IntervalJadwal tambah(Slot slot) {
+        List<Slot> baru = new ArrayList<>(slotUrutMulai.length + 1);
+        for (Slot s : slotUrutMulai) {
+            if (!Objects.equals(s.tripId(), slot.tripId())) {
+                baru.add(s);
+            }
+        }
+        baru.add(slot);
+        return dari(baru);
+    }
+
+    /**
+     * Hapus slot berdasarkan trip, menghasilkan jadwal baru.
+     */
+    public IntervalJadwal hapus(Long tripId) {
+        List<Slot> baru = new ArrayList<>(slotUrutMulai.length);
+        for (Slot s : slotUrutMulai) {
+            if (!Objects.equals(s.tripId(), tripId)) {
+                baru.add(s);
+            }
+        }
+        return baru.size() == slotUrutMulai.length ? this : dari(baru);
+    }
+
+    /**
+     * Cek apakah ada slot yang overlap dengan rentang waktu.
+     */
+    public boolean adaOverlap(LocalDateTime reqMulai, LocalDateTime reqSelesai, Long excludeTripId) {
+        return !cariOverlap(reqMulai, reqSelesai, excludeTripId, true).isEmpty();
+    }
+
+    /**
+     * Cek apakah ada slot yang overlap atau berjarak kurang dari jeda minimum
+     * (misal waktu istirahat driver). Jeda tepat sama dengan minimum dianggap cukup.
+     */
+    public boolean adaBentrok(LocalDateTime reqMulai, LocalDateTime reqSelesai, Duration jeda, Long excludeTripId) {
+        if (jeda.isZero() || jeda.isNegative()) {
+            return adaOverlap(reqMulai, reqSelesai, excludeTripId);
+        }
+        // Presisi detik: jeda < minimum  ⇔  irisan dengan rentang diperlebar (jeda - 1 detik)
+        Duration lebar = jeda.minusSeconds(1);
+        return adaOverlap(reqMulai.minus(lebar), reqSelesai.plus(lebar), excludeTripId);
+    }
+
+    /**
+     * Cari semua slot yang overlap dengan rentang waktu.
+     *
+     * @param excludeTripId Trip yang diabaikan (opsional, null untuk tidak ada)
+     */
+    public List<Slot> cariOverlap(LocalDateTime reqMulai, LocalDateTime reqSelesai, Long excludeTripId) {
+        return cariOverlap(reqMulai, reqSelesai, excludeTripId, false);
+    }
+
+    private List<Slot> cariOverlap(LocalDateTime reqMulai, LocalDateTime reqSelesai,
+                                   Long excludeTripId, boolean cukupSatu) {
+        long a = detik(reqMulai);
+        long b = detik(reqSelesai);
+
+        // Index terakhir dengan SlotMulai <= RequestSelesai
+        int i = batasAtas(mulai, b) - 1;
+        List<Slot> hasil = new ArrayList<>();
+
+        // Mundur selama masih mungkin ada SlotSelesai >= RequestMulai
+        while (i >= 0 && maksSelesai[i] >= a) {
+            Slot s = slotUrutMulai[i];
+            if (detik(s.selesai()) >= a && !Objects.equals(s.tripId(), excludeTripId)) {
+                hasil.add(s);
+                if (cukupSatu) {
+                    break;
+                }
+            }
+            i--;
+        }
+
+        if (hasil.size() > 1) {
+            hasil.sort(Comparator.comparing(Slot::mulai));
+        }
+        return hasil;
+    }
+
+    /**
+     * Slot terakhir yang selesai sebelum waktu tertentu (strict).
+     */
+    public Optional<Slot> sebelum(LocalDateTime waktu) {
+        int i = batasBawah(selesai, detik(waktu)) - 1;
+        return i >= 0 ? Optional.of(slotUrutSelesai[i]) : Optional.empty();
+    }
+
+    /**
+     * Slot pertama yang mulai setelah waktu tertentu (strict).
+     */
+    public Optional<Slot> sesudah(LocalDateTime waktu) {
+        int i = batasAtas(mulai, detik(waktu));
+        return i < mulai.length ? Optional.of(slotUrutMulai[i]) : Optional.empty();
+    }
+
+    /**
+     * Semua slot, urut berdasarkan waktu mulai.
+     */
+    public List<Slot> semuaSlot() {
+        return List.of(slotUrutMulai);
+    }
+
+    public int jumlah() {
+        return slotUrutMulai.length;
+    }
+
+    public boolean isKosong() {
+        return slotUrutMulai.length == 0;
+    }
+
+    // ==================== Helper Methods ====================
+
+    private static long detik(LocalDateTime waktu) {
+        return waktu.toEpochSecond(ZoneOffset.UTC);
+    }
+
+    /**
+     * Index pertama dengan nilai > key.
+     */
+    private static int batasAtas(long[] arr, long key) {
+        int lo = 0, hi = arr.length;
+        while (lo < hi) {
+            int mid = (lo + hi) >>> 1;
+            if (arr[mid] <= key) lo = mid + 1; else hi = mid;
+        }
+        return lo;
+    }
+
+    /**
+     * Index pertama dengan nilai >= key.
+     */
+    private static int batasBawah(long[] arr, long key) {
+        int lo = 0, hi = arr.length;
+        while (lo < hi) {
+            int mid = (lo + hi) >>> 1;
+            if (arr[mid] < key) lo = mid + 1; else hi = mid;
+        }
+        return lo;
+    }
+
+    // ==================== INNER CLASS ====================
+
+    /**
+     * Satu interval jadwal (trip yang memakai sumber daya).
+     */
+    public record Slot(Long tripId, LocalDateTime mulai, LocalDateTime selesai) {
+    }
+}
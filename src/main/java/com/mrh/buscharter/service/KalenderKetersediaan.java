@@ -0,0 +1,197 @@
+package com.mrh.buscharter.service;
+
+import com.mrh.buscharter.model.dto.JadwalAssignment;
+import com.mrh.buscharter.model.enums.TipeVehicle;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.time.ZoneOffset;
+import java.util.*;
+
+/**
+ * Matriks ketersediaan armada per slot waktu dan per tipe vehicle (heatmap).
+ *
+ * Setiap sel [slot, tipe] bernilai sama dengan jumlah hasil
+ * cekKetersediaan(slotMulai, slotSelesai, tipe), tetapi seluruh matriks
+ * dibangun dengan satu sweep-line atas assignment yang diambil sekali:
+ * - setiap assignment dipetakan ke rentang index slot [lo, hi]
+ * - rentang per vehicle digabung (vehicle dihitung sekali per slot)
+ * - difference array per tipe, lalu prefix sum
+ *
+ * Kompleksitas O(A + V + S × T) untuk A assignment, V vehicle, S slot, T tipe.
+ */
+public final class KalenderKetersediaan {
+
+    // Batas jumlah slot agar granularitas terlalu kecil tidak menghabiskan memori
+    public static final int MAKS_SLOT = 10_000;
+
+    private final LocalDateTime mulai;
+    private final LocalDateTime selesai;
+    private final Duration granularitas;
+    private final int jumlahSlot;
+    private final Map<TipeVehicle, Integer> totalPerTipe;
+    private final Map<TipeVehicle, int[]> tersediaPerTipe;
+
+    private KalenderKetersediaan(LocalDateTime mulai, LocalDateTime selesai, Duration granularitas,
+                                 int jumlahSlot, Map<TipeVehicle, Integer> totalPerTipe,
+                                 Map<TipeVehicle, int[]> tersediaPerTipe) {
+        this.mulai = mulai;
+        this.selesai = selesai;
+        this.granularitas = granularitas;
+        this.jumlahSlot = jumlahSlot;
+        this.totalPerTipe = totalPerTipe;
+        this.tersediaPerTipe = tersediaPerTipe;
+    }
+
+    /**
+     * Bangun kalender ketersediaan dengan satu sweep-line.
+     *
+     * @param mulai Awal rentang kalender
+     * @param selesai Akhir rentang kalender (slot terakhir dipotong di sini)
+     * @param granularitas Lebar satu slot (misal 1 hari)
+     * @param tipePerVehicle Vehicle aktif: ID vehicle → tipe
+     * @param jadwal Assignment yang memblokir armada dalam rentang (urutan bebas)
+     */
+    public static KalenderKetersediaan hitung(LocalDateTime mulai, LocalDateTime selesai, Duration granularitas,
+                                              Map<Long, TipeVehicle> tipePerVehicle,
+                                              Collection<JadwalAssignment> jadwal) {
+        if (granularitas == null || granularitas.isNegative() || granularitas.isZero()) {
+            throw new IllegalArgumentException("Granularitas slot harus lebih dari 0");
+        }
+        if (!mulai.isBefore(selesai)) {
+            throw new IllegalArgumentException("Tanggal mulai harus sebelum tanggal selesai");
+        }
+
+        long awal = detik(mulai);
+        long akhir = detik(selesai);
+        long lebar = granularitas.getSeconds();
+        if (lebar <= 0) {
+            throw new IllegalArgumentException("Granularitas slot minimal 1 detik");
+        }
+        long jumlahSlotPanjang = Math.ceilDiv(akhir - awal, lebar);
+        if (jumlahSlotPanjang > MAKS_SLOT) {
+            throw new IllegalArgumentException(String.format(
+                "Terlalu banyak slot (%d), maksimal %d", jumlahSlotPanjang, MAKS_SLOT));
+        }
+        int n = (int) jumlahSlotPanjang;
+
+        // Total vehicle aktif per tipe
+        int jumlahTipe = TipeVehicle.values().length;
+        int[] total = new int[jumlahTipe];
+        for (TipeVehicle tipe : tipePerVehicle.values()) {
+            total[tipe.ordinal()]++;
+        }
+
+        // Kelompokkan rentang slot terpakai per vehicle
+        Map<Long, List<long[]>> rentangPerVehicle = new HashMap<>();
+        for (JadwalAssignment ja : jadwal) {
+            if (!tipePerVehicle.containsKey(ja.vehicleId())) {
+                continue; // Vehicle tidak aktif
+            }
+            long tMulai = detik(ja.waktuMulai());
+            long tSelesai = detik(ja.waktuSelesai());
+
+            // Slot i = [awal + i*lebar, min(awal + (i+1)*lebar, akhir)]
+            // Overlap jika (TripMulai <= SlotSelesai) AND (TripSelesai >= SlotMulai)
+            long lo = Math.max(0, Math.ceilDiv(tMulai - awal - lebar, lebar));
+            long hi = Math.min(n - 1, Math.floorDiv(tSelesai - awal, lebar));
+            if (tMulai > akhir || lo > hi) {
+                continue;
+            }
+            rentangPerVehicle.computeIfAbsent(ja.vehicleId(), k -> new ArrayList<>())
+                .add(new long[]{lo, hi});
+        }
+
+        // Difference array per tipe; rentang per vehicle digabung dulu
+        int[][] selisih = new int[jumlahTipe][n + 1];
+        for (Map.Entry<Long, List<long[]>> entry : rentangPerVehicle.entrySet()) {
+            int t = tipePerVehicle.get(entry.getKey()).ordinal();
+            List<long[]> rentang = entry.getValue();
+            if (rentang.size() > 1) {
+                rentang.sort(Comparator.comparingLong(r -> r[0]));
+            }
+
+            long curLo = -1, curHi = -2;
+            for (long[] r : rentang) {
+                if (r[0] > curHi + 1) {
+                    if (curLo >= 0) {
+                        selisih[t][(int) curLo]++;
+                        selisih[t][(int) curHi + 1]--;
+                    }
+                    curLo = r[0];
+                    curHi = r[1];
+                } else {
+                    curHi = Math.max(curHi, r[1]);
+                }
+            }
+            if (curLo >= 0) {
+                selisih[t][(int) curLo]++;
+                selisih[t][(int) curHi + 1]--;
+            }
+        }
+
+        // Prefix sum: tersedia = total - terpakai
+        Map<TipeVehicle, Integer> totalPerTipe = new EnumMap<>(TipeVehicle.class);
+        Map<TipeVehicle, int[]> tersediaPerTipe = new EnumMap<>(TipeVehicle.class);
+        for (TipeVehicle tipe : TipeVehicle.values()) {
+            int t = tipe.ordinal();
+            int[] tersedia = new int[n];
+            int terpakai = 0;
+            for (int i = 0; i < n; i++) {
+                terpakai += selisih[t][i];
+                tersedia[i] = total[t] - terpakai;
+            }
+            totalPerTipe.put(tipe, total[t]);
+            tersediaPerTipe.put(tipe, tersedia);
+        }
+
+        return new KalenderKetersediaan(mulai, selesai, granularitas, n, totalPerTipe, tersediaPerTipe);
+    }
+
+    // ==================== Getters ====================
+
+    public LocalDateTime getMulai() { return mulai; }
+    public LocalDateTime getSelesai() { return selesai; }
+    public Duration getGranularitas() { return granularitas; }
+    public int getJumlahSlot() { return jumlahSlot; }
+
+    /**
+     * Waktu mulai slot ke-i.
+     */
+    public LocalDateTime getSlotMulai(int slot) {
+        return mulai.plus(granularitas.multipliedBy(slot));
+    }
+
+    /**
+     * Waktu selesai slot ke-i (slot terakhir dipotong di akhir rentang).
+     */
+    public LocalDateTime getSlotSelesai(int slot) {
+        LocalDateTime akhirSlot = getSlotMulai(slot + 1);
+        return akhirSlot.isAfter(selesai) ? selesai : akhirSlot;
+    }
+
+    /**
+     * Jumlah vehicle tersedia untuk tipe tertentu pada slot ke-i.
+     */
+    public int getJumlahTersedia(TipeVehicle tipe, int slot) {
+        return tersediaPerTipe.get(tipe)[slot];
+    }
+
+    /**
+     * Deret ketersediaan satu tipe untuk seluruh slot (salinan).
+     */
+    public int[] getDeretTersedia(TipeVehicle tipe) {
+        return tersediaPerTipe.get(tipe).clone();
+    }
+
+    /**
+     * Jumlah vehicle aktif untuk tipe tertentu.
+     */
+    public int getTotalVehicle(TipeVehicle tipe) {
+        return totalPerTipe.get(tipe);
+    }
+
+    private static long detik(LocalDateTime waktu) {
+        return waktu.toEpochSecond(ZoneOffset.UTC);
+    }
+}
@@ -0,0 +1,178 @@
+package com.mrh.buscharter.service;
+
+import com.mrh.buscharter.model.dto.PiutangBooking;
+import com.mrh.buscharter.model.enums.KelompokUmurPiutang;
+
+import java.io.IOException;
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.time.temporal.ChronoUnit;
+import java.util.*;
+
+/**
+ * Laporan umur piutang (aging) per customer dan per sales PIC.
+ *
+ * Dihitung dalam satu lintasan atas daftar PiutangBooking (satu query ke booking_ledger);
+ * umur = selisih hari antara tanggal acuan dan tanggal mulai trip pertama booking.
+ * Immutable setelah dibuat.
+ */
+public final class LaporanUmurPiutang {
+
+    private static final KelompokUmurPiutang[] KELOMPOK = KelompokUmurPiutang.values();
+
+    private final LocalDate tanggalAcuan;
+    private final List<Baris> perCustomer;
+    private final List<Baris> perSalesPic;
+    private final Baris total;
+    private final List<PiutangBooking> detail;
+
+    private LaporanUmurPiutang(LocalDate tanggalAcuan, List<Baris> perCustomer, List<Baris> perSalesPic,
+                               Baris total, List<PiutangBooking> detail) {
+        this.tanggalAcuan = tanggalAcuan;
+        this.perCustomer = perCustomer;
+        this.perSalesPic = perSalesPic;
+        this.total = total;
+        this.detail = detail;
+    }
+
+    /**
+     * Kelompokkan piutang berdasarkan umur, per customer dan per sales PIC.
+     *
+     * @param piutang Booking dengan outstanding > 0
+     * @param tanggalAcuan Tanggal laporan (biasanya hari ini)
+     */
+    public static LaporanUmurPiutang hitung(List<PiutangBooking> piutang, LocalDate tanggalAcuan) {
+        Map<Long, Akumulator> customer = new HashMap<>();
+        Map<Long, Akumulator> sales = new HashMap<>();
+        Akumulator total = new Akumulator(null, "Total");
+
+        for (PiutangBooking p : piutang) {
+            int kelompok = kelompok(p, tanggalAcuan).ordinal();
+            customer.computeIfAbsent(p.customerId(), id -> new Akumulator(id, namaAtauDefault(p.namaCustomer())))
+                .tambah(kelompok, p.outstanding());
+            sales.computeIfAbsent(p.salesPicId(), id -> new Akumulator(id, namaAtauDefault(p.namaSalesPic())))
+                .tambah(kelompok, p.outstanding());
+            total.tambah(kelompok, p.outstanding());
+        }
+
+        return new LaporanUmurPiutang(tanggalAcuan, urutkan(customer), urutkan(sales),
+            total.keBaris(), List.copyOf(piutang));
+    }
+
+    /**
+     * Kelompok umur satu booking terhadap tanggal acuan.
+     */
+    public static KelompokUmurPiutang kelompok(PiutangBooking piutang, LocalDate tanggalAcuan) {
+        if (piutang.tripPertama() == null) {
+            return KelompokUmurPiutang.BELUM_JATUH_TEMPO;
+        }
+        return KelompokUmurPiutang.dari(
+            ChronoUnit.DAYS.between(piutang.tripPertama().toLocalDate(), tanggalAcuan));
+    }
+
+    public LocalDate getTanggalAcuan() { return tanggalAcuan; }
+    public List<Baris> getPerCustomer() { return perCustomer; }
+    public List<Baris> getPerSalesPic() { return perSalesPic; }
+    public Baris getTotal() { return total; }
+    public List<PiutangBooking> getDetail() { return detail; }
+
+    /**
+     * Tulis laporan sebagai CSV (bagian per customer, per sales PIC, lalu detail booking).
+     */
+    public void tulisCsv(Appendable out) throws IOException {
+        out.append("Umur Piutang per ").append(tanggalAcuan.toString()).append('\n');
+        tulisBagianCsv(out, "Customer", perCustomer);
+        tulisBagianCsv(out, "Sales PIC", perSalesPic);
+
+        out.append('\n').append("Kode Booking,Customer,Sales PIC,Trip Pertama,Umur,Outstanding\n");
+        for (PiutangBooking p : detail) {
+            out.append(csv(p.kodeBooking())).append(',')
+                .append(csv(namaAtauDefault(p.namaCustomer()))).append(',')
+                .append(csv(namaAtauDefault(p.namaSalesPic()))).append(',')
+                .append(p.tripPertama() != null ? p.tripPertama().toLocalDate().toString() : "").append(',')
+                .append(kelompok(p, tanggalAcuan).getDeskripsi()).append(',')
+                .append(p.outstanding().toPlainString()).append('\n');
+        }
+    }
+
+    private void tulisBagianCsv(Appendable out, String grup, List<Baris> daftar) throws IOException {
+        out.append('\n').append(grup).append(",Jumlah Booking");
+        for (KelompokUmurPiutang k : KELOMPOK) {
+            out.append(',').append(k.getDeskripsi());
+        }
+        out.append(",Total\n");
+        for (Baris baris : daftar) {
+            tulisBarisCsv(out, baris);
+        }
+        tulisBarisCsv(out, total);
+    }
+
+    private static void tulisBarisCsv(Appendable out, Baris baris) throws IOException {
+        out.append(csv(baris.nama())).append(',').append(String.valueOf(baris.jumlahBooking()));
+        for (KelompokUmurPiutang k : KELOMPOK) {
+            out.append(',').append(baris.get(k).toPlainString());
+        }
+        out.append(',').append(baris.total().toPlainString()).append('\n');
+    }
+
+    private static String csv(String nilai) {
+        if (nilai.contains(",") || nilai.contains("\"") || nilai.contains("\n")) {
+            return "\"" + nilai.replace("\"", "\"\"") + "\"";
+        }
+        return nilai;
+    }
+
+    private static String namaAtauDefault(String nama) {
+        return nama != null ? nama : "-";
+    }
+
+    private static List<Baris> urutkan(Map<Long, Akumulator> grup) {
+        List<Baris> hasil = new ArrayList<>(grup.size());
+        for (Akumulator a : grup.values()) {
+            hasil.add(a.keBaris());
+        }
+        hasil.sort(Comparator.comparing(Baris::total, Comparator.reverseOrder()).thenComparing(Baris::nama));
+        return List.copyOf(hasil);
+    }
+
+    /**
+     * Satu baris laporan: outstanding per kelompok umur untuk satu customer / sales PIC.
+     *
+     * @param id ID customer atau user (null untuk tanpa customer / tanpa PIC / baris total)
+     * @param nama Nama customer atau sales PIC
+     * @param jumlahBooking Jumlah booking yang belum lunas
+     * @param nilai Outstanding per kelompok, urut sesuai KelompokUmurPiutang
+     */
+    public record Baris(Long id, String nama, int jumlahBooking, List<BigDecimal> nilai) {
+
+        public BigDecimal get(KelompokUmurPiutang kelompok) {
+            return nilai.get(kelompok.ordinal());
+        }
+
+        public BigDecimal total() {
+            return nilai.stream().reduce(BigDecimal.ZERO, BigDecimal::add);
+        }
+    }
+
+    private static final class Akumulator {
+        private final Long id;
+        private final String nama;
+        private final BigDecimal[] nilai = new BigDecimal[KELOMPOK.length];
+        private int jumlahBooking;
+
+        Akumulator(Long id, String nama) {
+            this.id = id;
+            this.nama = nama;
+            Arrays.fill(nilai, BigDecimal.ZERO);
+        }
+
+        void tambah(int kelompok, BigDecimal outstanding) {
+            nilai[kelompok] = nilai[kelompok].add(outstanding);
+            jumlahBooking++;
+        }
+
+        Baris keBaris() {
+            return new Baris(id, nama, jumlahBooking, List.of(nilai));
+        }
+    }
+}
@@ -0,0 +1,216 @@
+package com.mrh.buscharter.service;
+
+import com.mrh.buscharter.model.Driver;
+import com.mrh.buscharter.model.Trip;
+import com.mrh.buscharter.model.Vehicle;
+import com.mrh.buscharter.model.dto.JadwalAssignment;
+import com.mrh.buscharter.model.enums.TipeVehicle;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.time.ZoneOffset;
+import java.util.*;
+
+/**
+ * Usulan assignment otomatis (vehicle + driver) untuk trip yang belum di-assign.
+ *
+ * Pewarnaan interval graph secara greedy: trip diproses urut waktu mulai,
+ * setiap trip diberi vehicle yang masih bebas (best-fit):
+ * - tipe sesuai tipeBusDiminta (semua tipe jika tidak diminta)
+ * - kapasitas kursi >= estimasiPenumpang, kapasitas terkecil didahulukan
+ * - tidak overlap dengan jadwal tersimpan maupun usulan lain, dengan jeda minimal buffer
+ * - di antara yang setara, dipilih vehicle dengan jeda terpendek dari tugas sebelumnya
+ * Driver dipilih dengan aturan yang sama (driver/co-driver, SIM berlaku sampai trip selesai).
+ *
+ * Karena trip diproses urut waktu mulai, konflik dengan usulan sebelumnya cukup dicek
+ * dari waktu selesai terakhir per vehicle/driver. Kompleksitas O(T log T + T × V × log A).
+ */
+public final class OptimasiAssignment {
+
+    private final List<Usulan> usulan;
+    private final Map<Long, String> tidakTerpenuhi;
+
+    private OptimasiAssignment(List<Usulan> usulan, Map<Long, String> tidakTerpenuhi) {
+        this.usulan = usulan;
+        this.tidakTerpenuhi = tidakTerpenuhi;
+    }
+
+    /**
+     * Hitung usulan assignment.
+     *
+     * @param trips Trip yang belum di-assign (urutan bebas)
+     * @param vehicles Vehicle aktif
+     * @param drivers Driver aktif (boleh kosong; usulan tetap dibuat tanpa driver)
+     * @param jadwal Assignment tersimpan yang mencakup rentang trip ± buffer
+     * @param bufferJam Jeda minimum antar tugas untuk vehicle dan driver
+     */
+    public static OptimasiAssignment hitung(Collection<Trip> trips, Collection<Vehicle> vehicles,
+                                            Collection<Driver> drivers, Collection<JadwalAssignment> jadwal,
+                                            int bufferJam) {
+        long buffer = bufferJam * 3600L;
+
+        // Jadwal tersimpan per vehicle dan per driver (driver maupun co-driver)
+        Map<Long, List<IntervalJadwal.Slot>> slotVehicle = new HashMap<>();
+        for (JadwalAssignment ja : jadwal) {
+            slotVehicle.computeIfAbsent(ja.vehicleId(), k -> new ArrayList<>())
+                .add(new IntervalJadwal.Slot(ja.tripId(), ja.waktuMulai(), ja.waktuSelesai()));
+        }
+        Map<Long, IntervalJadwal> jadwalDriver = DriverAvailabilityIndex.jadwalPerDriver(jadwal);
+
+        // Kandidat vehicle per tipe, urut kapasitas lalu ID
+        Map<TipeVehicle, List<Sumber<Vehicle>>> vehiclePerTipe = new EnumMap<>(TipeVehicle.class);
+        List<Sumber<Vehicle>> semuaVehicle = new ArrayList<>();
+        for (Vehicle v : vehicles) {
+            Sumber<Vehicle> s = new Sumber<>(v, v.getId(), kapasitas(v),
+                IntervalJadwal.dari(slotVehicle.getOrDefault(v.getId(), List.of())));
+            vehiclePerTipe.computeIfAbsent(v.getTipeVehicle(), k -> new ArrayList<>()).add(s);
+            semuaVehicle.add(s);
+        }
+        Comparator<Sumber<Vehicle>> urutKapasitas = Comparator
+            .<Sumber<Vehicle>>comparingInt(s -> s.kapasitas)
+            .thenComparing(s -> s.id);
+        vehiclePerTipe.values().forEach(list -> list.sort(urutKapasitas));
+        semuaVehicle.sort(urutKapasitas);
+
+        List<Sumber<Driver>> semuaDriver = new ArrayList<>();
+        for (Driver d : drivers) {
+            semuaDriver.add(new Sumber<>(d, d.getId(), 0,
+                jadwalDriver.getOrDefault(d.getId(), IntervalJadwal.kosong())));
+        }
+        semuaDriver.sort(Comparator.comparing(s -> s.id));
+
+        List<Trip> urut = new ArrayList<>(trips);
+        urut.sort(Comparator.comparing(Trip::getWaktuMulai).thenComparing(Trip::getId));
+
+        List<Usulan> usulan = new ArrayList<>();
+        Map<Long, String> tidakTerpenuhi = new LinkedHashMap<>();
+        for (Trip trip : urut) {
+            int penumpang = trip.getEstimasiPenumpang() != null ? trip.getEstimasiPenumpang() : 0;
+            List<Sumber<Vehicle>> kandidat = trip.getTipeBusDiminta() != null
+                ? vehiclePerTipe.getOrDefault(trip.getTipeBusDiminta(), List.of())
+                : semuaVehicle;
+
+            Sumber<Vehicle> vehicle = pilih(kandidat, trip, buffer, penumpang, false);
+            if (vehicle == null) {
+                tidakTerpenuhi.put(trip.getId(), kandidat.isEmpty()
+                    ? "Tidak ada vehicle aktif tipe " + trip.getTipeBusDiminta()
+                    : "Tidak ada vehicle yang bebas dengan kapasitas minimal " + penumpang + " kursi");
+                continue;
+            }
+            vehicle.catat(trip);
+
+            Sumber<Driver> driver = pilih(semuaDriver, trip, buffer, 0, true);
+            if (driver != null) {
+                driver.catat(trip);
+            }
+            usulan.add(new Usulan(trip.getId(), vehicle.id, driver != null ? driver.id : null,
+                trip.getWaktuMulai(), trip.getWaktuSelesai()));
+        }
+
+        return new OptimasiAssignment(usulan, tidakTerpenuhi);
+    }
+
+    /**
+     * Pilih sumber daya pertama (urutan prioritas) yang bebas, dengan jeda terpendek
+     * dari tugas sebelumnya di antara yang berkapasitas sama.
+     */
+    private static <T> Sumber<T> pilih(List<Sumber<T>> kandidat, Trip trip, long buffer,
+                                       int kapasitasMinimal, boolean cekSim) {
+        long mulai = detik(trip.getWaktuMulai());
+        Duration jeda = Duration.ofSeconds(buffer);
+
+        Sumber<T> terbaik = null;
+        long akhirTerbaik = Long.MIN_VALUE;
+        for (Sumber<T> s : kandidat) {
+            if (terbaik != null && s.kapasitas > terbaik.kapasitas) {
+                break; // Kandidat urut kapasitas, sisanya lebih besar
+            }
+            if (s.kapasitas < kapasitasMinimal) {
+                continue;
+            }
+            if (cekSim && !DriverAvailabilityIndex.simBerlaku((Driver) s.data, trip.getWaktuSelesai())) {
+                continue;
+            }
+            if (s.akhirUsulan > mulai - buffer) {
+                continue; // Bentrok dengan usulan sebelumnya
+            }
+            if (s.jadwal.adaBentrok(trip.getWaktuMulai(), trip.getWaktuSelesai(), jeda, trip.getId())) {
+                continue; // Bentrok dengan jadwal tersimpan
+            }
+
+            long akhirSebelumnya = Math.max(s.akhirUsulan,
+                s.jadwal.sebelum(trip.getWaktuMulai()).map(slot -> detik(slot.selesai())).orElse(Long.MIN_VALUE));
+            if (terbaik == null || akhirSebelumnya > akhirTerbaik) {
+                terbaik = s;
+                akhirTerbaik = akhirSebelumnya;
+            }
+        }
+        return terbaik;
+    }
+
+    private static int kapasitas(Vehicle v) {
+        return v.getKapasitasKursi() != null ? v.getKapasitasKursi() : v.getTipeVehicle().getKapasitasMax();
+    }
+
+    private static long detik(LocalDateTime waktu) {
+        return waktu.toEpochSecond(ZoneOffset.UTC);
+    }
+
+    // ==================== Getters ====================
+
+    /**
+     * Usulan assignment, urut waktu mulai trip.
+     */
+    public List<Usulan> getUsulan() {
+        return Collections.unmodifiableList(usulan);
+    }
+
+    /**
+     * Trip yang tidak mendapat vehicle: ID trip → alasan.
+     */
+    public Map<Long, String> getTidakTerpenuhi() {
+        return Collections.unmodifiableMap(tidakTerpenuhi);
+    }
+
+    /**
+     * Usulan dalam bentuk permintaan untuk FleetService.assignBusKeTripBatch.
+     */
+    public List<FleetService.PermintaanAssignment> kePermintaan() {
+        List<FleetService.PermintaanAssignment> hasil = new ArrayList<>(usulan.size());
+        for (Usulan u : usulan) {
+            hasil.add(new FleetService.PermintaanAssignment(u.tripId(), u.vehicleId(), u.driverId(), null));
+        }
+        return hasil;
+    }
+
+    // ==================== INNER CLASS ====================
+
+    /**
+     * Satu usulan assignment. Driver null jika tidak ada driver yang bebas.
+     */
+    public record Usulan(Long tripId, Long vehicleId, Long driverId,
+                         LocalDateTime waktuMulai, LocalDateTime waktuSelesai) {
+    }
+
+    /**
+     * Vehicle atau driver beserta jadwal tersimpan dan akhir usulan terakhirnya.
+     */
+    private static final class Sumber<T> {
+        private final T data;
+        private final Long id;
+        private final int kapasitas;
+        private final IntervalJadwal jadwal;
+        private long akhirUsulan = Long.MIN_VALUE / 2;
+
+        Sumber(T data, Long id, int kapasitas, IntervalJadwal jadwal) {
+            this.data = data;
+            this.id = id;
+            this.kapasitas = kapasitas;
+            this.jadwal = jadwal;
+        }
+
+        void catat(Trip trip) {
+            akhirUsulan = Math.max(akhirUsulan, detik(trip.getWaktuSelesai()));
+        }
+    }
+}
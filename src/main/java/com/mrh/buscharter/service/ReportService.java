@@ -1,5 +1,6 @@
 package com.mrh.buscharter.service;
 
+import com.mrh.buscharter.config.AppConfig;
 import com.mrh.buscharter.model.*;
 import com.mrh.buscharter.repository.BookingRepository;
 import com.mrh.buscharter.repository.BookingChargeRepository;
@@ -7,6 +8,10 @@ import com.mrh.buscharter.repository.TripRepository;
 import net.sf.jasperreports.engine.*;
 import net.sf.jasperreports.engine.data.JRBeanCollectionDataSource;
 import net.sf.jasperreports.engine.export.JRPdfExporter;
+import net.sf.jasperreports.engine.fill.JRAbstractLRUVirtualizer;
+import net.sf.jasperreports.engine.fill.JRFileVirtualizer;
+import net.sf.jasperreports.engine.fill.JRSwapFileVirtualizer;
+import net.sf.jasperreports.engine.util.JRSwapFile;
 import net.sf.jasperreports.export.SimpleExporterInput;
 import net.sf.jasperreports.export.SimpleOutputStreamExporterOutput;
 import org.slf4j.Logger;
@@ -14,9 +19,19 @@ import org.slf4j.LoggerFactory;
 
 import java.io.*;
 import java.math.BigDecimal;
+import java.nio.channels.Channels;
+import java.nio.channels.WritableByteChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
 import java.time.LocalDateTime;
 import java.time.format.DateTimeFormatter;
 import java.util.*;
+import java.util.concurrent.*;
+import java.util.function.Consumer;
+import java.util.zip.Deflater;
+import java.util.zip.ZipEntry;
+import java.util.zip.ZipOutputStream;
 
 /**
  * Service untuk generate laporan PDF menggunakan JasperReports.
@@ -60,33 +75,19 @@ public class ReportService {
      * @return true jika berhasil generate
      */
     public boolean generateQuotationPDF(Long bookingId, String outputPath) {
-        try {
-            logger.info("Generating quotation PDF untuk booking ID: {}", bookingId);
-            
-            // Ambil data booking
-            Booking booking = bookingRepository.findById(bookingId)
-                .orElseThrow(() -> new IllegalArgumentException("Booking tidak ditemukan: " + bookingId));
-            
-            // Ambil trips
-            List<Trip> trips = tripRepository.findByBookingId(bookingId);
-            
-            // Hitung grand total
-            BigDecimal grandTotal = bookingService.hitungGrandTotal(bookingId);
-            
-            // Siapkan parameters
-            Map<String, Object> parameters = buildParameters(booking, grandTotal);
-            
-            // Siapkan data source untuk trips
-            List<Map<String, Object>> tripDataList = buildTripDataList(trips);
-            JRBeanCollectionDataSource dataSource = new JRBeanCollectionDataSource(tripDataList);
-            
-            // Compile dan generate report
-            JasperReport jasperReport = compileReport();
-            JasperPrint jasperPrint = JasperFillManager.fillReport(jasperReport, parameters, dataSource);
-            
-            // Export ke PDF
-            exportToPdf(jasperPrint, outputPath);
-            
+        return generateQuotationPDF(bookingId, outputPath, ModeVirtualizer.TIDAK_ADA);
+    }
+    
+    /**
+     * Generate Quotation PDF ke file, PDF ditulis langsung ke disk tanpa buffer byte[].
+     * 
+     * @param mode Virtualizer untuk report besar (lihat {@link ModeVirtualizer})
+     * @return true jika berhasil generate
+     */
+    public boolean generateQuotationPDF(Long bookingId, String outputPath, ModeVirtualizer mode) {
+        logger.info("Generating quotation PDF untuk booking ID: {}", bookingId);
+        try (OutputStream output = new BufferedOutputStream(Files.newOutputStream(Path.of(outputPath)))) {
+            generateQuotationPDF(bookingId, output, mode);
             logger.info("Quotation PDF berhasil digenerate: {}", outputPath);
             return true;
             
@@ -97,32 +98,132 @@ public class ReportService {
     }
     
     /**
-     * Generate Quotation PDF dan return sebagai byte array.
-     * Berguna untuk preview atau kirim via email.
+     * Generate Quotation PDF langsung ke stream (response HTTP, attachment email, dsb).
+     * Stream tidak ditutup; penutupan tanggung jawab pemanggil.
+     *
+     * @param mode Virtualizer untuk report besar (lihat {@link ModeVirtualizer})
+     * @throws IllegalArgumentException jika booking tidak ditemukan
      */
-    public byte[] generateQuotationPDFBytes(Long bookingId) {
+    public void generateQuotationPDF(Long bookingId, OutputStream output, ModeVirtualizer mode) {
+        JRAbstractLRUVirtualizer virtualizer = buatVirtualizer(mode);
         try {
-            Booking booking = bookingRepository.findById(bookingId)
-                .orElseThrow(() -> new IllegalArgumentException("Booking tidak ditemukan: " + bookingId));
-            
+            Booking booking = findBookingUntukLaporan(bookingId);
             List<Trip> trips = tripRepository.findByBookingId(bookingId);
             BigDecimal grandTotal = bookingService.hitungGrandTotal(bookingId);
             
-            Map<String, Object> parameters = buildParameters(booking, grandTotal);
-            List<Map<String, Object>> tripDataList = buildTripDataList(trips);
-            JRBeanCollectionDataSource dataSource = new JRBeanCollectionDataSource(tripDataList);
-            
-            JasperReport jasperReport = compileReport();
-            JasperPrint jasperPrint = JasperFillManager.fillReport(jasperReport, parameters, dataSource);
-            
-            return JasperExportManager.exportReportToPdf(jasperPrint);
+            JasperPrint jasperPrint = isiQuotation(booking, trips, grandTotal, virtualizer);
+            if (virtualizer != null) {
+                // Halaman yang sudah di-swap tidak perlu ditulis ulang selama export
+                virtualizer.setReadOnly(true);
+            }
+            exportToPdf(jasperPrint, output);
             
-        } catch (Exception e) {
-            logger.error("Gagal generate quotation PDF bytes: {}", e.getMessage(), e);
+        } catch (JRException e) {
+            logger.error("Gagal generate quotation PDF untuk booking {}: {}", bookingId, e.getMessage(), e);
             throw new RuntimeException("Gagal generate PDF: " + e.getMessage(), e);
+        } finally {
+            if (virtualizer != null) {
+                virtualizer.cleanup();
+            }
+        }
+    }
+    
+    /**
+     * Generate Quotation PDF ke channel (mis. FileChannel atau socket NIO).
+     * Channel tidak ditutup.
+     */
+    public void generateQuotationPDF(Long bookingId, WritableByteChannel channel, ModeVirtualizer mode) {
+        OutputStream output = new BufferedOutputStream(Channels.newOutputStream(channel));
+        generateQuotationPDF(bookingId, output, mode);
+        try {
+            output.flush();
+        } catch (IOException e) {
+            throw new UncheckedIOException("Gagal menulis PDF ke channel", e);
         }
     }
     
+    /**
+     * Generate Quotation PDF dan return sebagai byte array.
+     * Berguna untuk preview atau kirim via email. Untuk report besar gunakan varian OutputStream.
+     */
+    public byte[] generateQuotationPDFBytes(Long bookingId) {
+        ByteArrayOutputStream output = new ByteArrayOutputStream();
+        generateQuotationPDF(bookingId, output, ModeVirtualizer.TIDAK_ADA);
+        return output.toByteArray();
+    }
+    
+    /**
+     * Generate quotation PDF untuk banyak booking sekaligus ke satu file ZIP.
+     *
+     * Data di-prefetch per LAPORAN_BATCH_UKURAN_CHUNK booking dengan tiga query set-based
+     * (booking + customer + tenant, trip, grand total). Report di-fill paralel di worker pool
+     * terbatas dan PDF ditulis ke ZIP oleh thread pemanggil begitu selesai; paling banyak
+     * 2x jumlah worker PDF berada di memori pada satu waktu.
+     *
+     * Booking yang gagal (tidak ditemukan / error fill) dicatat di hasil tanpa menghentikan batch.
+     *
+     * @param bookingIds Booking yang dibuatkan quotation (duplikat diabaikan)
+     * @param outputZip File ZIP tujuan (ditimpa jika sudah ada)
+     * @param progres Dipanggil setiap satu dokumen selesai atau gagal (boleh null)
+     */
+    public HasilBatchLaporan generateQuotationBatch(List<Long> bookingIds, Path outputZip,
+                                                    Consumer<ProgresBatchLaporan> progres) throws IOException {
+        List<Long> ids = new ArrayList<>(new LinkedHashSet<>(bookingIds));
+        int jumlahWorker = Math.max(1, Math.min(AppConfig.LAPORAN_BATCH_MAKS_THREAD,
+            Runtime.getRuntime().availableProcessors()));
+        int maksDalamProses = jumlahWorker * 2;
+        logger.info("Batch quotation: {} booking, {} worker", ids.size(), jumlahWorker);
+
+        ExecutorService pool = Executors.newFixedThreadPool(jumlahWorker, r -> {
+            Thread t = new Thread(r, "laporan-batch");
+            t.setDaemon(true);
+            return t;
+        });
+        CompletionService<DokumenBatch> selesai = new ExecutorCompletionService<>(pool);
+        PenulisZip penulis;
+        try (ZipOutputStream zip = new ZipOutputStream(new BufferedOutputStream(Files.newOutputStream(outputZip)))) {
+            zip.setLevel(Deflater.BEST_SPEED); // PDF sudah terkompresi
+            penulis = new PenulisZip(zip, ids.size(), progres);
+            int dalamProses = 0;
+
+            for (int awal = 0; awal < ids.size(); awal += AppConfig.LAPORAN_BATCH_UKURAN_CHUNK) {
+                List<Long> chunk = ids.subList(awal, Math.min(ids.size(), awal + AppConfig.LAPORAN_BATCH_UKURAN_CHUNK));
+                DataQuotation data = prefetchQuotation(chunk);
+
+                for (Long bookingId : chunk) {
+                    Booking booking = data.booking().get(bookingId);
+                    if (booking == null) {
+                        penulis.catatGagal(bookingId, "Booking tidak ditemukan");
+                        continue;
+                    }
+                    if (dalamProses == maksDalamProses) {
+                        penulis.tulis(selesai.take());
+                        dalamProses--;
+                    }
+                    List<Trip> trips = data.trips().getOrDefault(bookingId, List.of());
+                    BigDecimal grandTotal = data.grandTotal().getOrDefault(bookingId, BigDecimal.ZERO);
+                    selesai.submit(() -> buatDokumen(booking, trips, grandTotal));
+                    dalamProses++;
+                }
+            }
+            while (dalamProses > 0) {
+                penulis.tulis(selesai.take());
+                dalamProses--;
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IOException("Batch quotation dibatalkan", e);
+        } finally {
+            pool.shutdownNow();
+        }
+
+        HasilBatchLaporan hasil = penulis.hasil();
+        logger.info("Batch quotation selesai: {} berhasil, {} gagal, {} ms ({} dokumen/detik) -> {}",
+            hasil.berhasil(), hasil.gagal().size(), hasil.durasi().toMillis(),
+            String.format("%.1f", hasil.dokumenPerDetik()), outputZip);
+        return hasil;
+    }
+
     /**
      * Generate nama file quotation berdasarkan kode booking.
      */
@@ -134,6 +235,61 @@ public class ReportService {
     
     // ==================== Private Helper Methods ====================
     
+    private Booking findBookingUntukLaporan(Long bookingId) {
+        return bookingRepository.findByIdsWithCustomerAndTenant(List.of(bookingId)).stream()
+            .findFirst()
+            .orElseThrow(() -> new IllegalArgumentException("Booking tidak ditemukan: " + bookingId));
+    }
+    
+    private JasperPrint isiQuotation(Booking booking, List<Trip> trips, BigDecimal grandTotal) throws JRException {
+        return isiQuotation(booking, trips, grandTotal, null);
+    }
+    
+    private JasperPrint isiQuotation(Booking booking, List<Trip> trips, BigDecimal grandTotal,
+                                     JRVirtualizer virtualizer) throws JRException {
+        Map<String, Object> parameters = buildParameters(booking, grandTotal);
+        if (virtualizer != null) {
+            parameters.put(JRParameter.REPORT_VIRTUALIZER, virtualizer);
+        }
+        JRBeanCollectionDataSource dataSource = new JRBeanCollectionDataSource(buildTripDataList(trips));
+        return JasperFillManager.fillReport(templateQuotation(), parameters, dataSource);
+    }
+    
+    /**
+     * Prefetch semua data quotation untuk satu chunk booking (3 query).
+     */
+    private DataQuotation prefetchQuotation(List<Long> bookingIds) {
+        Map<Long, Booking> bookings = new HashMap<>();
+        for (Booking booking : bookingRepository.findByIdsWithCustomerAndTenant(bookingIds)) {
+            bookings.put(booking.getId(), booking);
+        }
+        Map<Long, List<Trip>> trips = new HashMap<>();
+        for (Trip trip : tripRepository.findByBookingIds(bookingIds)) {
+            trips.computeIfAbsent(trip.getBooking().getId(), k -> new ArrayList<>()).add(trip);
+        }
+        return new DataQuotation(bookings, trips, chargeRepository.hitungGrandTotalPerBooking(bookingIds));
+    }
+    
+    /**
+     * Dijalankan di worker: fill + export satu quotation. Error dikembalikan sebagai hasil.
+     */
+    private DokumenBatch buatDokumen(Booking booking, List<Trip> trips, BigDecimal grandTotal) {
+        try {
+            byte[] pdf = renderQuotationPdf(booking, trips, grandTotal);
+            return new DokumenBatch(booking.getId(), generateNamaFileQuotation(booking), pdf, null);
+        } catch (Exception e) {
+            logger.error("Gagal generate quotation booking {}: {}", booking.getId(), e.getMessage(), e);
+            return new DokumenBatch(booking.getId(), null, null, e.getMessage());
+        }
+    }
+    
+    /**
+     * Fill + export satu quotation batch ke PDF di memori (di-override test batch).
+     */
+    byte[] renderQuotationPdf(Booking booking, List<Trip> trips, BigDecimal grandTotal) throws JRException {
+        return JasperExportManager.exportReportToPdf(isiQuotation(booking, trips, grandTotal));
+    }
+    
     private Map<String, Object> buildParameters(Booking booking, BigDecimal grandTotal) {
         Map<String, Object> params = new HashMap<>();
         
@@ -188,21 +344,133 @@ public class ReportService {
         return dateTime.format(DATETIME_FORMATTER);
     }
     
-    private JasperReport compileReport() throws JRException {
-        try (InputStream templateStream = getClass().getResourceAsStream(TEMPLATE_PATH)) {
-            if (templateStream == null) {
-                throw new JRException("Template tidak ditemukan: " + TEMPLATE_PATH);
-            }
-            return JasperCompileManager.compileReport(templateStream);
-        } catch (IOException e) {
-            throw new JRException("Gagal membaca template: " + e.getMessage(), e);
-        }
+    private JasperReport templateQuotation() throws JRException {
+        // Sudah dikompilasi saat build dan di-cache; tidak ada kompilasi per request
+        return TemplateLaporan.getInstance().muat(TEMPLATE_PATH);
     }
     
-    private void exportToPdf(JasperPrint jasperPrint, String outputPath) throws JRException {
+    private void exportToPdf(JasperPrint jasperPrint, OutputStream output) throws JRException {
         JRPdfExporter exporter = new JRPdfExporter();
         exporter.setExporterInput(new SimpleExporterInput(jasperPrint));
-        exporter.setExporterOutput(new SimpleOutputStreamExporterOutput(outputPath));
+        exporter.setExporterOutput(new SimpleOutputStreamExporterOutput(output));
         exporter.exportReport();
     }
+    
+    /**
+     * Buat virtualizer sesuai mode. File swap di java.io.tmpdir dan dihapus saat cleanup().
+     */
+    private static JRAbstractLRUVirtualizer buatVirtualizer(ModeVirtualizer mode) {
+        String direktori = System.getProperty("java.io.tmpdir");
+        return switch (mode) {
+            case TIDAK_ADA -> null;
+            case FILE -> new JRFileVirtualizer(AppConfig.LAPORAN_VIRTUALIZER_MAKS_HALAMAN, direktori);
+            case SWAP -> new JRSwapFileVirtualizer(AppConfig.LAPORAN_VIRTUALIZER_MAKS_HALAMAN,
+                new JRSwapFile(direktori, AppConfig.LAPORAN_SWAP_UKURAN_BLOK, AppConfig.LAPORAN_SWAP_PERTUMBUHAN), true);
+        };
+    }
+    
+    /**
+     * Penyimpanan halaman report selama fill.
+     */
+    public enum ModeVirtualizer {
+        /** Semua halaman di heap; tercepat untuk quotation biasa */
+        TIDAK_ADA,
+        /** Satu file per halaman yang di-swap */
+        FILE,
+        /** Satu file swap bersama; lebih sedikit file handle untuk report ratusan halaman */
+        SWAP
+    }
+    
+    // ==================== Batch ====================
+    
+    /**
+     * Progres batch laporan.
+     *
+     * @param selesai Dokumen yang sudah diproses (berhasil + gagal)
+     * @param gagal Dokumen yang gagal
+     * @param total Jumlah dokumen
+     * @param dokumenPerDetik Throughput sejak batch dimulai
+     */
+    public record ProgresBatchLaporan(int selesai, int gagal, int total, double dokumenPerDetik) {}
+    
+    /**
+     * Hasil batch laporan.
+     *
+     * @param berhasil Jumlah PDF yang masuk ZIP
+     * @param gagal bookingId ke pesan error
+     * @param durasi Waktu total batch
+     */
+    public record HasilBatchLaporan(int berhasil, Map<Long, String> gagal, Duration durasi) {
+        
+        public double dokumenPerDetik() {
+            double detik = durasi.toNanos() / 1e9;
+            return detik > 0 ? (berhasil + gagal.size()) / detik : 0;
+        }
+    }
+    
+    private record DataQuotation(Map<Long, Booking> booking, Map<Long, List<Trip>> trips,
+                                 Map<Long, BigDecimal> grandTotal) {}
+    
+    private record DokumenBatch(Long bookingId, String namaFile, byte[] pdf, String error) {}
+    
+    /**
+     * Menulis hasil worker ke ZIP secara berurutan (hanya dipakai thread pemanggil).
+     */
+    private static class PenulisZip {
+        private final ZipOutputStream zip;
+        private final int total;
+        private final Consumer<ProgresBatchLaporan> progres;
+        private final long mulai = System.nanoTime();
+        private final Map<Long, String> gagal = new LinkedHashMap<>();
+        private final Set<String> namaFile = new HashSet<>();
+        private int berhasil;
+        
+        PenulisZip(ZipOutputStream zip, int total, Consumer<ProgresBatchLaporan> progres) {
+            this.zip = zip;
+            this.total = total;
+            this.progres = progres;
+        }
+        
+        void tulis(Future<DokumenBatch> future) throws IOException, InterruptedException {
+            DokumenBatch dokumen;
+            try {
+                dokumen = future.get();
+            } catch (ExecutionException e) {
+                throw new IOException("Worker laporan gagal", e.getCause());
+            }
+            if (dokumen.error() != null) {
+                catatGagal(dokumen.bookingId(), dokumen.error());
+                return;
+            }
+            String nama = dokumen.namaFile();
+            if (!namaFile.add(nama)) {
+                // Kode booking sama di tenant berbeda
+                nama = nama.replaceFirst("\\.pdf$", "_" + dokumen.bookingId() + ".pdf");
+                namaFile.add(nama);
+            }
+            zip.putNextEntry(new ZipEntry(nama));
+            zip.write(dokumen.pdf());
+            zip.closeEntry();
+            berhasil++;
+            lapor();
+        }
+        
+        void catatGagal(Long bookingId, String pesan) {
+            gagal.put(bookingId, pesan);
+            lapor();
+        }
+        
+        HasilBatchLaporan hasil() {
+            return new HasilBatchLaporan(berhasil, gagal, Duration.ofNanos(System.nanoTime() - mulai));
+        }
+        
+        private void lapor() {
+            if (progres != null) {
+                int selesai = berhasil + gagal.size();
+                double detik = (System.nanoTime() - mulai) / 1e9;
+                progres.accept(new ProgresBatchLaporan(selesai, gagal.size(), total,
+                    detik > 0 ? selesai / detik : 0));
+            }
+        }
+    }
 }
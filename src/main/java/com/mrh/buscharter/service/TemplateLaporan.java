@@ -0,0 +1,162 @@
+package com.mrh.buscharter.service;
+
+import net.sf.jasperreports.engine.JRException;
+import net.sf.jasperreports.engine.JasperCompileManager;
+import net.sf.jasperreports.engine.JasperReport;
+import net.sf.jasperreports.engine.util.JRLoader;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.file.DirectoryStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Cache template JasperReports yang sudah dikompilasi, per path template.
+ *
+ * Produksi: .jasper hasil kompilasi saat build (exec-maven-plugin memanggil main() di fase
+ * process-classes) dimuat sekali dari classpath saat pertama dipakai. Jika .jasper tidak ada
+ * (mis. dijalankan dari IDE tanpa build Maven), .jrxml dikompilasi sekali lalu di-cache.
+ *
+ * Development: dengan -Dlaporan.hotReloadDir=src/main/resources/reports, template dibaca dari
+ * direktori tersebut dan dikompilasi ulang setiap kali file .jrxml berubah.
+ */
+public final class TemplateLaporan {
+
+    private static final Logger logger = LoggerFactory.getLogger(TemplateLaporan.class);
+    private static final String PROPERTY_HOT_RELOAD = "laporan.hotReloadDir";
+
+    private static TemplateLaporan instance;
+
+    private record Entri(JasperReport report, long versi) {}
+
+    private final Map<String, Entri> cache = new ConcurrentHashMap<>();
+    private final Path direktoriHotReload;
+
+    TemplateLaporan(Path direktoriHotReload) {
+        this.direktoriHotReload = direktoriHotReload;
+    }
+
+    public static synchronized TemplateLaporan getInstance() {
+        if (instance == null) {
+            String dir = System.getProperty(PROPERTY_HOT_RELOAD);
+            Path direktori = dir != null && !dir.isBlank() ? Path.of(dir) : null;
+            if (direktori != null) {
+                logger.info("Hot reload template laporan dari {}", direktori.toAbsolutePath());
+            }
+            instance = new TemplateLaporan(direktori);
+        }
+        return instance;
+    }
+
+    /**
+     * Reset instance (untuk testing).
+     */
+    public static synchronized void resetInstance() {
+        instance = null;
+    }
+
+    /**
+     * Ambil template terkompilasi.
+     *
+     * @param pathTemplate Path classpath file .jrxml, mis. "/reports/quotation_template.jrxml"
+     */
+    public JasperReport muat(String pathTemplate) throws JRException {
+        if (direktoriHotReload != null) {
+            Path file = direktoriHotReload.resolve(namaFile(pathTemplate));
+            if (Files.exists(file)) {
+                return muatDariFile(pathTemplate, file);
+            }
+        }
+
+        Entri entri = cache.get(pathTemplate);
+        if (entri != null) {
+            return entri.report();
+        }
+        synchronized (this) {
+            entri = cache.get(pathTemplate);
+            if (entri == null) {
+                entri = new Entri(muatDariClasspath(pathTemplate), 0);
+                cache.put(pathTemplate, entri);
+            }
+            return entri.report();
+        }
+    }
+
+    /**
+     * Buang semua template dari cache.
+     */
+    public void kosongkan() {
+        cache.clear();
+    }
+
+    private synchronized JasperReport muatDariFile(String pathTemplate, Path file) throws JRException {
+        long versi;
+        try {
+            versi = Files.getLastModifiedTime(file).toMillis();
+        } catch (IOException e) {
+            throw new JRException("Gagal membaca template: " + file, e);
+        }
+        Entri entri = cache.get(pathTemplate);
+        if (entri == null || entri.versi() != versi) {
+            long t0 = System.nanoTime();
+            entri = new Entri(JasperCompileManager.compileReport(file.toString()), versi);
+            cache.put(pathTemplate, entri);
+            logger.info("Template {} dikompilasi ulang ({} ms)", file.getFileName(),
+                (System.nanoTime() - t0) / 1_000_000);
+        }
+        return entri.report();
+    }
+
+    private JasperReport muatDariClasspath(String pathTemplate) throws JRException {
+        String pathJasper = pathTemplate.replaceFirst("\\.jrxml$", ".jasper");
+        try (InputStream is = TemplateLaporan.class.getResourceAsStream(pathJasper)) {
+            if (is != null) {
+                return (JasperReport) JRLoader.loadObject(is);
+            }
+        } catch (IOException e) {
+            throw new JRException("Gagal membaca template: " + pathJasper, e);
+        }
+
+        logger.warn("{} tidak ditemukan (belum dikompilasi saat build), kompilasi {}", pathJasper, pathTemplate);
+        try (InputStream is = TemplateLaporan.class.getResourceAsStream(pathTemplate)) {
+            if (is == null) {
+                throw new JRException("Template tidak ditemukan: " + pathTemplate);
+            }
+            return JasperCompileManager.compileReport(is);
+        } catch (IOException e) {
+            throw new JRException("Gagal membaca template: " + e.getMessage(), e);
+        }
+    }
+
+    private static String namaFile(String pathTemplate) {
+        return pathTemplate.substring(pathTemplate.lastIndexOf('/') + 1);
+    }
+
+    /**
+     * Kompilasi semua .jrxml di direktori sumber menjadi .jasper di direktori tujuan.
+     * Dipanggil saat build oleh exec-maven-plugin.
+     *
+     * @param args [0] direktori .jrxml, [1] direktori output .jasper
+     */
+    public static void main(String[] args) throws IOException, JRException {
+        if (args.length != 2) {
+            throw new IllegalArgumentException("Pemakaian: TemplateLaporan <direktori-jrxml> <direktori-output>");
+        }
+        Path sumber = Path.of(args[0]);
+        Path tujuan = Path.of(args[1]);
+        Files.createDirectories(tujuan);
+
+        try (DirectoryStream<Path> files = Files.newDirectoryStream(sumber, "*.jrxml")) {
+            for (Path jrxml : files) {
+                String nama = jrxml.getFileName().toString().replaceFirst("\\.jrxml$", ".jasper");
+                JasperCompileManager.compileReportToFile(jrxml.toString(), tujuan.resolve(nama).toString());
+                logger.info("Template dikompilasi: {}", nama);
+            }
+        }
+    }
+}
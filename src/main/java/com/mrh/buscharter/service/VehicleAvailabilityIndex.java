@@ -0,0 +1,304 @@
+package com.mrh.buscharter.service;
+
+import com.mrh.buscharter.config.AppConfig;
+import com.mrh.buscharter.model.Vehicle;
+import com.mrh.buscharter.model.dto.JadwalAssignment;
+import com.mrh.buscharter.model.enums.TipeVehicle;
+import com.mrh.buscharter.repository.TripAssignmentRepository;
+import com.mrh.buscharter.repository.VehicleRepository;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.time.LocalDateTime;
+import java.util.*;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Consumer;
+
+/**
+ * Index ketersediaan armada di memori, per tenant dan per vehicle.
+ * Singleton pattern untuk akses global (dipakai FleetService, BookingService, FinanceService).
+ *
+ * Snapshot tenant dimuat dari database saat pertama kali dibutuhkan (cold start),
+ * lalu diperbarui secara incremental saat ada assignment baru.
+ * Snapshot di-reload setelah TTL agar perubahan dari client lain ikut terbaca.
+ * Pemuatan berjalan di luar lock map: satu thread memuat per tenant, thread lain untuk
+ * tenant yang sama menunggu future-nya, tenant lain tidak tertahan.
+ *
+ * Vehicle di snapshot tidak pernah keluar dari index; hasil query berupa salinan
+ * sehingga caller bebas mengubahnya.
+ *
+ * Query dengan tanggal mulai sebelum jendela histori tidak dijawab dari index
+ * (Optional.empty) dan caller harus jatuh ke query database.
+ */
+public class VehicleAvailabilityIndex {
+
+    private static final Logger logger = LoggerFactory.getLogger(VehicleAvailabilityIndex.class);
+
+    private static VehicleAvailabilityIndex instance;
+
+    private final VehicleRepository vehicleRepository;
+    private final TripAssignmentRepository tripAssignmentRepository;
+
+    private final Map<Long, CompletableFuture<SnapshotTenant>> snapshots = new ConcurrentHashMap<>();
+    private final Map<Long, Long> vehicleKeTenant = new ConcurrentHashMap<>();
+
+    VehicleAvailabilityIndex(VehicleRepository vehicleRepository,
+                             TripAssignmentRepository tripAssignmentRepository) {
+        this.vehicleRepository = vehicleRepository;
+        this.tripAssignmentRepository = tripAssignmentRepository;
+    }
+
+    /**
+     * Mendapatkan instance singleton index.
+     */
+    public static synchronized VehicleAvailabilityIndex getInstance() {
+        if (instance == null) {
+            instance = new VehicleAvailabilityIndex(new VehicleRepository(), new TripAssignmentRepository());
+        }
+        return instance;
+    }
+
+    /**
+     * Reset instance (untuk testing).
+     */
+    public static synchronized void resetInstance() {
+        if (instance != null) {
+            instance.invalidateSemua();
+        }
+        instance = null;
+    }
+
+    // ==================== QUERY ====================
+
+    /**
+     * Cari vehicle tersedia dari index.
+     * Urutan hasil sama dengan query database (tipe, nama panggilan).
+     *
+     * @return List vehicle tersedia, atau Optional.empty jika rentang di luar jendela index
+     */
+    public Optional<List<Vehicle>> cariVehicleTersedia(Long tenantId, LocalDateTime tanggalMulai,
+                                                       LocalDateTime tanggalSelesai, TipeVehicle tipe) {
+        SnapshotTenant snapshot = getSnapshot(tenantId);
+        if (tanggalMulai.isBefore(snapshot.jendelaMulai)) {
+            logger.debug("Rentang {} di luar jendela index tenant {}, fallback ke database",
+                tanggalMulai, tenantId);
+            return Optional.empty();
+        }
+
+        List<Vehicle> tersedia = new ArrayList<>();
+        for (Vehicle v : snapshot.vehicleAktif) {
+            if (tipe != null && v.getTipeVehicle() != tipe) {
+                continue;
+            }
+            IntervalJadwal jadwal = snapshot.jadwal(v.getId());
+            if (!jadwal.adaOverlap(tanggalMulai, tanggalSelesai, null)) {
+                tersedia.add(salin(v));
+            }
+        }
+        return Optional.of(tersedia);
+    }
+
+    /**
+     * Hitung jumlah vehicle tersedia untuk semua tipe dalam satu pass atas index.
+     * Tipe yang tidak punya vehicle tersedia tetap muncul dengan nilai 0.
+     *
+     * @return Map tipe → jumlah tersedia, atau Optional.empty jika rentang di luar jendela index
+     */
+    public Optional<Map<TipeVehicle, Long>> hitungTersediaPerTipe(Long tenantId, LocalDateTime tanggalMulai,
+                                                                  LocalDateTime tanggalSelesai) {
+        SnapshotTenant snapshot = getSnapshot(tenantId);
+        if (tanggalMulai.isBefore(snapshot.jendelaMulai)) {
+            return Optional.empty();
+        }
+
+        long[] jumlah = new long[TipeVehicle.values().length];
+        for (Vehicle v : snapshot.vehicleAktif) {
+            if (!snapshot.jadwal(v.getId()).adaOverlap(tanggalMulai, tanggalSelesai, null)) {
+                jumlah[v.getTipeVehicle().ordinal()]++;
+            }
+        }
+
+        Map<TipeVehicle, Long> hasil = new EnumMap<>(TipeVehicle.class);
+        for (TipeVehicle tipe : TipeVehicle.values()) {
+            hasil.put(tipe, jumlah[tipe.ordinal()]);
+        }
+        return Optional.of(hasil);
+    }
+
+    // ==================== UPDATE ====================
+
+    /**
+     * Catat assignment baru ke index (jika snapshot tenant sudah dimuat atau sedang dimuat).
+     * Hanya untuk assignment yang memblokir armada (booking DP_DITERIMA ke atas).
+     */
+    public void catatAssignment(Long tenantId, Long vehicleId, Long tripId,
+                                LocalDateTime waktuMulai, LocalDateTime waktuSelesai) {
+        IntervalJadwal.Slot slot = new IntervalJadwal.Slot(tripId, waktuMulai, waktuSelesai);
+        perbarui(tenantId, snapshot -> {
+            snapshot.jadwalPerVehicle.merge(vehicleId, IntervalJadwal.dari(List.of(slot)),
+                (lama, baru) -> lama.tambah(slot));
+            logger.debug("Index: vehicle {} dicatat untuk trip {}", vehicleId, tripId);
+        });
+    }
+
+    /**
+     * Hapus assignment dari index (misal assignment dibatalkan).
+     */
+    public void hapusAssignment(Long tenantId, Long vehicleId, Long tripId) {
+        perbarui(tenantId, snapshot ->
+            snapshot.jadwalPerVehicle.computeIfPresent(vehicleId, (id, jadwal) -> jadwal.hapus(tripId)));
+    }
+
+    /**
+     * Buang snapshot tenant, akan dimuat ulang pada query berikutnya.
+     */
+    public void invalidateTenant(Long tenantId) {
+        if (tenantId != null && snapshots.remove(tenantId) != null) {
+            logger.debug("Index ketersediaan tenant {} di-invalidate", tenantId);
+        }
+    }
+
+    /**
+     * Buang snapshot tenant pemilik vehicle (setelah data vehicle berubah).
+     */
+    public void invalidateVehicle(Long vehicleId) {
+        invalidateTenant(vehicleKeTenant.get(vehicleId));
+    }
+
+    /**
+     * Buang semua snapshot.
+     */
+    public void invalidateSemua() {
+        snapshots.clear();
+        vehicleKeTenant.clear();
+    }
+
+    // ==================== Helper Methods ====================
+
+    /**
+     * Snapshot tenant yang masih berlaku. Query database berjalan di thread pemanggil yang
+     * memasang future, di luar lock ConcurrentHashMap; pemanggil lain untuk tenant yang sama
+     * menunggu future itu.
+     */
+    private SnapshotTenant getSnapshot(Long tenantId) {
+        while (true) {
+            CompletableFuture<SnapshotTenant> ada = snapshots.get(tenantId);
+            if (ada != null && !perluDimuatUlang(ada)) {
+                return tunggu(ada);
+            }
+            CompletableFuture<SnapshotTenant> baru = new CompletableFuture<>();
+            boolean terpasang = ada == null
+                ? snapshots.putIfAbsent(tenantId, baru) == null
+                : snapshots.replace(tenantId, ada, baru);
+            if (!terpasang) {
+                continue; // Thread lain lebih dulu memasang future
+            }
+            try {
+                baru.complete(muat(tenantId));
+            } catch (RuntimeException e) {
+                snapshots.remove(tenantId, baru);
+                baru.completeExceptionally(e);
+                throw e;
+            }
+            return baru.join();
+        }
+    }
+
+    private static boolean perluDimuatUlang(CompletableFuture<SnapshotTenant> future) {
+        return future.isDone() && (future.isCompletedExceptionally() || future.join().kedaluwarsa());
+    }
+
+    private static SnapshotTenant tunggu(CompletableFuture<SnapshotTenant> future) {
+        try {
+            return future.join();
+        } catch (CompletionException e) {
+            // Pemuat gagal dan sudah melepas future-nya; lempar ulang ke pemanggil ini juga
+            throw e.getCause() instanceof RuntimeException r ? r : e;
+        }
+    }
+
+    /**
+     * Terapkan perubahan ke snapshot tenant: langsung jika sudah dimuat, setelah selesai
+     * dimuat jika sedang dimuat (query-nya mungkin belum melihat perubahan ini).
+     */
+    private void perbarui(Long tenantId, Consumer<SnapshotTenant> perubahan) {
+        CompletableFuture<SnapshotTenant> future = snapshots.get(tenantId);
+        if (future != null) {
+            future.thenAccept(perubahan); // Belum dimuat: akan terbaca saat cold start
+        }
+    }
+
+    /**
+     * Salinan vehicle untuk caller; entity di snapshot dipakai bersama semua thread.
+     */
+    private static Vehicle salin(Vehicle v) {
+        Vehicle salinan = new Vehicle();
+        salinan.setId(v.getId());
+        salinan.setTenant(v.getTenant());
+        salinan.setPlatNomor(v.getPlatNomor());
+        salinan.setNamaPanggilan(v.getNamaPanggilan());
+        salinan.setTipeVehicle(v.getTipeVehicle());
+        salinan.setKapasitasKursi(v.getKapasitasKursi());
+        salinan.setStatusKepemilikan(v.getStatusKepemilikan());
+        salinan.setNamaVendor(v.getNamaVendor());
+        salinan.setAktif(v.getAktif());
+        salinan.setCatatan(v.getCatatan());
+        return salinan;
+    }
+
+    private SnapshotTenant muat(Long tenantId) {
+        long mulaiNano = System.nanoTime();
+        LocalDateTime sekarang = LocalDateTime.now();
+        LocalDateTime jendelaMulai = sekarang.minusDays(AppConfig.INDEX_KETERSEDIAAN_JENDELA_HARI);
+
+        List<Vehicle> vehicles = vehicleRepository.findAktifByTenantId(tenantId);
+        List<JadwalAssignment> jadwal = tripAssignmentRepository
+            .findJadwalTerpakaiByTenantId(tenantId, jendelaMulai);
+
+        Map<Long, List<IntervalJadwal.Slot>> slotPerVehicle = new HashMap<>();
+        for (JadwalAssignment ja : jadwal) {
+            slotPerVehicle.computeIfAbsent(ja.vehicleId(), k -> new ArrayList<>())
+                .add(new IntervalJadwal.Slot(ja.tripId(), ja.waktuMulai(), ja.waktuSelesai()));
+        }
+
+        SnapshotTenant snapshot = new SnapshotTenant(sekarang, jendelaMulai, vehicles);
+        slotPerVehicle.forEach((vehicleId, slots) ->
+            snapshot.jadwalPerVehicle.put(vehicleId, IntervalJadwal.dari(slots)));
+        for (Vehicle v : vehicles) {
+            vehicleKeTenant.put(v.getId(), tenantId);
+        }
+
+        logger.info("Index ketersediaan tenant {} dimuat: {} vehicle, {} assignment ({} ms)",
+            tenantId, vehicles.size(), jadwal.size(), (System.nanoTime() - mulaiNano) / 1_000_000);
+        return snapshot;
+    }
+
+    // ==================== INNER CLASS ====================
+
+    /**
+     * Snapshot data ketersediaan satu tenant.
+     */
+    private static class SnapshotTenant {
+        private final LocalDateTime dimuatPada;
+        private final LocalDateTime jendelaMulai;
+        private final List<Vehicle> vehicleAktif;
+        private final Map<Long, IntervalJadwal> jadwalPerVehicle = new ConcurrentHashMap<>();
+
+        SnapshotTenant(LocalDateTime dimuatPada, LocalDateTime jendelaMulai, List<Vehicle> vehicleAktif) {
+            this.dimuatPada = dimuatPada;
+            this.jendelaMulai = jendelaMulai;
+            this.vehicleAktif = List.copyOf(vehicleAktif);
+        }
+
+        IntervalJadwal jadwal(Long vehicleId) {
+            return jadwalPerVehicle.getOrDefault(vehicleId, IntervalJadwal.kosong());
+        }
+
+        boolean kedaluwarsa() {
+            return dimuatPada.plusSeconds(AppConfig.INDEX_KETERSEDIAAN_TTL_DETIK)
+                .isBefore(LocalDateTime.now());
+        }
+    }
+}
@@ -0,0 +1,13 @@
+-- Trip memakai @SequenceGenerator(allocationSize = 50): satu nextval memberi 50 ID,
+-- sehingga insert massal tidak perlu round trip per baris dan bisa di-batch JDBC.
+-- INCREMENT BY harus sama dengan allocationSize. Insert lain yang memakai DEFAULT nextval
+-- tetap aman (optimizer pooled tidak memakai nilai yang sudah diambil pihak lain).
+-- Jika user database bukan pemilik sequence, migrasi tetap tercatat dan Hibernate
+-- menyesuaikan allocationSize ke increment yang ada.
+
+DO $$
+BEGIN
+    ALTER SEQUENCE IF EXISTS trips_id_seq INCREMENT BY 50;
+EXCEPTION WHEN insufficient_privilege THEN
+    RAISE NOTICE 'trips_id_seq tidak diubah: bukan pemilik sequence';
+END $$;
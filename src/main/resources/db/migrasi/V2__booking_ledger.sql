@@ -0,0 +1,38 @@
+-- Booking ledger: ringkasan keuangan per booking yang disimpan (grand total, diskon,
+-- pembayaran, outstanding, status pelunasan). Diperbarui aplikasi dalam transaksi yang sama
+-- dengan perubahan booking_charges/payments (BookingLedgerRepository), dengan row lock.
+-- Insert terakhir mengisi ledger untuk booking lama yang belum punya baris.
+
+CREATE TABLE IF NOT EXISTS booking_ledger (
+    booking_id BIGINT PRIMARY KEY REFERENCES bookings (id) ON DELETE CASCADE,
+    tenant_id BIGINT NOT NULL,
+    total_charge NUMERIC(15, 2) NOT NULL DEFAULT 0,
+    total_discount NUMERIC(15, 2) NOT NULL DEFAULT 0,
+    grand_total NUMERIC(15, 2) NOT NULL DEFAULT 0,
+    total_paid NUMERIC(15, 2) NOT NULL DEFAULT 0,
+    outstanding NUMERIC(15, 2) NOT NULL DEFAULT 0,
+    payment_status VARCHAR(20) NOT NULL DEFAULT 'LUNAS',
+    updated_at TIMESTAMP
+);
+
+CREATE INDEX IF NOT EXISTS idx_booking_ledger_outstanding
+    ON booking_ledger (tenant_id) WHERE outstanding > 0;
+
+INSERT INTO booking_ledger (booking_id, tenant_id, total_charge, total_discount, grand_total,
+                            total_paid, outstanding, payment_status, updated_at)
+SELECT x.id, x.tenant_id, x.charge, x.diskon, x.charge - x.diskon, x.bayar,
+       x.charge - x.diskon - x.bayar,
+       CASE WHEN x.charge - x.diskon - x.bayar <= 0 THEN 'LUNAS'
+            WHEN x.bayar > 0 THEN 'SEBAGIAN'
+            ELSE 'BELUM_BAYAR' END,
+       now()
+FROM (
+    SELECT b.id, b.tenant_id,
+           COALESCE((SELECT SUM(bc.total_price) FROM booking_charges bc
+                     WHERE bc.booking_id = b.id AND bc.charge_type IN ('UTAMA', 'TAMBAHAN')), 0) AS charge,
+           COALESCE((SELECT SUM(bc.total_price) FROM booking_charges bc
+                     WHERE bc.booking_id = b.id AND bc.charge_type = 'DISKON'), 0) AS diskon,
+           COALESCE((SELECT SUM(p.amount) FROM payments p WHERE p.booking_id = b.id), 0) AS bayar
+    FROM bookings b
+    WHERE NOT EXISTS (SELECT 1 FROM booking_ledger l WHERE l.booking_id = b.id)
+) x;
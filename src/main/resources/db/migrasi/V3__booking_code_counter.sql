@@ -0,0 +1,23 @@
+-- Counter kode booking per tenant per bulan (BOOK/YYYY/MM/NNN).
+-- Aplikasi mereservasi blok nomor dengan satu upsert ... RETURNING (AlokatorKodeBooking),
+-- lalu membagikan nomor dari memori; nomor yang tidak terpakai saat aplikasi berhenti dilewati.
+-- Insert awal melanjutkan nomor tertinggi yang sudah dipakai booking lama.
+
+CREATE TABLE IF NOT EXISTS booking_code_counter (
+    tenant_id BIGINT NOT NULL,
+    year INT NOT NULL,
+    month INT NOT NULL,
+    last_value BIGINT NOT NULL,
+    PRIMARY KEY (tenant_id, year, month)
+);
+
+INSERT INTO booking_code_counter (tenant_id, year, month, last_value)
+SELECT tenant_id,
+       CAST(split_part(booking_code, '/', 2) AS INT),
+       CAST(split_part(booking_code, '/', 3) AS INT),
+       MAX(CAST(split_part(booking_code, '/', 4) AS BIGINT))
+FROM bookings
+WHERE booking_code ~ '^BOOK/[0-9]{4}/[0-9]{2}/[0-9]+$'
+GROUP BY 1, 2, 3
+ON CONFLICT (tenant_id, year, month) DO UPDATE
+    SET last_value = GREATEST(booking_code_counter.last_value, EXCLUDED.last_value);
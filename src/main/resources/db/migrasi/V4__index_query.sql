@@ -0,0 +1,47 @@
+-- Index untuk jalur query yang sering dipakai (hbm2ddl=validate tidak membuat index).
+-- Kolom dan predikat partial index mengikuti JPQL di repository terkait; predikat query
+-- harus mengimplikasikan predikat index agar planner bisa memakainya
+-- (mis. statusAssignment != 'BATAL' -> assignment_status <> 'BATAL').
+-- Diverifikasi oleh RencanaQueryIndexTest (EXPLAIN).
+
+-- TripAssignmentRepository.findJadwalVehicleDalamJendela / cekKonflik, VehicleRepository
+-- SUBQUERY_VEHICLE_TERPAKAI: assignment aktif per vehicle
+CREATE INDEX IF NOT EXISTS idx_trip_assignments_vehicle_aktif
+    ON trip_assignments (vehicle_id, trip_id) WHERE assignment_status <> 'BATAL';
+
+-- TripAssignmentRepository.findByTripId dan join trip -> assignment
+CREATE INDEX IF NOT EXISTS idx_trip_assignments_trip
+    ON trip_assignments (trip_id);
+
+-- TripAssignmentRepository.findJadwalDriverDalamRentang: d.id IN ... OR cd.id IN ... (BitmapOr)
+CREATE INDEX IF NOT EXISTS idx_trip_assignments_driver_aktif
+    ON trip_assignments (driver_id) WHERE assignment_status <> 'BATAL';
+CREATE INDEX IF NOT EXISTS idx_trip_assignments_co_driver_aktif
+    ON trip_assignments (co_driver_id) WHERE assignment_status <> 'BATAL';
+
+-- Irisan waktu trip: waktuMulai <= :selesai AND waktuSelesai >= :mulai
+CREATE INDEX IF NOT EXISTS idx_trips_waktu
+    ON trips (start_datetime, end_datetime);
+
+-- Booking -> trip (b.trips, findByBookingIds)
+CREATE INDEX IF NOT EXISTS idx_trips_booking
+    ON trips (booking_id, start_datetime);
+
+-- b.tenant.id = :tenantId AND b.status IN ('DP_DITERIMA', 'LUNAS', 'SELESAI')
+CREATE INDEX IF NOT EXISTS idx_bookings_tenant_status
+    ON bookings (tenant_id, status);
+
+-- PaymentRepository: per booking urut tanggal, dan per tenant dalam rentang tanggal
+-- (bookings per tenant -> payments per booking)
+CREATE INDEX IF NOT EXISTS idx_payments_booking_tanggal
+    ON payments (booking_id, payment_date);
+
+-- BookingChargeRepository / ledger: per booking dan tipe charge
+CREATE INDEX IF NOT EXISTS idx_booking_charges_booking_tipe
+    ON booking_charges (booking_id, charge_type);
+
+-- VehicleRepository: semua query memfilter tenant + aktif, urut tipe lalu nama panggilan
+CREATE INDEX IF NOT EXISTS idx_vehicles_tenant_aktif
+    ON vehicles (tenant_id, vehicle_type, code_name) WHERE is_active = true;
+CREATE INDEX IF NOT EXISTS idx_vehicles_tenant_plat
+    ON vehicles (tenant_id, plate_number);
@@ -0,0 +1,17 @@
+-- Transactional outbox untuk domain events.
+-- Baris ditulis dalam transaksi yang sama dengan perubahan data, lalu dikirim ke EventBus
+-- (langsung setelah commit, atau oleh OutboxRelay jika aplikasi berhenti sebelum sempat).
+-- IF NOT EXISTS: database lama sudah punya tabel ini dari runner outbox sebelumnya.
+
+CREATE TABLE IF NOT EXISTS domain_event_outbox (
+    id BIGSERIAL PRIMARY KEY,
+    event_id VARCHAR(36) NOT NULL UNIQUE,
+    tenant_id BIGINT,
+    event_type VARCHAR(100) NOT NULL,
+    payload BYTEA NOT NULL,
+    created_at TIMESTAMP NOT NULL DEFAULT now(),
+    processed_at TIMESTAMP
+);
+
+CREATE INDEX IF NOT EXISTS idx_outbox_belum_diproses
+    ON domain_event_outbox (id) WHERE processed_at IS NULL;
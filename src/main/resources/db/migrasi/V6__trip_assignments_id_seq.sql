@@ -0,0 +1,13 @@
+-- TripAssignment memakai @SequenceGenerator(allocationSize = 50) seperti Trip (V1), sehingga
+-- assignment batch disimpan lewat saveAll dengan batch JDBC dan ID sudah diketahui sebelum
+-- insert. INCREMENT BY harus sama dengan allocationSize; insert lain yang memakai DEFAULT
+-- nextval tetap aman.
+-- Jika user database bukan pemilik sequence, migrasi tetap tercatat dan Hibernate
+-- menyesuaikan allocationSize ke increment yang ada.
+
+DO $$
+BEGIN
+    ALTER SEQUENCE IF EXISTS trip_assignments_id_seq INCREMENT BY 50;
+EXCEPTION WHEN insufficient_privilege THEN
+    RAISE NOTICE 'trip_assignments_id_seq tidak diubah: bukan pemilik sequence';
+END $$;
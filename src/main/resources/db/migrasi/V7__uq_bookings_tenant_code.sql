@@ -0,0 +1,6 @@
+-- Kode booking unik per tenant (pengaman AlokatorKodeBooking).
+-- Gagal jika data lama sudah berisi kode kembar (hasil race generator lama), dan aplikasi
+-- tidak start; rapikan duplikat lalu restart.
+
+CREATE UNIQUE INDEX IF NOT EXISTS uq_bookings_tenant_code
+    ON bookings (tenant_id, booking_code);
@@ -0,0 +1,71 @@
+-- Anti-double-booking di level database: satu vehicle tidak boleh punya dua assignment
+-- mengikat yang waktunya beririsan.
+--
+-- Exclusion constraint hanya bisa memakai kolom tabelnya sendiri, jadi waktu trip dan status
+-- disalin ke trip_assignments (kolom tidak dipetakan entity, diisi trigger):
+--   period   = tsrange(start_datetime, end_datetime, '[]') dari trips; batas inklusif, sama
+--              dengan rumus irisan aplikasi (mulai <= selesai lain AND selesai >= mulai lain)
+--   blocking = assignment tidak BATAL dan booking berstatus DP_DITERIMA/LUNAS/SELESAI, sama
+--              dengan filter FleetService.cekKonflikJadwal
+-- Kolom waktu bertipe TIMESTAMP (LocalDateTime), jadi memakai tsrange, bukan tstzrange.
+--
+-- Gagal (seluruh migrasi di-rollback dan aplikasi tidak start) jika data lama sudah berisi
+-- double booking; rapikan assignment yang bentrok lalu restart.
+
+CREATE EXTENSION IF NOT EXISTS btree_gist;
+
+ALTER TABLE trip_assignments ADD COLUMN IF NOT EXISTS period TSRANGE;
+ALTER TABLE trip_assignments ADD COLUMN IF NOT EXISTS blocking BOOLEAN NOT NULL DEFAULT false;
+
+CREATE OR REPLACE FUNCTION trip_assignments_isi_jadwal() RETURNS trigger AS $$
+BEGIN
+    SELECT tsrange(t.start_datetime, t.end_datetime, '[]'),
+           COALESCE(NEW.assignment_status <> 'BATAL', false)
+               AND b.status IN ('DP_DITERIMA', 'LUNAS', 'SELESAI')
+      INTO NEW.period, NEW.blocking
+      FROM trips t JOIN bookings b ON b.id = t.booking_id
+     WHERE t.id = NEW.trip_id;
+    RETURN NEW;
+END;
+$$ LANGUAGE plpgsql;
+
+CREATE TRIGGER trg_trip_assignments_isi_jadwal
+    BEFORE INSERT OR UPDATE ON trip_assignments
+    FOR EACH ROW EXECUTE FUNCTION trip_assignments_isi_jadwal();
+
+-- Perubahan waktu trip / status booking menghitung ulang assignment terkait
+-- (trigger di atas mengisi nilainya)
+CREATE OR REPLACE FUNCTION trips_segarkan_assignment() RETURNS trigger AS $$
+BEGIN
+    UPDATE trip_assignments SET trip_id = trip_id WHERE trip_id = NEW.id;
+    RETURN NULL;
+END;
+$$ LANGUAGE plpgsql;
+
+CREATE TRIGGER trg_trips_segarkan_assignment
+    AFTER UPDATE OF start_datetime, end_datetime, booking_id ON trips
+    FOR EACH ROW WHEN (OLD.start_datetime IS DISTINCT FROM NEW.start_datetime
+                       OR OLD.end_datetime IS DISTINCT FROM NEW.end_datetime
+                       OR OLD.booking_id IS DISTINCT FROM NEW.booking_id)
+    EXECUTE FUNCTION trips_segarkan_assignment();
+
+CREATE OR REPLACE FUNCTION bookings_segarkan_assignment() RETURNS trigger AS $$
+BEGIN
+    UPDATE trip_assignments ta SET trip_id = ta.trip_id
+      FROM trips t
+     WHERE t.id = ta.trip_id AND t.booking_id = NEW.id;
+    RETURN NULL;
+END;
+$$ LANGUAGE plpgsql;
+
+CREATE TRIGGER trg_bookings_segarkan_assignment
+    AFTER UPDATE OF status ON bookings
+    FOR EACH ROW WHEN (OLD.status IS DISTINCT FROM NEW.status)
+    EXECUTE FUNCTION bookings_segarkan_assignment();
+
+-- Isi kolom untuk assignment yang sudah ada
+UPDATE trip_assignments SET trip_id = trip_id;
+
+ALTER TABLE trip_assignments ADD CONSTRAINT ex_trip_assignments_vehicle_overlap
+    EXCLUDE USING gist (vehicle_id WITH =, period WITH &&) WHERE (blocking)
+    DEFERRABLE INITIALLY IMMEDIATE;
@@ -0,0 +1,6 @@
+-- Pengiriman ulang outbox dengan jeda: baris yang handler-nya gagal tidak ditandai diproses,
+-- jumlah percobaannya dicatat, dan relay baru mengambilnya lagi setelah next_attempt_at
+-- (jeda berlipat dua), sehingga event yang terus gagal tidak menahan baris sesudahnya.
+
+ALTER TABLE domain_event_outbox ADD COLUMN IF NOT EXISTS attempts INT NOT NULL DEFAULT 0;
+ALTER TABLE domain_event_outbox ADD COLUMN IF NOT EXISTS next_attempt_at TIMESTAMP;
@@ -0,0 +1,138 @@
+package com.mrh.buscharter.config;
+
+import com.mrh.buscharter.repository.HistogramLatensi;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Test;
+
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Properties;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.LongAdder;
+
+import static org.junit.jupiter.api.Assumptions.assumeTrue;
+
+/**
+ * Uji beban connection pool: ukuran tetap vs mode adaptif di bawah beban yang sama.
+ * 24 thread terus meminjam koneksi dan menjalankan query 5 ms; pool dimulai dengan 4 koneksi.
+ * Mode adaptif harus memperbesar pool dan menurunkan waktu tunggu koneksi p95.
+ * Butuh PostgreSQL; tanpa -Dbenchmark.db.url benchmark dilewati.
+ *
+ * Jalankan dengan:
+ * mvn test -Pbenchmark -Dbenchmark.db.url=jdbc:postgresql://localhost:5432/mrh_buscharter
+ *     -Dbenchmark.db.username=... -Dbenchmark.db.password=...
+ */
+public class PoolAdaptifBenchmark {
+
+    private static final int UKURAN_AWAL = 4;
+    private static final int BATAS_ATAS = 24;
+    private static final int JUMLAH_THREAD = 24;
+    private static final long PEMANASAN_MS = 6_000; // Beri waktu pengatur adaptif beberapa putaran
+    private static final long PENGUKURAN_MS = 5_000;
+
+    private static String url;
+
+    @BeforeAll
+    static void setup() {
+        url = System.getProperty("benchmark.db.url");
+        assumeTrue(url != null, "benchmark.db.url tidak di-set, benchmark database dilewati");
+    }
+
+    @AfterEach
+    void tutup() {
+        DatabaseConfig.shutdown();
+    }
+
+    @Test
+    void adaptifMengurangiWaktuTunggu() throws Exception {
+        HasilBeban tetap = jalankanBeban(false);
+        DatabaseConfig.shutdown();
+        HasilBeban adaptif = jalankanBeban(true);
+
+        System.out.printf("%nPool tetap %d   : %,8.0f query/detik, tunggu p50 %.1f ms, p95 %.1f ms, p99 %.1f ms%n",
+            UKURAN_AWAL, tetap.queryPerDetik, tetap.p50Ms, tetap.p95Ms, tetap.p99Ms);
+        System.out.printf("Pool adaptif %d-%d: %,8.0f query/detik, tunggu p50 %.1f ms, p95 %.1f ms, p99 %.1f ms (ukuran akhir %d)%n",
+            UKURAN_AWAL, BATAS_ATAS, adaptif.queryPerDetik, adaptif.p50Ms, adaptif.p95Ms, adaptif.p99Ms,
+            adaptif.ukuranAkhir);
+
+        assert adaptif.ukuranAkhir > UKURAN_AWAL : "Pool adaptif tidak bertambah di bawah beban";
+        assert adaptif.p95Ms < tetap.p95Ms
+            : String.format("Tunggu p95 adaptif %.1f ms tidak lebih baik dari pool tetap %.1f ms",
+                adaptif.p95Ms, tetap.p95Ms);
+    }
+
+    private HasilBeban jalankanBeban(boolean adaptifAktif) throws Exception {
+        Properties props = new Properties();
+        props.setProperty("db.url", url);
+        props.setProperty("db.username", System.getProperty("benchmark.db.username", "mrh_user"));
+        props.setProperty("db.password", System.getProperty("benchmark.db.password", ""));
+        props.setProperty("hibernate.dialect", "org.hibernate.dialect.PostgreSQLDialect");
+        props.setProperty("hibernate.hbm2ddl.auto", "validate");
+        props.setProperty("hikari.maximum-pool-size", String.valueOf(UKURAN_AWAL));
+        props.setProperty("hikari.minimum-idle", String.valueOf(UKURAN_AWAL));
+        props.setProperty("hikari.adaptif", String.valueOf(adaptifAktif));
+        props.setProperty("hikari.adaptif.batas-atas", String.valueOf(BATAS_ATAS));
+        props.setProperty("hikari.adaptif.target-tunggu-ms", "5");
+        props.setProperty("hikari.adaptif.interval-detik", "1");
+        DatabaseConfig.initialize(props);
+
+        HistogramLatensi tunggu = new HistogramLatensi();
+        LongAdder jumlahQuery = new LongAdder();
+        AtomicBoolean mengukur = new AtomicBoolean(false);
+        AtomicBoolean berhenti = new AtomicBoolean(false);
+        CountDownLatch mulai = new CountDownLatch(1);
+        ExecutorService pool = Executors.newFixedThreadPool(JUMLAH_THREAD);
+        try {
+            List<Future<?>> hasil = new ArrayList<>();
+            for (int i = 0; i < JUMLAH_THREAD; i++) {
+                hasil.add(pool.submit(() -> {
+                    mulai.await();
+                    while (!berhenti.get()) {
+                        long t0 = System.nanoTime();
+                        try (Connection conn = DatabaseConfig.getDataSource().getConnection();
+                             Statement st = conn.createStatement()) {
+                            long tungguNanos = System.nanoTime() - t0;
+                            st.execute("SELECT pg_sleep(0.005)");
+                            if (mengukur.get()) {
+                                tunggu.catat(tungguNanos);
+                                jumlahQuery.increment();
+                            }
+                        } catch (SQLException e) {
+                            throw new IllegalStateException("Query beban gagal", e);
+                        }
+                    }
+                    return null;
+                }));
+            }
+            mulai.countDown();
+            Thread.sleep(PEMANASAN_MS);
+            mengukur.set(true);
+            Thread.sleep(PENGUKURAN_MS);
+            mengukur.set(false);
+            berhenti.set(true);
+            for (Future<?> f : hasil) {
+                f.get(30, TimeUnit.SECONDS);
+            }
+        } finally {
+            berhenti.set(true);
+            pool.shutdownNow();
+        }
+
+        return new HasilBeban(jumlahQuery.sum() / (PENGUKURAN_MS / 1000.0),
+            tunggu.persentil(50) / 1e6, tunggu.persentil(95) / 1e6, tunggu.persentil(99) / 1e6,
+            DatabaseConfig.getDataSource().getHikariConfigMXBean().getMaximumPoolSize());
+    }
+
+    private record HasilBeban(double queryPerDetik, double p50Ms, double p95Ms, double p99Ms,
+                              int ukuranAkhir) {
+    }
+}
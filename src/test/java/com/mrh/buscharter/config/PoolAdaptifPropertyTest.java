@@ -0,0 +1,110 @@
+package com.mrh.buscharter.config;
+
+import net.jqwik.api.*;
+import net.jqwik.api.constraints.*;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Property-based test untuk mode adaptif connection pool (PengaturPoolAdaptif, MetrikPool).
+ *
+ * **Property 7: Domain Boundary Tidak Dilanggar**
+ * **Validates: Requirements 14.1, 14.2**
+ *
+ * Ukuran pool selalu di dalam batas, hanya naik saat pool benar-benar jenuh, dan
+ * hanya turun saat ada koneksi yang tidak terpakai.
+ */
+public class PoolAdaptifPropertyTest {
+
+    private static final double TARGET_MS = 10;
+
+    /**
+     * Property: Ukuran baru selalu di [batasBawah, batasAtas] untuk masukan apa pun.
+     */
+    @Property(tries = 500)
+    void ukuranSelaluDalamBatas(
+            @ForAll @IntRange(min = 1, max = 50) int ukuran,
+            @ForAll @IntRange(min = 1, max = 20) int batasBawah,
+            @ForAll @IntRange(min = 0, max = 40) int rentang,
+            @ForAll @DoubleRange(min = 0, max = 1000) double p95TungguMs,
+            @ForAll @IntRange(min = 0, max = 60) int puncak,
+            @ForAll @LongRange(min = 0, max = 5) long timeout) {
+
+        int batasAtas = batasBawah + rentang;
+        int baru = PengaturPoolAdaptif.ukuranBaru(ukuran, batasBawah, batasAtas, TARGET_MS,
+            new MetrikPool.JendelaPool(100, p95TungguMs, puncak, timeout));
+
+        assert baru >= batasBawah && baru <= batasAtas
+            : String.format("Ukuran %d di luar batas %d-%d", baru, batasBawah, batasAtas);
+    }
+
+    /**
+     * Property: Pool yang jenuh tidak pernah mengecil, dan tumbuh jika belum di batas atas.
+     * Tunggu tinggi tanpa semua koneksi terpakai (dan tanpa timeout) tidak menambah ukuran.
+     */
+    @Property(tries = 500)
+    void naikHanyaSaatJenuh(
+            @ForAll @IntRange(min = 1, max = 30) int ukuran,
+            @ForAll @DoubleRange(min = 10.5, max = 1000) double p95TungguMs,
+            @ForAll @IntRange(min = 0, max = 40) int puncak) {
+
+        int batasAtas = 40;
+        int baru = PengaturPoolAdaptif.ukuranBaru(ukuran, 1, batasAtas, TARGET_MS,
+            new MetrikPool.JendelaPool(100, p95TungguMs, puncak, 0));
+
+        if (puncak >= ukuran) {
+            assert baru > ukuran : String.format("Pool jenuh %d tidak bertambah", ukuran);
+        } else {
+            assert baru == ukuran
+                : String.format("Pool %d berubah ke %d padahal baru %d koneksi dipakai", ukuran, baru, puncak);
+        }
+    }
+
+    /**
+     * Property: Pool hanya turun satu per putaran dan tidak di bawah puncak pemakaian + 1.
+     */
+    @Property(tries = 500)
+    void turunPelanDanMenyisakanKoneksi(
+            @ForAll @IntRange(min = 2, max = 40) int ukuran,
+            @ForAll @DoubleRange(min = 0, max = 2.5) double p95TungguMs,
+            @ForAll @IntRange(min = 0, max = 40) int puncak) {
+
+        int baru = PengaturPoolAdaptif.ukuranBaru(ukuran, 1, 40, TARGET_MS,
+            new MetrikPool.JendelaPool(100, p95TungguMs, puncak, 0));
+
+        assert baru >= ukuran - 1 : "Pool turun lebih dari satu: " + ukuran + " -> " + baru;
+        if (baru < ukuran) {
+            assert baru > puncak : "Pool " + baru + " lebih kecil dari puncak pemakaian " + puncak;
+        }
+    }
+
+    /**
+     * Property: Beban konstan yang melebihi ukuran awal membuat pool tumbuh sampai
+     * tidak jenuh lagi (atau mencapai batas atas), lalu ukurannya stabil.
+     */
+    @Property(tries = 200)
+    void konvergenPadaBebanKonstan(
+            @ForAll @IntRange(min = 1, max = 10) int ukuranAwal,
+            @ForAll @IntRange(min = 1, max = 40) int permintaanBersamaan) {
+
+        int batasAtas = 30;
+        int ukuran = ukuranAwal;
+        List<Integer> riwayat = new ArrayList<>();
+        for (int putaran = 0; putaran < 50; putaran++) {
+            // Model sederhana: permintaan di atas ukuran pool harus menunggu lama
+            boolean menunggu = permintaanBersamaan > ukuran;
+            int puncak = Math.min(permintaanBersamaan, ukuran);
+            ukuran = PengaturPoolAdaptif.ukuranBaru(ukuran, ukuranAwal, batasAtas, TARGET_MS,
+                new MetrikPool.JendelaPool(100, menunggu ? 50 : 0.5, puncak, 0));
+            riwayat.add(ukuran);
+        }
+
+        int akhir = riwayat.get(riwayat.size() - 1);
+        int diharapkanMin = Math.min(batasAtas, Math.max(ukuranAwal, permintaanBersamaan));
+        assert akhir >= diharapkanMin : "Pool berhenti di " + akhir + ", riwayat " + riwayat;
+        assert akhir <= Math.max(ukuranAwal, permintaanBersamaan + 1) + permintaanBersamaan / 4 + 1
+            : "Pool tumbuh berlebihan: " + riwayat;
+        assert riwayat.get(40).equals(akhir) : "Ukuran pool masih berayun: " + riwayat;
+    }
+}
@@ -0,0 +1,185 @@
+package com.mrh.buscharter.event;
+
+import net.jqwik.api.*;
+import net.jqwik.api.constraints.*;
+
+import java.time.Duration;
+import java.util.*;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Property-based test untuk EventBus mode async.
+ *
+ * **Property 7: Domain Boundary Tidak Dilanggar**
+ * **Validates: Requirements 14.1, 14.2, 15.1, 15.2**
+ *
+ * Handler async tetap menerima event yang di-publish, dengan urutan per tipe event
+ * terjaga, tanpa menahan thread publisher.
+ */
+public class EventBusAsyncPropertyTest {
+
+    private static final Duration BATAS = Duration.ofSeconds(10);
+
+    /**
+     * Property: Dengan BLOCK atau CALLER_RUNS, semua event diterima tepat sekali
+     * dengan urutan sama seperti urutan publish, berapapun kapasitas antriannya.
+     */
+    @Property(tries = 50)
+    void semuaEventDiterimaBerurutan(
+            @ForAll @IntRange(min = 1, max = 500) int jumlahEvent,
+            @ForAll @IntRange(min = 1, max = 16) int kapasitas,
+            @ForAll boolean callerRuns) {
+
+        EventBus.resetInstance();
+        EventBus eventBus = EventBus.getInstance();
+
+        List<Integer> diterima = Collections.synchronizedList(new ArrayList<>());
+        BackPressure strategi = callerRuns ? BackPressure.CALLER_RUNS : BackPressure.BLOCK;
+        eventBus.subscribeAsync(UrutanEvent.class, event -> diterima.add(event.getUrutan()),
+            OpsiAsync.bawaan().denganKapasitas(kapasitas).denganBackPressure(strategi));
+
+        for (int i = 0; i < jumlahEvent; i++) {
+            eventBus.publish(new UrutanEvent(1L, i));
+        }
+
+        assert eventBus.tungguAntrianKosong(BATAS) : "Antrian tidak kosong dalam batas waktu";
+        assert diterima.size() == jumlahEvent
+            : String.format("Expected %d event, diterima %d", jumlahEvent, diterima.size());
+        for (int i = 0; i < jumlahEvent; i++) {
+            assert diterima.get(i) == i : "Urutan event berubah di posisi " + i + ": " + diterima.get(i);
+        }
+
+        MetrikHandler metrik = eventBus.getMetrik().get(0);
+        assert metrik.diproses() == jumlahEvent : "Metrik diproses tidak sesuai: " + metrik;
+        assert metrik.dibuang() == 0 : "Tidak boleh ada event dibuang: " + metrik;
+
+        EventBus.resetInstance();
+    }
+
+    /**
+     * Property: Publish tidak menunggu handler async yang lambat. Dengan DROP,
+     * event yang tidak muat dibuang dan tercatat, sisanya tetap berurutan.
+     */
+    @Property(tries = 30)
+    void handlerLambatTidakMenahanPublisher(
+            @ForAll @IntRange(min = 1, max = 8) int kapasitas,
+            @ForAll @IntRange(min = 1, max = 100) int jumlahEvent) throws InterruptedException {
+
+        EventBus.resetInstance();
+        EventBus eventBus = EventBus.getInstance();
+
+        CountDownLatch lepas = new CountDownLatch(1);
+        List<Integer> diterima = Collections.synchronizedList(new ArrayList<>());
+        eventBus.subscribeAsync(UrutanEvent.class, event -> {
+            try {
+                lepas.await(BATAS.toMillis(), TimeUnit.MILLISECONDS);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+            diterima.add(event.getUrutan());
+        }, OpsiAsync.bawaan().denganKapasitas(kapasitas).denganBackPressure(BackPressure.DROP));
+
+        // Semua publish selesai walaupun handler masih tertahan
+        for (int i = 0; i < jumlahEvent; i++) {
+            eventBus.publish(new UrutanEvent(1L, i));
+        }
+        MetrikHandler sebelum = eventBus.getMetrik().get(0);
+        assert sebelum.diproses() == 0 : "Handler belum boleh selesai: " + sebelum;
+        assert sebelum.kedalamanAntrian() <= sebelum.kapasitasAntrian()
+            : "Kedalaman antrian melebihi kapasitas: " + sebelum;
+
+        lepas.countDown();
+        assert eventBus.tungguAntrianKosong(BATAS) : "Antrian tidak kosong dalam batas waktu";
+
+        MetrikHandler metrik = eventBus.getMetrik().get(0);
+        assert diterima.size() + metrik.dibuang() == jumlahEvent
+            : String.format("Diterima %d + dibuang %d != %d", diterima.size(), metrik.dibuang(), jumlahEvent);
+        // Paling banyak satu event di worker + isi antrian penuh
+        assert diterima.size() <= metrik.kapasitasAntrian() + 1
+            : "Event diterima melebihi kapasitas antrian: " + diterima.size();
+        for (int i = 1; i < diterima.size(); i++) {
+            assert diterima.get(i - 1) < diterima.get(i) : "Urutan event berubah: " + diterima;
+        }
+
+        EventBus.resetInstance();
+    }
+
+    /**
+     * Property: Handler async yang error tidak mengganggu handler lain
+     * dan tercatat di metrik gagal.
+     */
+    @Property(tries = 30)
+    void errorHandlerAsyncTerisolasi(@ForAll @IntRange(min = 1, max = 50) int jumlahEvent) {
+        EventBus.resetInstance();
+        EventBus eventBus = EventBus.getInstance();
+
+        AtomicInteger sukses = new AtomicInteger();
+        AtomicInteger sinkron = new AtomicInteger();
+        eventBus.subscribeAsync(UrutanEvent.class, event -> {
+            throw new RuntimeException("Simulated error");
+        });
+        eventBus.subscribeAsync(UrutanEvent.class, event -> sukses.incrementAndGet());
+        eventBus.subscribe(UrutanEvent.class, event -> sinkron.incrementAndGet());
+
+        for (int i = 0; i < jumlahEvent; i++) {
+            eventBus.publish(new UrutanEvent(1L, i));
+        }
+        // Handler sinkron tetap dijalankan di thread publisher
+        assert sinkron.get() == jumlahEvent : "Handler sinkron harus selesai saat publish kembali";
+
+        assert eventBus.tungguAntrianKosong(BATAS) : "Antrian tidak kosong dalam batas waktu";
+        assert sukses.get() == jumlahEvent
+            : String.format("Expected %d event sukses, got %d", jumlahEvent, sukses.get());
+        long totalGagal = eventBus.getMetrik().stream().mapToLong(MetrikHandler::gagal).sum();
+        assert totalGagal == jumlahEvent : "Metrik gagal tidak sesuai: " + totalGagal;
+
+        EventBus.resetInstance();
+    }
+
+    /**
+     * Property: Ring buffer FIFO dan tidak pernah menampung lebih dari kapasitasnya.
+     */
+    @Property(tries = 100)
+    void ringBufferFifoDanBounded(
+            @ForAll @IntRange(min = 1, max = 64) int kapasitas,
+            @ForAll @IntRange(min = 0, max = 200) int jumlah) {
+
+        RingBuffer<Integer> buffer = new RingBuffer<>(kapasitas);
+        int muat = 0;
+        for (int i = 0; i < jumlah; i++) {
+            if (buffer.offer(i)) {
+                muat++;
+            }
+        }
+        assert muat == Math.min(jumlah, buffer.getKapasitas()) : "Jumlah elemen masuk salah: " + muat;
+        assert buffer.getKapasitas() >= kapasitas : "Kapasitas lebih kecil dari diminta";
+
+        for (int i = 0; i < muat; i++) {
+            Integer e = buffer.poll();
+            assert e != null && e == i : "Urutan FIFO salah di posisi " + i + ": " + e;
+        }
+        assert buffer.poll() == null : "Buffer harus kosong";
+    }
+
+    // ==================== Test Event ====================
+
+    public static class UrutanEvent extends DomainEvent {
+        private final int urutan;
+
+        public UrutanEvent(Long tenantId, int urutan) {
+            super(tenantId);
+            this.urutan = urutan;
+        }
+
+        public int getUrutan() {
+            return urutan;
+        }
+
+        @Override
+        public String getEventName() {
+            return "UrutanEvent";
+        }
+    }
+}
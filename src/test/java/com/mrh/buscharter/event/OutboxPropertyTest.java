@@ -0,0 +1,426 @@
+package com.mrh.buscharter.event;
+
+import com.mrh.buscharter.model.Booking;
+import com.mrh.buscharter.model.Payment;
+import com.mrh.buscharter.model.Tenant;
+import com.mrh.buscharter.model.enums.StatusBooking;
+import com.mrh.buscharter.repository.OutboxRepository;
+import jakarta.persistence.EntityManager;
+import net.jqwik.api.*;
+import net.jqwik.api.constraints.*;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InvalidClassException;
+import java.io.ObjectOutputStream;
+import java.io.Serializable;
+import java.math.BigDecimal;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CountDownLatch;
+import java.util.function.Function;
+
+/**
+ * Property-based test untuk transactional outbox.
+ *
+ * **Property 7: Domain Boundary Tidak Dilanggar**
+ * **Validates: Requirements 14.1, 14.2, 15.1, 15.2**
+ *
+ * Event yang sudah di-commit ke outbox selalu sampai ke subscriber (at-least-once),
+ * walaupun aplikasi berhenti sebelum publish, gagal menandai terkirim, handler melempar
+ * exception, atau antrian async membuang event, dan handler idempoten memproses setiap
+ * event tepat sekali.
+ */
+public class OutboxPropertyTest {
+
+    /**
+     * Property: Kombinasi jalur cepat (sebagian "crash") dan relay mengirim semua event;
+     * handler idempoten melihat setiap eventId tepat sekali.
+     *
+     * @param skenario Per event: 0 = terkirim normal, 1 = crash sebelum publish,
+     *                 2 = publish berhasil tapi gagal ditandai (akan terkirim dua kali)
+     */
+    @Property(tries = 100)
+    void semuaEventTerkirimTepatSekaliKeHandlerIdempoten(
+            @ForAll @Size(min = 1, max = 300) List<@IntRange(min = 0, max = 2) Integer> skenario) {
+
+        EventBus eventBus = newEventBus();
+        OutboxPalsu outbox = new OutboxPalsu();
+        OutboxRelay relay = new OutboxRelay(outbox, eventBus);
+
+        Map<String, Integer> diterimaMentah = new HashMap<>();
+        List<String> diterimaIdempoten = new ArrayList<>();
+        eventBus.subscribe(TestEvent.class, e -> diterimaMentah.merge(e.getEventId(), 1, Integer::sum));
+        eventBus.subscribe(TestEvent.class, IdempotentHandler.bungkus(e -> diterimaIdempoten.add(e.getEventId())));
+
+        List<String> ditulis = new ArrayList<>();
+        for (int i = 0; i < skenario.size(); i++) {
+            TestEvent event = new TestEvent(1L, i);
+            outbox.simpan(null, List.of(event)); // "commit"
+            ditulis.add(event.getEventId());
+
+            int s = skenario.get(i);
+            if (s == 1) {
+                continue; // Crash sebelum jalur cepat
+            }
+            outbox.gagalMenandai = s == 2;
+            relay.terbitkanSetelahCommit(List.of(event));
+        }
+
+        // Aplikasi start ulang: relay mengirim yang tertinggal
+        relay.prosesTertinggal();
+
+        assert outbox.belumDiproses() == 0 : "Masih ada baris outbox yang belum diproses";
+        for (String id : ditulis) {
+            assert diterimaMentah.getOrDefault(id, 0) >= 1 : "Event " + id + " tidak pernah terkirim";
+        }
+        assert diterimaIdempoten.size() == ditulis.size()
+            : String.format("Handler idempoten menerima %d event, expected %d",
+                diterimaIdempoten.size(), ditulis.size());
+        assert new HashSet<>(diterimaIdempoten).equals(new HashSet<>(ditulis))
+            : "Handler idempoten menerima event yang salah";
+    }
+
+    /**
+     * Property: Event yang handler-nya gagal tidak ditandai terkirim; relay mengirim ulang
+     * sampai handler berhasil, dan handler idempoten menyelesaikan setiap event tepat sekali.
+     *
+     * @param gagalPerEvent Per event: berapa kali handler gagal sebelum berhasil
+     */
+    @Property(tries = 100)
+    void eventDenganHandlerGagalDikirimUlangSampaiBerhasil(
+            @ForAll @Size(min = 1, max = 100) List<@IntRange(min = 0, max = 3) Integer> gagalPerEvent) {
+
+        EventBus eventBus = newEventBus();
+        OutboxPalsu outbox = new OutboxPalsu();
+        OutboxRelay relay = new OutboxRelay(outbox, eventBus);
+
+        Map<Integer, Integer> percobaan = new HashMap<>();
+        List<Integer> selesai = new ArrayList<>();
+        eventBus.subscribe(TestEvent.class, IdempotentHandler.bungkus(e -> {
+            int ke = percobaan.merge(e.getUrutan(), 1, Integer::sum);
+            if (ke <= gagalPerEvent.get(e.getUrutan())) {
+                throw new IllegalStateException("Simulated handler error");
+            }
+            selesai.add(e.getUrutan());
+        }));
+
+        for (int i = 0; i < gagalPerEvent.size(); i++) {
+            TestEvent event = new TestEvent(1L, i);
+            outbox.simpan(null, List.of(event));
+            relay.terbitkanSetelahCommit(List.of(event));
+        }
+        long gagalJalurCepat = gagalPerEvent.stream().filter(g -> g > 0).count();
+        assert outbox.belumDiproses() == gagalJalurCepat
+            : String.format("%d baris belum diproses, expected %d (handler gagal)",
+                outbox.belumDiproses(), gagalJalurCepat);
+
+        // Setiap putaran relay mencoba lagi yang gagal
+        for (int putaran = 0; putaran < 3; putaran++) {
+            relay.prosesTertinggal();
+        }
+
+        assert outbox.belumDiproses() == 0 : "Masih ada baris outbox yang belum diproses";
+        assert selesai.size() == gagalPerEvent.size()
+            : String.format("Handler selesai %d event, expected %d", selesai.size(), gagalPerEvent.size());
+        assert new HashSet<>(selesai).size() == selesai.size() : "Event diselesaikan lebih dari sekali";
+        for (int i = 0; i < gagalPerEvent.size(); i++) {
+            assert percobaan.get(i) == gagalPerEvent.get(i) + 1
+                : "Event " + i + " dicoba " + percobaan.get(i) + " kali, expected " + (gagalPerEvent.get(i) + 1);
+        }
+    }
+
+    /**
+     * Property: Event yang dibuang antrian async (DROP) tidak ditandai terkirim dan sampai
+     * ke handler lewat relay; yang diterima ditandai setelah handler async selesai.
+     */
+    @Property(tries = 30)
+    void eventDibuangAntrianAsyncDikirimUlangRelay(
+            @ForAll @IntRange(min = 1, max = 60) int jumlahEvent,
+            @ForAll @IntRange(min = 1, max = 8) int kapasitas) throws InterruptedException {
+
+        EventBus eventBus = newEventBus();
+        OutboxPalsu outbox = new OutboxPalsu();
+        OutboxRelay relay = new OutboxRelay(outbox, eventBus);
+
+        CountDownLatch lepas = new CountDownLatch(1);
+        Set<String> diterima = ConcurrentHashMap.newKeySet();
+        eventBus.subscribeAsync(TestEvent.class, e -> {
+            try {
+                lepas.await(); // Tahan worker agar antrian penuh
+            } catch (InterruptedException ex) {
+                Thread.currentThread().interrupt();
+            }
+            diterima.add(e.getEventId());
+        }, OpsiAsync.bawaan().denganKapasitas(kapasitas).denganBackPressure(BackPressure.DROP));
+
+        List<String> ditulis = new ArrayList<>();
+        for (int i = 0; i < jumlahEvent; i++) {
+            TestEvent event = new TestEvent(1L, i);
+            outbox.simpan(null, List.of(event));
+            ditulis.add(event.getEventId());
+            relay.terbitkanSetelahCommit(List.of(event));
+        }
+        assert outbox.belumDiproses() == jumlahEvent : "Event ditandai terkirim sebelum handler async selesai";
+
+        lepas.countDown();
+        assert eventBus.tungguAntrianKosong(Duration.ofSeconds(10)) : "Antrian tidak kosong";
+        // Batch relay juga bisa melebihi antrian; sisanya dibuang lagi dan diambil putaran berikutnya
+        for (int putaran = 0; putaran < jumlahEvent && outbox.belumDiproses() > 0; putaran++) {
+            relay.prosesTertinggal();
+        }
+
+        assert diterima.equals(new HashSet<>(ditulis)) : "Event yang dibuang antrian tidak dikirim ulang";
+        assert outbox.belumDiproses() == 0 : "Masih ada baris outbox yang belum diproses";
+        EventBus.resetInstance();
+    }
+
+    /**
+     * Property: Handler idempoten yang gagal tidak mengingat eventId,
+     * sehingga pengiriman ulang tetap diproses.
+     */
+    @Property(tries = 50)
+    void handlerGagalDiprosesUlangSaatDikirimUlang(@ForAll @IntRange(min = 1, max = 5) int jumlahGagal) {
+        int[] percobaan = {0};
+        int[] sukses = {0};
+        IdempotentHandler<TestEvent> handler = IdempotentHandler.bungkus(e -> {
+            if (++percobaan[0] <= jumlahGagal) {
+                throw new IllegalStateException("Simulated error");
+            }
+            sukses[0]++;
+        });
+
+        TestEvent event = new TestEvent(1L, 0);
+        for (int i = 0; i < jumlahGagal + 3; i++) {
+            try {
+                handler.handle(event);
+            } catch (IllegalStateException ignored) {
+                // Relay akan mengirim ulang
+            }
+        }
+        assert percobaan[0] == jumlahGagal + 1 : "Setelah sukses, duplikat tidak boleh diproses lagi";
+        assert sukses[0] == 1 : "Event harus sukses tepat sekali";
+    }
+
+    /**
+     * Property: Serialisasi payload outbox mempertahankan eventId dan isi event.
+     */
+    @Property(tries = 100)
+    void payloadOutboxRoundTrip(
+            @ForAll @LongRange(min = 1, max = 1000) long tenantId,
+            @ForAll @IntRange(min = 0, max = 1_000_000) int urutan) {
+
+        TestEvent asli = new TestEvent(tenantId, urutan);
+        DomainEvent hasil = OutboxRepository.deserialisasi(OutboxRepository.serialisasi(asli));
+
+        assert hasil instanceof TestEvent : "Tipe event berubah: " + hasil.getClass();
+        TestEvent baca = (TestEvent) hasil;
+        assert baca.getEventId().equals(asli.getEventId()) : "eventId berubah";
+        assert baca.getTenantId().equals(asli.getTenantId()) : "tenantId berubah";
+        assert baca.getOccurredAt().equals(asli.getOccurredAt()) : "occurredAt berubah";
+        assert baca.getUrutan() == urutan : "Isi event berubah";
+        assert baca.getNominal().equals(asli.getNominal()) : "Nominal berubah";
+    }
+
+    /**
+     * Property: Event domain (enum status, BigDecimal, LocalDateTime) lolos filter payload.
+     */
+    @Property(tries = 100)
+    void payloadEventDomainLolosFilter(
+            @ForAll @LongRange(min = 1, max = 1_000_000) long bookingId,
+            @ForAll("statusBooking") StatusBooking statusLama,
+            @ForAll("statusBooking") StatusBooking statusBaru,
+            @ForAll @LongRange(min = 0, max = Long.MAX_VALUE) long nominalSen) {
+
+        Tenant tenant = new Tenant();
+        tenant.setId(7L);
+        Booking booking = new Booking();
+        booking.setId(bookingId);
+        booking.setTenant(tenant);
+        booking.setKodeBooking("BK-" + bookingId);
+        booking.setStatus(statusBaru);
+        Payment payment = new Payment();
+        payment.setId(bookingId + 1);
+        payment.setBooking(booking);
+        payment.setJumlah(BigDecimal.valueOf(nominalSen).movePointLeft(2));
+        payment.setMetode("TRANSFER");
+
+        BookingStatusChangedEvent status = (BookingStatusChangedEvent) OutboxRepository.deserialisasi(
+            OutboxRepository.serialisasi(new BookingStatusChangedEvent(booking, statusLama)));
+        assert status.getStatusLama() == statusLama && status.getStatusBaru() == statusBaru
+            : "Status berubah setelah round trip";
+
+        PaymentReceivedEvent bayar = (PaymentReceivedEvent) OutboxRepository.deserialisasi(
+            OutboxRepository.serialisasi(new PaymentReceivedEvent(payment, booking.getKodeBooking(), 7L)));
+        assert bayar.getJumlah().equals(payment.getJumlah()) : "Jumlah pembayaran berubah";
+        assert bayar.getBookingId().equals(bookingId) : "bookingId berubah";
+    }
+
+    /**
+     * Property: Payload berisi class di luar daftar yang diizinkan ditolak sebelum
+     * objeknya dibuat, baik sebagai objek utama maupun sebagai field event.
+     */
+    @Property(tries = 50)
+    void payloadClassAsingDitolak(
+            @ForAll @Size(min = 0, max = 20) List<@AlphaChars @StringLength(max = 10) String> isi) {
+
+        assertDitolak(tulisObjek(new HashMap<>(Map.of("isi", new ArrayList<>(isi)))), "HashMap");
+        assertDitolak(tulisObjek(new EventBerkoleksi(isi)), "event dengan field ArrayList");
+    }
+
+    @Provide
+    Arbitrary<StatusBooking> statusBooking() {
+        return Arbitraries.of(StatusBooking.values());
+    }
+
+    private static void assertDitolak(byte[] payload, String keterangan) {
+        try {
+            OutboxRepository.deserialisasi(payload);
+            assert false : "Payload " + keterangan + " seharusnya ditolak filter";
+        } catch (IllegalArgumentException e) {
+            // Ditolak filter, bukan sekadar gagal cast setelah objek dibuat
+            assert e.getCause() instanceof InvalidClassException
+                : "Payload " + keterangan + " tidak ditolak filter: " + e.getCause();
+        }
+    }
+
+    private static byte[] tulisObjek(Serializable objek) {
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        try (ObjectOutputStream out = new ObjectOutputStream(bytes)) {
+            out.writeObject(objek);
+        } catch (IOException e) {
+            throw new IllegalStateException(e);
+        }
+        return bytes.toByteArray();
+    }
+
+    private static EventBus newEventBus() {
+        EventBus.resetInstance();
+        return EventBus.getInstance();
+    }
+
+    // ==================== Outbox in-memory ====================
+
+    /**
+     * Tabel outbox di memori: urut ID, menyimpan payload terserialisasi seperti database.
+     */
+    private static class OutboxPalsu extends OutboxRepository {
+        private final TreeMap<Long, byte[]> payload = new TreeMap<>();
+        private final Map<String, Long> idPerEvent = new HashMap<>();
+        private final Set<Long> diproses = new HashSet<>();
+        private final Set<Long> gagalPutaranIni = new HashSet<>();
+        private long urut;
+        boolean gagalMenandai;
+
+        @Override
+        public synchronized void simpan(EntityManager em, List<? extends DomainEvent> events) {
+            for (DomainEvent event : events) {
+                long id = ++urut;
+                payload.put(id, serialisasi(event));
+                idPerEvent.put(event.getEventId(), id);
+            }
+        }
+
+        /**
+         * Tanpa jeda pengiriman ulang: baris gagal dilewati sampai panggilan prosesTertinggal berikutnya.
+         */
+        @Override
+        public synchronized int prosesBatch(int batas, int tenggangDetik,
+                                            Function<List<DomainEvent>, Set<String>> pengirim) {
+            List<Long> batch = payload.keySet().stream()
+                .filter(id -> !diproses.contains(id) && !gagalPutaranIni.contains(id))
+                .limit(batas)
+                .toList();
+            if (batch.isEmpty()) {
+                gagalPutaranIni.clear();
+                return 0;
+            }
+            List<DomainEvent> events = new ArrayList<>();
+            for (Long id : batch) {
+                events.add(deserialisasi(payload.get(id)));
+            }
+            Set<String> berhasil = pengirim.apply(events);
+            int jumlah = 0;
+            for (DomainEvent event : events) {
+                Long id = idPerEvent.get(event.getEventId());
+                if (berhasil.contains(event.getEventId())) {
+                    diproses.add(id);
+                    jumlah++;
+                } else {
+                    gagalPutaranIni.add(id);
+                }
+            }
+            if (jumlah < batas) {
+                gagalPutaranIni.clear();
+            }
+            return jumlah;
+        }
+
+        @Override
+        public synchronized void tandaiTerkirim(Collection<String> eventIds) {
+            if (gagalMenandai) {
+                throw new RuntimeException("Simulated database error");
+            }
+            eventIds.forEach(id -> diproses.add(idPerEvent.get(id)));
+        }
+
+        synchronized long belumDiproses() {
+            return payload.keySet().stream().filter(id -> !diproses.contains(id)).count();
+        }
+    }
+
+    // ==================== Test Event ====================
+
+    public static class TestEvent extends DomainEvent {
+        private static final long serialVersionUID = 1L;
+
+        private final int urutan;
+        private final BigDecimal nominal;
+        private final LocalDateTime waktu;
+
+        public TestEvent(Long tenantId, int urutan) {
+            super(tenantId);
+            this.urutan = urutan;
+            this.nominal = BigDecimal.valueOf(urutan).movePointLeft(2);
+            this.waktu = LocalDateTime.of(2025, 1, 1, 0, 0).plusMinutes(urutan);
+        }
+
+        public int getUrutan() {
+            return urutan;
+        }
+
+        public BigDecimal getNominal() {
+            return nominal;
+        }
+
+        public LocalDateTime getWaktu() {
+            return waktu;
+        }
+
+        @Override
+        public String getEventName() {
+            return "TestEvent";
+        }
+    }
+
+    /**
+     * Event yang membawa koleksi java.util; tidak boleh lolos filter payload outbox.
+     */
+    public static class EventBerkoleksi extends DomainEvent {
+        private static final long serialVersionUID = 1L;
+
+        private final ArrayList<String> isi;
+
+        public EventBerkoleksi(List<String> isi) {
+            super(1L);
+            this.isi = new ArrayList<>(isi);
+        }
+
+        @Override
+        public String getEventName() {
+            return "EventBerkoleksi";
+        }
+    }
+}
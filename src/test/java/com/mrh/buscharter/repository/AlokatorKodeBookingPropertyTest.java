@@ -0,0 +1,110 @@
+package com.mrh.buscharter.repository;
+
+import net.jqwik.api.*;
+import net.jqwik.api.constraints.*;
+
+import java.time.Clock;
+import java.time.Instant;
+import java.time.YearMonth;
+import java.time.ZoneId;
+import java.util.*;
+import java.util.concurrent.*;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Property-based test untuk alokator kode booking.
+ *
+ * **Property 5: Tenant Isolation**
+ * **Validates: Requirements 9.2, 9.3**
+ *
+ * Kode booking unik per tenant per bulan meskipun banyak thread dan banyak client
+ * (masing-masing dengan blok sendiri) mengalokasikan bersamaan; counter tiap tenant terpisah.
+ */
+public class AlokatorKodeBookingPropertyTest {
+
+    private static final Clock JAM = Clock.fixed(Instant.parse("2025-06-15T03:00:00Z"), ZoneId.of("Asia/Jakarta"));
+    private static final int JUMLAH_THREAD = 64;
+    private static final int KODE_PER_THREAD = 200;
+
+    /**
+     * Property: 64 thread di beberapa client tidak pernah mendapat kode kembar.
+     */
+    @Property(tries = 20)
+    void tidakAdaKodeKembarDiBawah64Thread(
+            @ForAll @IntRange(min = 1, max = 50) int ukuranBlok,
+            @ForAll @IntRange(min = 1, max = 4) int jumlahClient) throws Exception {
+
+        CounterTiruan counter = new CounterTiruan();
+        List<AlokatorKodeBooking> clients = new ArrayList<>();
+        for (int i = 0; i < jumlahClient; i++) {
+            clients.add(new AlokatorKodeBooking(counter, ukuranBlok, JAM));
+        }
+
+        Set<String> kode = ConcurrentHashMap.newKeySet();
+        AtomicInteger kembar = new AtomicInteger();
+        CountDownLatch mulai = new CountDownLatch(1);
+        ExecutorService pool = Executors.newFixedThreadPool(JUMLAH_THREAD);
+        try {
+            List<Future<?>> hasil = new ArrayList<>();
+            for (int t = 0; t < JUMLAH_THREAD; t++) {
+                AlokatorKodeBooking alokator = clients.get(t % jumlahClient);
+                long tenantId = t % 2 + 1;
+                hasil.add(pool.submit(() -> {
+                    mulai.await();
+                    for (int i = 0; i < KODE_PER_THREAD; i++) {
+                        if (!kode.add(tenantId + ":" + alokator.berikutnya(tenantId))) {
+                            kembar.incrementAndGet();
+                        }
+                    }
+                    return null;
+                }));
+            }
+            mulai.countDown();
+            for (Future<?> f : hasil) {
+                f.get(30, TimeUnit.SECONDS);
+            }
+        } finally {
+            pool.shutdownNow();
+        }
+
+        assert kembar.get() == 0 : kembar.get() + " kode kembar";
+        assert kode.size() == JUMLAH_THREAD * KODE_PER_THREAD : "Semua alokasi harus menghasilkan kode";
+        assert kode.stream().allMatch(k -> k.matches("[12]:BOOK/2025/06/\\d{3,}"))
+            : "Format kode harus BOOK/YYYY/MM/NNN";
+    }
+
+    /**
+     * Property: Satu client berurutan mendapat nomor 1..n tanpa celah, satu reservasi per blok.
+     */
+    @Property(tries = 50)
+    void satuClientBerurutanTanpaCelah(
+            @ForAll @IntRange(min = 1, max = 20) int ukuranBlok,
+            @ForAll @IntRange(min = 1, max = 100) int jumlah) {
+
+        CounterTiruan counter = new CounterTiruan();
+        AlokatorKodeBooking alokator = new AlokatorKodeBooking(counter, ukuranBlok, JAM);
+
+        for (int i = 1; i <= jumlah; i++) {
+            String expected = String.format("BOOK/2025/06/%03d", i);
+            String kode = alokator.berikutnya(7L);
+            assert kode.equals(expected) : "Expected " + expected + ", dapat " + kode;
+        }
+        int expectedReservasi = (jumlah + ukuranBlok - 1) / ukuranBlok;
+        assert counter.jumlahReservasi.get() == expectedReservasi
+            : "Reservasi database harus satu per blok";
+    }
+
+    /**
+     * Counter in-memory dengan semantik upsert ... RETURNING (atomik per baris).
+     */
+    private static final class CounterTiruan implements AlokatorKodeBooking.Reservasi {
+        private final Map<String, Long> nilai = new HashMap<>();
+        private final AtomicInteger jumlahReservasi = new AtomicInteger();
+
+        @Override
+        public synchronized long reservasiBlok(Long tenantId, YearMonth periode, int ukuran) {
+            jumlahReservasi.incrementAndGet();
+            return nilai.merge(tenantId + "/" + periode, (long) ukuran, Long::sum);
+        }
+    }
+}
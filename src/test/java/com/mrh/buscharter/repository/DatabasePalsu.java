@@ -0,0 +1,210 @@
+package com.mrh.buscharter.repository;
+
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.EntityTransaction;
+import jakarta.persistence.RollbackException;
+import org.hibernate.Session;
+
+import java.lang.reflect.InvocationHandler;
+import java.lang.reflect.Method;
+import java.lang.reflect.Proxy;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Database di memori untuk test UnitOfWork / BaseRepository tanpa PostgreSQL.
+ *
+ * Setiap entityManager() membuat Session tiruan dengan transaksinya sendiri: entity yang
+ * di-persist/merge baru terlihat di tersimpan() setelah commit, rollback membuangnya, dan
+ * commit transaksi yang ditandai rollback-only gagal dengan RollbackException seperti Hibernate.
+ * Entity yang di-persist mendapat ID dari counter (lewat setId(Long) jika ada); terlihat(em)
+ * memberi pandangan transaksi em atas data (read-your-writes).
+ * Query dan doWork (outbox) tidak melakukan apa-apa.
+ *
+ * Pemakaian: UnitOfWork.setSumberEntityManager(db::entityManager), lalu
+ * UnitOfWork.resetSumberEntityManager() setelah test.
+ */
+public class DatabasePalsu {
+
+    private final List<Object> tersimpan = Collections.synchronizedList(new ArrayList<>());
+    private final AtomicLong urutId = new AtomicLong();
+    private final AtomicInteger jumlahEntityManager = new AtomicInteger();
+    private final AtomicInteger jumlahCommit = new AtomicInteger();
+    private final AtomicInteger jumlahRollback = new AtomicInteger();
+
+    public EntityManager entityManager() {
+        jumlahEntityManager.incrementAndGet();
+        return (EntityManager) Proxy.newProxyInstance(Session.class.getClassLoader(),
+            new Class<?>[]{Session.class}, new SesiPalsu());
+    }
+
+    public List<Object> tersimpan() {
+        synchronized (tersimpan) {
+            return new ArrayList<>(tersimpan);
+        }
+    }
+
+    /**
+     * Data yang terlihat dari transaksi em: yang sudah di-commit ditambah perubahan em sendiri
+     * yang belum di-commit (urutan tulis).
+     */
+    public List<Object> terlihat(EntityManager em) {
+        List<Object> hasil = tersimpan();
+        if (Proxy.isProxyClass(em.getClass()) && Proxy.getInvocationHandler(em) instanceof SesiPalsu sesi) {
+            hasil.addAll(sesi.tertunda);
+        }
+        return hasil;
+    }
+
+    public int getJumlahEntityManager() {
+        return jumlahEntityManager.get();
+    }
+
+    public int getJumlahCommit() {
+        return jumlahCommit.get();
+    }
+
+    public int getJumlahRollback() {
+        return jumlahRollback.get();
+    }
+
+    private static Object nilaiDefault(Class<?> tipe) {
+        if (tipe == boolean.class) {
+            return false;
+        }
+        if (tipe == int.class) {
+            return 0;
+        }
+        if (tipe == long.class) {
+            return 0L;
+        }
+        return null;
+    }
+
+    private class SesiPalsu implements InvocationHandler {
+        private final List<Object> tertunda = new ArrayList<>();
+        private final EntityTransaction transaksi = (EntityTransaction) Proxy.newProxyInstance(
+            EntityTransaction.class.getClassLoader(), new Class<?>[]{EntityTransaction.class},
+            new TransaksiPalsu());
+        private boolean aktif;
+        private boolean rollbackOnly;
+        private boolean terbuka = true;
+
+        @Override
+        public Object invoke(Object proxy, Method method, Object[] args) {
+            switch (method.getName()) {
+                case "persist" -> {
+                    beriId(args[0]);
+                    tertunda.add(args[0]);
+                    return null;
+                }
+                case "merge" -> {
+                    tertunda.add(args[0]);
+                    return args[0];
+                }
+                case "getTransaction" -> {
+                    return transaksi;
+                }
+                case "unwrap" -> {
+                    return proxy;
+                }
+                case "isOpen" -> {
+                    return terbuka;
+                }
+                case "close" -> {
+                    terbuka = false;
+                    return null;
+                }
+                case "hashCode" -> {
+                    return System.identityHashCode(proxy);
+                }
+                case "equals" -> {
+                    return proxy == args[0];
+                }
+                case "toString" -> {
+                    return "SesiPalsu";
+                }
+                default -> {
+                    // flush, clear, detach, doWork, find, ...: tidak ada database sungguhan
+                    return nilaiDefault(method.getReturnType());
+                }
+            }
+        }
+
+        private void beriId(Object entity) {
+            try {
+                entity.getClass().getMethod("setId", Long.class).invoke(entity, urutId.incrementAndGet());
+            } catch (ReflectiveOperationException e) {
+                // Entity tanpa setId(Long)
+            }
+        }
+
+        private class TransaksiPalsu implements InvocationHandler {
+            @Override
+            public Object invoke(Object proxy, Method method, Object[] args) {
+                switch (method.getName()) {
+                    case "begin" -> {
+                        if (aktif) {
+                            throw new IllegalStateException("Transaksi sudah aktif");
+                        }
+                        aktif = true;
+                        rollbackOnly = false;
+                        return null;
+                    }
+                    case "commit" -> {
+                        if (!aktif) {
+                            throw new IllegalStateException("Transaksi tidak aktif");
+                        }
+                        if (rollbackOnly) {
+                            batal();
+                            throw new RollbackException("Transaksi ditandai rollback-only");
+                        }
+                        tersimpan.addAll(tertunda);
+                        tertunda.clear();
+                        aktif = false;
+                        jumlahCommit.incrementAndGet();
+                        return null;
+                    }
+                    case "rollback" -> {
+                        batal();
+                        return null;
+                    }
+                    case "setRollbackOnly" -> {
+                        if (!aktif) {
+                            throw new IllegalStateException("Transaksi tidak aktif");
+                        }
+                        rollbackOnly = true;
+                        return null;
+                    }
+                    case "getRollbackOnly" -> {
+                        return rollbackOnly;
+                    }
+                    case "isActive" -> {
+                        return aktif;
+                    }
+                    case "hashCode" -> {
+                        return System.identityHashCode(proxy);
+                    }
+                    case "equals" -> {
+                        return proxy == args[0];
+                    }
+                    case "toString" -> {
+                        return "TransaksiPalsu";
+                    }
+                    default -> {
+                        return nilaiDefault(method.getReturnType());
+                    }
+                }
+            }
+
+            private void batal() {
+                tertunda.clear();
+                aktif = false;
+                jumlahRollback.incrementAndGet();
+            }
+        }
+    }
+}
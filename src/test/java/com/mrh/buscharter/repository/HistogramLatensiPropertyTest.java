@@ -0,0 +1,111 @@
+package com.mrh.buscharter.repository;
+
+import net.jqwik.api.*;
+import net.jqwik.api.constraints.*;
+
+import java.util.*;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+/**
+ * Property-based test untuk HistogramLatensi dan MetrikQuery (instrumentasi BaseRepository).
+ *
+ * **Property 7: Domain Boundary Tidak Dilanggar**
+ * **Validates: Requirements 14.1, 14.2**
+ *
+ * Persentil yang dilaporkan tidak pernah di bawah nilai sebenarnya dan paling banyak ~3% di atasnya,
+ * pencatatan dari banyak thread tidak kehilangan hitungan, dan literal SQL tidak pernah sampai ke log.
+ */
+public class HistogramLatensiPropertyTest {
+
+    /**
+     * Property: Persentil histogram berada di [nilai sebenarnya, nilai sebenarnya * (1 + 1/32)].
+     */
+    @Property(tries = 200)
+    void persentilDalamBatasGalat(
+            @ForAll @Size(min = 1, max = 500) List<@LongRange(min = 0, max = 10_000_000_000L) Long> nilai,
+            @ForAll @DoubleRange(min = 0, max = 100) double persen) {
+
+        HistogramLatensi histogram = new HistogramLatensi();
+        nilai.forEach(histogram::catat);
+
+        List<Long> urut = new ArrayList<>(nilai);
+        Collections.sort(urut);
+        int peringkat = (int) Math.max(1, Math.ceil(persen / 100.0 * urut.size()));
+        long sebenarnya = urut.get(peringkat - 1);
+        long dilaporkan = histogram.persentil(persen);
+
+        assert dilaporkan >= sebenarnya
+            : String.format("p%.2f dilaporkan %d di bawah nilai sebenarnya %d", persen, dilaporkan, sebenarnya);
+        assert dilaporkan <= sebenarnya + sebenarnya / 32
+            : String.format("p%.2f dilaporkan %d, galat terlalu besar dari %d", persen, dilaporkan, sebenarnya);
+        assert histogram.getJumlah() == nilai.size() : "Jumlah tidak sesuai";
+        assert histogram.getMaks() == urut.get(urut.size() - 1) : "Maks tidak sesuai";
+    }
+
+    /**
+     * Property: Setiap nilai jatuh di bucket yang batas atasnya >= nilai dan batas bucket
+     * sebelumnya < nilai (bucket tidak tumpang tindih dan tidak berlubang).
+     */
+    @Property(tries = 500)
+    void bucketMenutupSemuaNilai(@ForAll @LongRange(min = 0, max = Long.MAX_VALUE) long v) {
+        int indeks = HistogramLatensi.indeks(v);
+        assert HistogramLatensi.batasAtas(indeks) >= v : "Batas atas bucket di bawah nilai " + v;
+        if (indeks > 0) {
+            assert HistogramLatensi.batasAtas(indeks - 1) < v : "Nilai " + v + " juga masuk bucket sebelumnya";
+        }
+    }
+
+    /**
+     * Property: Pencatatan paralel ke MetrikQuery tidak kehilangan panggilan, baris, maupun gagal.
+     */
+    @Property(tries = 20)
+    void pencatatanParalelTidakHilang(
+            @ForAll @IntRange(min = 1, max = 8) int jumlahThread,
+            @ForAll @IntRange(min = 1, max = 2000) int perThread,
+            @ForAll @IntRange(min = 0, max = 50) int baris) throws Exception {
+
+        MetrikQuery metrik = new MetrikQuery();
+        ExecutorService pool = Executors.newFixedThreadPool(jumlahThread);
+        try {
+            List<Future<?>> hasil = new ArrayList<>();
+            for (int t = 0; t < jumlahThread; t++) {
+                hasil.add(pool.submit(() -> {
+                    for (int i = 0; i < perThread; i++) {
+                        metrik.catat("TesRepository.cari", 1_000L + i, baris, i % 10 == 0, List.of());
+                    }
+                }));
+            }
+            for (Future<?> f : hasil) {
+                f.get();
+            }
+        } finally {
+            pool.shutdownNow();
+        }
+
+        RingkasanQuery r = metrik.getRingkasanQuery().get(0);
+        long gagalPerThread = (perThread + 9) / 10;
+        assert r.jumlah() == (long) jumlahThread * perThread : "Jumlah panggilan hilang: " + r;
+        assert r.gagal() == jumlahThread * gagalPerThread : "Jumlah gagal tidak sesuai: " + r;
+        assert r.rataBaris() == baris : "Rata-rata baris tidak sesuai: " + r;
+        assert r.lambat() == 0 : "Tidak ada panggilan di atas ambang: " + r;
+    }
+
+    /**
+     * Property: SQL yang ditulis ke log query lambat tidak lagi memuat literal string maupun angka.
+     */
+    @Property(tries = 200)
+    void literalSqlDisamarkan(
+            @ForAll @AlphaChars @StringLength(min = 1, max = 20) String teks,
+            @ForAll @LongRange(min = 0, max = Long.MAX_VALUE) long angka) {
+
+        String sql = "select v1_0.id from vehicles v1_0 where v1_0.plate_number='" + teks.replace("'", "''")
+            + "' and v1_0.tenant_id=" + angka + " and v1_0.id=?";
+        String disamarkan = PemeriksaSql.samarkan(sql);
+
+        assert !disamarkan.contains("'") : "Literal string masih ada: " + disamarkan;
+        assert !disamarkan.contains("=" + angka) : "Literal angka masih ada: " + disamarkan;
+        assert disamarkan.contains("v1_0.tenant_id=?") : "Alias/kolom ikut rusak: " + disamarkan;
+    }
+}
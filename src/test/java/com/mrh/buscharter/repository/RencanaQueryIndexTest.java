@@ -0,0 +1,165 @@
+package com.mrh.buscharter.repository;
+
+import com.mrh.buscharter.config.DatabaseConfig;
+import org.junit.jupiter.api.AfterAll;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Test;
+
+import java.sql.Connection;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.Properties;
+
+import static org.junit.jupiter.api.Assumptions.assumeTrue;
+
+/**
+ * Regresi index query (db/migrasi/V4__index_query.sql, V8__trip_assignments_exclusion.sql).
+ *
+ * SQL di sini padanan JPQL di TripAssignmentRepository, VehicleRepository, PaymentRepository
+ * dan BookingChargeRepository. EXPLAIN dijalankan dengan enable_seqscan = off: jika masih
+ * ada Seq Scan pada tabel, tidak ada index yang cocok dengan predikat query (mis. kolom atau
+ * predikat partial index berubah). Partial index dan GiST tidak bisa diwakili H2, jadi test
+ * butuh PostgreSQL; tanpa -Dbenchmark.db.url test dilewati.
+ *
+ * Jalankan dengan:
+ * mvn test -Dtest=RencanaQueryIndexTest -Dbenchmark.db.url=jdbc:postgresql://localhost:5432/mrh_buscharter
+ *     -Dbenchmark.db.username=... -Dbenchmark.db.password=...
+ */
+public class RencanaQueryIndexTest {
+
+    private static final String STATUS_AKTIF = "('DP_DITERIMA', 'LUNAS', 'SELESAI')";
+
+    @BeforeAll
+    static void setup() {
+        String url = System.getProperty("benchmark.db.url");
+        assumeTrue(url != null, "benchmark.db.url tidak di-set, test rencana query dilewati");
+
+        Properties props = new Properties();
+        props.setProperty("db.url", url);
+        props.setProperty("db.username", System.getProperty("benchmark.db.username", "mrh_user"));
+        props.setProperty("db.password", System.getProperty("benchmark.db.password", ""));
+        props.setProperty("hibernate.dialect", "org.hibernate.dialect.PostgreSQLDialect");
+        props.setProperty("hibernate.hbm2ddl.auto", "validate");
+        DatabaseConfig.initialize(props);
+    }
+
+    @AfterAll
+    static void tutup() {
+        DatabaseConfig.shutdown();
+    }
+
+    @Test
+    void semuaMigrasiDiterapkan() throws SQLException {
+        try (Connection c = DatabaseConfig.getDataSource().getConnection();
+             Statement st = c.createStatement();
+             ResultSet rs = st.executeQuery("SELECT MAX(version) FROM schema_migration")) {
+            rs.next();
+            assert rs.getInt(1) == 9 : "Versi skema harus 9, dapat " + rs.getInt(1);
+        }
+    }
+
+    @Test
+    void jadwalVehicleMemakaiIndex() throws SQLException {
+        String rencana = rencana(
+            "SELECT ta.id, t.start_datetime FROM trip_assignments ta " +
+            "JOIN trips t ON t.id = ta.trip_id JOIN bookings b ON b.id = t.booking_id " +
+            "WHERE ta.vehicle_id = 1 AND ta.assignment_status <> 'BATAL' " +
+            "AND b.status IN " + STATUS_AKTIF + " " +
+            "AND t.start_datetime <= '2025-01-31' AND t.end_datetime >= '2025-01-01' " +
+            "ORDER BY t.start_datetime");
+        tanpaSeqScan(rencana, "trip_assignments", "trips", "bookings");
+    }
+
+    @Test
+    void jadwalDriverMemakaiIndex() throws SQLException {
+        String rencana = rencana(
+            "SELECT ta.id FROM trip_assignments ta " +
+            "WHERE (ta.driver_id IN (1, 2) OR ta.co_driver_id IN (1, 2)) " +
+            "AND ta.assignment_status <> 'BATAL'");
+        tanpaSeqScan(rencana, "trip_assignments");
+    }
+
+    @Test
+    void assignmentPerTripMemakaiIndex() throws SQLException {
+        tanpaSeqScan(rencana("SELECT * FROM trip_assignments WHERE trip_id = 1"), "trip_assignments");
+    }
+
+    @Test
+    void tripDalamRentangMemakaiIndex() throws SQLException {
+        String rencana = rencana(
+            "SELECT t.id FROM trips t JOIN bookings b ON b.id = t.booking_id " +
+            "WHERE b.tenant_id = 1 AND t.start_datetime <= '2025-01-31' AND t.end_datetime >= '2025-01-01'");
+        tanpaSeqScan(rencana, "trips", "bookings");
+    }
+
+    @Test
+    void bookingPerTenantStatusMemakaiIndex() throws SQLException {
+        tanpaSeqScan(rencana("SELECT id FROM bookings WHERE tenant_id = 1 AND status IN " + STATUS_AKTIF),
+            "bookings");
+    }
+
+    @Test
+    void vehicleAktifMemakaiIndex() throws SQLException {
+        String rencana = rencana(
+            "SELECT * FROM vehicles WHERE tenant_id = 1 AND is_active = true " +
+            "ORDER BY vehicle_type, code_name");
+        tanpaSeqScan(rencana, "vehicles");
+    }
+
+    @Test
+    void paymentMemakaiIndex() throws SQLException {
+        tanpaSeqScan(rencana("SELECT * FROM payments WHERE booking_id = 1 ORDER BY payment_date DESC"),
+            "payments");
+        tanpaSeqScan(rencana(
+            "SELECT p.* FROM payments p JOIN bookings b ON b.id = p.booking_id " +
+            "WHERE b.tenant_id = 1 AND p.payment_date BETWEEN '2025-01-01' AND '2025-01-31' " +
+            "ORDER BY p.payment_date DESC"),
+            "payments", "bookings");
+    }
+
+    @Test
+    void bookingChargeMemakaiIndex() throws SQLException {
+        tanpaSeqScan(rencana(
+            "SELECT COALESCE(SUM(total_price), 0) FROM booking_charges " +
+            "WHERE booking_id = 1 AND charge_type IN ('UTAMA', 'TAMBAHAN')"),
+            "booking_charges");
+    }
+
+    @Test
+    void exclusionConstraintVehicleAda() throws SQLException {
+        try (Connection c = DatabaseConfig.getDataSource().getConnection();
+             Statement st = c.createStatement();
+             ResultSet rs = st.executeQuery(
+                 "SELECT contype FROM pg_constraint WHERE conname = 'ex_trip_assignments_vehicle_overlap'")) {
+            assert rs.next() && "x".equals(rs.getString(1))
+                : "Exclusion constraint ex_trip_assignments_vehicle_overlap tidak ada";
+        }
+    }
+
+    private static String rencana(String sql) throws SQLException {
+        try (Connection c = DatabaseConfig.getDataSource().getConnection()) {
+            c.setAutoCommit(false);
+            try (Statement st = c.createStatement()) {
+                st.execute("SET LOCAL enable_seqscan = off");
+                StringBuilder hasil = new StringBuilder();
+                try (ResultSet rs = st.executeQuery("EXPLAIN " + sql)) {
+                    while (rs.next()) {
+                        hasil.append(rs.getString(1)).append('\n');
+                    }
+                }
+                return hasil.toString();
+            } finally {
+                c.rollback();
+                c.setAutoCommit(true);
+            }
+        }
+    }
+
+    private static void tanpaSeqScan(String rencana, String... tabel) {
+        for (String t : tabel) {
+            assert !rencana.contains("Seq Scan on " + t + " ")
+                : "Seq Scan pada " + t + ", index tidak terpakai:\n" + rencana;
+        }
+    }
+}
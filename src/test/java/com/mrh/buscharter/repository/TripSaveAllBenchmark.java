@@ -0,0 +1,141 @@
+package com.mrh.buscharter.repository;
+
+import com.mrh.buscharter.config.DatabaseConfig;
+import com.mrh.buscharter.model.Booking;
+import com.mrh.buscharter.model.Customer;
+import com.mrh.buscharter.model.Tenant;
+import com.mrh.buscharter.model.Trip;
+import jakarta.persistence.EntityManager;
+import org.junit.jupiter.api.AfterAll;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Test;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Properties;
+import java.util.function.Consumer;
+
+import static org.junit.jupiter.api.Assumptions.assumeTrue;
+
+/**
+ * Benchmark insert massal trip: save() per baris vs saveAll() dengan batch JDBC.
+ * Butuh PostgreSQL dengan skema aplikasi; tanpa -Dbenchmark.db.url benchmark dilewati.
+ *
+ * Jalankan dengan:
+ * mvn test -Pbenchmark -Dbenchmark.db.url=jdbc:postgresql://localhost:5432/mrh_buscharter
+ *     -Dbenchmark.db.username=... -Dbenchmark.db.password=...
+ *
+ * Data benchmark dibuat di tenant sementara dan dihapus setelahnya.
+ */
+public class TripSaveAllBenchmark {
+
+    private static final LocalDateTime BASE = LocalDateTime.of(2025, 1, 1, 6, 0);
+    private static final int JUMLAH_TRIP = 10_000;
+    private static final int JUMLAH_TRIP_PER_BARIS = 1_000; // save() per baris lambat, cukup sampel
+    private static final int PEMANASAN = 500;
+
+    private static Long tenantId;
+    private static Booking booking;
+
+    @BeforeAll
+    static void setup() {
+        String url = System.getProperty("benchmark.db.url");
+        assumeTrue(url != null, "benchmark.db.url tidak di-set, benchmark database dilewati");
+
+        Properties props = new Properties();
+        props.setProperty("db.url", url);
+        props.setProperty("db.username", System.getProperty("benchmark.db.username", "mrh_user"));
+        props.setProperty("db.password", System.getProperty("benchmark.db.password", ""));
+        props.setProperty("hibernate.dialect", "org.hibernate.dialect.PostgreSQLDialect");
+        props.setProperty("hibernate.hbm2ddl.auto", "validate");
+        DatabaseConfig.initialize(props);
+
+        dalamTransaksi(em -> {
+            String kode = "BENCH-" + System.nanoTime();
+            Tenant tenant = new Tenant("Benchmark saveAll", kode);
+            em.persist(tenant);
+            Customer customer = new Customer(tenant, "Customer Benchmark", "0800000000");
+            em.persist(customer);
+            booking = new Booking(tenant, customer, kode);
+            em.persist(booking);
+            tenantId = tenant.getId();
+        });
+    }
+
+    @AfterAll
+    static void bersihkan() {
+        if (tenantId == null) {
+            return;
+        }
+        dalamTransaksi(em -> {
+            em.createQuery("DELETE FROM Trip t WHERE t.booking.id = :id")
+                .setParameter("id", booking.getId()).executeUpdate();
+            em.createQuery("DELETE FROM Booking b WHERE b.tenant.id = :id")
+                .setParameter("id", tenantId).executeUpdate();
+            em.createQuery("DELETE FROM Customer c WHERE c.tenant.id = :id")
+                .setParameter("id", tenantId).executeUpdate();
+            em.createQuery("DELETE FROM Tenant t WHERE t.id = :id")
+                .setParameter("id", tenantId).executeUpdate();
+        });
+        DatabaseConfig.shutdown();
+    }
+
+    @Test
+    void saveAllSepuluhRibuTrip() {
+        TripRepository repository = new TripRepository();
+
+        // Warm-up JIT, koneksi pool, dan cache statement
+        repository.saveAll(buatTrip(PEMANASAN));
+        for (Trip trip : buatTrip(PEMANASAN / 10)) {
+            repository.save(trip);
+        }
+
+        List<Trip> perBaris = buatTrip(JUMLAH_TRIP_PER_BARIS);
+        long t0 = System.nanoTime();
+        for (Trip trip : perBaris) {
+            repository.save(trip);
+        }
+        double barisPerDetikSave = JUMLAH_TRIP_PER_BARIS / ((System.nanoTime() - t0) / 1e9);
+
+        List<Trip> massal = buatTrip(JUMLAH_TRIP);
+        t0 = System.nanoTime();
+        List<Trip> tersimpan = repository.saveAll(massal);
+        double durasiDetik = (System.nanoTime() - t0) / 1e9;
+        double barisPerDetikSaveAll = JUMLAH_TRIP / durasiDetik;
+
+        System.out.printf("%nsave() per baris : %,10.0f baris/detik (%d trip)%n",
+            barisPerDetikSave, JUMLAH_TRIP_PER_BARIS);
+        System.out.printf("saveAll()        : %,10.0f baris/detik (%d trip, %.2f detik)%n",
+            barisPerDetikSaveAll, JUMLAH_TRIP, durasiDetik);
+        System.out.printf("Percepatan       : %.1fx%n", barisPerDetikSaveAll / barisPerDetikSave);
+
+        assert tersimpan.size() == JUMLAH_TRIP : "Jumlah trip tersimpan tidak sesuai";
+        assert tersimpan.stream().allMatch(t -> t.getId() != null) : "Semua trip harus punya ID";
+        assert barisPerDetikSaveAll > barisPerDetikSave
+            : "saveAll() harus lebih cepat dari save() per baris";
+    }
+
+    private static List<Trip> buatTrip(int jumlah) {
+        List<Trip> trips = new ArrayList<>(jumlah);
+        for (int i = 0; i < jumlah; i++) {
+            LocalDateTime mulai = BASE.plusHours(i * 6L);
+            trips.add(new Trip(booking, mulai, mulai.plusHours(5), "Pool Jakarta", "Bandung"));
+        }
+        return trips;
+    }
+
+    private static void dalamTransaksi(Consumer<EntityManager> operasi) {
+        EntityManager em = DatabaseConfig.getEntityManager();
+        try {
+            em.getTransaction().begin();
+            operasi.accept(em);
+            em.getTransaction().commit();
+        } finally {
+            if (em.getTransaction().isActive()) {
+                em.getTransaction().rollback();
+            }
+            em.close();
+        }
+    }
+}
@@ -0,0 +1,331 @@
+package com.mrh.buscharter.repository;
+
+import com.mrh.buscharter.event.DomainEvent;
+import com.mrh.buscharter.event.EventBus;
+import com.mrh.buscharter.event.OutboxRelay;
+import jakarta.persistence.NoResultException;
+import jakarta.persistence.PersistenceException;
+import jakarta.persistence.RollbackException;
+import net.jqwik.api.*;
+import net.jqwik.api.constraints.*;
+
+import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+
+/**
+ * Property-based test untuk UnitOfWork dan BaseRepository di dalam unit of work.
+ *
+ * **Property 7: Domain Boundary Tidak Dilanggar**
+ * **Validates: Requirements 14.1, 14.2**
+ *
+ * Panggilan bersarang berbagi satu transaksi; kegagalan database di dalamnya membatalkan
+ * semuanya walaupun exception ditangkap, exception aplikasi dari operasi baca tidak;
+ * event hanya di-publish jika unit of work commit; dan metrik query mencatat tiap operasi
+ * terluar sekali, ditambah flush + commit unit of work.
+ */
+public class UnitOfWorkPropertyTest {
+
+    /**
+     * Property: jalankan() bersarang sedalam apa pun memakai satu EntityManager dan commit sekali
+     * di akhir unit of work terluar.
+     */
+    @Property(tries = 100)
+    void bersarangBergabungDanCommitSekali(
+            @ForAll @IntRange(min = 1, max = 6) int kedalaman,
+            @ForAll @IntRange(min = 1, max = 5) int simpanPerLevel) {
+
+        DatabasePalsu db = siapkan();
+        try {
+            RepositoryCatatan repo = new RepositoryCatatan();
+            UnitOfWork.jalankanVoid(() -> bersarang(repo, db, kedalaman, simpanPerLevel));
+
+            assert db.getJumlahEntityManager() == 1
+                : "Unit of work bersarang membuka " + db.getJumlahEntityManager() + " EntityManager";
+            assert db.getJumlahCommit() == 1 : "Commit " + db.getJumlahCommit() + " kali, expected 1";
+            assert db.tersimpan().size() == kedalaman * simpanPerLevel : "Jumlah baris tersimpan salah";
+            assert !UnitOfWork.isAktif() : "Unit of work masih aktif setelah selesai";
+        } finally {
+            UnitOfWork.resetSumberEntityManager();
+        }
+    }
+
+    /**
+     * Property: Kegagalan database di unit of work dalam (baca atau tulis) membuat seluruh unit
+     * of work rollback walaupun pemanggil menangkap exception-nya; tidak ada baris yang tersimpan.
+     */
+    @Property(tries = 100)
+    void gagalDatabaseDiDalamMembatalkanSemua(
+            @ForAll @IntRange(min = 0, max = 5) int simpanSebelum,
+            @ForAll @IntRange(min = 0, max = 5) int simpanSesudah,
+            @ForAll boolean gagalSaatTulis,
+            @ForAll boolean dibungkusSql) {
+
+        DatabasePalsu db = siapkan();
+        try {
+            RepositoryCatatan repo = new RepositoryCatatan();
+            RuntimeException gagal = dibungkusSql
+                ? new IllegalStateException("Driver", new SQLException("deadlock detected", "40P01"))
+                : new PersistenceException("could not execute statement");
+
+            boolean rollback = false;
+            try {
+                UnitOfWork.jalankanVoid(() -> {
+                    simpanBanyak(repo, simpanSebelum, "sebelum");
+                    try {
+                        UnitOfWork.jalankanVoid(() -> {
+                            if (gagalSaatTulis) {
+                                repo.tulisLaluGagal(gagal);
+                            } else {
+                                repo.bacaLaluGagal(gagal);
+                            }
+                        });
+                    } catch (RuntimeException ditangkap) {
+                        // Pemanggil mengabaikan kegagalan dan melanjutkan
+                    }
+                    simpanBanyak(repo, simpanSesudah, "sesudah");
+                });
+            } catch (RollbackException e) {
+                rollback = true;
+            }
+
+            assert rollback : "Unit of work commit setelah operasi database gagal";
+            assert db.tersimpan().isEmpty() : "Ada " + db.tersimpan().size() + " baris tersimpan setelah rollback";
+            assert db.getJumlahCommit() == 0 : "Transaksi ter-commit";
+        } finally {
+            UnitOfWork.resetSumberEntityManager();
+        }
+    }
+
+    /**
+     * Property: Exception aplikasi dari operasi baca (validasi, NoResultException) yang ditangkap
+     * pemanggil tidak menandai rollback; semua yang disimpan tetap di-commit.
+     */
+    @Property(tries = 100)
+    void exceptionAplikasiSaatBacaTidakMembatalkan(
+            @ForAll @IntRange(min = 0, max = 5) int simpanSebelum,
+            @ForAll @IntRange(min = 0, max = 5) int simpanSesudah,
+            @ForAll boolean tidakAdaHasil) {
+
+        DatabasePalsu db = siapkan();
+        try {
+            RepositoryCatatan repo = new RepositoryCatatan();
+            RuntimeException gagal = tidakAdaHasil
+                ? new NoResultException("No result found for query")
+                : new IllegalArgumentException("Booking tidak ditemukan");
+
+            UnitOfWork.jalankanVoid(() -> {
+                simpanBanyak(repo, simpanSebelum, "sebelum");
+                try {
+                    repo.bacaLaluGagal(gagal);
+                } catch (RuntimeException ditangkap) {
+                    assert ditangkap == gagal : "Exception operasi baca harus dilempar apa adanya";
+                }
+                simpanBanyak(repo, simpanSesudah, "sesudah");
+            });
+
+            assert db.getJumlahCommit() == 1 : "Unit of work tidak commit";
+            assert db.getJumlahRollback() == 0 : "Unit of work rollback karena exception aplikasi";
+            assert db.tersimpan().size() == simpanSebelum + simpanSesudah : "Baris yang sudah disimpan hilang";
+        } finally {
+            UnitOfWork.resetSumberEntityManager();
+        }
+    }
+
+    /**
+     * Property: Event dari save(entity, pembuatEvent) di dalam unit of work baru sampai ke
+     * subscriber setelah commit, dan dibuang seluruhnya jika unit of work rollback.
+     */
+    @Property(tries = 100)
+    void eventHanyaTerbitSetelahCommit(
+            @ForAll @IntRange(min = 1, max = 10) int jumlahEvent,
+            @ForAll boolean gagalDiAkhir) {
+
+        DatabasePalsu db = siapkan();
+        EventBus.resetInstance();
+        OutboxRelay.resetInstance();
+        try {
+            RepositoryCatatan repo = new RepositoryCatatan();
+            List<String> diterima = new ArrayList<>();
+            EventBus.getInstance().subscribe(CatatanDisimpanEvent.class, e -> diterima.add(e.getIsi()));
+
+            try {
+                UnitOfWork.jalankanVoid(() -> {
+                    for (int i = 0; i < jumlahEvent; i++) {
+                        repo.simpanDenganEvent(new Catatan("event-" + i));
+                    }
+                    assert diterima.isEmpty() : "Event terbit sebelum unit of work commit";
+                    if (gagalDiAkhir) {
+                        throw new IllegalStateException("Validasi gagal setelah event ditulis");
+                    }
+                });
+            } catch (IllegalStateException e) {
+                assert gagalDiAkhir : "Unit of work gagal tanpa sebab: " + e.getMessage();
+            }
+
+            if (gagalDiAkhir) {
+                assert diterima.isEmpty() : diterima.size() + " event terbit dari unit of work yang rollback";
+                assert db.tersimpan().isEmpty() : "Data tersimpan dari unit of work yang rollback";
+            } else {
+                assert diterima.size() == jumlahEvent
+                    : String.format("Subscriber menerima %d event, expected %d", diterima.size(), jumlahEvent);
+                assert diterima.get(0).equals("event-0") : "Urutan event berubah";
+            }
+        } finally {
+            UnitOfWork.resetSumberEntityManager();
+            EventBus.resetInstance();
+            OutboxRelay.resetInstance();
+        }
+    }
+
+    /**
+     * Property: Di dalam unit of work, metrik query mencatat setiap operasi repository terluar
+     * dengan nama method pemanggilnya, operasi bersarang tidak dicatat dua kali, dan
+     * flush + commit tercatat sekali sebagai UnitOfWork.commit.
+     */
+    @Property(tries = 50)
+    void metrikMencatatOperasiTerluarDanCommit(
+            @ForAll @IntRange(min = 0, max = 5) int simpan,
+            @ForAll @IntRange(min = 0, max = 5) int bacaBersarang,
+            @ForAll @IntRange(min = 0, max = 5) int tandai,
+            @ForAll @IntRange(min = 0, max = 5) int lepas) {
+
+        siapkan();
+        MetrikQuery.resetInstance();
+        try {
+            RepositoryCatatan repo = new RepositoryCatatan();
+            UnitOfWork.jalankanVoid(() -> {
+                simpanBanyak(repo, simpan, "metrik");
+                for (int i = 0; i < bacaBersarang; i++) {
+                    repo.bacaBersarang((long) i);
+                }
+                for (int i = 0; i < tandai; i++) {
+                    repo.tandai(new Catatan("tandai-" + i));
+                }
+                for (int i = 0; i < lepas; i++) {
+                    repo.lepas(new Catatan("lepas-" + i));
+                }
+            });
+
+            Map<String, Long> jumlah = new HashMap<>();
+            MetrikQuery.getInstance().getRingkasanQuery().forEach(r -> jumlah.put(r.nama(), r.jumlah()));
+            assert jumlah.getOrDefault("RepositoryCatatan.save", 0L) == simpan : "save: " + jumlah;
+            assert jumlah.getOrDefault("RepositoryCatatan.bacaBersarang", 0L) == bacaBersarang
+                : "bacaBersarang: " + jumlah;
+            assert !jumlah.containsKey("RepositoryCatatan.findById") : "Operasi bersarang dicatat dua kali: " + jumlah;
+            assert jumlah.getOrDefault("RepositoryCatatan.tandai", 0L) == tandai : "tandai: " + jumlah;
+            assert jumlah.getOrDefault("RepositoryCatatan.lepas", 0L) == lepas : "lepas: " + jumlah;
+            assert jumlah.getOrDefault(UnitOfWork.NAMA_OPERASI_COMMIT, 0L) == 1 : "commit: " + jumlah;
+        } finally {
+            UnitOfWork.resetSumberEntityManager();
+            MetrikQuery.resetInstance();
+        }
+    }
+
+    private static DatabasePalsu siapkan() {
+        DatabasePalsu db = new DatabasePalsu();
+        UnitOfWork.setSumberEntityManager(db::entityManager);
+        return db;
+    }
+
+    private static void bersarang(RepositoryCatatan repo, DatabasePalsu db, int sisa, int simpanPerLevel) {
+        simpanBanyak(repo, simpanPerLevel, "level-" + sisa);
+        if (sisa > 1) {
+            UnitOfWork.jalankanVoid(() -> bersarang(repo, db, sisa - 1, simpanPerLevel));
+        }
+        assert db.getJumlahCommit() == 0 : "Unit of work dalam commit sendiri";
+    }
+
+    private static void simpanBanyak(RepositoryCatatan repo, int jumlah, String awalan) {
+        for (int i = 0; i < jumlah; i++) {
+            repo.save(new Catatan(awalan + "-" + i));
+        }
+    }
+
+    // ==================== Entity & repository tiruan ====================
+
+    public static class Catatan {
+        private Long id;
+        private final String isi;
+
+        public Catatan(String isi) {
+            this.isi = isi;
+        }
+
+        public Long getId() {
+            return id;
+        }
+
+        public void setId(Long id) {
+            this.id = id;
+        }
+
+        public String getIsi() {
+            return isi;
+        }
+    }
+
+    public static class CatatanDisimpanEvent extends DomainEvent {
+        private static final long serialVersionUID = 1L;
+
+        private final String isi;
+
+        public CatatanDisimpanEvent(Catatan catatan) {
+            super(1L);
+            this.isi = catatan.getIsi();
+        }
+
+        public String getIsi() {
+            return isi;
+        }
+
+        @Override
+        public String getEventName() {
+            return "CatatanDisimpan";
+        }
+    }
+
+    private static class RepositoryCatatan extends BaseRepository<Catatan> {
+
+        RepositoryCatatan() {
+            super(Catatan.class);
+        }
+
+        void simpanDenganEvent(Catatan catatan) {
+            save(catatan, c -> List.of(new CatatanDisimpanEvent(c)));
+        }
+
+        Optional<Catatan> bacaBersarang(Long id) {
+            return executeWithEntityManager(em -> findById(id));
+        }
+
+        void tandai(Catatan catatan) {
+            executeInTransactionVoid(em -> em.merge(catatan));
+        }
+
+        void lepas(Catatan catatan) {
+            executeInTransactionVoid(em -> em.merge(catatan));
+        }
+
+        void bacaLaluGagal(RuntimeException gagal) {
+            executeWithEntityManager(em -> {
+                throw gagal;
+            });
+        }
+
+        void tulisLaluGagal(RuntimeException gagal) {
+            executeInTransactionVoid(em -> {
+                em.persist(new Catatan("gagal"));
+                throw gagal;
+            });
+        }
+
+        @Override
+        protected Long getEntityId(Catatan entity) {
+            return entity.getId();
+        }
+    }
+}
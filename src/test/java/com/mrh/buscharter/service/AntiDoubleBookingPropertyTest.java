@@ -1,6 +1,7 @@
 package com.mrh.buscharter.service;
 
 import com.mrh.buscharter.model.*;
+import com.mrh.buscharter.model.dto.JadwalAssignment;
 import com.mrh.buscharter.model.enums.*;
 import net.jqwik.api.*;
 import net.jqwik.api.constraints.*;
@@ -125,6 +126,72 @@ public class AntiDoubleBookingPropertyTest {
         }
     }
 
+    /**
+     * Property: Validasi konflik FleetService melaporkan ID trip yang overlap.
+     * 
+     * For any existing trip T1 and requested trip T2,
+     * evaluasiKonflik reports a conflict with exactly [T1] iff T1 and T2 overlap.
+     */
+    @Property(tries = 100)
+    void validasiKonflikMelaporkanTripYangOverlap(
+            @ForAll("vehicleGenerator") Vehicle vehicle,
+            @ForAll("allOverlapScenariosGenerator") OverlapScenario scenario) {
+        
+        JadwalAssignment existing = new JadwalAssignment(
+            10L, scenario.trip1.getId(), vehicle.getId(), null, null,
+            scenario.trip1.getWaktuMulai(), scenario.trip1.getWaktuSelesai());
+        
+        FleetService.HasilValidasiKonflik hasil = FleetService.evaluasiKonflik(
+            List.of(existing), scenario.trip2.getWaktuMulai(), scenario.trip2.getWaktuSelesai());
+        
+        boolean isOverlap = isTimeOverlap(
+            scenario.trip1.getWaktuMulai(), scenario.trip1.getWaktuSelesai(),
+            scenario.trip2.getWaktuMulai(), scenario.trip2.getWaktuSelesai());
+        
+        // Property: konflik hanya jika overlap, dan trip yang dilaporkan tepat trip1
+        assert hasil.adaKonflik() == isOverlap : "Status konflik tidak sesuai dengan overlap";
+        List<Long> expectedTrip = isOverlap ? List.of(scenario.trip1.getId()) : List.of();
+        assert hasil.getTripKonflik().equals(expectedTrip) 
+            : String.format("Expected trip konflik %s, got %s", expectedTrip, hasil.getTripKonflik());
+    }
+
+    /**
+     * Property: Validasi batch mendeteksi overlap antar trip dalam batch yang sama.
+     * 
+     * For any two planned trips T1, T2 sharing a vehicle (or a driver on different vehicles),
+     * evaluasiKonflikBatch flags both plans iff T1 and T2 overlap.
+     */
+    @Property(tries = 100)
+    void validasiBatchMendeteksiOverlapDalamBatch(
+            @ForAll("vehicleGenerator") Vehicle vehicle,
+            @ForAll("allOverlapScenariosGenerator") OverlapScenario scenario,
+            @ForAll boolean lewatDriver) {
+        
+        // Vehicle sama, atau vehicle berbeda dengan driver yang sama
+        Long vehicle2 = lewatDriver ? vehicle.getId() + 1 : vehicle.getId();
+        Long driverId = lewatDriver ? 7L : null;
+        List<JadwalAssignment> rencana = List.of(
+            new JadwalAssignment(null, scenario.trip1.getId(), vehicle.getId(), driverId, null,
+                scenario.trip1.getWaktuMulai(), scenario.trip1.getWaktuSelesai()),
+            new JadwalAssignment(null, scenario.trip2.getId(), vehicle2, driverId, null,
+                scenario.trip2.getWaktuMulai(), scenario.trip2.getWaktuSelesai()));
+        
+        List<FleetService.HasilValidasiKonflik> hasil = 
+            FleetService.evaluasiKonflikBatch(rencana, List.of(), List.of());
+        
+        boolean isOverlap = isTimeOverlap(
+            scenario.trip1.getWaktuMulai(), scenario.trip1.getWaktuSelesai(),
+            scenario.trip2.getWaktuMulai(), scenario.trip2.getWaktuSelesai());
+        
+        // Property: kedua rencana konflik satu sama lain tepat saat overlap
+        assert hasil.get(0).adaKonflik() == isOverlap : "Rencana 1 tidak sesuai dengan overlap";
+        assert hasil.get(1).adaKonflik() == isOverlap : "Rencana 2 tidak sesuai dengan overlap";
+        if (isOverlap) {
+            assert hasil.get(0).getTripKonflik().equals(List.of(scenario.trip2.getId()));
+            assert hasil.get(1).getTripKonflik().equals(List.of(scenario.trip1.getId()));
+        }
+    }
+
     // ==================== Generators ====================
 
     @Provide
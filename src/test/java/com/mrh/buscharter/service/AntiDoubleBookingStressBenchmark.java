@@ -0,0 +1,213 @@
+package com.mrh.buscharter.service;
+
+import com.mrh.buscharter.config.DatabaseConfig;
+import com.mrh.buscharter.model.Booking;
+import com.mrh.buscharter.model.Customer;
+import com.mrh.buscharter.model.Tenant;
+import com.mrh.buscharter.model.Trip;
+import com.mrh.buscharter.model.Vehicle;
+import com.mrh.buscharter.model.enums.StatusBooking;
+import com.mrh.buscharter.model.enums.StatusKepemilikan;
+import com.mrh.buscharter.model.enums.TipeVehicle;
+import com.mrh.buscharter.repository.TripAssignmentRepository;
+import jakarta.persistence.EntityManager;
+import org.junit.jupiter.api.AfterAll;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Test;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Properties;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Consumer;
+
+import static org.junit.jupiter.api.Assumptions.assumeTrue;
+
+/**
+ * Stress test anti-double-booking: banyak thread meng-assign vehicle yang sama ke trip
+ * yang beririsan secara bersamaan lewat FleetService.assignBusKeTrip (jalur cepat, overlap
+ * ditolak exclusion constraint). Setiap vehicle harus mendapat tepat satu assignment dan
+ * sisanya ditolak sebagai konflik jadwal.
+ * Butuh PostgreSQL dengan migrasi V8; tanpa -Dbenchmark.db.url benchmark dilewati.
+ *
+ * Jalankan dengan:
+ * mvn test -Pbenchmark -Dbenchmark.db.url=jdbc:postgresql://localhost:5432/mrh_buscharter
+ *     -Dbenchmark.db.username=... -Dbenchmark.db.password=...
+ *
+ * Data benchmark dibuat di tenant sementara dan dihapus setelahnya.
+ */
+public class AntiDoubleBookingStressBenchmark {
+
+    private static final LocalDateTime BASE = LocalDateTime.of(2025, 3, 1, 6, 0);
+    private static final int JUMLAH_VEHICLE = 8;
+    private static final int JUMLAH_TRIP = 16;
+    private static final int JUMLAH_THREAD = 32;
+
+    private static Long tenantId;
+    private static final List<Long> tripIds = new ArrayList<>();
+    private static final List<Long> vehicleIds = new ArrayList<>();
+
+    @BeforeAll
+    static void setup() {
+        String url = System.getProperty("benchmark.db.url");
+        assumeTrue(url != null, "benchmark.db.url tidak di-set, benchmark database dilewati");
+
+        Properties props = new Properties();
+        props.setProperty("db.url", url);
+        props.setProperty("db.username", System.getProperty("benchmark.db.username", "mrh_user"));
+        props.setProperty("db.password", System.getProperty("benchmark.db.password", ""));
+        props.setProperty("hibernate.dialect", "org.hibernate.dialect.PostgreSQLDialect");
+        props.setProperty("hibernate.hbm2ddl.auto", "validate");
+        DatabaseConfig.initialize(props);
+        assumeTrue(new TripAssignmentRepository().isKonstrainOverlapAktif(),
+            "Exclusion constraint belum terpasang (migrasi V8), benchmark dilewati");
+
+        dalamTransaksi(em -> {
+            String kode = "BENCH-" + System.nanoTime();
+            Tenant tenant = new Tenant("Benchmark double booking", kode);
+            em.persist(tenant);
+            Customer customer = new Customer(tenant, "Customer Benchmark", "0800000000");
+            em.persist(customer);
+            Booking booking = new Booking(tenant, customer, kode);
+            booking.setStatus(StatusBooking.DP_DITERIMA);
+            em.persist(booking);
+
+            // Semua trip beririsan satu sama lain: satu vehicle hanya bisa memegang satu trip
+            for (int i = 0; i < JUMLAH_TRIP; i++) {
+                Trip trip = new Trip(booking, BASE.plusMinutes(i * 10L), BASE.plusHours(8),
+                    "Pool Jakarta", "Bandung");
+                em.persist(trip);
+                tripIds.add(trip.getId());
+            }
+            for (int i = 0; i < JUMLAH_VEHICLE; i++) {
+                Vehicle vehicle = new Vehicle(tenant, "B " + (7000 + i) + " BNC", TipeVehicle.BIG_BUS,
+                    50, StatusKepemilikan.MILIK_SENDIRI);
+                vehicle.setAktif(true);
+                em.persist(vehicle);
+                vehicleIds.add(vehicle.getId());
+            }
+            tenantId = tenant.getId();
+        });
+    }
+
+    @AfterAll
+    static void bersihkan() {
+        if (tenantId == null) {
+            return;
+        }
+        dalamTransaksi(em -> {
+            em.createQuery("DELETE FROM TripAssignment ta WHERE ta.vehicle.id IN :ids")
+                .setParameter("ids", vehicleIds).executeUpdate();
+            em.createNativeQuery("DELETE FROM domain_event_outbox WHERE tenant_id = :id")
+                .setParameter("id", tenantId).executeUpdate();
+            em.createQuery("DELETE FROM Trip t WHERE t.booking.tenant.id = :id")
+                .setParameter("id", tenantId).executeUpdate();
+            em.createQuery("DELETE FROM Booking b WHERE b.tenant.id = :id")
+                .setParameter("id", tenantId).executeUpdate();
+            em.createQuery("DELETE FROM Vehicle v WHERE v.tenant.id = :id")
+                .setParameter("id", tenantId).executeUpdate();
+            em.createQuery("DELETE FROM Customer c WHERE c.tenant.id = :id")
+                .setParameter("id", tenantId).executeUpdate();
+            em.createQuery("DELETE FROM Tenant t WHERE t.id = :id")
+                .setParameter("id", tenantId).executeUpdate();
+        });
+        DatabaseConfig.shutdown();
+    }
+
+    @Test
+    void assignBersamaanTidakPernahDoubleBooking() throws Exception {
+        FleetService fleetService = new FleetService();
+
+        // Setiap pasangan (trip, vehicle) dicoba tepat sekali, urutan acak
+        List<long[]> permintaan = new ArrayList<>();
+        for (Long tripId : tripIds) {
+            for (Long vehicleId : vehicleIds) {
+                permintaan.add(new long[]{tripId, vehicleId});
+            }
+        }
+        Collections.shuffle(permintaan);
+
+        AtomicInteger berhasil = new AtomicInteger();
+        AtomicInteger konflik = new AtomicInteger();
+        ConcurrentLinkedQueue<Throwable> gagalLain = new ConcurrentLinkedQueue<>();
+        CountDownLatch mulai = new CountDownLatch(1);
+        ExecutorService pool = Executors.newFixedThreadPool(JUMLAH_THREAD);
+        long t0;
+        try {
+            List<Future<?>> hasil = new ArrayList<>();
+            for (long[] p : permintaan) {
+                hasil.add(pool.submit(() -> {
+                    mulai.await();
+                    try {
+                        fleetService.assignBusKeTrip(p[0], p[1], null, null);
+                        berhasil.incrementAndGet();
+                    } catch (IllegalStateException e) {
+                        if (e.getMessage().startsWith("Konflik jadwal")) {
+                            konflik.incrementAndGet();
+                        } else {
+                            gagalLain.add(e);
+                        }
+                    } catch (RuntimeException e) {
+                        gagalLain.add(e);
+                    }
+                    return null;
+                }));
+            }
+            t0 = System.nanoTime();
+            mulai.countDown();
+            for (Future<?> f : hasil) {
+                f.get(60, TimeUnit.SECONDS);
+            }
+        } finally {
+            pool.shutdownNow();
+        }
+        double durasiDetik = (System.nanoTime() - t0) / 1e9;
+
+        System.out.printf("%n%d permintaan, %d thread: %d berhasil, %d konflik, %d gagal lain (%.2f detik, %,.0f assign/detik)%n",
+            permintaan.size(), JUMLAH_THREAD, berhasil.get(), konflik.get(), gagalLain.size(),
+            durasiDetik, permintaan.size() / durasiDetik);
+
+        assert gagalLain.isEmpty() : "Gagal selain konflik jadwal: " + gagalLain.peek();
+        assert berhasil.get() == JUMLAH_VEHICLE
+            : "Setiap vehicle harus mendapat tepat satu trip, berhasil " + berhasil.get();
+        assert konflik.get() == permintaan.size() - JUMLAH_VEHICLE : "Sisa permintaan harus ditolak";
+        assert jumlahPasanganOverlap() == 0 : "Ada assignment overlap tersimpan di database";
+    }
+
+    private static long jumlahPasanganOverlap() {
+        EntityManager em = DatabaseConfig.getEntityManager();
+        try {
+            return em.createQuery(
+                    "SELECT COUNT(a) FROM TripAssignment a, TripAssignment b " +
+                    "WHERE a.vehicle.id IN :ids AND a.vehicle = b.vehicle AND a.id < b.id " +
+                    "AND a.trip.waktuMulai <= b.trip.waktuSelesai " +
+                    "AND a.trip.waktuSelesai >= b.trip.waktuMulai", Long.class)
+                .setParameter("ids", vehicleIds)
+                .getSingleResult();
+        } finally {
+            em.close();
+        }
+    }
+
+    private static void dalamTransaksi(Consumer<EntityManager> operasi) {
+        EntityManager em = DatabaseConfig.getEntityManager();
+        try {
+            em.getTransaction().begin();
+            operasi.accept(em);
+            em.getTransaction().commit();
+        } finally {
+            if (em.getTransaction().isActive()) {
+                em.getTransaction().rollback();
+            }
+            em.close();
+        }
+    }
+}
@@ -0,0 +1,150 @@
+package com.mrh.buscharter.service;
+
+import com.mrh.buscharter.model.BookingCharge;
+import com.mrh.buscharter.model.BookingLedger;
+import com.mrh.buscharter.model.enums.StatusPelunasan;
+import com.mrh.buscharter.model.enums.TipeCharge;
+import net.jqwik.api.*;
+import net.jqwik.api.constraints.*;
+
+import java.math.BigDecimal;
+import java.util.*;
+
+/**
+ * Property-based test untuk Booking Ledger (total berjalan per booking).
+ *
+ * **Property 3: Kalkulasi Grand Total Konsisten**
+ * **Validates: Requirements 3.2, 3.3, 5.2, 5.3, 5.5**
+ *
+ * Ledger yang diperbarui dengan delta (tambah / update / hapus charge, pembayaran)
+ * harus selalu sama dengan perhitungan ulang dari data sumber.
+ */
+public class BookingLedgerPropertyTest {
+
+    /**
+     * Property: Delta berturut-turut = hitung ulang dari charge dan payment akhir.
+     */
+    @Property(tries = 200)
+    void deltaSamaDenganHitungUlang(
+            @ForAll @Size(min = 1, max = 30) List<@From("operasiGenerator") Operasi> operasi) {
+
+        BookingLedger ledger = new BookingLedger(1L, 1L);
+        Map<Integer, BookingCharge> charges = new HashMap<>();
+        BigDecimal totalPembayaran = BigDecimal.ZERO;
+        int nomor = 0;
+
+        for (Operasi op : operasi) {
+            switch (op.jenis()) {
+                case TAMBAH -> {
+                    BookingCharge charge = buatCharge(op.nilai(), op.tipe());
+                    charges.put(nomor++, charge);
+                    BigDecimal[] delta = BookingLedger.kontribusi(charge.getTipeCharge(), charge.getTotalHarga());
+                    ledger.terapkan(delta[0], delta[1], BigDecimal.ZERO);
+                }
+                case UPDATE -> {
+                    BookingCharge charge = pilih(charges, op.indeks());
+                    if (charge == null) continue;
+                    BigDecimal[] lama = BookingLedger.kontribusi(charge.getTipeCharge(), charge.getTotalHarga());
+                    charge.setHargaSatuan(op.nilai());
+                    charge.setTipeCharge(op.tipe());
+                    charge.hitungTotalHarga();
+                    BigDecimal[] baru = BookingLedger.kontribusi(charge.getTipeCharge(), charge.getTotalHarga());
+                    ledger.terapkan(baru[0].subtract(lama[0]), baru[1].subtract(lama[1]), BigDecimal.ZERO);
+                }
+                case HAPUS -> {
+                    BookingCharge charge = pilih(charges, op.indeks());
+                    if (charge == null) continue;
+                    charges.values().remove(charge);
+                    BigDecimal[] delta = BookingLedger.kontribusi(charge.getTipeCharge(), charge.getTotalHarga());
+                    ledger.terapkan(delta[0].negate(), delta[1].negate(), BigDecimal.ZERO);
+                }
+                case BAYAR -> {
+                    totalPembayaran = totalPembayaran.add(op.nilai());
+                    ledger.terapkan(BigDecimal.ZERO, BigDecimal.ZERO, op.nilai());
+                }
+            }
+        }
+
+        BookingLedger hitungUlang = new BookingLedger(1L, 1L);
+        hitungUlang.set(sumCharge(charges.values(), false), sumCharge(charges.values(), true), totalPembayaran);
+
+        assert ledger.getGrandTotal().compareTo(hitungUlang.getGrandTotal()) == 0
+            : String.format("Grand total delta %s != hitung ulang %s", ledger.getGrandTotal(), hitungUlang.getGrandTotal());
+        assert ledger.getTotalPembayaran().compareTo(hitungUlang.getTotalPembayaran()) == 0
+            : "Total pembayaran delta harus sama dengan hitung ulang";
+        assert ledger.getOutstanding().compareTo(hitungUlang.getOutstanding()) == 0
+            : "Outstanding delta harus sama dengan hitung ulang";
+        assert ledger.getStatusPelunasan() == hitungUlang.getStatusPelunasan()
+            : "Status pelunasan delta harus sama dengan hitung ulang";
+    }
+
+    /**
+     * Property: Status pelunasan mengikuti outstanding dan pembayaran.
+     */
+    @Property(tries = 100)
+    void statusPelunasanKonsisten(
+            @ForAll @BigRange(min = "0", max = "100000000") BigDecimal totalCharge,
+            @ForAll @BigRange(min = "0", max = "10000000") BigDecimal totalDiskon,
+            @ForAll @BigRange(min = "0", max = "100000000") BigDecimal totalPembayaran) {
+
+        BookingLedger ledger = new BookingLedger(1L, 1L);
+        ledger.set(totalCharge, totalDiskon, totalPembayaran);
+
+        BigDecimal outstanding = totalCharge.subtract(totalDiskon).subtract(totalPembayaran);
+        assert ledger.getOutstanding().compareTo(outstanding) == 0 : "Outstanding = grand total - pembayaran";
+
+        if (outstanding.compareTo(BigDecimal.ZERO) <= 0) {
+            assert ledger.getStatusPelunasan() == StatusPelunasan.LUNAS && ledger.isLunas();
+        } else if (totalPembayaran.compareTo(BigDecimal.ZERO) > 0) {
+            assert ledger.getStatusPelunasan() == StatusPelunasan.SEBAGIAN && !ledger.isLunas();
+        } else {
+            assert ledger.getStatusPelunasan() == StatusPelunasan.BELUM_BAYAR && !ledger.isLunas();
+        }
+    }
+
+    // ==================== Helpers ====================
+
+    enum JenisOperasi { TAMBAH, UPDATE, HAPUS, BAYAR }
+
+    record Operasi(JenisOperasi jenis, BigDecimal nilai, TipeCharge tipe, int indeks) {}
+
+    private static BookingCharge buatCharge(BigDecimal harga, TipeCharge tipe) {
+        BookingCharge charge = new BookingCharge();
+        charge.setDeskripsi("Test Charge");
+        charge.setKuantitas(1);
+        charge.setHargaSatuan(harga);
+        charge.setTipeCharge(tipe);
+        charge.hitungTotalHarga();
+        return charge;
+    }
+
+    private static BookingCharge pilih(Map<Integer, BookingCharge> charges, int indeks) {
+        if (charges.isEmpty()) {
+            return null;
+        }
+        List<BookingCharge> daftar = new ArrayList<>(charges.values());
+        return daftar.get(indeks % daftar.size());
+    }
+
+    private static BigDecimal sumCharge(Collection<BookingCharge> charges, boolean diskon) {
+        BigDecimal total = BigDecimal.ZERO;
+        for (BookingCharge charge : charges) {
+            if ((charge.getTipeCharge() == TipeCharge.DISKON) == diskon) {
+                total = total.add(charge.getTotalHarga());
+            }
+        }
+        return total;
+    }
+
+    // ==================== Generators ====================
+
+    @Provide
+    Arbitrary<Operasi> operasiGenerator() {
+        return Combinators.combine(
+            Arbitraries.of(JenisOperasi.values()),
+            Arbitraries.bigDecimals().between(BigDecimal.valueOf(100000), BigDecimal.valueOf(50000000)).ofScale(2),
+            Arbitraries.of(TipeCharge.values()),
+            Arbitraries.integers().between(0, 100)
+        ).as(Operasi::new);
+    }
+}
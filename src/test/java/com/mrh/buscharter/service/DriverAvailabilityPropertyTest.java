@@ -0,0 +1,116 @@
+package com.mrh.buscharter.service;
+
+import com.mrh.buscharter.model.Driver;
+import com.mrh.buscharter.model.dto.JadwalAssignment;
+import net.jqwik.api.*;
+import net.jqwik.api.constraints.*;
+
+import java.time.Duration;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.*;
+
+/**
+ * Property-based test untuk aturan ketersediaan driver.
+ *
+ * **Property 6: Availability Engine Akurat**
+ * **Validates: Requirements 1.1, 1.2, 1.4**
+ *
+ * Memastikan bahwa index driver sama dengan pengecekan brute-force:
+ * tugas sebagai driver maupun co-driver, jeda istirahat, dan masa berlaku SIM.
+ */
+public class DriverAvailabilityPropertyTest {
+
+    private static final LocalDateTime BASE = LocalDateTime.of(2025, 1, 1, 0, 0);
+    private static final Duration JEDA = Duration.ofHours(4);
+
+    /**
+     * Property: Driver tersedia ⇔ SIM berlaku dan tidak ada tugas (driver/co-driver)
+     * yang berjarak kurang dari jeda istirahat.
+     *
+     * For any driver D, schedule S and trip [R1, R2],
+     * tersedia(D) == SIM(D) > date(R2) AND no task T of D in S with
+     * T.start < R2 + jeda AND T.end > R1 - jeda.
+     */
+    @Property(tries = 300)
+    void ketersediaanDriverSamaDenganBruteForce(
+            @ForAll("jadwalGenerator") List<JadwalAssignment> jadwal,
+            @ForAll @IntRange(min = 1, max = 5) int nomorDriver,
+            @ForAll @IntRange(min = -1, max = 20) int hariSim,
+            @ForAll @IntRange(min = 0, max = 10 * 24) int mulaiJam,
+            @ForAll @IntRange(min = 1, max = 72) int durasiJam) {
+
+        Long driverId = (long) nomorDriver;
+        Driver driver = new Driver();
+        driver.setId(driverId);
+        driver.setMasaBerlakuSim(hariSim < 0 ? null : LocalDate.from(BASE).plusDays(hariSim));
+
+        LocalDateTime reqMulai = BASE.plusHours(mulaiJam);
+        LocalDateTime reqSelesai = reqMulai.plusHours(durasiJam);
+        IntervalJadwal.Slot trip = new IntervalJadwal.Slot(null, reqMulai, reqSelesai);
+
+        IntervalJadwal jadwalDriver = DriverAvailabilityIndex.jadwalPerDriver(jadwal)
+            .getOrDefault(driverId, IntervalJadwal.kosong());
+        boolean actual = DriverAvailabilityIndex.tersedia(driver, jadwalDriver, trip);
+
+        // Brute-force
+        boolean simOk = driver.getMasaBerlakuSim() == null
+            || driver.getMasaBerlakuSim().isAfter(reqSelesai.toLocalDate());
+        boolean bentrok = false;
+        for (JadwalAssignment ja : jadwal) {
+            boolean bertugas = driver.getId().equals(ja.driverId()) || driver.getId().equals(ja.coDriverId());
+            if (bertugas
+                    && ja.waktuMulai().isBefore(reqSelesai.plus(JEDA))
+                    && ja.waktuSelesai().isAfter(reqMulai.minus(JEDA))) {
+                bentrok = true;
+            }
+        }
+
+        assert actual == (simOk && !bentrok)
+            : String.format("Expected tersedia=%s, got %s", simOk && !bentrok, actual);
+    }
+
+    /**
+     * Property: Jeda tepat sama dengan waktu istirahat diperbolehkan, kurang satu menit tidak.
+     */
+    @Property(tries = 100)
+    void jedaTepatBatasDiperbolehkan(
+            @ForAll @IntRange(min = 0, max = 10 * 24) int mulaiJam,
+            @ForAll @IntRange(min = 1, max = 72) int durasiJam,
+            @ForAll boolean sebagaiCoDriver) {
+
+        LocalDateTime tugasMulai = BASE.plusHours(mulaiJam);
+        LocalDateTime tugasSelesai = tugasMulai.plusHours(durasiJam);
+        JadwalAssignment tugas = new JadwalAssignment(1L, 1L, 1L,
+            sebagaiCoDriver ? 9L : 1L, sebagaiCoDriver ? 1L : null, tugasMulai, tugasSelesai);
+
+        Driver driver = new Driver();
+        driver.setId(1L);
+        IntervalJadwal jadwal = DriverAvailabilityIndex.jadwalPerDriver(List.of(tugas)).get(1L);
+
+        LocalDateTime tepat = tugasSelesai.plus(JEDA);
+        assert DriverAvailabilityIndex.tersedia(driver, jadwal,
+            new IntervalJadwal.Slot(2L, tepat, tepat.plusHours(5)))
+            : "Jeda tepat batas harus diperbolehkan";
+        assert !DriverAvailabilityIndex.tersedia(driver, jadwal,
+            new IntervalJadwal.Slot(2L, tepat.minusMinutes(1), tepat.plusHours(5)))
+            : "Jeda kurang dari batas harus ditolak";
+    }
+
+    // ==================== Generators ====================
+
+    @Provide
+    Arbitrary<List<JadwalAssignment>> jadwalGenerator() {
+        Arbitrary<JadwalAssignment> ja = Combinators.combine(
+            Arbitraries.integers().between(0, 10 * 24),  // jam mulai
+            Arbitraries.integers().between(1, 72),       // durasi jam
+            Arbitraries.integers().between(0, 5),        // driver (0 = tanpa driver)
+            Arbitraries.integers().between(0, 5)         // co-driver (0 = tanpa co-driver)
+        ).as((mulai, durasi, d, cd) -> new JadwalAssignment(
+            null, (long) (mulai * 100 + durasi), 1L,
+            d == 0 ? null : (long) d, cd == 0 ? null : (long) cd,
+            BASE.plusHours(mulai), BASE.plusHours(mulai + durasi)));
+
+        return ja.list().ofMaxSize(30);
+    }
+}
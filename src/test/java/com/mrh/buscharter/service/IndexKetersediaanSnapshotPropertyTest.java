@@ -0,0 +1,233 @@
+package com.mrh.buscharter.service;
+
+import com.mrh.buscharter.model.Driver;
+import com.mrh.buscharter.model.Vehicle;
+import com.mrh.buscharter.model.dto.JadwalAssignment;
+import com.mrh.buscharter.model.enums.TipeVehicle;
+import com.mrh.buscharter.repository.DriverRepository;
+import com.mrh.buscharter.repository.TripAssignmentRepository;
+import com.mrh.buscharter.repository.VehicleRepository;
+import net.jqwik.api.*;
+import net.jqwik.api.constraints.*;
+
+import java.time.LocalDateTime;
+import java.time.temporal.ChronoUnit;
+import java.util.*;
+import java.util.concurrent.*;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.stream.Collectors;
+
+/**
+ * Property-based test untuk pemuatan snapshot index ketersediaan.
+ *
+ * **Property 6: Availability Engine Akurat**
+ * **Validates: Requirements 1.1, 1.4**
+ *
+ * Memastikan bahwa cold start satu tenant (vehicle maupun driver) tidak menahan tenant
+ * lain, dimuat sekali walaupun banyak thread bertanya bersamaan, dan hasil query tidak
+ * membocorkan entity milik snapshot.
+ */
+public class IndexKetersediaanSnapshotPropertyTest {
+
+    private static final Long TENANT_LAMBAT = 1L;
+    private static final Long TENANT_LAIN = 2L;
+    private static final int JUMLAH_VEHICLE = 4;
+    private static final int JUMLAH_DRIVER = 3;
+    private static final LocalDateTime BASE = LocalDateTime.now().truncatedTo(ChronoUnit.DAYS).plusDays(1);
+
+    /**
+     * Property: Cold start tenant yang lambat tidak menahan tenant lain dan dimuat sekali.
+     *
+     * For any number of threads querying a tenant whose load is blocked, queries and
+     * updates for another tenant complete meanwhile, the blocked tenant is loaded exactly
+     * once, and an assignment recorded during the load is visible afterwards.
+     */
+    @Property(tries = 20)
+    void coldStartTidakMenahanTenantLain(@ForAll @IntRange(min = 1, max = 8) int jumlahThread)
+            throws Exception {
+        DatabasePalsu db = new DatabasePalsu();
+        VehicleAvailabilityIndex index = db.vehicleIndex();
+        ExecutorService executor = Executors.newFixedThreadPool(jumlahThread + 1);
+        try {
+            List<Future<List<Vehicle>>> penanya = new ArrayList<>();
+            for (int i = 0; i < jumlahThread; i++) {
+                penanya.add(executor.submit(() -> index.cariVehicleTersedia(
+                    TENANT_LAMBAT, BASE, BASE.plusHours(4), null).orElseThrow()));
+            }
+            assert db.mulaiMuat.await(5, TimeUnit.SECONDS) : "Pemuatan tenant lambat tidak dimulai";
+
+            // Selagi tenant lambat dimuat: tenant lain dan update tetap jalan
+            Future<List<Vehicle>> lain = executor.submit(() -> index.cariVehicleTersedia(
+                TENANT_LAIN, BASE, BASE.plusHours(4), null).orElseThrow());
+            assert lain.get(5, TimeUnit.SECONDS).size() == JUMLAH_VEHICLE
+                : "Query tenant lain tertahan oleh cold start tenant lambat";
+            index.catatAssignment(TENANT_LAMBAT, 1L, 100L, BASE, BASE.plusHours(2));
+            index.invalidateTenant(TENANT_LAIN);
+
+            db.lepas.countDown();
+            for (Future<List<Vehicle>> f : penanya) {
+                assert f.get(5, TimeUnit.SECONDS).size() >= JUMLAH_VEHICLE - 1;
+            }
+
+            // Property: dimuat sekali untuk semua thread
+            assert db.jumlahMuat.get(TENANT_LAMBAT).get() == 1
+                : "Snapshot dimuat " + db.jumlahMuat.get(TENANT_LAMBAT).get() + " kali";
+
+            // Property: assignment yang dicatat saat pemuatan ikut terbaca
+            List<Long> tersedia = index.cariVehicleTersedia(TENANT_LAMBAT, BASE, BASE.plusHours(4), null)
+                .orElseThrow().stream().map(Vehicle::getId).collect(Collectors.toList());
+            assert !tersedia.contains(1L) : "Assignment selama pemuatan hilang";
+        } finally {
+            db.lepas.countDown();
+            executor.shutdownNow();
+        }
+    }
+
+    /**
+     * Property: Mengubah hasil query tidak mengubah index.
+     *
+     * For any vehicle returned by the index, changing its type and active flag does not
+     * change subsequent answers, and each query returns fresh objects.
+     */
+    @Property(tries = 50)
+    void hasilQueryBerupaSalinan(@ForAll @IntRange(min = 0, max = JUMLAH_VEHICLE - 1) int posisi) {
+        DatabasePalsu db = new DatabasePalsu();
+        db.lepas.countDown();
+        VehicleAvailabilityIndex index = db.vehicleIndex();
+
+        List<Vehicle> pertama = index.cariVehicleTersedia(TENANT_LAMBAT, BASE, BASE.plusHours(4),
+            TipeVehicle.BIG_BUS).orElseThrow();
+        Vehicle diubah = pertama.get(posisi);
+        diubah.setTipeVehicle(TipeVehicle.HIACE);
+        diubah.setAktif(false);
+
+        List<Vehicle> kedua = index.cariVehicleTersedia(TENANT_LAMBAT, BASE, BASE.plusHours(4),
+            TipeVehicle.BIG_BUS).orElseThrow();
+        assert kedua.size() == JUMLAH_VEHICLE : "Perubahan caller bocor ke index";
+        for (Vehicle v : kedua) {
+            assert v.getTipeVehicle() == TipeVehicle.BIG_BUS && v.getAktif();
+            assert pertama.stream().noneMatch(p -> p == v) : "Objek yang sama dibagikan ke dua query";
+        }
+        assert db.vehicles.stream().noneMatch(v -> v == diubah) : "Entity snapshot keluar dari index";
+    }
+
+    /**
+     * Property: Index driver dimuat sekali di luar lock dan mengembalikan salinan.
+     *
+     * For any number of threads querying a tenant whose driver load is blocked, the tenant
+     * is loaded once, a task recorded during the load is visible afterwards, drivers that can
+     * run all trips are still found, and changing a returned driver does not change the index.
+     */
+    @Property(tries = 20)
+    void indexDriverDimuatSekaliDanMengembalikanSalinan(
+            @ForAll @IntRange(min = 1, max = 8) int jumlahThread) throws Exception {
+        DatabasePalsu db = new DatabasePalsu();
+        DriverAvailabilityIndex index = db.driverIndex();
+        ExecutorService executor = Executors.newFixedThreadPool(jumlahThread);
+        try {
+            List<Future<List<Driver>>> penanya = new ArrayList<>();
+            for (int i = 0; i < jumlahThread; i++) {
+                penanya.add(executor.submit(() -> index.cariDriverTersedia(
+                    TENANT_LAMBAT, BASE, BASE.plusHours(4)).orElseThrow()));
+            }
+            assert db.mulaiMuat.await(5, TimeUnit.SECONDS) : "Pemuatan driver tidak dimulai";
+            assert index.cariDriverTersedia(TENANT_LAIN, BASE, BASE.plusHours(4)).orElseThrow().size()
+                == JUMLAH_DRIVER : "Query tenant lain tertahan oleh cold start tenant lambat";
+            index.catatAssignment(TENANT_LAMBAT, 1L, 100L, BASE, BASE.plusHours(2));
+
+            db.lepas.countDown();
+            for (Future<List<Driver>> f : penanya) {
+                f.get(5, TimeUnit.SECONDS);
+            }
+            assert db.jumlahMuat.get(TENANT_LAMBAT).get() == 1
+                : "Snapshot driver dimuat " + db.jumlahMuat.get(TENANT_LAMBAT).get() + " kali";
+
+            // Property: tugas selama pemuatan terbaca, irisan semua trip tetap benar
+            List<IntervalJadwal.Slot> trips = List.of(
+                new IntervalJadwal.Slot(200L, BASE, BASE.plusHours(2)),
+                new IntervalJadwal.Slot(201L, BASE.plusDays(3), BASE.plusDays(3).plusHours(2)));
+            List<Driver> untukSemua = index.cariDriverTersediaUntukSemua(TENANT_LAMBAT, trips).orElseThrow();
+            assert untukSemua.stream().map(Driver::getId).collect(Collectors.toList()).equals(List.of(2L, 3L))
+                : "Irisan driver salah: " + untukSemua.stream().map(Driver::getId).collect(Collectors.toList());
+
+            // Property: perubahan caller tidak bocor ke index
+            untukSemua.get(0).setMasaBerlakuSim(BASE.toLocalDate().minusDays(1));
+            assert index.cariDriverTersedia(TENANT_LAMBAT, BASE, BASE.plusHours(2)).orElseThrow().size() == 2
+                : "Perubahan caller bocor ke index driver";
+            assert db.drivers.stream().noneMatch(d -> untukSemua.contains(d))
+                : "Entity snapshot driver keluar dari index";
+        } finally {
+            db.lepas.countDown();
+            executor.shutdownNow();
+        }
+    }
+
+    // ==================== Test Data Classes ====================
+
+    /**
+     * Pengganti database: pemuatan vehicle/driver TENANT_LAMBAT tertahan sampai lepas dibuka.
+     */
+    static class DatabasePalsu {
+        final List<Vehicle> vehicles = new ArrayList<>();
+        final List<Driver> drivers = new ArrayList<>();
+        final CountDownLatch mulaiMuat = new CountDownLatch(1);
+        final CountDownLatch lepas = new CountDownLatch(1);
+        final Map<Long, AtomicInteger> jumlahMuat = new ConcurrentHashMap<>();
+
+        DatabasePalsu() {
+            for (long i = 1; i <= JUMLAH_VEHICLE; i++) {
+                Vehicle v = new Vehicle();
+                v.setId(i);
+                v.setTipeVehicle(TipeVehicle.BIG_BUS);
+                v.setAktif(true);
+                vehicles.add(v);
+            }
+            for (long i = 1; i <= JUMLAH_DRIVER; i++) {
+                Driver d = new Driver();
+                d.setId(i);
+                drivers.add(d);
+            }
+        }
+
+        private void tahanJikaLambat(Long tenantId) {
+            jumlahMuat.computeIfAbsent(tenantId, k -> new AtomicInteger()).incrementAndGet();
+            if (TENANT_LAMBAT.equals(tenantId)) {
+                mulaiMuat.countDown();
+                try {
+                    lepas.await(10, TimeUnit.SECONDS);
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                }
+            }
+        }
+
+        private TripAssignmentRepository tripAssignmentRepository() {
+            return new TripAssignmentRepository() {
+                @Override
+                public List<JadwalAssignment> findJadwalTerpakaiByTenantId(Long tenantId, LocalDateTime sejak) {
+                    return List.of();
+                }
+            };
+        }
+
+        VehicleAvailabilityIndex vehicleIndex() {
+            return new VehicleAvailabilityIndex(new VehicleRepository() {
+                @Override
+                public List<Vehicle> findAktifByTenantId(Long tenantId) {
+                    tahanJikaLambat(tenantId);
+                    return vehicles;
+                }
+            }, tripAssignmentRepository());
+        }
+
+        DriverAvailabilityIndex driverIndex() {
+            return new DriverAvailabilityIndex(new DriverRepository() {
+                @Override
+                public List<Driver> findAktifByTenantId(Long tenantId) {
+                    tahanJikaLambat(tenantId);
+                    return drivers;
+                }
+            }, tripAssignmentRepository());
+        }
+    }
+}
@@ -0,0 +1,226 @@
+package com.mrh.buscharter.service;
+
+import com.mrh.buscharter.event.BookingStatusChangedEvent;
+import com.mrh.buscharter.event.EventBus;
+import com.mrh.buscharter.event.VehicleAssignedEvent;
+import com.mrh.buscharter.model.*;
+import com.mrh.buscharter.model.dto.JadwalAssignment;
+import com.mrh.buscharter.model.enums.StatusBooking;
+import com.mrh.buscharter.model.enums.TipeVehicle;
+import com.mrh.buscharter.repository.DriverRepository;
+import com.mrh.buscharter.repository.TripAssignmentRepository;
+import com.mrh.buscharter.repository.VehicleRepository;
+import net.jqwik.api.*;
+
+import java.time.LocalDateTime;
+import java.time.temporal.ChronoUnit;
+import java.util.*;
+import java.util.stream.Collectors;
+
+/**
+ * Property-based test untuk updater index ketersediaan berbasis event.
+ *
+ * **Property 6: Availability Engine Akurat**
+ * **Validates: Requirements 1.1, 1.2, 1.4**
+ *
+ * Memastikan bahwa index yang diperbarui lewat domain events (tanpa reload)
+ * memberi jawaban yang sama dengan index yang baru dimuat dari database.
+ */
+public class IndexKetersediaanUpdaterPropertyTest {
+
+    private static final Long TENANT_ID = 1L;
+    private static final int JUMLAH_VEHICLE = 4;
+    private static final int JUMLAH_DRIVER = 3;
+    private static final int JUMLAH_BOOKING = 5;
+    private static final LocalDateTime BASE = LocalDateTime.now().truncatedTo(ChronoUnit.DAYS).plusDays(1);
+
+    /**
+     * Property: Index yang diperbarui dari event sama dengan index yang dimuat ulang.
+     *
+     * For any sequence of VehicleAssigned and BookingStatusChanged events applied to a warm index,
+     * every availability query returns the same vehicles and drivers as a cold index built
+     * from the final database state.
+     */
+    @Property(tries = 100)
+    void indexDariEventSamaDenganReload(@ForAll("operasiGenerator") List<int[]> operasi) {
+        DatabasePalsu db = new DatabasePalsu();
+        EventBus.resetInstance();
+        EventBus eventBus = EventBus.getInstance();
+
+        VehicleAvailabilityIndex vehicleIndex = db.vehicleIndex();
+        DriverAvailabilityIndex driverIndex = db.driverIndex();
+        new IndexKetersediaanUpdater(vehicleIndex, driverIndex, db.tripAssignmentRepository())
+            .daftarkan(eventBus);
+
+        // Warm-up: snapshot dimuat sebelum perubahan
+        vehicleIndex.cariVehicleTersedia(TENANT_ID, BASE, BASE.plusHours(1), null);
+        driverIndex.cariDriverTersedia(TENANT_ID, BASE, BASE.plusHours(1));
+
+        for (int[] op : operasi) {
+            Booking booking = db.bookings.get(op[1] % JUMLAH_BOOKING);
+            if (op[0] == 0) {
+                // Assignment baru
+                TripAssignment ta = db.tambahAssignment(booking, op[2], op[3]);
+                eventBus.publish(new VehicleAssignedEvent(ta, TENANT_ID));
+            } else {
+                // Status booking maju (atau batal) sesuai state machine
+                StatusBooking statusLama = booking.getStatus();
+                StatusBooking statusBaru = statusBerikutnya(statusLama, op[0] == 2);
+                if (statusBaru != null) {
+                    booking.setStatus(statusBaru);
+                    eventBus.publish(new BookingStatusChangedEvent(booking, statusLama));
+                }
+            }
+        }
+
+        VehicleAvailabilityIndex vehicleSegar = db.vehicleIndex();
+        DriverAvailabilityIndex driverSegar = db.driverIndex();
+        for (int jam = 0; jam < 10 * 24; jam += 7) {
+            LocalDateTime mulai = BASE.plusHours(jam);
+            LocalDateTime selesai = mulai.plusHours(12);
+
+            // Property: jawaban vehicle dan driver sama dengan index yang baru dimuat
+            assert ids(vehicleIndex.cariVehicleTersedia(TENANT_ID, mulai, selesai, null).orElseThrow(), Vehicle::getId)
+                .equals(ids(vehicleSegar.cariVehicleTersedia(TENANT_ID, mulai, selesai, null).orElseThrow(), Vehicle::getId))
+                : "Index vehicle berbeda dengan reload pada jam " + jam;
+            assert ids(driverIndex.cariDriverTersedia(TENANT_ID, mulai, selesai).orElseThrow(), Driver::getId)
+                .equals(ids(driverSegar.cariDriverTersedia(TENANT_ID, mulai, selesai).orElseThrow(), Driver::getId))
+                : "Index driver berbeda dengan reload pada jam " + jam;
+        }
+
+        EventBus.resetInstance();
+    }
+
+    // ==================== Generators ====================
+
+    @Provide
+    Arbitrary<List<int[]>> operasiGenerator() {
+        return Combinators.combine(
+            Arbitraries.integers().between(0, 2),          // 0 = assign, 1 = status maju, 2 = batal
+            Arbitraries.integers().between(0, JUMLAH_BOOKING - 1),
+            Arbitraries.integers().between(0, 99),         // vehicle/driver
+            Arbitraries.integers().between(0, 9 * 24)      // jam mulai trip
+        ).as((jenis, booking, sumber, jam) -> new int[]{jenis, booking, sumber, jam})
+            .list().ofMinSize(1).ofMaxSize(40);
+    }
+
+    // ==================== Helper Methods ====================
+
+    private static StatusBooking statusBerikutnya(StatusBooking status, boolean batal) {
+        if (batal) {
+            return status.bisaTransisiKe(StatusBooking.BATAL) ? StatusBooking.BATAL : null;
+        }
+        return switch (status) {
+            case DRAFT -> StatusBooking.QUOTATION_SENT;
+            case QUOTATION_SENT -> StatusBooking.DP_DITERIMA;
+            case DP_DITERIMA -> StatusBooking.LUNAS;
+            case LUNAS -> StatusBooking.SELESAI;
+            default -> null;
+        };
+    }
+
+    private static <T> List<Long> ids(List<T> list, java.util.function.Function<T, Long> id) {
+        return list.stream().map(id).collect(Collectors.toList());
+    }
+
+    // ==================== Test Data Classes ====================
+
+    /**
+     * Pengganti database: repository palsu yang membaca state in-memory.
+     */
+    static class DatabasePalsu {
+        final Tenant tenant = new Tenant();
+        final List<Vehicle> vehicles = new ArrayList<>();
+        final List<Driver> drivers = new ArrayList<>();
+        final List<Booking> bookings = new ArrayList<>();
+        final List<TripAssignment> assignments = new ArrayList<>();
+        private long nextId = 1;
+
+        DatabasePalsu() {
+            tenant.setId(TENANT_ID);
+            for (long i = 1; i <= JUMLAH_VEHICLE; i++) {
+                Vehicle v = new Vehicle();
+                v.setId(i);
+                v.setTipeVehicle(TipeVehicle.BIG_BUS);
+                vehicles.add(v);
+            }
+            for (long i = 1; i <= JUMLAH_DRIVER; i++) {
+                Driver d = new Driver();
+                d.setId(i);
+                drivers.add(d);
+            }
+            for (long i = 1; i <= JUMLAH_BOOKING; i++) {
+                Booking b = new Booking();
+                b.setId(i);
+                b.setTenant(tenant);
+                b.setStatus(StatusBooking.DRAFT);
+                bookings.add(b);
+            }
+        }
+
+        TripAssignment tambahAssignment(Booking booking, int sumber, int jamMulai) {
+            Trip trip = new Trip();
+            trip.setId(nextId++);
+            trip.setBooking(booking);
+            trip.setWaktuMulai(BASE.plusHours(jamMulai));
+            trip.setWaktuSelesai(BASE.plusHours(jamMulai + 6 + sumber % 30));
+
+            TripAssignment ta = new TripAssignment(trip, vehicles.get(sumber % JUMLAH_VEHICLE));
+            ta.setId(nextId++);
+            ta.setDriver(drivers.get(sumber % JUMLAH_DRIVER));
+            if (sumber % 4 == 0) {
+                ta.setCoDriver(drivers.get((sumber / 4) % JUMLAH_DRIVER));
+            }
+            assignments.add(ta);
+            return ta;
+        }
+
+        List<JadwalAssignment> jadwal(boolean hanyaBlokir, Long bookingId) {
+            List<JadwalAssignment> hasil = new ArrayList<>();
+            for (TripAssignment ta : assignments) {
+                Trip t = ta.getTrip();
+                if ((hanyaBlokir && !t.getBooking().getStatus().memblokirArmada())
+                        || (bookingId != null && !bookingId.equals(t.getBooking().getId()))) {
+                    continue;
+                }
+                hasil.add(new JadwalAssignment(ta.getId(), t.getId(), ta.getVehicle().getId(),
+                    ta.getDriver() != null ? ta.getDriver().getId() : null,
+                    ta.getCoDriver() != null ? ta.getCoDriver().getId() : null,
+                    t.getWaktuMulai(), t.getWaktuSelesai()));
+            }
+            return hasil;
+        }
+
+        TripAssignmentRepository tripAssignmentRepository() {
+            return new TripAssignmentRepository() {
+                @Override
+                public List<JadwalAssignment> findJadwalTerpakaiByTenantId(Long tenantId, LocalDateTime sejak) {
+                    return jadwal(true, null);
+                }
+
+                @Override
+                public List<JadwalAssignment> findJadwalByBookingId(Long bookingId) {
+                    return jadwal(false, bookingId);
+                }
+            };
+        }
+
+        VehicleAvailabilityIndex vehicleIndex() {
+            return new VehicleAvailabilityIndex(new VehicleRepository() {
+                @Override
+                public List<Vehicle> findAktifByTenantId(Long tenantId) {
+                    return vehicles;
+                }
+            }, tripAssignmentRepository());
+        }
+
+        DriverAvailabilityIndex driverIndex() {
+            return new DriverAvailabilityIndex(new DriverRepository() {
+                @Override
+                public List<Driver> findAktifByTenantId(Long tenantId) {
+                    return drivers;
+                }
+            }, tripAssignmentRepository());
+        }
+    }
+}
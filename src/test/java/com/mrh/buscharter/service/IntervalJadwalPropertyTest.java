@@ -0,0 +1,153 @@
+package com.mrh.buscharter.service;
+
+import net.jqwik.api.*;
+import net.jqwik.api.constraints.*;
+
+import java.time.LocalDateTime;
+import java.util.*;
+import java.util.stream.Collectors;
+
+/**
+ * Property-based test untuk IntervalJadwal (index ketersediaan in-memory).
+ *
+ * **Property 6: Availability Engine Akurat**
+ * **Validates: Requirements 1.1, 1.2, 1.4**
+ *
+ * Memastikan bahwa jawaban index sama dengan pencarian brute-force
+ * menggunakan rumus irisan yang dipakai query repository.
+ */
+public class IntervalJadwalPropertyTest {
+
+    private static final LocalDateTime BASE = LocalDateTime.of(2025, 1, 1, 0, 0);
+
+    /**
+     * Property: Hasil cariOverlap sama dengan brute-force.
+     *
+     * For any set of slots S and request range [R1, R2],
+     * index returns exactly the slots where (SlotMulai <= R2) AND (SlotSelesai >= R1).
+     */
+    @Property(tries = 200)
+    void overlapSamaDenganBruteForce(
+            @ForAll("slotsGenerator") List<IntervalJadwal.Slot> slots,
+            @ForAll @IntRange(min = 0, max = 24 * 60) int mulaiJam,
+            @ForAll @IntRange(min = 0, max = 72) int durasiJam) {
+
+        IntervalJadwal jadwal = IntervalJadwal.dari(slots);
+        LocalDateTime reqMulai = BASE.plusHours(mulaiJam);
+        LocalDateTime reqSelesai = reqMulai.plusHours(durasiJam);
+
+        Set<Long> expected = slots.stream()
+            .filter(s -> isOverlap(s.mulai(), s.selesai(), reqMulai, reqSelesai))
+            .map(IntervalJadwal.Slot::tripId)
+            .collect(Collectors.toSet());
+
+        Set<Long> actual = jadwal.cariOverlap(reqMulai, reqSelesai, null).stream()
+            .map(IntervalJadwal.Slot::tripId)
+            .collect(Collectors.toSet());
+
+        // Property: himpunan trip yang overlap harus sama
+        assert expected.equals(actual)
+            : String.format("Expected %s, got %s", expected, actual);
+        assert jadwal.adaOverlap(reqMulai, reqSelesai, null) == !expected.isEmpty()
+            : "adaOverlap harus konsisten dengan cariOverlap";
+    }
+
+    /**
+     * Property: Trip yang di-exclude tidak pernah muncul sebagai konflik.
+     */
+    @Property(tries = 100)
+    void excludeTripDiabaikan(@ForAll("slotsGenerator") List<IntervalJadwal.Slot> slots) {
+        Assume.that(!slots.isEmpty());
+
+        IntervalJadwal jadwal = IntervalJadwal.dari(slots);
+        IntervalJadwal.Slot target = slots.get(0);
+
+        List<IntervalJadwal.Slot> konflik = jadwal.cariOverlap(
+            target.mulai(), target.selesai(), target.tripId());
+
+        // Property: trip yang di-exclude tidak muncul di hasil
+        for (IntervalJadwal.Slot s : konflik) {
+            assert !s.tripId().equals(target.tripId())
+                : "Trip yang di-exclude tidak boleh muncul sebagai konflik";
+        }
+    }
+
+    /**
+     * Property: sebelum() dan sesudah() sama dengan query trip terakhir/berikutnya.
+     */
+    @Property(tries = 200)
+    void tetanggaSamaDenganBruteForce(
+            @ForAll("slotsGenerator") List<IntervalJadwal.Slot> slots,
+            @ForAll @IntRange(min = 0, max = 24 * 60) int jam) {
+
+        IntervalJadwal jadwal = IntervalJadwal.dari(slots);
+        LocalDateTime waktu = BASE.plusHours(jam);
+
+        // Brute-force: waktuSelesai < waktu ORDER BY waktuSelesai DESC
+        Optional<LocalDateTime> expectedSebelum = slots.stream()
+            .map(IntervalJadwal.Slot::selesai)
+            .filter(t -> t.isBefore(waktu))
+            .max(Comparator.naturalOrder());
+
+        // Brute-force: waktuMulai > waktu ORDER BY waktuMulai ASC
+        Optional<LocalDateTime> expectedSesudah = slots.stream()
+            .map(IntervalJadwal.Slot::mulai)
+            .filter(t -> t.isAfter(waktu))
+            .min(Comparator.naturalOrder());
+
+        assert expectedSebelum.equals(jadwal.sebelum(waktu).map(IntervalJadwal.Slot::selesai))
+            : "Slot sebelumnya harus sama dengan brute-force";
+        assert expectedSesudah.equals(jadwal.sesudah(waktu).map(IntervalJadwal.Slot::mulai))
+            : "Slot berikutnya harus sama dengan brute-force";
+    }
+
+    /**
+     * Property: tambah lalu hapus mengembalikan jadwal semula.
+     */
+    @Property(tries = 100)
+    void tambahLaluHapusKonsisten(
+            @ForAll("slotsGenerator") List<IntervalJadwal.Slot> slots,
+            @ForAll @IntRange(min = 0, max = 24 * 60) int jam) {
+
+        IntervalJadwal jadwal = IntervalJadwal.dari(slots);
+        IntervalJadwal.Slot baru = new IntervalJadwal.Slot(
+            999_999L, BASE.plusHours(jam), BASE.plusHours(jam + 10));
+
+        IntervalJadwal setelahTambah = jadwal.tambah(baru);
+        assert setelahTambah.jumlah() == jadwal.jumlah() + 1 : "Jumlah slot harus bertambah 1";
+        assert setelahTambah.adaOverlap(baru.mulai(), baru.selesai(), null)
+            : "Slot yang baru ditambah harus terdeteksi overlap";
+
+        IntervalJadwal setelahHapus = setelahTambah.hapus(baru.tripId());
+        assert setelahHapus.semuaSlot().equals(jadwal.semuaSlot())
+            : "Tambah lalu hapus harus mengembalikan jadwal semula";
+    }
+
+    // ==================== Generators ====================
+
+    @Provide
+    Arbitrary<List<IntervalJadwal.Slot>> slotsGenerator() {
+        Arbitrary<int[]> slot = Combinators.combine(
+            Arbitraries.integers().between(0, 24 * 60),
+            Arbitraries.integers().between(0, 96)
+        ).as((mulai, durasi) -> new int[]{mulai, durasi});
+
+        return slot.list().ofMaxSize(40).map(list -> {
+            List<IntervalJadwal.Slot> slots = new ArrayList<>();
+            long tripId = 1L;
+            for (int[] s : list) {
+                LocalDateTime mulai = BASE.plusHours(s[0]);
+                slots.add(new IntervalJadwal.Slot(tripId++, mulai, mulai.plusHours(s[1])));
+            }
+            return slots;
+        });
+    }
+
+    // ==================== Helper Methods ====================
+
+    private boolean isOverlap(LocalDateTime t1Start, LocalDateTime t1End,
+                              LocalDateTime t2Start, LocalDateTime t2End) {
+        // Rumus irisan: (TripStart <= RequestEnd) AND (TripEnd >= RequestStart)
+        return !t1Start.isAfter(t2End) && !t1End.isBefore(t2Start);
+    }
+}
@@ -0,0 +1,84 @@
+package com.mrh.buscharter.service;
+
+import com.mrh.buscharter.model.dto.JadwalAssignment;
+import com.mrh.buscharter.model.enums.TipeVehicle;
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.*;
+
+/**
+ * Benchmark kalender ketersediaan (sweep-line).
+ * Tidak ikut test default; jalankan dengan: mvn test -Pbenchmark
+ * 
+ * Mengukur waktu membangun heatmap 90 hari per jam untuk 200 bus dengan
+ * jumlah assignment yang terus dilipatgandakan. Biaya per assignment harus
+ * tetap mendekati konstan (skala linear).
+ */
+public class KalenderKetersediaanBenchmark {
+
+    private static final LocalDateTime BASE = LocalDateTime.of(2025, 1, 1, 0, 0);
+    private static final int JUMLAH_VEHICLE = 200;
+    private static final int JUMLAH_HARI = 90;
+    private static final int PENGULANGAN = 7;
+
+    @Test
+    void skalaLinearTerhadapJumlahAssignment() {
+        Map<Long, TipeVehicle> armada = buatArmada();
+        LocalDateTime mulai = BASE;
+        LocalDateTime selesai = BASE.plusDays(JUMLAH_HARI);
+        Duration granularitas = Duration.ofHours(1);
+
+        int[] ukuran = {10_000, 20_000, 40_000, 80_000, 160_000};
+        double[] nsPerAssignment = new double[ukuran.length];
+
+        // Warm-up JIT
+        List<JadwalAssignment> warmup = buatJadwal(ukuran[ukuran.length - 1], new Random(7));
+        for (int i = 0; i < 5; i++) {
+            KalenderKetersediaan.hitung(mulai, selesai, granularitas, armada, warmup);
+        }
+
+        System.out.printf("%n%-12s %12s %15s%n", "assignment", "median (ms)", "ns/assignment");
+        for (int u = 0; u < ukuran.length; u++) {
+            List<JadwalAssignment> jadwal = buatJadwal(ukuran[u], new Random(u));
+            long[] durasi = new long[PENGULANGAN];
+            for (int r = 0; r < PENGULANGAN; r++) {
+                long t0 = System.nanoTime();
+                KalenderKetersediaan.hitung(mulai, selesai, granularitas, armada, jadwal);
+                durasi[r] = System.nanoTime() - t0;
+            }
+            Arrays.sort(durasi);
+            long median = durasi[PENGULANGAN / 2];
+            nsPerAssignment[u] = (double) median / ukuran[u];
+            System.out.printf("%-12d %12.2f %15.1f%n", ukuran[u], median / 1e6, nsPerAssignment[u]);
+        }
+
+        // Biaya per assignment di ukuran terbesar tidak boleh jauh di atas ukuran terkecil
+        double rasio = nsPerAssignment[ukuran.length - 1] / nsPerAssignment[0];
+        System.out.printf("Rasio ns/assignment (160k vs 10k): %.2f%n", rasio);
+        assert rasio < 3.0 : "Biaya per assignment tumbuh super-linear: rasio " + rasio;
+    }
+
+    // ==================== Helper Methods ====================
+
+    private Map<Long, TipeVehicle> buatArmada() {
+        Map<Long, TipeVehicle> armada = new HashMap<>();
+        TipeVehicle[] tipe = TipeVehicle.values();
+        for (long id = 1; id <= JUMLAH_VEHICLE; id++) {
+            armada.put(id, tipe[(int) (id % tipe.length)]);
+        }
+        return armada;
+    }
+
+    private List<JadwalAssignment> buatJadwal(int jumlah, Random random) {
+        List<JadwalAssignment> jadwal = new ArrayList<>(jumlah);
+        for (int i = 0; i < jumlah; i++) {
+            long vehicleId = 1 + random.nextInt(JUMLAH_VEHICLE);
+            LocalDateTime mulai = BASE.plusHours(random.nextInt(JUMLAH_HARI * 24));
+            LocalDateTime selesai = mulai.plusHours(2 + random.nextInt(70));
+            jadwal.add(new JadwalAssignment((long) i, (long) i, vehicleId, null, null, mulai, selesai));
+        }
+        return jadwal;
+    }
+}
@@ -0,0 +1,128 @@
+package com.mrh.buscharter.service;
+
+import com.mrh.buscharter.model.dto.JadwalAssignment;
+import com.mrh.buscharter.model.enums.TipeVehicle;
+import net.jqwik.api.*;
+import net.jqwik.api.constraints.*;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.*;
+
+/**
+ * Property-based test untuk kalender ketersediaan (sweep-line).
+ * 
+ * **Property 6: Availability Engine Akurat**
+ * **Validates: Requirements 1.1, 1.2, 1.3**
+ * 
+ * Memastikan bahwa setiap sel kalender sama dengan hasil cek ketersediaan
+ * brute-force untuk slot yang sama.
+ */
+public class KalenderKetersediaanPropertyTest {
+
+    private static final LocalDateTime BASE = LocalDateTime.of(2025, 1, 1, 0, 0);
+
+    /**
+     * Property: Setiap sel kalender = jumlah vehicle tanpa assignment overlap di slot tersebut.
+     * 
+     * For any fleet, assignments, and slot granularity,
+     * cell[slot][tipe] == count of active vehicles of tipe with no assignment where
+     * (TripStart <= SlotEnd) AND (TripEnd >= SlotStart).
+     */
+    @Property(tries = 200)
+    void selKalenderSamaDenganBruteForce(
+            @ForAll("armadaGenerator") Map<Long, TipeVehicle> armada,
+            @ForAll("jadwalGenerator") List<JadwalAssignment> jadwal,
+            @ForAll @IntRange(min = 1, max = 48) int granularitasJam,
+            @ForAll @IntRange(min = 1, max = 30 * 24) int panjangJam) {
+        
+        LocalDateTime mulai = BASE.plusDays(2);
+        LocalDateTime selesai = mulai.plusHours(panjangJam);
+        Duration granularitas = Duration.ofHours(granularitasJam);
+        
+        KalenderKetersediaan kalender = KalenderKetersediaan.hitung(
+            mulai, selesai, granularitas, armada, jadwal);
+        
+        for (int i = 0; i < kalender.getJumlahSlot(); i++) {
+            LocalDateTime slotMulai = kalender.getSlotMulai(i);
+            LocalDateTime slotSelesai = kalender.getSlotSelesai(i);
+            
+            for (TipeVehicle tipe : TipeVehicle.values()) {
+                long expected = hitungTersediaBruteForce(armada, jadwal, tipe, slotMulai, slotSelesai);
+                int actual = kalender.getJumlahTersedia(tipe, i);
+                
+                // Property: sel kalender = hasil cek ketersediaan per slot
+                assert expected == actual 
+                    : String.format("Slot %d tipe %s: expected %d, got %d", i, tipe, expected, actual);
+            }
+        }
+    }
+
+    /**
+     * Property: Jumlah slot menutup seluruh rentang tanpa celah.
+     */
+    @Property(tries = 100)
+    void slotMenutupSeluruhRentang(
+            @ForAll @IntRange(min = 1, max = 48) int granularitasJam,
+            @ForAll @IntRange(min = 1, max = 90 * 24) int panjangJam) {
+        
+        LocalDateTime mulai = BASE;
+        LocalDateTime selesai = mulai.plusHours(panjangJam);
+        
+        KalenderKetersediaan kalender = KalenderKetersediaan.hitung(
+            mulai, selesai, Duration.ofHours(granularitasJam), Map.of(), List.of());
+        
+        int n = kalender.getJumlahSlot();
+        assert kalender.getSlotMulai(0).equals(mulai) : "Slot pertama harus mulai di awal rentang";
+        assert kalender.getSlotSelesai(n - 1).equals(selesai) : "Slot terakhir harus selesai di akhir rentang";
+        for (int i = 1; i < n; i++) {
+            assert kalender.getSlotMulai(i).equals(kalender.getSlotSelesai(i - 1)) 
+                : "Slot harus bersambung tanpa celah";
+        }
+    }
+
+    // ==================== Generators ====================
+
+    @Provide
+    Arbitrary<Map<Long, TipeVehicle>> armadaGenerator() {
+        return Arbitraries.of(TipeVehicle.values()).list().ofMinSize(1).ofMaxSize(12).map(tipeList -> {
+            Map<Long, TipeVehicle> armada = new HashMap<>();
+            long id = 1L;
+            for (TipeVehicle tipe : tipeList) {
+                armada.put(id++, tipe);
+            }
+            return armada;
+        });
+    }
+
+    @Provide
+    Arbitrary<List<JadwalAssignment>> jadwalGenerator() {
+        // Vehicle ID 1..15: sebagian tidak ada di armada (tidak aktif)
+        Arbitrary<JadwalAssignment> assignment = Combinators.combine(
+            Arbitraries.longs().between(1L, 15L),
+            Arbitraries.integers().between(0, 35 * 24),
+            Arbitraries.integers().between(0, 96)
+        ).as((vehicleId, mulaiJam, durasiJam) -> {
+            LocalDateTime mulai = BASE.plusHours(mulaiJam);
+            return new JadwalAssignment(null, null, vehicleId, null, null, mulai, mulai.plusHours(durasiJam));
+        });
+        return assignment.list().ofMaxSize(40);
+    }
+
+    // ==================== Helper Methods ====================
+
+    private long hitungTersediaBruteForce(Map<Long, TipeVehicle> armada, List<JadwalAssignment> jadwal,
+                                          TipeVehicle tipe, LocalDateTime mulai, LocalDateTime selesai) {
+        Set<Long> terpakai = new HashSet<>();
+        for (JadwalAssignment ja : jadwal) {
+            // Rumus irisan: (TripStart <= RequestEnd) AND (TripEnd >= RequestStart)
+            if (!ja.waktuMulai().isAfter(selesai) && !ja.waktuSelesai().isBefore(mulai)) {
+                terpakai.add(ja.vehicleId());
+            }
+        }
+        return armada.entrySet().stream()
+            .filter(e -> e.getValue() == tipe)
+            .filter(e -> !terpakai.contains(e.getKey()))
+            .count();
+    }
+}
@@ -0,0 +1,83 @@
+package com.mrh.buscharter.service;
+
+import com.mrh.buscharter.model.dto.PiutangBooking;
+import com.mrh.buscharter.model.enums.KelompokUmurPiutang;
+import net.jqwik.api.*;
+import net.jqwik.api.constraints.*;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.LocalTime;
+import java.util.*;
+
+/**
+ * Property-based test untuk Laporan Umur Piutang.
+ *
+ * **Property 4: Status Pembayaran Otomatis**
+ * **Validates: Requirements 5.2, 5.3, 5.5**
+ *
+ * Pengelompokan tidak boleh menghilangkan atau menggandakan outstanding:
+ * total per customer = total per sales PIC = total seluruh piutang.
+ */
+public class LaporanUmurPiutangPropertyTest {
+
+    private static final LocalDate ACUAN = LocalDate.of(2025, 6, 30);
+
+    /**
+     * Property: Jumlah semua kelompok per customer dan per sales PIC = total outstanding.
+     */
+    @Property(tries = 100)
+    void totalTidakBerubahOlehPengelompokan(
+            @ForAll @Size(min = 0, max = 200) List<@From("piutangGenerator") PiutangBooking> piutang) {
+
+        LaporanUmurPiutang laporan = LaporanUmurPiutang.hitung(piutang, ACUAN);
+
+        BigDecimal expected = piutang.stream().map(PiutangBooking::outstanding)
+            .reduce(BigDecimal.ZERO, BigDecimal::add);
+        BigDecimal perCustomer = laporan.getPerCustomer().stream().map(LaporanUmurPiutang.Baris::total)
+            .reduce(BigDecimal.ZERO, BigDecimal::add);
+        BigDecimal perSales = laporan.getPerSalesPic().stream().map(LaporanUmurPiutang.Baris::total)
+            .reduce(BigDecimal.ZERO, BigDecimal::add);
+
+        assert laporan.getTotal().total().compareTo(expected) == 0 : "Total laporan harus = sum outstanding";
+        assert perCustomer.compareTo(expected) == 0 : "Sum per customer harus = sum outstanding";
+        assert perSales.compareTo(expected) == 0 : "Sum per sales PIC harus = sum outstanding";
+        assert laporan.getTotal().jumlahBooking() == piutang.size() : "Jumlah booking harus sama";
+    }
+
+    /**
+     * Property: Kelompok umur sesuai selisih hari dari trip pertama.
+     */
+    @Property(tries = 200)
+    void kelompokSesuaiUmurHari(@ForAll @IntRange(min = -90, max = 180) int umurHari) {
+        PiutangBooking piutang = new PiutangBooking(1L, "BOOK/1", 1L, "Customer", 1L, "Sales",
+            BigDecimal.TEN, ACUAN.minusDays(umurHari).atTime(8, 0));
+
+        KelompokUmurPiutang kelompok = LaporanUmurPiutang.kelompok(piutang, ACUAN);
+
+        KelompokUmurPiutang expected = umurHari <= 0 ? KelompokUmurPiutang.BELUM_JATUH_TEMPO
+            : umurHari <= 30 ? KelompokUmurPiutang.HARI_1_30
+            : umurHari <= 60 ? KelompokUmurPiutang.HARI_31_60
+            : KelompokUmurPiutang.LEBIH_60_HARI;
+        assert kelompok == expected
+            : String.format("Umur %d hari harus %s, dapat %s", umurHari, expected, kelompok);
+    }
+
+    // ==================== Generators ====================
+
+    @Provide
+    Arbitrary<PiutangBooking> piutangGenerator() {
+        return Combinators.combine(
+            Arbitraries.integers().between(0, 5),
+            Arbitraries.integers().between(0, 3),
+            Arbitraries.bigDecimals().between(BigDecimal.valueOf(1), BigDecimal.valueOf(50000000)).ofScale(2),
+            Arbitraries.integers().between(-30, 120)
+        ).as((customer, sales, outstanding, umur) -> new PiutangBooking(
+            (long) (Math.random() * 100000), "BOOK/" + umur,
+            customer == 0 ? null : (long) customer, customer == 0 ? null : "Customer " + customer,
+            sales == 0 ? null : (long) sales, sales == 0 ? null : "Sales " + sales,
+            outstanding,
+            umur > 100 ? null : LocalDateTime.of(ACUAN, LocalTime.NOON).minusDays(umur)));
+    }
+}
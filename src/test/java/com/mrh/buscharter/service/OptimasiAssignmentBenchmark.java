@@ -0,0 +1,121 @@
+package com.mrh.buscharter.service;
+
+import com.mrh.buscharter.model.Driver;
+import com.mrh.buscharter.model.Trip;
+import com.mrh.buscharter.model.Vehicle;
+import com.mrh.buscharter.model.dto.JadwalAssignment;
+import com.mrh.buscharter.model.enums.StatusKepemilikan;
+import com.mrh.buscharter.model.enums.TipeVehicle;
+import org.junit.jupiter.api.Test;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.*;
+
+/**
+ * Benchmark optimasi assignment otomatis.
+ * Tidak ikut test default; jalankan dengan: mvn test -Pbenchmark
+ * 
+ * Target: 1.000 trip × 200 bus (dengan 150 driver dan 5.000 jadwal tersimpan)
+ * selesai di bawah 1 detik.
+ */
+public class OptimasiAssignmentBenchmark {
+
+    private static final LocalDateTime BASE = LocalDateTime.of(2025, 1, 1, 0, 0);
+    private static final int JUMLAH_TRIP = 1_000;
+    private static final int JUMLAH_VEHICLE = 200;
+    private static final int JUMLAH_DRIVER = 150;
+    private static final int JUMLAH_JADWAL = 5_000;
+    private static final int JUMLAH_HARI = 90;
+    private static final int PENGULANGAN = 7;
+    private static final long BATAS_MS = 1_000;
+
+    @Test
+    void seribuTripDuaRatusBusDiBawahSatuDetik() {
+        Random random = new Random(42);
+        List<Vehicle> vehicles = buatArmada(random);
+        List<Driver> drivers = buatDriver(random);
+        List<JadwalAssignment> jadwal = buatJadwal(random);
+        List<Trip> trips = buatTrip(random);
+
+        // Warm-up JIT
+        for (int i = 0; i < 5; i++) {
+            OptimasiAssignment.hitung(trips, vehicles, drivers, jadwal, 4);
+        }
+
+        long[] durasi = new long[PENGULANGAN];
+        OptimasiAssignment hasil = null;
+        for (int r = 0; r < PENGULANGAN; r++) {
+            long t0 = System.nanoTime();
+            hasil = OptimasiAssignment.hitung(trips, vehicles, drivers, jadwal, 4);
+            durasi[r] = System.nanoTime() - t0;
+        }
+        Arrays.sort(durasi);
+        double medianMs = durasi[PENGULANGAN / 2] / 1e6;
+        double maksMs = durasi[PENGULANGAN - 1] / 1e6;
+
+        System.out.printf("%n%d trip × %d bus: median %.2f ms, maks %.2f ms%n",
+            JUMLAH_TRIP, JUMLAH_VEHICLE, medianMs, maksMs);
+        System.out.printf("Diusulkan %d, tidak terpenuhi %d%n",
+            hasil.getUsulan().size(), hasil.getTidakTerpenuhi().size());
+
+        assert maksMs < BATAS_MS : "Optimasi melebihi " + BATAS_MS + " ms: " + maksMs;
+    }
+
+    // ==================== Helper Methods ====================
+
+    private List<Vehicle> buatArmada(Random random) {
+        List<Vehicle> vehicles = new ArrayList<>();
+        TipeVehicle[] tipe = TipeVehicle.values();
+        for (long id = 1; id <= JUMLAH_VEHICLE; id++) {
+            Vehicle v = new Vehicle();
+            v.setId(id);
+            v.setTipeVehicle(tipe[(int) (id % tipe.length)]);
+            v.setKapasitasKursi(v.getTipeVehicle().getKapasitasMin()
+                + random.nextInt(v.getTipeVehicle().getKapasitasMax() - v.getTipeVehicle().getKapasitasMin() + 1));
+            v.setStatusKepemilikan(StatusKepemilikan.MILIK_SENDIRI);
+            v.setAktif(true);
+            vehicles.add(v);
+        }
+        return vehicles;
+    }
+
+    private List<Driver> buatDriver(Random random) {
+        List<Driver> drivers = new ArrayList<>();
+        for (long id = 1; id <= JUMLAH_DRIVER; id++) {
+            Driver d = new Driver();
+            d.setId(id);
+            d.setMasaBerlakuSim(LocalDate.from(BASE).plusDays(random.nextInt(JUMLAH_HARI * 2)));
+            drivers.add(d);
+        }
+        return drivers;
+    }
+
+    private List<JadwalAssignment> buatJadwal(Random random) {
+        List<JadwalAssignment> jadwal = new ArrayList<>(JUMLAH_JADWAL);
+        for (int i = 0; i < JUMLAH_JADWAL; i++) {
+            long vehicleId = 1 + random.nextInt(JUMLAH_VEHICLE);
+            long driverId = 1 + random.nextInt(JUMLAH_DRIVER);
+            LocalDateTime mulai = BASE.plusHours(random.nextInt(JUMLAH_HARI * 24));
+            LocalDateTime selesai = mulai.plusHours(2 + random.nextInt(20));
+            jadwal.add(new JadwalAssignment((long) i, (long) i, vehicleId, driverId, null, mulai, selesai));
+        }
+        return jadwal;
+    }
+
+    private List<Trip> buatTrip(Random random) {
+        List<Trip> trips = new ArrayList<>(JUMLAH_TRIP);
+        TipeVehicle[] tipe = TipeVehicle.values();
+        for (int i = 0; i < JUMLAH_TRIP; i++) {
+            Trip t = new Trip();
+            t.setId(100_000L + i);
+            t.setWaktuMulai(BASE.plusHours(random.nextInt(JUMLAH_HARI * 24)));
+            t.setWaktuSelesai(t.getWaktuMulai().plusHours(4 + random.nextInt(60)));
+            TipeVehicle diminta = random.nextInt(5) == 0 ? null : tipe[random.nextInt(tipe.length)];
+            t.setTipeBusDiminta(diminta);
+            t.setEstimasiPenumpang(diminta != null ? random.nextInt(diminta.getKapasitasMax()) : random.nextInt(20));
+            trips.add(t);
+        }
+        return trips;
+    }
+}
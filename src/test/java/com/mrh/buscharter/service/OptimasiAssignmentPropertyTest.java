@@ -0,0 +1,255 @@
+package com.mrh.buscharter.service;
+
+import com.mrh.buscharter.model.Driver;
+import com.mrh.buscharter.model.Trip;
+import com.mrh.buscharter.model.Vehicle;
+import com.mrh.buscharter.model.dto.JadwalAssignment;
+import com.mrh.buscharter.model.enums.StatusKepemilikan;
+import com.mrh.buscharter.model.enums.TipeVehicle;
+import net.jqwik.api.*;
+
+import java.time.Duration;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.*;
+
+/**
+ * Property-based test untuk optimasi assignment otomatis.
+ * 
+ * **Property 1: Anti-Double Booking**
+ * **Validates: Requirements 1.4, 6.2, 6.5**
+ * 
+ * Memastikan bahwa usulan optimasi tidak pernah melanggar aturan assignment
+ * (tipe, kapasitas, overlap + buffer, masa berlaku SIM), dan trip yang tidak
+ * terpenuhi memang tidak punya vehicle yang bebas saat diproses.
+ */
+public class OptimasiAssignmentPropertyTest {
+
+    private static final LocalDateTime BASE = LocalDateTime.of(2025, 1, 1, 0, 0);
+    private static final int BUFFER_JAM = 4;
+
+    /**
+     * Property: Setiap usulan memenuhi semua aturan assignment.
+     * 
+     * For any trips, fleet, drivers and existing schedule,
+     * every proposed (trip, vehicle, driver) respects tipeBusDiminta, seat capacity,
+     * SIM validity, and keeps a gap of at least BUFFER_JAM to every other task
+     * (stored or proposed) of the same vehicle or driver.
+     */
+    @Property(tries = 200)
+    void usulanMemenuhiSemuaAturan(@ForAll("skenarioGenerator") Skenario s) {
+        OptimasiAssignment hasil = OptimasiAssignment.hitung(
+            s.trips, s.vehicles, s.drivers, s.jadwal, BUFFER_JAM);
+
+        Map<Long, Trip> tripMap = new HashMap<>();
+        s.trips.forEach(t -> tripMap.put(t.getId(), t));
+        Map<Long, Vehicle> vehicleMap = new HashMap<>();
+        s.vehicles.forEach(v -> vehicleMap.put(v.getId(), v));
+        Map<Long, Driver> driverMap = new HashMap<>();
+        s.drivers.forEach(d -> driverMap.put(d.getId(), d));
+
+        // Property: setiap trip muncul tepat sekali (diusulkan atau tidak terpenuhi)
+        Set<Long> tercakup = new HashSet<>(hasil.getTidakTerpenuhi().keySet());
+        for (OptimasiAssignment.Usulan u : hasil.getUsulan()) {
+            assert tercakup.add(u.tripId()) : "Trip diusulkan lebih dari sekali: " + u.tripId();
+        }
+        assert tercakup.equals(tripMap.keySet()) : "Semua trip harus tercakup";
+
+        for (OptimasiAssignment.Usulan u : hasil.getUsulan()) {
+            Trip trip = tripMap.get(u.tripId());
+            Vehicle vehicle = vehicleMap.get(u.vehicleId());
+
+            // Property: tipe dan kapasitas sesuai
+            assert trip.getTipeBusDiminta() == null || trip.getTipeBusDiminta() == vehicle.getTipeVehicle()
+                : "Tipe vehicle tidak sesuai permintaan";
+            assert vehicle.getKapasitasKursi() >= trip.getEstimasiPenumpang()
+                : "Kapasitas vehicle kurang dari estimasi penumpang";
+
+            // Property: jeda minimal buffer dengan tugas lain vehicle yang sama
+            for (LocalDateTime[] lain : tugasVehicle(s, hasil, u.vehicleId(), u.tripId())) {
+                assert jedaCukup(trip.getWaktuMulai(), trip.getWaktuSelesai(), lain[0], lain[1])
+                    : "Vehicle " + u.vehicleId() + " bentrok pada trip " + u.tripId();
+            }
+
+            if (u.driverId() != null) {
+                Driver driver = driverMap.get(u.driverId());
+                assert driver.getMasaBerlakuSim() == null
+                    || driver.getMasaBerlakuSim().isAfter(trip.getWaktuSelesai().toLocalDate())
+                    : "SIM driver tidak berlaku sampai trip selesai";
+                for (LocalDateTime[] lain : tugasDriver(s, hasil, u.driverId(), u.tripId())) {
+                    assert jedaCukup(trip.getWaktuMulai(), trip.getWaktuSelesai(), lain[0], lain[1])
+                        : "Driver " + u.driverId() + " bentrok pada trip " + u.tripId();
+                }
+            }
+        }
+    }
+
+    /**
+     * Property: Trip yang tidak terpenuhi memang tidak punya vehicle yang bebas.
+     * 
+     * For any unassigned trip T, every vehicle matching tipe and capacity has a task
+     * (stored, or proposed for a trip processed before T) closer than BUFFER_JAM.
+     */
+    @Property(tries = 200)
+    void tripTidakTerpenuhiMemangTidakAdaVehicle(@ForAll("skenarioGenerator") Skenario s) {
+        OptimasiAssignment hasil = OptimasiAssignment.hitung(
+            s.trips, s.vehicles, s.drivers, s.jadwal, BUFFER_JAM);
+
+        Comparator<Trip> urutProses = Comparator.comparing(Trip::getWaktuMulai).thenComparing(Trip::getId);
+        Map<Long, Trip> tripMap = new HashMap<>();
+        s.trips.forEach(t -> tripMap.put(t.getId(), t));
+
+        for (Long tripId : hasil.getTidakTerpenuhi().keySet()) {
+            Trip trip = tripMap.get(tripId);
+            for (Vehicle v : s.vehicles) {
+                if ((trip.getTipeBusDiminta() != null && trip.getTipeBusDiminta() != v.getTipeVehicle())
+                        || v.getKapasitasKursi() < trip.getEstimasiPenumpang()) {
+                    continue;
+                }
+                boolean bentrok = false;
+                for (JadwalAssignment ja : s.jadwal) {
+                    if (ja.vehicleId().equals(v.getId())
+                            && !jedaCukup(trip.getWaktuMulai(), trip.getWaktuSelesai(), ja.waktuMulai(), ja.waktuSelesai())) {
+                        bentrok = true;
+                    }
+                }
+                for (OptimasiAssignment.Usulan u : hasil.getUsulan()) {
+                    if (u.vehicleId().equals(v.getId())
+                            && urutProses.compare(tripMap.get(u.tripId()), trip) < 0
+                            && !jedaCukup(trip.getWaktuMulai(), trip.getWaktuSelesai(), u.waktuMulai(), u.waktuSelesai())) {
+                        bentrok = true;
+                    }
+                }
+                // Property: vehicle yang cocok pasti bentrok
+                assert bentrok : "Trip " + tripId + " tidak terpenuhi padahal vehicle " + v.getId() + " bebas";
+            }
+        }
+    }
+
+    // ==================== Generators ====================
+
+    @Provide
+    Arbitrary<Skenario> skenarioGenerator() {
+        TipeVehicle[] semuaTipe = {TipeVehicle.BIG_BUS, TipeVehicle.MEDIUM_BUS, TipeVehicle.HIACE};
+
+        Arbitrary<int[]> trip = Combinators.combine(
+            Arbitraries.integers().between(0, 20 * 24),  // jam mulai
+            Arbitraries.integers().between(1, 72),       // durasi jam
+            Arbitraries.integers().between(-1, 2),       // tipe diminta (-1 = bebas)
+            Arbitraries.integers().between(0, 60)        // estimasi penumpang
+        ).as((mulai, durasi, tipe, penumpang) -> new int[]{mulai, durasi, tipe, penumpang});
+
+        Arbitrary<int[]> vehicle = Combinators.combine(
+            Arbitraries.integers().between(0, 2),        // tipe
+            Arbitraries.integers().between(10, 60)       // kapasitas
+        ).as((tipe, kapasitas) -> new int[]{tipe, kapasitas});
+
+        Arbitrary<Integer> driver = Arbitraries.integers().between(-1, 25); // hari SIM berlaku (-1 = tanpa batas)
+
+        Arbitrary<int[]> jadwal = Combinators.combine(
+            Arbitraries.integers().between(0, 20 * 24),  // jam mulai
+            Arbitraries.integers().between(1, 72),       // durasi jam
+            Arbitraries.integers().between(0, 100),      // index vehicle
+            Arbitraries.integers().between(-1, 100)      // index driver (-1 = tanpa driver)
+        ).as((mulai, durasi, v, d) -> new int[]{mulai, durasi, v, d});
+
+        return Combinators.combine(
+            trip.list().ofMaxSize(30),
+            vehicle.list().ofMinSize(1).ofMaxSize(8),
+            driver.list().ofMaxSize(6),
+            jadwal.list().ofMaxSize(15)
+        ).as((tripList, vehicleList, driverList, jadwalList) -> {
+            Skenario s = new Skenario();
+            for (int i = 0; i < tripList.size(); i++) {
+                int[] t = tripList.get(i);
+                Trip tr = new Trip();
+                tr.setId(1000L + i);
+                tr.setWaktuMulai(BASE.plusHours(t[0]));
+                tr.setWaktuSelesai(BASE.plusHours(t[0] + t[1]));
+                tr.setTipeBusDiminta(t[2] < 0 ? null : semuaTipe[t[2]]);
+                tr.setEstimasiPenumpang(t[3]);
+                s.trips.add(tr);
+            }
+            for (int i = 0; i < vehicleList.size(); i++) {
+                Vehicle v = new Vehicle();
+                v.setId(1L + i);
+                v.setPlatNomor("B " + (1000 + i) + " XX");
+                v.setTipeVehicle(semuaTipe[vehicleList.get(i)[0]]);
+                v.setKapasitasKursi(vehicleList.get(i)[1]);
+                v.setStatusKepemilikan(StatusKepemilikan.MILIK_SENDIRI);
+                v.setAktif(true);
+                s.vehicles.add(v);
+            }
+            for (int i = 0; i < driverList.size(); i++) {
+                Driver d = new Driver();
+                d.setId(1L + i);
+                d.setNamaLengkap("Driver " + i);
+                int hari = driverList.get(i);
+                d.setMasaBerlakuSim(hari < 0 ? null : LocalDate.from(BASE).plusDays(hari));
+                s.drivers.add(d);
+            }
+            for (int i = 0; i < jadwalList.size(); i++) {
+                int[] j = jadwalList.get(i);
+                Long vehicleId = 1L + j[2] % vehicleList.size();
+                Long driverId = j[3] < 0 || driverList.isEmpty() ? null : 1L + j[3] % driverList.size();
+                s.jadwal.add(new JadwalAssignment((long) i, 1L + i, vehicleId, driverId, null,
+                    BASE.plusHours(j[0]), BASE.plusHours(j[0] + j[1])));
+            }
+            return s;
+        });
+    }
+
+    // ==================== Helper Methods ====================
+
+    private List<LocalDateTime[]> tugasVehicle(Skenario s, OptimasiAssignment hasil, Long vehicleId, Long kecualiTrip) {
+        List<LocalDateTime[]> tugas = new ArrayList<>();
+        for (JadwalAssignment ja : s.jadwal) {
+            if (ja.vehicleId().equals(vehicleId)) {
+                tugas.add(new LocalDateTime[]{ja.waktuMulai(), ja.waktuSelesai()});
+            }
+        }
+        for (OptimasiAssignment.Usulan u : hasil.getUsulan()) {
+            if (u.vehicleId().equals(vehicleId) && !u.tripId().equals(kecualiTrip)) {
+                tugas.add(new LocalDateTime[]{u.waktuMulai(), u.waktuSelesai()});
+            }
+        }
+        return tugas;
+    }
+
+    private List<LocalDateTime[]> tugasDriver(Skenario s, OptimasiAssignment hasil, Long driverId, Long kecualiTrip) {
+        List<LocalDateTime[]> tugas = new ArrayList<>();
+        for (JadwalAssignment ja : s.jadwal) {
+            if (driverId.equals(ja.driverId()) || driverId.equals(ja.coDriverId())) {
+                tugas.add(new LocalDateTime[]{ja.waktuMulai(), ja.waktuSelesai()});
+            }
+        }
+        for (OptimasiAssignment.Usulan u : hasil.getUsulan()) {
+            if (driverId.equals(u.driverId()) && !u.tripId().equals(kecualiTrip)) {
+                tugas.add(new LocalDateTime[]{u.waktuMulai(), u.waktuSelesai()});
+            }
+        }
+        return tugas;
+    }
+
+    private boolean jedaCukup(LocalDateTime aMulai, LocalDateTime aSelesai,
+                              LocalDateTime bMulai, LocalDateTime bSelesai) {
+        // Jeda minimal buffer di kedua sisi (tidak overlap dan tidak terlalu rapat)
+        Duration buffer = Duration.ofHours(BUFFER_JAM);
+        return !bMulai.isBefore(aSelesai.plus(buffer)) || !aMulai.isBefore(bSelesai.plus(buffer));
+    }
+
+    // ==================== Test Data Classes ====================
+
+    static class Skenario {
+        final List<Trip> trips = new ArrayList<>();
+        final List<Vehicle> vehicles = new ArrayList<>();
+        final List<Driver> drivers = new ArrayList<>();
+        final List<JadwalAssignment> jadwal = new ArrayList<>();
+
+        @Override
+        public String toString() {
+            return String.format("Skenario[%d trip, %d vehicle, %d driver, %d jadwal]",
+                trips.size(), vehicles.size(), drivers.size(), jadwal.size());
+        }
+    }
+}
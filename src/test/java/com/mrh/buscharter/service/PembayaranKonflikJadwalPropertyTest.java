@@ -0,0 +1,262 @@
+package com.mrh.buscharter.service;
+
+import com.mrh.buscharter.event.BookingStatusChangedEvent;
+import com.mrh.buscharter.event.DomainEvent;
+import com.mrh.buscharter.event.EventBus;
+import com.mrh.buscharter.event.OutboxRelay;
+import com.mrh.buscharter.event.PaymentReceivedEvent;
+import com.mrh.buscharter.model.Booking;
+import com.mrh.buscharter.model.BookingLedger;
+import com.mrh.buscharter.model.Customer;
+import com.mrh.buscharter.model.Payment;
+import com.mrh.buscharter.model.Tenant;
+import com.mrh.buscharter.model.enums.StatusBooking;
+import com.mrh.buscharter.repository.BookingLedgerRepository;
+import com.mrh.buscharter.repository.BookingRepository;
+import com.mrh.buscharter.repository.DatabasePalsu;
+import com.mrh.buscharter.repository.PaymentRepository;
+import com.mrh.buscharter.repository.UnitOfWork;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.PersistenceException;
+import net.jqwik.api.*;
+import net.jqwik.api.constraints.*;
+
+import java.math.BigDecimal;
+import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Optional;
+import java.util.function.Function;
+
+/**
+ * Property-based test untuk pembayaran pada booking yang armadanya bentrok.
+ *
+ * **Property 1: Anti-Double Booking**
+ * **Property 4: Status Pembayaran Otomatis**
+ * **Validates: Requirements 5.2, 5.5, 6.2**
+ *
+ * DP pertama membuat assignment booking mengikat; jika exclusion constraint menolaknya,
+ * pembayaran dan ledger tetap tercatat, status booking tidak berubah, dan konflik dilaporkan.
+ */
+public class PembayaranKonflikJadwalPropertyTest {
+
+    private static final Long BOOKING_ID = 1L;
+    private static final Long TENANT_ID = 3L;
+    private static final BigDecimal GRAND_TOTAL = BigDecimal.valueOf(10_000_000);
+
+    /**
+     * Property: Pembayaran DP selalu ter-commit bersama ledger-nya; konflik jadwal saat booking
+     * menjadi DP_DITERIMA hanya membatalkan perubahan status dan dilaporkan di HasilPembayaran.
+     */
+    @Property(tries = 100)
+    void pembayaranTetapTercatatSaatStatusBentrok(
+            @ForAll @LongRange(min = 1, max = 9_999_999) long nominal,
+            @ForAll boolean konflik) {
+
+        DatabasePalsu db = siapkan();
+        try {
+            Skenario s = new Skenario(db, konflik);
+
+            FinanceService.HasilPembayaran hasil = s.service.catatPembayaran(
+                BOOKING_ID, BigDecimal.valueOf(nominal), "Transfer BCA", null, null);
+
+            assert hasil.getPayment().getId() != null : "Payment tidak tersimpan";
+            assert db.tersimpan().stream().filter(o -> o instanceof Payment).count() == 1
+                : "Payment tidak ter-commit";
+            assert s.ledger.terakhir().getTotalPembayaran().compareTo(BigDecimal.valueOf(nominal)) == 0
+                : "Ledger tidak mencatat pembayaran";
+            assert s.diterima.stream().filter(e -> e instanceof PaymentReceivedEvent).count() == 1
+                : "PaymentReceivedEvent tidak terbit";
+
+            long perubahanStatus = s.diterima.stream().filter(e -> e instanceof BookingStatusChangedEvent).count();
+            if (konflik) {
+                assert hasil.adaKonflikJadwal() : "Konflik jadwal tidak dilaporkan";
+                assert hasil.getKonflikJadwal().startsWith("Konflik jadwal") : hasil.getKonflikJadwal();
+                assert hasil.getStatusBooking() == StatusBooking.QUOTATION_SENT : "Status dilaporkan berubah";
+                assert s.booking.terakhir().getStatus() == StatusBooking.QUOTATION_SENT : "Status booking ter-commit";
+                assert perubahanStatus == 0 : "BookingStatusChangedEvent terbit dari transaksi yang rollback";
+            } else {
+                assert !hasil.adaKonflikJadwal() : "Konflik dilaporkan padahal tidak ada";
+                assert hasil.getStatusBooking() == StatusBooking.DP_DITERIMA : "Status tidak menjadi DP_DITERIMA";
+                assert s.booking.terakhir().getStatus() == StatusBooking.DP_DITERIMA : "Status tidak ter-commit";
+                assert perubahanStatus == 1 : "BookingStatusChangedEvent tidak terbit";
+            }
+        } finally {
+            bersihkan();
+        }
+    }
+
+    /**
+     * Property: Di dalam UnitOfWork pemanggil, konflik dilempar dan seluruh unit of work
+     * (termasuk pembayaran) rollback bersama.
+     */
+    @Property(tries = 50)
+    void konflikDalamUnitOfWorkPemanggilDilempar(@ForAll @LongRange(min = 1, max = 9_999_999) long nominal) {
+        DatabasePalsu db = siapkan();
+        try {
+            Skenario s = new Skenario(db, true);
+
+            boolean dilempar = false;
+            try {
+                UnitOfWork.jalankan(() -> s.service.catatPembayaran(
+                    BOOKING_ID, BigDecimal.valueOf(nominal), "Cash", null, null));
+            } catch (IllegalStateException e) {
+                dilempar = e.getMessage().startsWith("Konflik jadwal");
+            }
+
+            assert dilempar : "Konflik jadwal tidak dilempar ke UnitOfWork pemanggil";
+            assert db.tersimpan().isEmpty() : "Ada data ter-commit dari unit of work yang rollback";
+            assert s.diterima.isEmpty() : "Event terbit dari unit of work yang rollback";
+        } finally {
+            bersihkan();
+        }
+    }
+
+    private static DatabasePalsu siapkan() {
+        DatabasePalsu db = new DatabasePalsu();
+        UnitOfWork.setSumberEntityManager(db::entityManager);
+        EventBus.resetInstance();
+        OutboxRelay.resetInstance();
+        return db;
+    }
+
+    private static void bersihkan() {
+        UnitOfWork.resetSumberEntityManager();
+        EventBus.resetInstance();
+        OutboxRelay.resetInstance();
+    }
+
+    // ==================== Repository tiruan ====================
+
+    private static class Skenario {
+        final BookingPalsu booking;
+        final LedgerPalsu ledger;
+        final FinanceService service;
+        final List<DomainEvent> diterima = new ArrayList<>();
+
+        Skenario(DatabasePalsu db, boolean konflik) {
+            booking = new BookingPalsu(db, konflik);
+            ledger = new LedgerPalsu(db);
+            service = new FinanceService(booking, new PaymentRepository(), ledger);
+            EventBus.getInstance().subscribe(PaymentReceivedEvent.class, diterima::add);
+            EventBus.getInstance().subscribe(BookingStatusChangedEvent.class, diterima::add);
+        }
+    }
+
+    /**
+     * Booking dibaca dari data yang terlihat transaksi (salinan baru setiap findById).
+     * Dengan konflik, update ke DP_DITERIMA gagal seperti exclusion constraint
+     * ex_trip_assignments_vehicle_overlap yang dipicu trigger V8.
+     */
+    private static class BookingPalsu extends BookingRepository {
+        private final DatabasePalsu db;
+        private final boolean konflik;
+
+        BookingPalsu(DatabasePalsu db, boolean konflik) {
+            this.db = db;
+            this.konflik = konflik;
+        }
+
+        Booking terakhir() {
+            return terakhir(db.tersimpan());
+        }
+
+        private Booking terakhir(List<Object> data) {
+            Booking hasil = null;
+            for (Object o : data) {
+                if (o instanceof Booking b) {
+                    hasil = b;
+                }
+            }
+            if (hasil != null) {
+                return hasil;
+            }
+            Tenant tenant = new Tenant();
+            tenant.setId(TENANT_ID);
+            Customer customer = new Customer();
+            customer.setId(11L);
+            customer.setNama("PT Wisata Nusantara");
+            Booking awal = new Booking();
+            awal.setId(BOOKING_ID);
+            awal.setTenant(tenant);
+            awal.setCustomer(customer);
+            awal.setKodeBooking("BK-2025-06-0001");
+            awal.setStatus(StatusBooking.QUOTATION_SENT);
+            return awal;
+        }
+
+        @Override
+        public Optional<Booking> findById(Long id) {
+            return executeWithEntityManager(em -> {
+                Booking b = terakhir(db.terlihat(em));
+                Booking salinan = new Booking();
+                salinan.setId(b.getId());
+                salinan.setTenant(b.getTenant());
+                salinan.setCustomer(b.getCustomer());
+                salinan.setKodeBooking(b.getKodeBooking());
+                salinan.setStatus(b.getStatus());
+                return Optional.of(salinan);
+            });
+        }
+
+        @Override
+        public Booking save(Booking booking, Function<Booking, List<DomainEvent>> pembuatEvent) {
+            if (konflik && booking.getStatus() == StatusBooking.DP_DITERIMA) {
+                return executeInTransaction(em -> {
+                    throw new PersistenceException("could not execute statement", new SQLException(
+                        "ERROR: conflicting key value violates exclusion constraint "
+                            + "\"ex_trip_assignments_vehicle_overlap\"", "23P01"));
+                });
+            }
+            return super.save(booking, pembuatEvent);
+        }
+    }
+
+    private static class LedgerPalsu extends BookingLedgerRepository {
+        private final DatabasePalsu db;
+
+        LedgerPalsu(DatabasePalsu db) {
+            this.db = db;
+        }
+
+        BookingLedger terakhir() {
+            return terakhir(db.tersimpan());
+        }
+
+        private BookingLedger terakhir(List<Object> data) {
+            BookingLedger hasil = null;
+            for (Object o : data) {
+                if (o instanceof BookingLedger l) {
+                    hasil = l;
+                }
+            }
+            if (hasil != null) {
+                return hasil;
+            }
+            BookingLedger awal = new BookingLedger(BOOKING_ID, TENANT_ID);
+            awal.set(GRAND_TOTAL, BigDecimal.ZERO, BigDecimal.ZERO);
+            return awal;
+        }
+
+        private BookingLedger salin(EntityManager em) {
+            BookingLedger l = terakhir(db.terlihat(em));
+            BookingLedger salinan = new BookingLedger(l.getBookingId(), l.getTenantId());
+            salinan.set(l.getTotalCharge(), l.getTotalDiskon(), l.getTotalPembayaran());
+            return salinan;
+        }
+
+        @Override
+        public BookingLedger catatPembayaran(Long bookingId, BigDecimal jumlah) {
+            return executeInTransaction(em -> {
+                BookingLedger ledger = salin(em);
+                ledger.terapkan(BigDecimal.ZERO, BigDecimal.ZERO, jumlah);
+                return em.merge(ledger);
+            });
+        }
+
+        @Override
+        public BookingLedger findOrHitung(Long bookingId) {
+            return executeWithEntityManager(em -> salin(em));
+        }
+    }
+}
@@ -0,0 +1,267 @@
+package com.mrh.buscharter.service;
+
+import com.mrh.buscharter.config.AppConfig;
+import com.mrh.buscharter.model.Booking;
+import com.mrh.buscharter.model.Customer;
+import com.mrh.buscharter.model.Tenant;
+import com.mrh.buscharter.model.Trip;
+import com.mrh.buscharter.repository.BookingChargeRepository;
+import com.mrh.buscharter.repository.BookingRepository;
+import com.mrh.buscharter.repository.TripRepository;
+import net.jqwik.api.*;
+import net.jqwik.api.constraints.*;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.math.BigDecimal;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.LocalDateTime;
+import java.util.*;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.locks.LockSupport;
+import java.util.zip.ZipEntry;
+import java.util.zip.ZipInputStream;
+
+/**
+ * Property-based test untuk batch quotation ke ZIP (ReportService.generateQuotationBatch).
+ *
+ * **Property 5: Tenant Isolation**
+ * **Validates: Requirements 9.2, 9.3**
+ *
+ * Setiap booking yang diminta muncul tepat sekali: sebagai entry ZIP berisi PDF-nya sendiri
+ * (nama kembar antar tenant diberi akhiran ID) atau sebagai kegagalan di HasilBatchLaporan.
+ * Repository diganti data in-memory seperti ReportStreamingBenchmark dan fill Jasper diganti
+ * PDF tiruan, sehingga test tidak butuh database maupun font.
+ */
+public class QuotationBatchPropertyTest {
+
+    private static final int JUMLAH_BOOKING_ADA = 30;
+    private static final LocalDateTime BASE = LocalDateTime.of(2025, 1, 1, 6, 0);
+
+    /**
+     * Property: ZIP dan HasilBatchLaporan lengkap dan benar walaupun sebagian booking tidak
+     * ditemukan atau gagal di-render, dan progres dilaporkan sekali per booking berurutan.
+     *
+     * @param permintaan ID booking yang diminta (boleh kembar; > 30 tidak ada di database)
+     * @param jumlahKode Jumlah kode booking berbeda (kecil = banyak kode kembar antar tenant)
+     * @param modGagal Booking dengan ID kelipatan ini gagal di-render
+     */
+    @Property(tries = 100)
+    void zipDanHasilBatchSesuaiPermintaan(
+            @ForAll @Size(max = 60) List<@IntRange(min = 1, max = 40) Integer> permintaan,
+            @ForAll @IntRange(min = 1, max = JUMLAH_BOOKING_ADA) int jumlahKode,
+            @ForAll @IntRange(min = 2, max = 10) int modGagal) throws IOException {
+
+        ServiceTiruan service = new ServiceTiruan(JUMLAH_BOOKING_ADA, jumlahKode, modGagal);
+        List<Long> ids = permintaan.stream().map(Integer::longValue).toList();
+        List<Long> unik = new ArrayList<>(new LinkedHashSet<>(ids));
+        List<ReportService.ProgresBatchLaporan> progres = new ArrayList<>();
+
+        Path zip = Files.createTempFile("quotation-batch", ".zip");
+        try {
+            ReportService.HasilBatchLaporan hasil = service.generateQuotationBatch(ids, zip, progres::add);
+            Map<String, String> entry = bacaZip(zip);
+
+            // Hasil: setiap booking unik berhasil atau gagal, tidak keduanya
+            Map<Long, String> gagalDiharapkan = new LinkedHashMap<>();
+            List<Long> berhasilDiharapkan = new ArrayList<>();
+            for (Long id : unik) {
+                if (id > JUMLAH_BOOKING_ADA) {
+                    gagalDiharapkan.put(id, "Booking tidak ditemukan");
+                } else if (id % modGagal == 0) {
+                    gagalDiharapkan.put(id, "Render gagal " + id);
+                } else {
+                    berhasilDiharapkan.add(id);
+                }
+            }
+            assert hasil.berhasil() == berhasilDiharapkan.size()
+                : String.format("Berhasil %d, expected %d", hasil.berhasil(), berhasilDiharapkan.size());
+            assert hasil.gagal().equals(gagalDiharapkan)
+                : "Kegagalan " + hasil.gagal() + ", expected " + gagalDiharapkan;
+
+            // ZIP: satu entry per booking berhasil, isi milik booking itu, nama unik
+            assert entry.size() == berhasilDiharapkan.size()
+                : String.format("ZIP berisi %d entry, expected %d", entry.size(), berhasilDiharapkan.size());
+            Map<String, Integer> namaPolos = new HashMap<>();
+            for (Long id : berhasilDiharapkan) {
+                String polos = service.generateNamaFileQuotation(service.booking(id));
+                String denganId = polos.replaceFirst("\\.pdf$", "_" + id + ".pdf");
+                String isi = ServiceTiruan.pdf(id);
+                boolean polosMilikIni = isi.equals(entry.get(polos));
+                assert polosMilikIni || isi.equals(entry.get(denganId))
+                    : "PDF booking " + id + " tidak ada di ZIP sebagai " + polos + " atau " + denganId;
+                if (polosMilikIni) {
+                    namaPolos.merge(polos, 1, Integer::sum);
+                }
+            }
+            Set<String> kodeBerhasil = new HashSet<>();
+            berhasilDiharapkan.forEach(id -> kodeBerhasil.add(
+                service.generateNamaFileQuotation(service.booking(id))));
+            assert namaPolos.keySet().equals(kodeBerhasil)
+                : "Setiap nama file harus dipakai tepat satu booking tanpa akhiran: " + namaPolos;
+
+            // Progres: satu per booking unik, berurutan, total tetap
+            assert progres.size() == unik.size()
+                : String.format("Progres dilaporkan %d kali, expected %d", progres.size(), unik.size());
+            for (int i = 0; i < progres.size(); i++) {
+                ReportService.ProgresBatchLaporan p = progres.get(i);
+                assert p.selesai() == i + 1 : "Progres tidak berurutan: " + p;
+                assert p.total() == unik.size() : "Total progres berubah: " + p;
+                assert p.gagal() <= p.selesai() : "Gagal melebihi selesai: " + p;
+            }
+            if (!progres.isEmpty()) {
+                assert progres.get(progres.size() - 1).gagal() == gagalDiharapkan.size()
+                    : "Progres terakhir tidak sesuai hasil";
+            }
+        } finally {
+            Files.deleteIfExists(zip);
+        }
+    }
+
+    /**
+     * Property: Penulis ZIP yang lambat tidak membuat worker berlari jauh di depan; PDF yang
+     * sudah di-render tetapi belum ditulis tidak pernah lebih dari 2x jumlah worker.
+     */
+    @Property(tries = 30)
+    void dokumenDalamProsesTerbatas(
+            @ForAll @IntRange(min = 1, max = 120) int jumlah,
+            @ForAll @IntRange(min = 0, max = 200) int jedaPenulisMikro) throws IOException {
+
+        int maksDalamProses = 2 * Math.max(1, Math.min(AppConfig.LAPORAN_BATCH_MAKS_THREAD,
+            Runtime.getRuntime().availableProcessors()));
+        ServiceTiruan service = new ServiceTiruan(jumlah, jumlah, Integer.MAX_VALUE);
+        AtomicInteger dilaporkan = new AtomicInteger();
+        AtomicInteger puncak = new AtomicInteger();
+        service.saatMulaiRender = () -> {
+            // Semua booking ada, jadi setiap progres = satu PDF yang sudah ditulis ke ZIP
+            int dalamProses = service.dimulai.incrementAndGet() - dilaporkan.get();
+            puncak.accumulateAndGet(dalamProses, Math::max);
+        };
+
+        List<Long> ids = new ArrayList<>();
+        for (long id = 1; id <= jumlah; id++) {
+            ids.add(id);
+        }
+
+        Path zip = Files.createTempFile("quotation-batch", ".zip");
+        try {
+            ReportService.HasilBatchLaporan hasil = service.generateQuotationBatch(ids, zip, p -> {
+                dilaporkan.set(p.selesai());
+                LockSupport.parkNanos(jedaPenulisMikro * 1_000L);
+            });
+
+            assert hasil.berhasil() == ids.size() : "Tidak semua dokumen ditulis";
+            assert puncak.get() <= maksDalamProses
+                : String.format("%d dokumen dalam proses, batas %d", puncak.get(), maksDalamProses);
+        } finally {
+            Files.deleteIfExists(zip);
+        }
+    }
+
+    private static Map<String, String> bacaZip(Path zip) throws IOException {
+        Map<String, String> isi = new LinkedHashMap<>();
+        try (InputStream in = Files.newInputStream(zip); ZipInputStream zin = new ZipInputStream(in)) {
+            ZipEntry entry;
+            while ((entry = zin.getNextEntry()) != null) {
+                String sebelumnya = isi.put(entry.getName(), new String(zin.readAllBytes(), StandardCharsets.UTF_8));
+                assert sebelumnya == null : "Entry ZIP kembar: " + entry.getName();
+            }
+        }
+        return isi;
+    }
+
+    // ==================== Service dengan repository in-memory ====================
+
+    /**
+     * Booking 1..jumlahBooking ada di "database"; kode booking berulang setiap jumlahKode booking
+     * (tenant berbeda). Render menghasilkan PDF tiruan "%PDF-tiruan <id>" atau gagal.
+     */
+    private static class ServiceTiruan extends ReportService {
+        private final Map<Long, Booking> bookings;
+        private final int modGagal;
+        final AtomicInteger dimulai = new AtomicInteger();
+        volatile Runnable saatMulaiRender = () -> { };
+
+        ServiceTiruan(int jumlahBooking, int jumlahKode, int modGagal) {
+            this(buatBooking(jumlahBooking, jumlahKode), modGagal);
+        }
+
+        private ServiceTiruan(Map<Long, Booking> bookings, int modGagal) {
+            super(bookingRepository(bookings), chargeRepository(), tripRepository(bookings), new BookingService());
+            this.bookings = bookings;
+            this.modGagal = modGagal;
+        }
+
+        Booking booking(Long id) {
+            return bookings.get(id);
+        }
+
+        static String pdf(Long id) {
+            return "%PDF-tiruan " + id;
+        }
+
+        @Override
+        byte[] renderQuotationPdf(Booking booking, List<Trip> trips, BigDecimal grandTotal) {
+            saatMulaiRender.run();
+            if (booking.getId() % modGagal == 0) {
+                throw new IllegalStateException("Render gagal " + booking.getId());
+            }
+            assert trips.size() == 2 && trips.get(0).getBooking() == booking : "Trip booking lain ikut ter-render";
+            assert grandTotal.equals(BigDecimal.valueOf(booking.getId() * 1_000_000)) : "Grand total salah";
+            return pdf(booking.getId()).getBytes(StandardCharsets.UTF_8);
+        }
+
+        private static Map<Long, Booking> buatBooking(int jumlahBooking, int jumlahKode) {
+            Map<Long, Booking> hasil = new HashMap<>();
+            for (long id = 1; id <= jumlahBooking; id++) {
+                Tenant tenant = new Tenant("PT Tenant " + id, "T" + id);
+                Customer customer = new Customer(tenant, "Customer " + id, "0800000" + id);
+                Booking booking = new Booking(tenant, customer, "BOOK/2025/01/" + (id % jumlahKode));
+                booking.setId(id);
+                hasil.put(id, booking);
+            }
+            return hasil;
+        }
+
+        private static BookingRepository bookingRepository(Map<Long, Booking> bookings) {
+            return new BookingRepository() {
+                @Override
+                public List<Booking> findByIdsWithCustomerAndTenant(Collection<Long> ids) {
+                    return ids.stream().map(bookings::get).filter(Objects::nonNull).toList();
+                }
+            };
+        }
+
+        private static TripRepository tripRepository(Map<Long, Booking> bookings) {
+            return new TripRepository() {
+                @Override
+                public List<Trip> findByBookingIds(Collection<Long> ids) {
+                    List<Trip> trips = new ArrayList<>();
+                    for (Long id : ids) {
+                        Booking booking = bookings.get(id);
+                        if (booking != null) {
+                            for (int i = 0; i < 2; i++) {
+                                LocalDateTime mulai = BASE.plusDays(id).plusHours(i * 6L);
+                                trips.add(new Trip(booking, mulai, mulai.plusHours(5), "Pool Jakarta", "Bandung " + i));
+                            }
+                        }
+                    }
+                    return trips;
+                }
+            };
+        }
+
+        private static BookingChargeRepository chargeRepository() {
+            return new BookingChargeRepository() {
+                @Override
+                public Map<Long, BigDecimal> hitungGrandTotalPerBooking(Collection<Long> ids) {
+                    Map<Long, BigDecimal> hasil = new HashMap<>();
+                    ids.forEach(id -> hasil.put(id, BigDecimal.valueOf(id * 1_000_000)));
+                    return hasil;
+                }
+            };
+        }
+    }
+}
@@ -0,0 +1,124 @@
+package com.mrh.buscharter.service;
+
+import com.mrh.buscharter.model.Booking;
+import com.mrh.buscharter.model.Customer;
+import com.mrh.buscharter.model.Tenant;
+import com.mrh.buscharter.model.Trip;
+import com.mrh.buscharter.repository.BookingChargeRepository;
+import com.mrh.buscharter.repository.BookingRepository;
+import com.mrh.buscharter.repository.TripRepository;
+import org.junit.jupiter.api.Test;
+
+import java.io.OutputStream;
+import java.lang.management.ManagementFactory;
+import java.lang.management.MemoryPoolMXBean;
+import java.lang.management.MemoryType;
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+
+/**
+ * Benchmark export quotation besar (ribuan trip, ratusan halaman):
+ * byte[] tanpa virtualizer vs OutputStream dengan virtualizer FILE / SWAP.
+ * Repository diganti data in-memory, jadi tidak butuh database.
+ * Tidak ikut test default; jalankan dengan: mvn test -Pbenchmark
+ */
+public class ReportStreamingBenchmark {
+
+    private static final int JUMLAH_TRIP = 5_000;
+    private static final LocalDateTime BASE = LocalDateTime.of(2025, 1, 1, 6, 0);
+
+    @Test
+    void exportBesarDenganVirtualizer() {
+        ReportService service = buatService();
+
+        // Warm-up: muat template dan kelas Jasper
+        service.generateQuotationPDFBytes(1L);
+
+        resetPeak();
+        long t0 = System.nanoTime();
+        byte[] pdf = service.generateQuotationPDFBytes(1L);
+        cetak("byte[] tanpa virtualizer", pdf.length, t0);
+
+        for (ReportService.ModeVirtualizer mode : List.of(ReportService.ModeVirtualizer.FILE,
+                                                          ReportService.ModeVirtualizer.SWAP)) {
+            PenghitungByte output = new PenghitungByte();
+            resetPeak();
+            t0 = System.nanoTime();
+            service.generateQuotationPDF(1L, output, mode);
+            cetak("OutputStream + " + mode, output.jumlah, t0);
+
+            assert output.jumlah > 0 : "PDF " + mode + " kosong";
+        }
+        assert pdf.length > 0 : "PDF byte[] kosong";
+    }
+
+    private static ReportService buatService() {
+        Tenant tenant = new Tenant("PT Benchmark", "BENCH");
+        Customer customer = new Customer(tenant, "Customer Benchmark", "0800000000");
+        Booking booking = new Booking(tenant, customer, "BOOK/2025/01/001");
+        booking.setId(1L);
+
+        List<Trip> trips = new ArrayList<>(JUMLAH_TRIP);
+        for (int i = 0; i < JUMLAH_TRIP; i++) {
+            LocalDateTime mulai = BASE.plusHours(i * 6L);
+            trips.add(new Trip(booking, mulai, mulai.plusHours(5), "Pool Jakarta", "Bandung " + i));
+        }
+
+        BookingRepository bookingRepository = new BookingRepository() {
+            @Override
+            public List<Booking> findByIdsWithCustomerAndTenant(Collection<Long> ids) {
+                return List.of(booking);
+            }
+        };
+        TripRepository tripRepository = new TripRepository() {
+            @Override
+            public List<Trip> findByBookingId(Long bookingId) {
+                return trips;
+            }
+        };
+        BookingService bookingService = new BookingService() {
+            @Override
+            public BigDecimal hitungGrandTotal(Long bookingId) {
+                return new BigDecimal("125000000");
+            }
+        };
+        return new ReportService(bookingRepository, new BookingChargeRepository(), tripRepository, bookingService);
+    }
+
+    private static void resetPeak() {
+        System.gc();
+        for (MemoryPoolMXBean pool : ManagementFactory.getMemoryPoolMXBeans()) {
+            if (pool.getType() == MemoryType.HEAP) {
+                pool.resetPeakUsage();
+            }
+        }
+    }
+
+    private static void cetak(String label, long ukuran, long t0) {
+        long peak = 0;
+        for (MemoryPoolMXBean pool : ManagementFactory.getMemoryPoolMXBeans()) {
+            if (pool.getType() == MemoryType.HEAP) {
+                peak += pool.getPeakUsage().getUsed();
+            }
+        }
+        System.out.printf("%-28s: %,7d ms, PDF %,10d byte, peak heap %,6d MB%n",
+            label, (System.nanoTime() - t0) / 1_000_000, ukuran, peak / (1024 * 1024));
+    }
+
+    private static final class PenghitungByte extends OutputStream {
+        private long jumlah;
+
+        @Override
+        public void write(int b) {
+            jumlah++;
+        }
+
+        @Override
+        public void write(byte[] b, int off, int len) {
+            jumlah += len;
+        }
+    }
+}
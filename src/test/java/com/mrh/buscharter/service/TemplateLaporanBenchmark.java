@@ -0,0 +1,62 @@
+package com.mrh.buscharter.service;
+
+import net.sf.jasperreports.engine.JasperCompileManager;
+import net.sf.jasperreports.engine.JasperReport;
+import org.junit.jupiter.api.Test;
+
+import java.io.InputStream;
+import java.util.Arrays;
+
+/**
+ * Benchmark pengambilan template quotation: kompilasi .jrxml per request (cara lama)
+ * vs TemplateLaporan (sekali muat, lalu dari cache).
+ * Tidak ikut test default; jalankan dengan: mvn test -Pbenchmark
+ */
+public class TemplateLaporanBenchmark {
+
+    private static final String TEMPLATE = "/reports/quotation_template.jrxml";
+    private static final int PENGULANGAN = 20;
+
+    @Test
+    void templateDariCacheJauhLebihCepatDariKompilasi() throws Exception {
+        TemplateLaporan.resetInstance();
+        TemplateLaporan cache = TemplateLaporan.getInstance();
+
+        // Warm-up JIT (kompilasi pertama juga memuat compiler Jasper)
+        for (int i = 0; i < 3; i++) {
+            kompilasi();
+        }
+        JasperReport pertama = cache.muat(TEMPLATE);
+
+        long[] durasiKompilasi = new long[PENGULANGAN];
+        long[] durasiCache = new long[PENGULANGAN];
+        for (int r = 0; r < PENGULANGAN; r++) {
+            long t0 = System.nanoTime();
+            kompilasi();
+            durasiKompilasi[r] = System.nanoTime() - t0;
+
+            t0 = System.nanoTime();
+            JasperReport report = cache.muat(TEMPLATE);
+            durasiCache[r] = System.nanoTime() - t0;
+            assert report == pertama : "Template harus diambil dari cache";
+        }
+        Arrays.sort(durasiKompilasi);
+        Arrays.sort(durasiCache);
+        double medianKompilasiMs = durasiKompilasi[PENGULANGAN / 2] / 1e6;
+        double medianCacheMs = durasiCache[PENGULANGAN / 2] / 1e6;
+
+        System.out.printf("%nKompilasi per request: median %.2f ms%n", medianKompilasiMs);
+        System.out.printf("TemplateLaporan      : median %.4f ms%n", medianCacheMs);
+
+        assert medianCacheMs < 1.0
+            : String.format("Template dari cache harus < 1 ms, median %.4f ms", medianCacheMs);
+        assert medianCacheMs * 100 < medianKompilasiMs
+            : "Cache harus minimal 100x lebih cepat dari kompilasi";
+    }
+
+    private static JasperReport kompilasi() throws Exception {
+        try (InputStream is = TemplateLaporanBenchmark.class.getResourceAsStream(TEMPLATE)) {
+            return JasperCompileManager.compileReport(is);
+        }
+    }
+}